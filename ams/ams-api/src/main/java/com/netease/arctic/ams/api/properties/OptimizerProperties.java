@@ -47,4 +47,14 @@ public class OptimizerProperties {
   public static final String OPTIMIZER_JOB_ID = "jobId";
   public static final String OPTIMIZER_JOB_PARALLELISM = "parallelism";
 
+  //optimizer reported state, tasks polled but not started by the optimizer, whose leases are renewed by the report,
+  //a json array of objects with keys of catalog, database, table, type, traceId and attemptId
+  public static final String OPTIMIZER_LEASED_TASKS = "leasedTasks";
+  public static final String LEASED_TASK_CATALOG = "catalog";
+  public static final String LEASED_TASK_DATABASE = "database";
+  public static final String LEASED_TASK_TABLE = "table";
+  public static final String LEASED_TASK_TYPE = "type";
+  public static final String LEASED_TASK_TRACE_ID = "traceId";
+  public static final String LEASED_TASK_ATTEMPT_ID = "attemptId";
+
 }
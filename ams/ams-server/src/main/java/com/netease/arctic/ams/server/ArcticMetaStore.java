@@ -234,6 +234,7 @@ public class ArcticMetaStore {
 
         startOptimizeCheck(conf.getLong(ArcticMetaStoreConf.OPTIMIZE_CHECK_STATUS_INTERVAL));
         startOptimizeCommit(conf.getInteger(ArcticMetaStoreConf.OPTIMIZE_COMMIT_THREAD_POOL_SIZE));
+        startOptimizePlanRefresh(conf.getLong(ArcticMetaStoreConf.OPTIMIZE_PLAN_REFRESH_INTERVAL));
         startExpiredClean();
         startOrphanClean();
         startSupportHiveSync();
@@ -294,6 +295,14 @@ public class ArcticMetaStore {
         TimeUnit.MILLISECONDS);
   }
 
+  private static void startOptimizePlanRefresh(final long refreshInterval) {
+    ThreadPool.getPool(ThreadPool.Type.OPTIMIZE_PLAN).scheduleWithFixedDelay(
+        () -> ServiceContainer.getOptimizeQueueService().refreshAllTables(),
+        refreshInterval,
+        refreshInterval,
+        TimeUnit.MILLISECONDS);
+  }
+
   private static void startOptimizeCommit(int parallel) {
     for (int i = 0; i < parallel; i++) {
       ThreadPool.getPool(ThreadPool.Type.COMMIT).execute(new OptimizeCommitWorker(i));
@@ -158,6 +158,51 @@ public class ArcticMetaStoreConf {
           .booleanType()
           .defaultValue(false)
           .withDescription("Whether to clean stale change files after plan");
+  public static final ConfigOption<Integer> FILE_CACHE_COMMIT_THREAD_POOL_SIZE =
+      ConfigOptions.key("arctic.ams.file-cache.commit.thread.pool-size")
+          .intType()
+          .defaultValue(4)
+          .withDescription("Number of threads to write committed files into file cache, " +
+              "commits of one table are written by the same thread in order.");
+  public static final ConfigOption<Integer> FILE_CACHE_COMMIT_QUEUE_SIZE =
+      ConfigOptions.key("arctic.ams.file-cache.commit.queue-size")
+          .intType()
+          .defaultValue(1000)
+          .withDescription("Number of commits queued for each file cache commit thread, " +
+              "the committing thread waits for room in the queue when it is full.");
+  public static final ConfigOption<Long> FILE_INDEX_MAX_FILES =
+      ConfigOptions.key("arctic.ams.file-index.max-files")
+          .longType()
+          .defaultValue(1000000L)
+          .withDescription("Max number of live files of file cache indexed in memory.");
+  public static final ConfigOption<Integer> TRANSACTION_ID_BLOCK_SIZE =
+      ConfigOptions.key("arctic.ams.transaction.id-block-size")
+          .intType()
+          .defaultValue(1000)
+          .withDescription("Number of transaction ids leased from database at once for a table.");
+  public static final ConfigOption<Integer> OPTIMIZE_PLAN_THREAD_POOL_SIZE =
+      ConfigOptions.key("arctic.ams.optimize.plan.thread.pool-size")
+          .intType()
+          .defaultValue(4)
+          .withDescription("Number of threads to plan optimize tasks, tables are planned concurrently by them.");
+  public static final ConfigOption<Integer> OPTIMIZE_QUEUE_TARGET_DEPTH =
+      ConfigOptions.key("arctic.ams.optimize.queue.target-depth")
+          .intType()
+          .defaultValue(20)
+          .withDescription("Number of pending tasks planned ahead for each optimize queue.");
+  public static final ConfigOption<Long> OPTIMIZE_PLAN_REFRESH_INTERVAL =
+      ConfigOptions.key("arctic.ams.optimize.plan.refresh-interval")
+          .longType()
+          .defaultValue(30 * 1000L)
+          .withDescription("Interval in milliseconds to plan all tables of optimize queues again, " +
+              "tables committed in between are planned right after their commits.");
+  public static final ConfigOption<Boolean> OPTIMIZE_TASK_FILES_COMPACT =
+      ConfigOptions.key("arctic.ams.optimize.task-files.compact")
+          .booleanType()
+          .defaultValue(false)
+          .withDescription("Whether to encode files of optimize tasks by the compact binary codec instead of java " +
+              "serialization. Optimizers before the codec can't read compact files, enable it only after all " +
+              "optimizers are upgraded; optimizers encode result files compact only for tasks encoded compact.");
   public static final ConfigOption<Long> FILE_CACHE_EXPIRED_INTERVAL =
       ConfigOptions.key("file.cache.expired.interval")
           .longType()
@@ -185,7 +185,15 @@ public class ArcticTableMetastoreHandler implements AmsClient, ArcticTableMetast
       ddlTracerService.commit(commit.getTableIdentifier(), commit.getSchemaUpdateMeta());
     }
     try {
-      fileInfoCacheService.commitCacheFileInfo(commit);
+      // plan the table only after its files are cached, since optimize plans read files from file cache. If caching
+      // failed, the table is planned after the file cache is synced from the table by the periodic refresh
+      fileInfoCacheService.commitCacheFileInfoAsync(commit).whenComplete((v, e) -> {
+        if (e != null) {
+          LOG.warn("skip planning {}, since its commit is not written into file cache", identifier);
+          return;
+        }
+        ServiceContainer.getOptimizeQueueService().refreshTable(identifier);
+      });
     } catch (Exception e) {
       LOG.warn("commit file cache failed", e);
     }
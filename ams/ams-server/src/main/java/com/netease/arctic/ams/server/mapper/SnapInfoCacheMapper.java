@@ -53,6 +53,13 @@ public interface SnapInfoCacheMapper {
       @Param("tableIdentifier") TableIdentifier tableIdentifier,
       @Param("type") String tableType, @Param("snapshotId") Long snapshotId);
 
+  @Select("select snapshot_id from " + TABLE_NAME + " where table_identifier = " +
+      "#{tableIdentifier, typeHandler=com.netease.arctic.ams.server.mybatis.TableIdentifier2StringConverter} and " +
+      "inner_table = #{type}")
+  List<Long> getCachedSnapshotIds(
+      @Param("tableIdentifier") TableIdentifier tableIdentifier,
+      @Param("type") String tableType);
+
   @Delete("delete from " + TABLE_NAME + " where commit_time < #{expiredTime, typeHandler=com.netease.arctic.ams" +
       ".server.mybatis.Long2TsConvertor} and table_identifier=#{tableIdentifier, typeHandler=com.netease.arctic.ams" +
       ".server.mybatis.TableIdentifier2StringConverter} and inner_table = #{type} and snapshot_id not in (select " +
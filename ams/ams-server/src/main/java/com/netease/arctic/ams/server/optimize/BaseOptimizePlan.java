@@ -22,6 +22,8 @@ import com.netease.arctic.ams.api.DataFileInfo;
 import com.netease.arctic.ams.api.OptimizeTaskId;
 import com.netease.arctic.ams.api.OptimizeType;
 import com.netease.arctic.ams.api.TreeNode;
+import com.netease.arctic.ams.server.ArcticMetaStore;
+import com.netease.arctic.ams.server.config.ArcticMetaStoreConf;
 import com.netease.arctic.ams.server.model.BaseOptimizeTask;
 import com.netease.arctic.ams.server.model.FileTree;
 import com.netease.arctic.ams.server.model.FilesStatistics;
@@ -184,21 +186,23 @@ public abstract class BaseOptimizePlan {
     optimizeTask.setTaskHistoryId(taskConfig.getHistoryId());
     optimizeTask.setCreateTime(taskConfig.getCreateTime());
 
+    boolean compact = ArcticMetaStore.conf != null &&
+        ArcticMetaStore.conf.getBoolean(ArcticMetaStoreConf.OPTIMIZE_TASK_FILES_COMPACT);
     List<ByteBuffer> baseFileBytesList =
         baseFiles.stream()
-            .map(SerializationUtil::toByteBuffer)
+            .map(file -> SerializationUtil.toByteBuffer(file, compact))
             .collect(Collectors.toList());
     List<ByteBuffer> insertFileBytesList =
         insertFiles.stream()
-            .map(SerializationUtil::toByteBuffer)
+            .map(file -> SerializationUtil.toByteBuffer(file, compact))
             .collect(Collectors.toList());
     List<ByteBuffer> deleteFileBytesList =
         deleteFiles.stream()
-            .map(SerializationUtil::toByteBuffer)
+            .map(file -> SerializationUtil.toByteBuffer(file, compact))
             .collect(Collectors.toList());
     List<ByteBuffer> posDeleteFileBytesList =
         posDeleteFiles.stream()
-            .map(SerializationUtil::toByteBuffer)
+            .map(file -> SerializationUtil.toByteBuffer(file, compact))
             .collect(Collectors.toList());
     optimizeTask.setBaseFiles(baseFileBytesList);
     optimizeTask.setInsertFiles(insertFileBytesList);
@@ -163,6 +163,11 @@ public class OptimizeService extends IJDBCService implements IOptimizeService {
     } catch (Throwable t) {
       LOG.error("failed to delete " + tableIdentifier + " optimize(task) history, ignore", t);
     }
+    try {
+      ServiceContainer.getQuotaService().onTableDropped(tableIdentifier);
+    } catch (Throwable t) {
+      LOG.error("failed to clear " + tableIdentifier + " quota usage, ignore", t);
+    }
   }
 
   private void addTableIntoCache(TableOptimizeItem arcticTableItem, Map<String, String> properties,
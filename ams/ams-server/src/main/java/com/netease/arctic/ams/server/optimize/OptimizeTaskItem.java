@@ -41,6 +41,7 @@ import org.slf4j.LoggerFactory;
 import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -53,6 +54,10 @@ public class OptimizeTaskItem extends IJDBCService {
 
   private final BaseOptimizeTask optimizeTask;
   private volatile BaseOptimizeTaskRuntime optimizeRuntime;
+  // last time the optimizer holding the task renewed its lease, only kept in memory
+  private volatile long leaseRenewTime = BaseOptimizeTaskRuntime.INVALID_TIME;
+  // whether the optimizer reported it started the task, optimizers prefetching tasks report it, only kept in memory
+  private volatile boolean startReported = false;
   private final ReentrantLock lock = new ReentrantLock();
 
   public OptimizeTaskItem(BaseOptimizeTask optimizeTask,
@@ -107,6 +112,8 @@ public class OptimizeTaskItem extends IJDBCService {
       newRuntime.setErrorMessage(null);
       persistTaskRuntime(newRuntime, false);
       optimizeRuntime = newRuntime;
+      leaseRenewTime = BaseOptimizeTaskRuntime.INVALID_TIME;
+      startReported = false;
       return constructTableTaskHistory(currentTime);
     } catch (Throwable t) {
       onFailed(new ErrorMessage(System.currentTimeMillis(),
@@ -149,6 +156,74 @@ public class OptimizeTaskItem extends IJDBCService {
     }
   }
 
+  /**
+   * The optimizer returns the task it polled but not started, the task could be executed again without a retry.
+   */
+  public void onReturned() {
+    lock.lock();
+    try {
+      BaseOptimizeTaskRuntime newRuntime = optimizeRuntime.clone();
+      newRuntime.setStatus(OptimizeStatus.Init);
+      newRuntime.setAttemptId(null);
+      newRuntime.setExecuteTime(BaseOptimizeTaskRuntime.INVALID_TIME);
+      newRuntime.setCostTime(0);
+      persistTaskRuntime(newRuntime, false);
+      optimizeRuntime = newRuntime;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * The optimizer starts the task it polled before, the task is executed from the start time instead of the poll time.
+   *
+   * @param startTime - time the task is started
+   * @return false if the task is not executing any more
+   */
+  public boolean onStarted(long startTime) {
+    lock.lock();
+    try {
+      if (getOptimizeStatus() != OptimizeStatus.Executing) {
+        return false;
+      }
+      BaseOptimizeTaskRuntime newRuntime = optimizeRuntime.clone();
+      newRuntime.setExecuteTime(startTime);
+      persistTaskRuntime(newRuntime, false);
+      optimizeRuntime = newRuntime;
+      startReported = true;
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return true if the optimizer reported it started the task, after the task is polled
+   */
+  public boolean isStartReported() {
+    return startReported;
+  }
+
+  /**
+   * Renew the lease of an executing task, the execute timeout is counted from the last renewal.
+   *
+   * @param attemptId - attemptId of the optimizer holding the task
+   * @return false if the task is not executing by the attempt any more
+   */
+  public boolean renewLease(String attemptId) {
+    lock.lock();
+    try {
+      if (getOptimizeStatus() != OptimizeStatus.Executing ||
+          !Objects.equals(attemptId, optimizeRuntime.getAttemptId())) {
+        return false;
+      }
+      leaseRenewTime = System.currentTimeMillis();
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
   public void onPrepared(long preparedTime, List<ByteBuffer> targetFiles, long newFileSize, long costTime) {
     long reportTime = System.currentTimeMillis();
     lock.lock();
@@ -183,7 +258,8 @@ public class OptimizeTaskItem extends IJDBCService {
 
   public boolean executeTimeout() {
     if (getOptimizeStatus() == OptimizeStatus.Executing) {
-      return System.currentTimeMillis() - optimizeRuntime.getExecuteTime() > MAX_EXECUTE_TIME;
+      long leaseStartTime = Math.max(optimizeRuntime.getExecuteTime(), leaseRenewTime);
+      return System.currentTimeMillis() - leaseStartTime > MAX_EXECUTE_TIME;
     }
     return false;
   }
@@ -12,6 +12,7 @@ import com.netease.arctic.hive.utils.HivePartitionUtil;
 import com.netease.arctic.hive.utils.HiveTableUtil;
 import com.netease.arctic.hive.utils.TableTypeUtil;
 import com.netease.arctic.table.ArcticTable;
+import com.netease.arctic.utils.ContentFileCodec;
 import com.netease.arctic.utils.FileUtil;
 import com.netease.arctic.utils.SerializationUtil;
 import org.apache.commons.collections.CollectionUtils;
@@ -60,6 +61,8 @@ public class SupportHiveCommit extends BaseOptimizeCommit {
       if (isPartitionMajorOptimizeSupportHive(partition, optimizeTaskItems)) {
         for (OptimizeTaskItem optimizeTaskItem : optimizeTaskItems) {
           BaseOptimizeTaskRuntime optimizeRuntime = optimizeTaskItem.getOptimizeRuntime();
+          // keep the encoding of target files reported by the optimizer
+          boolean compact = optimizeRuntime.getTargetFiles().stream().anyMatch(ContentFileCodec::isEncoded);
           List<DataFile> targetFiles = optimizeRuntime.getTargetFiles().stream()
               .map(fileByte -> (DataFile) SerializationUtil.toInternalTableFile(fileByte))
               .collect(Collectors.toList());
@@ -104,7 +107,7 @@ public class SupportHiveCommit extends BaseOptimizeCommit {
             }
 
             DataFile finalDataFile = moveTargetFiles(targetFile, partitionPathMap.get(partition));
-            newTargetFiles.add(SerializationUtil.toByteBuffer(finalDataFile));
+            newTargetFiles.add(SerializationUtil.toByteBuffer(finalDataFile, compact));
           }
 
           optimizeRuntime.setTargetFiles(newTargetFiles);
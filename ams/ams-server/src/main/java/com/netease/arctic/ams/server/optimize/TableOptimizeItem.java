@@ -275,7 +275,8 @@ public class TableOptimizeItem extends IJDBCService {
   }
 
   /**
-   * Update optimize task result, Failed or Prepared.
+   * Update optimize task result, Failed or Prepared, or Init if the optimizer returns the task without executing it,
+   * or Executing if the optimizer starts the task it prefetched.
    *
    * @param optimizeTaskStat - optimizeTaskStat
    */
@@ -294,6 +295,24 @@ public class TableOptimizeItem extends IJDBCService {
         "wrong attemptId " + optimizeTaskStat.getAttemptId() + " valid attemptId " +
             optimizeTaskItem.getOptimizeRuntime().getAttemptId());
     switch (optimizeTaskStat.getStatus()) {
+      case Executing:
+        // the task was leased in the buffer of the optimizer until now, it is accounted as executing from now on
+        synchronized (optimizeTaskItem) {
+          long startTime = System.currentTimeMillis();
+          if (optimizeTaskItem.onStarted(startTime)) {
+            quotaService.onTaskExecuting(tableIdentifier, optimizeTaskStat.getTaskId(), startTime);
+          }
+        }
+        return;
+      case Init:
+        optimizeTaskItem.onReturned();
+        try {
+          ServiceContainer.getOptimizeQueueService().submitTask(optimizeTaskItem);
+        } catch (Exception e) {
+          LOG.error("{} failed to submit returned task {} into queue", tableIdentifier,
+              optimizeTaskItem.getTaskId(), e);
+        }
+        break;
       case Failed:
         optimizeTaskItem.onFailed(optimizeTaskStat.getErrorMessage(), optimizeTaskStat.getCostTime());
         break;
@@ -312,6 +331,33 @@ public class TableOptimizeItem extends IJDBCService {
       default:
         throw new IllegalArgumentException("unsupported status: " + optimizeTaskStat.getStatus());
     }
+    quotaService.onTaskFinished(tableIdentifier, optimizeTaskStat.getTaskId(), System.currentTimeMillis(),
+        optimizeTaskStat.getCostTime());
+  }
+
+  /**
+   * Renew the lease of a task polled by an optimizer.
+   *
+   * @param taskId - taskId
+   * @param attemptId - attemptId of the optimizer holding the task
+   * @return false if the task is not executing by the attempt any more
+   */
+  public boolean renewTaskLease(OptimizeTaskId taskId, String attemptId) {
+    OptimizeTaskItem optimizeTaskItem = optimizeTasks.get(taskId);
+    if (optimizeTaskItem == null) {
+      return false;
+    }
+    // synchronized with the start report, so a task started is never accounted as leased again
+    synchronized (optimizeTaskItem) {
+      if (!optimizeTaskItem.renewLease(attemptId)) {
+        return false;
+      }
+      if (!optimizeTaskItem.isStartReported()) {
+        // leased tasks are not started yet, they are accounted as executing after the optimizer reports the start
+        quotaService.onTaskLeased(tableIdentifier, taskId);
+      }
+      return true;
+    }
   }
 
   /**
@@ -639,6 +685,7 @@ public class TableOptimizeItem extends IJDBCService {
       for (String taskHistoryId : removedTaskHistory) {
         ServiceContainer.getTableTaskHistoryService().deleteTaskHistoryWithHistoryId(tableIdentifier, taskHistoryId);
       }
+      quotaService.onTasksCleared(tableIdentifier);
       LOG.info("{} clear all optimize tasks", getTableIdentifier());
       updateTableOptimizeStatus();
     } finally {
@@ -673,8 +720,10 @@ public class TableOptimizeItem extends IJDBCService {
   public void checkTaskExecuteTimeout() {
     optimizeTasks.values().stream().filter(OptimizeTaskItem::executeTimeout)
         .forEach(task -> {
-          task.onFailed(new ErrorMessage(System.currentTimeMillis(), "execute expired"),
-              System.currentTimeMillis() - task.getOptimizeRuntime().getExecuteTime());
+          long currentTime = System.currentTimeMillis();
+          long costTime = currentTime - task.getOptimizeRuntime().getExecuteTime();
+          task.onFailed(new ErrorMessage(currentTime, "execute expired"), costTime);
+          quotaService.onTaskFinished(tableIdentifier, task.getTaskId(), currentTime, costTime);
           LOG.error("{} execute timeout, change to Failed", task.getTaskId());
         });
   }
@@ -711,6 +760,7 @@ public class TableOptimizeItem extends IJDBCService {
    */
   public void commitOptimizeTasks() throws Exception {
     tasksCommitLock.lock();
+    boolean finished = false;
 
     // check current base table snapshot whether changed when minor optimize
     if (isMinorOptimizing()) {
@@ -719,6 +769,7 @@ public class TableOptimizeItem extends IJDBCService {
         LOG.info("the latest snapshot has changed in base table {}, give up commit.", tableIdentifier);
         clearOptimizeTasks();
         tableOptimizeRuntime.setRunning(false);
+        finished = true;
       }
     }
 
@@ -742,11 +793,16 @@ public class TableOptimizeItem extends IJDBCService {
         commitTableTaskHistory.forEach((key, value) -> tableTaskHistoryService.updateTaskHistory(value));
         tableOptimizeRuntime.setRunning(false);
         persistTableOptimizeRuntime();
+        finished = true;
       } else {
         LOG.info("{} get no tasks to commit", tableIdentifier);
       }
     } finally {
       tasksCommitLock.unlock();
+      if (finished) {
+        // table is not running any more, plan it again
+        ServiceContainer.getOptimizeQueueService().refreshTable(tableIdentifier);
+      }
     }
   }
 
@@ -18,9 +18,42 @@
 
 package com.netease.arctic.ams.server.service;
 
+import com.netease.arctic.ams.api.OptimizeTaskId;
 import com.netease.arctic.ams.server.model.CoreInfo;
 import com.netease.arctic.table.TableIdentifier;
 
 public interface IQuotaService {
   CoreInfo getTableResourceInfo(TableIdentifier tableIdentifier, long period);
+
+  /**
+   * Account the optimize task of table started executing.
+   */
+  void onTaskExecuting(TableIdentifier tableIdentifier, OptimizeTaskId taskId, long startTime);
+
+  /**
+   * Stop accounting the optimize task of table as executing, since it is leased by an optimizer but not started yet.
+   */
+  void onTaskLeased(TableIdentifier tableIdentifier, OptimizeTaskId taskId);
+
+  /**
+   * Account the optimize task of table finished executing, prepared or failed.
+   */
+  void onTaskFinished(TableIdentifier tableIdentifier, OptimizeTaskId taskId, long endTime, long costTime);
+
+  /**
+   * Stop accounting executing tasks of table, like when tasks of table are cleared.
+   */
+  void onTasksCleared(TableIdentifier tableIdentifier);
+
+  /**
+   * Stop accounting usage of table, since the table is dropped.
+   */
+  void onTableDropped(TableIdentifier tableIdentifier);
+
+  /**
+   * Get the core count used by optimize tasks of table in the latest window, accounted in memory.
+   *
+   * @return used core count
+   */
+  double getUsedCoreCount(TableIdentifier tableIdentifier);
 }
@@ -19,6 +19,8 @@
 package com.netease.arctic.ams.server.service.impl;
 
 import com.netease.arctic.ams.api.TableIdentifier;
+import com.netease.arctic.ams.server.ArcticMetaStore;
+import com.netease.arctic.ams.server.config.ArcticMetaStoreConf;
 import com.netease.arctic.ams.server.mapper.TableMetadataMapper;
 import com.netease.arctic.ams.server.mapper.TableTransactionMetaMapper;
 import com.netease.arctic.ams.server.model.TableMetadata;
@@ -26,38 +28,34 @@ import com.netease.arctic.ams.server.service.IJDBCService;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Allocate transaction ids of tables.
+ * <p>
+ * Transaction ids are leased from database in blocks of {@link ArcticMetaStoreConf#TRANSACTION_ID_BLOCK_SIZE}, the
+ * current_tx_id of a table records the end of the leased block, so a lease takes one row lock and update for a
+ * block of ids instead of for each id. Ids in a leased block are handed out in order from memory, ids left in the
+ * block when ams restarts are skipped, so allocated ids are still monotonically increasing.
+ */
 public class ArcticTransactionService extends IJDBCService {
+  private static final Logger LOG = LoggerFactory.getLogger(ArcticTransactionService.class);
+
+  private final Map<TableIdentifier, TxIdBlock> txIdBlocks = new ConcurrentHashMap<>();
 
   public long allocateTransactionId(TableIdentifier tableIdentifier, String transactionSignature, int retry) {
+    TxIdBlock block = txIdBlocks.computeIfAbsent(tableIdentifier, identifier -> new TxIdBlock());
     for (int i = 0; i < retry; i++) {
-      try (SqlSession sqlSession = getSqlSession(false)) {
+      // ids are allocated in order within a table, signature check and insert are serialized by the block
+      synchronized (block) {
         try {
-          com.netease.arctic.table.TableIdentifier identifier =
-              new com.netease.arctic.table.TableIdentifier(tableIdentifier);
-          TableMetadataMapper tableMetadataMapper = getMapper(sqlSession, TableMetadataMapper.class);
-          TableMetadata tableMetadata = tableMetadataMapper.loadTableMetaInLock(identifier);
-          TableTransactionMetaMapper mapper = getMapper(sqlSession, TableTransactionMetaMapper.class);
-          Preconditions.checkNotNull(tableMetadata, "lost table " + identifier);
-          Long currentTxId = mapper.getCurrentTxId(tableIdentifier);
-          if (currentTxId == null) {
-            currentTxId = tableMetadata.getCurrentTxId() == null ? 0 : tableMetadata.getCurrentTxId();
-          }
-          Long finalTxId = currentTxId + 1;
-          if (!StringUtils.isEmpty(transactionSignature)) {
-            Long txId = mapper.getTxIdBySign(tableIdentifier, transactionSignature);
-            if (txId != null) {
-              sqlSession.commit(true);
-              return txId;
-            }
-            mapper.insertTransaction(finalTxId, transactionSignature, tableIdentifier);
-          }
-
-          tableMetadataMapper.updateTableTxId(identifier, finalTxId);
-          sqlSession.commit();
-          return finalTxId;
+          return allocateTransactionId(tableIdentifier, transactionSignature, block);
         } catch (Exception e) {
-          sqlSession.rollback();
+          LOG.warn("table {} allocateTransactionId failed, retry {}", tableIdentifier, i, e);
         }
       }
     }
@@ -65,7 +63,71 @@ public class ArcticTransactionService extends IJDBCService {
         tableIdentifier.toString(), retry));
   }
 
+  private long allocateTransactionId(TableIdentifier tableIdentifier, String transactionSignature,
+                                     TxIdBlock block) {
+    if (StringUtils.isEmpty(transactionSignature)) {
+      return nextTxId(tableIdentifier, block);
+    }
+    try (SqlSession sqlSession = getSqlSession(false)) {
+      try {
+        TableTransactionMetaMapper mapper = getMapper(sqlSession, TableTransactionMetaMapper.class);
+        Long txId = mapper.getTxIdBySign(tableIdentifier, transactionSignature);
+        if (txId != null) {
+          sqlSession.commit(true);
+          return txId;
+        }
+        long finalTxId = nextTxId(tableIdentifier, block);
+        mapper.insertTransaction(finalTxId, transactionSignature, tableIdentifier);
+        sqlSession.commit();
+        return finalTxId;
+      } catch (Exception e) {
+        sqlSession.rollback();
+        throw e;
+      }
+    }
+  }
+
+  private long nextTxId(TableIdentifier tableIdentifier, TxIdBlock block) {
+    if (block.next > block.end) {
+      leaseBlock(tableIdentifier, block);
+    }
+    return block.next++;
+  }
+
+  /**
+   * Lease the next block of transaction ids of the table in one database transaction.
+   */
+  private void leaseBlock(TableIdentifier tableIdentifier, TxIdBlock block) {
+    int blockSize = ArcticMetaStore.conf == null ? ArcticMetaStoreConf.TRANSACTION_ID_BLOCK_SIZE.defaultValue() :
+        ArcticMetaStore.conf.getInteger(ArcticMetaStoreConf.TRANSACTION_ID_BLOCK_SIZE);
+    try (SqlSession sqlSession = getSqlSession(false)) {
+      try {
+        com.netease.arctic.table.TableIdentifier identifier =
+            new com.netease.arctic.table.TableIdentifier(tableIdentifier);
+        TableMetadataMapper tableMetadataMapper = getMapper(sqlSession, TableMetadataMapper.class);
+        TableMetadata tableMetadata = tableMetadataMapper.loadTableMetaInLock(identifier);
+        TableTransactionMetaMapper mapper = getMapper(sqlSession, TableTransactionMetaMapper.class);
+        Preconditions.checkNotNull(tableMetadata, "lost table " + identifier);
+        long currentTxId = tableMetadata.getCurrentTxId() == null ? 0 : tableMetadata.getCurrentTxId();
+        Long signedTxId = mapper.getCurrentTxId(tableIdentifier);
+        if (signedTxId != null) {
+          currentTxId = Math.max(currentTxId, signedTxId);
+        }
+        long end = currentTxId + Math.max(blockSize, 1);
+        tableMetadataMapper.updateTableTxId(identifier, end);
+        sqlSession.commit();
+        block.next = currentTxId + 1;
+        block.end = end;
+        LOG.info("table {} leased transaction ids ({}, {}]", tableIdentifier, currentTxId, end);
+      } catch (Exception e) {
+        sqlSession.rollback();
+        throw e;
+      }
+    }
+  }
+
   public void delete(TableIdentifier tableIdentifier) {
+    txIdBlocks.remove(tableIdentifier);
     try (SqlSession sqlSession = getSqlSession(true)) {
       TableTransactionMetaMapper mapper = getMapper(sqlSession, TableTransactionMetaMapper.class);
       mapper.deleteTableTx(tableIdentifier);
@@ -78,4 +140,10 @@ public class ArcticTransactionService extends IJDBCService {
       mapper.expire(identifier, time);
     }
   }
+
+  private static class TxIdBlock {
+    // next id to allocate and the last id of the leased block, empty before the first lease
+    private long next = 1;
+    private long end = 0;
+  }
 }
@@ -43,6 +43,7 @@ import com.netease.arctic.ams.server.service.IJDBCService;
 import com.netease.arctic.ams.server.service.IMetaService;
 import com.netease.arctic.ams.server.service.ServiceContainer;
 import com.netease.arctic.ams.server.utils.TableMetadataUtil;
+import com.netease.arctic.ams.server.utils.ThreadPool;
 import com.netease.arctic.catalog.ArcticCatalog;
 import com.netease.arctic.catalog.CatalogLoader;
 import com.netease.arctic.table.ArcticTable;
@@ -66,12 +67,61 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 
 public class FileInfoCacheService extends IJDBCService {
 
   private static final Logger LOG = LoggerFactory.getLogger(FileInfoCacheService.class);
 
+  private final FileInfoIndex fileInfoIndex = new FileInfoIndex(ArcticMetaStore.conf == null ?
+      ArcticMetaStoreConf.FILE_INDEX_MAX_FILES.defaultValue() :
+      ArcticMetaStore.conf.getLong(ArcticMetaStoreConf.FILE_INDEX_MAX_FILES));
+
+  /**
+   * Write committed files into file cache asynchronously, commits of a table are written in order.
+   * <p>
+   * The snapshot cache of a commit is written in the same transaction as its files, it works as the marker of
+   * commits already cached. If queued commits are lost when ams restarts, the commits after them are not cached
+   * since their parent snapshots are not cached, and the cache is rebuilt from table snapshots by
+   * {@link SyncAndExpireFileCacheTask}.
+   *
+   * @return future completed when the commit is handled, completed exceptionally if writing file cache failed or
+   *     the commit was rejected since ams is shutting down
+   */
+  public CompletableFuture<Void> commitCacheFileInfoAsync(TableCommitMeta tableCommitMeta) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    Runnable commit = () -> {
+      try {
+        commitCacheFileInfo(tableCommitMeta);
+        future.complete(null);
+      } catch (Throwable t) {
+        LOG.error("commit file cache of {} failed", tableCommitMeta.getTableIdentifier(), t);
+        future.completeExceptionally(t);
+      }
+    };
+    ExecutorService executor = ThreadPool.getFileCacheCommitPool(tableCommitMeta.getTableIdentifier());
+    if (executor == null) {
+      commit.run();
+    } else {
+      try {
+        // waits while the queue of the executor is full
+        executor.execute(commit);
+      } catch (RejectedExecutionException e) {
+        LOG.error("commit file cache of {} rejected", tableCommitMeta.getTableIdentifier(), e);
+        future.completeExceptionally(e);
+      }
+    }
+    return future;
+  }
+
   public void commitCacheFileInfo(TableCommitMeta tableCommitMeta) throws MetaException {
     if (needFixCacheFromTable(tableCommitMeta)) {
       LOG.warn("should not cache {}", tableCommitMeta);
@@ -81,7 +131,7 @@ public class FileInfoCacheService extends IJDBCService {
     List<CacheFileInfo> fileInfoList = genFileInfo(tableCommitMeta);
     List<CacheSnapshotInfo> cacheSnapInfoList = genSnapInfo(tableCommitMeta);
 
-    try (SqlSession sqlSession = getSqlSession(false)) {
+    try (SqlSession sqlSession = getBatchSqlSession()) {
       try {
         FileInfoCacheMapper fileInfoCacheMapper = getMapper(sqlSession, FileInfoCacheMapper.class);
         fileInfoList.stream().filter(e -> e.getDeleteSnapshotId() == null)
@@ -98,16 +148,22 @@ public class FileInfoCacheService extends IJDBCService {
         LOG.info("insert {} snapshot into snapshot cache", cacheSnapInfoList.size());
 
         sqlSession.commit();
+        fileInfoList.stream().collect(Collectors.groupingBy(CacheFileInfo::getInnerTable))
+            .forEach((innerTable, files) ->
+                fileInfoIndex.commit(tableCommitMeta.getTableIdentifier(), innerTable, files));
       } catch (Exception e) {
         sqlSession.rollback();
         LOG.error("insert file cache {} error", JSONObject.toJSONString(tableCommitMeta), e);
+        throw new MetaException("insert file cache of " + tableCommitMeta.getTableIdentifier() + " error: " + e);
       }
-    } catch (Exception e) {
-      LOG.error("insert file cache {} error", JSONObject.toJSONString(tableCommitMeta), e);
     }
   }
 
   public List<DataFileInfo> getOptimizeDatafiles(TableIdentifier tableIdentifier, String tableType) {
+    return fileInfoIndex.files(tableIdentifier, tableType, () -> loadOptimizeDatafiles(tableIdentifier, tableType));
+  }
+
+  private List<DataFileInfo> loadOptimizeDatafiles(TableIdentifier tableIdentifier, String tableType) {
     try (SqlSession sqlSession = getSqlSession(true)) {
       FileInfoCacheMapper fileInfoCacheMapper = getMapper(sqlSession, FileInfoCacheMapper.class);
       return fileInfoCacheMapper.getOptimizeDatafiles(tableIdentifier, tableType);
@@ -155,46 +211,55 @@ public class FileInfoCacheService extends IJDBCService {
     }
   }
 
+  public Set<Long> getCachedSnapshotIds(TableIdentifier identifier, String innerTable) {
+    try (SqlSession sqlSession = getSqlSession(true)) {
+      SnapInfoCacheMapper snapInfoCacheMapper = getMapper(sqlSession, SnapInfoCacheMapper.class);
+      return new HashSet<>(snapInfoCacheMapper.getCachedSnapshotIds(identifier, innerTable));
+    }
+  }
+
   public void syncTableFileInfo(TableIdentifier identifier, String tableType) {
+    ArcticTable arcticTable;
+    try {
+      AmsClient client = ServiceContainer.getTableMetastoreHandler();
+      ArcticCatalog catalog = CatalogLoader.load(client, identifier.getCatalog());
+      arcticTable = catalog.loadTable(new com.netease.arctic.table.TableIdentifier(identifier));
+    } catch (Exception e) {
+      LOG.warn("load table error when sync file info cache:" + identifier.getCatalog() + identifier.getDatabase() +
+          identifier.getTableName(), e);
+      return;
+    }
+    syncTableFileInfo(arcticTable, identifier, tableType);
+  }
+
+  /**
+   * Sync file cache of the inner table with its snapshots committed since the last cached snapshot, the files of the
+   * current snapshot are cached from scratch only if no cached snapshot is an ancestor of the current snapshot.
+   */
+  public void syncTableFileInfo(ArcticTable arcticTable, TableIdentifier identifier, String tableType) {
     LOG.info("start sync table {} file info", identifier);
     try {
-      // load table
-      Table table = null;
-      try {
-        AmsClient client = ServiceContainer.getTableMetastoreHandler();
-        ArcticCatalog catalog = CatalogLoader.load(client, identifier.getCatalog());
-        com.netease.arctic.table.TableIdentifier tmp = com.netease.arctic.table.TableIdentifier.of(
-            identifier.getCatalog(),
-            identifier.getDatabase(),
-            identifier.getTableName());
-        ArcticTable arcticTable = catalog.loadTable(tmp);
-        if (arcticTable.isUnkeyedTable()) {
-          table = arcticTable.asUnkeyedTable();
-        } else {
-          if (Constants.INNER_TABLE_CHANGE.equalsIgnoreCase(tableType)) {
-            table = arcticTable.asKeyedTable().changeTable();
-          } else {
-            table = arcticTable.asKeyedTable().baseTable();
-          }
-        }
-      } catch (Exception e) {
-        LOG.warn("load table error when sync file info cache:" + identifier.getCatalog() + identifier.getDatabase() +
-            identifier.getTableName(), e);
+      Table table;
+      if (arcticTable.isUnkeyedTable()) {
+        table = arcticTable.asUnkeyedTable();
+      } else if (Constants.INNER_TABLE_CHANGE.equalsIgnoreCase(tableType)) {
+        table = arcticTable.asKeyedTable().changeTable();
+      } else {
+        table = arcticTable.asKeyedTable().baseTable();
       }
 
       // get snapshot info
-      if (table == null) {
-        return;
-      }
       if (table.currentSnapshot() == null) {
         return;
       }
 
+      // walk back from the current snapshot to the last cached one in memory, instead of one query per snapshot
+      Set<Long> cachedSnapshotIds = getCachedSnapshotIds(identifier, tableType);
       boolean isCached = false;
       List<Snapshot> snapshots = new ArrayList<>();
       Snapshot curr = table.currentSnapshot();
       while (curr != null) {
-        isCached = snapshotIsCached(identifier, tableType, curr.snapshotId());
+        isCached = cachedSnapshotIds.contains(curr.snapshotId());
         if (isCached) {
           break;
         }
@@ -213,11 +278,10 @@ public class FileInfoCacheService extends IJDBCService {
       }
 
       // generate cache info
-      LOG.info("{} start sync file info", identifier);
-      Table finalTable = table;
+      LOG.info("{} start sync {} file info of {} snapshots", identifier, tableType, snapshots.size());
       if (snapshots.size() > 0) {
-        ((ArcticTable) finalTable).io().doAs(() -> {
-          syncFileInfo(finalTable, identifier, tableType, Lists.reverse(snapshots));
+        arcticTable.io().doAs(() -> {
+          syncFileInfo(table, identifier, tableType, Lists.reverse(snapshots));
           return null;
         });
       }
@@ -239,6 +303,9 @@ public class FileInfoCacheService extends IJDBCService {
       snapInfoCacheMapper.deleteTableCache(tableIdentifier);
     } catch (Exception e) {
       LOG.error("delete table file cache error ", e);
+    } finally {
+      fileInfoIndex.invalidate(tableIdentifier, Constants.INNER_TABLE_BASE);
+      fileInfoIndex.invalidate(tableIdentifier, Constants.INNER_TABLE_CHANGE);
     }
   }
 
@@ -255,6 +322,8 @@ public class FileInfoCacheService extends IJDBCService {
       snapInfoCacheMapper.deleteInnerTableCache(tableIdentifier, innerTable);
     } catch (Exception e) {
       LOG.error("delete table file cache error ", e);
+    } finally {
+      fileInfoIndex.invalidate(tableIdentifier, innerTable);
     }
   }
 
@@ -314,7 +383,7 @@ public class FileInfoCacheService extends IJDBCService {
       //remove snapshot to release memory of snapshot, because there is too much cache in BaseSnapshot
       iterator.remove();
 
-      try (SqlSession sqlSession = getSqlSession(false)) {
+      try (SqlSession sqlSession = getBatchSqlSession()) {
         try {
           FileInfoCacheMapper fileInfoCacheMapper = getMapper(sqlSession, FileInfoCacheMapper.class);
           fileInfos.stream().filter(e -> e.getDeleteSnapshotId() == null).forEach(fileInfoCacheMapper::insertCache);
@@ -323,6 +392,7 @@ public class FileInfoCacheService extends IJDBCService {
           SnapInfoCacheMapper snapInfoCacheMapper = getMapper(sqlSession, SnapInfoCacheMapper.class);
           snapInfoCacheMapper.insertCache(snapshotInfo);
           sqlSession.commit();
+          fileInfoIndex.commit(identifier, tableType, fileInfos);
         } catch (Exception e) {
           sqlSession.rollback();
           LOG.error(
@@ -382,6 +452,8 @@ public class FileInfoCacheService extends IJDBCService {
         sqlSession.commit();
       } catch (Exception e) {
         sqlSession.rollback();
+      } finally {
+        fileInfoIndex.invalidate(identifier, tableType);
       }
     } catch (Exception e) {
       LOG.error(
@@ -450,6 +522,7 @@ public class FileInfoCacheService extends IJDBCService {
                 .hashBytes(primaryKey.getBytes(StandardCharsets.UTF_8))
                 .toString();
             cacheFileInfo.setPrimaryKeyMd5(primaryKeyMd5);
+            cacheFileInfo.setInnerTable(tableChange.getInnerTable());
             cacheFileInfo.setDeleteSnapshotId(tableChange.getSnapshotId());
             rs.add(cacheFileInfo);
           });
@@ -574,44 +647,57 @@ public class FileInfoCacheService extends IJDBCService {
           System.currentTimeMillis() - ArcticMetaStore.conf.getLong(ArcticMetaStoreConf.FILE_CACHE_EXPIRED_INTERVAL));
     }
 
+    /**
+     * Tables are synced in parallel on the sync file info cache pool, this round finishes when all tables are synced.
+     */
     private void syncCache() {
       LOG.info("start execute syncCache");
       List<TableMetadata> tableMetadata = metaService.listTables();
       long lowTime = System.currentTimeMillis() -
           ArcticMetaStore.conf.getLong(ArcticMetaStoreConf.TABLE_FILE_INFO_CACHE_INTERVAL);
+      Map<String, ArcticCatalog> catalogs = new ConcurrentHashMap<>();
+      List<Future<?>> futures = new ArrayList<>();
       tableMetadata.forEach(meta -> {
         if (meta.getTableIdentifier() == null) {
           return;
         }
-        TableIdentifier tableIdentifier = new TableIdentifier();
-        tableIdentifier.catalog = meta.getTableIdentifier().getCatalog();
-        tableIdentifier.database = meta.getTableIdentifier().getDatabase();
-        tableIdentifier.tableName = meta.getTableIdentifier().getTableName();
+        TableIdentifier tableIdentifier = meta.getTableIdentifier().buildTableIdentifier();
+        futures.add(ThreadPool.getSyncFileInfoCachePool().submit(() -> syncTable(tableIdentifier, catalogs, lowTime)));
+      });
+      for (Future<?> future : futures) {
         try {
-          ArcticCatalog catalog =
-              CatalogLoader.load(ServiceContainer.getTableMetastoreHandler(), tableIdentifier.getCatalog());
-          com.netease.arctic.table.TableIdentifier tmp = com.netease.arctic.table.TableIdentifier.of(
-              tableIdentifier.getCatalog(),
-              tableIdentifier.getDatabase(),
-              tableIdentifier.getTableName());
-          ArcticTable arcticTable = catalog.loadTable(tmp);
-          doSync(tableIdentifier, Constants.INNER_TABLE_BASE, lowTime);
-          if (arcticTable.isKeyedTable()) {
-            doSync(tableIdentifier, Constants.INNER_TABLE_CHANGE, lowTime);
-          }
-        } catch (Exception e) {
-          LOG.error(
-              "SyncAndExpireFileCacheTask sync cache error " + tableIdentifier.catalog + tableIdentifier.database +
-                  tableIdentifier.tableName, e);
+          future.get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          futures.forEach(f -> f.cancel(true));
+          return;
+        } catch (ExecutionException e) {
+          LOG.error("SyncAndExpireFileCacheTask sync cache error", e.getCause());
         }
-      });
+      }
+    }
+
+    private void syncTable(TableIdentifier tableIdentifier, Map<String, ArcticCatalog> catalogs, long lowTime) {
+      try {
+        ArcticCatalog catalog = catalogs.computeIfAbsent(tableIdentifier.getCatalog(),
+            name -> CatalogLoader.load(ServiceContainer.getTableMetastoreHandler(), name));
+        ArcticTable arcticTable = catalog.loadTable(new com.netease.arctic.table.TableIdentifier(tableIdentifier));
+        doSync(arcticTable, tableIdentifier, Constants.INNER_TABLE_BASE, lowTime);
+        if (arcticTable.isKeyedTable()) {
+          doSync(arcticTable, tableIdentifier, Constants.INNER_TABLE_CHANGE, lowTime);
+        }
+      } catch (Exception e) {
+        LOG.error(
+            "SyncAndExpireFileCacheTask sync cache error " + tableIdentifier.catalog + tableIdentifier.database +
+                tableIdentifier.tableName, e);
+      }
     }
 
-    private void doSync(TableIdentifier tableIdentifier, String innerTable, long lowTime) {
+    private void doSync(ArcticTable arcticTable, TableIdentifier tableIdentifier, String innerTable, long lowTime) {
       try {
         Long maxCommitTime = fileInfoCacheService.getCachedMaxTime(tableIdentifier, innerTable);
         if (maxCommitTime == null || maxCommitTime < lowTime) {
-          fileInfoCacheService.syncTableFileInfo(tableIdentifier, innerTable);
+          fileInfoCacheService.syncTableFileInfo(arcticTable, tableIdentifier, innerTable);
         }
       } catch (Exception e) {
         LOG.error("period sync file cache error", e);
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.ams.server.service.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.netease.arctic.ams.api.DataFileInfo;
+import com.netease.arctic.ams.api.TableIdentifier;
+import com.netease.arctic.ams.server.model.CacheFileInfo;
+import com.netease.arctic.ams.server.utils.TableMetadataUtil;
+import org.apache.iceberg.relocated.com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * In-memory index of live files in file cache, per table and inner table.
+ * <p>
+ * The index of a table is loaded from database on first access and maintained by the files added and deleted by
+ * commits written into file cache, so lookups of live files do not read database again. The index is bounded by the
+ * number of indexed files, least recently used tables are evicted. Locks of tables are weakly referenced, so a lock is
+ * released once no thread holds it, after its table is evicted or dropped.
+ */
+class FileInfoIndex {
+
+  private final Cache<String, TableFiles> tables;
+  private final LoadingCache<String, Object> locks = CacheBuilder.newBuilder()
+      .weakValues()
+      .build(new CacheLoader<String, Object>() {
+        @Override
+        public Object load(String key) {
+          return new Object();
+        }
+      });
+
+  FileInfoIndex(long maxFiles) {
+    this.tables = CacheBuilder.newBuilder()
+        .maximumWeight(maxFiles)
+        .weigher((String key, TableFiles files) -> files.size() + 1)
+        .build();
+  }
+
+  /**
+   * @return live files of the inner table, loaded from database by the loader if not indexed
+   */
+  List<DataFileInfo> files(TableIdentifier identifier, String innerTable, Supplier<List<DataFileInfo>> loader) {
+    TableFiles files = indexed(identifier, innerTable, loader);
+    List<DataFileInfo> result = new ArrayList<>(files.size());
+    synchronized (files) {
+      files.fileMap.values().forEach(file -> result.add(new DataFileInfo(file)));
+    }
+    return result;
+  }
+
+  /**
+   * Apply files added and deleted by a commit written into file cache, tables not indexed are ignored.
+   */
+  void commit(TableIdentifier identifier, String innerTable, Collection<CacheFileInfo> fileInfos) {
+    String key = key(identifier, innerTable);
+    synchronized (lock(key)) {
+      TableFiles files = tables.getIfPresent(key);
+      if (files == null) {
+        return;
+      }
+      synchronized (files) {
+        for (CacheFileInfo fileInfo : fileInfos) {
+          if (fileInfo.getDeleteSnapshotId() == null) {
+            files.add(fileInfo.getPrimaryKeyMd5(), toDataFileInfo(fileInfo));
+          } else {
+            files.remove(fileInfo.getPrimaryKeyMd5());
+          }
+        }
+      }
+      // put again to update the weight of the table
+      tables.put(key, files);
+    }
+  }
+
+  void invalidate(TableIdentifier identifier, String innerTable) {
+    String key = key(identifier, innerTable);
+    synchronized (lock(key)) {
+      tables.invalidate(key);
+    }
+  }
+
+  void invalidateAll() {
+    tables.invalidateAll();
+  }
+
+  private TableFiles indexed(TableIdentifier identifier, String innerTable, Supplier<List<DataFileInfo>> loader) {
+    String key = key(identifier, innerTable);
+    TableFiles files = tables.getIfPresent(key);
+    if (files != null) {
+      return files;
+    }
+    // commits of the table wait for loading, so no commit is missed between loading and indexing
+    synchronized (lock(key)) {
+      files = tables.getIfPresent(key);
+      if (files == null) {
+        files = new TableFiles();
+        String tableName = TableMetadataUtil.getTableAllIdentifyName(identifier);
+        for (DataFileInfo file : loader.get()) {
+          files.add(primaryKeyMd5(tableName, innerTable, file.getPath(), file.getPartition()), file);
+        }
+        tables.put(key, files);
+      }
+      return files;
+    }
+  }
+
+  private Object lock(String key) {
+    return locks.getUnchecked(key);
+  }
+
+  private static String key(TableIdentifier identifier, String innerTable) {
+    return TableMetadataUtil.getTableAllIdentifyName(identifier) + "." + innerTable;
+  }
+
+  /**
+   * Same as the primary key of file cache.
+   */
+  private static String primaryKeyMd5(String tableName, String innerTable, String path, String partition) {
+    String primaryKey = tableName + innerTable + path + (partition == null ? "" : partition);
+    return Hashing.md5().hashBytes(primaryKey.getBytes(StandardCharsets.UTF_8)).toString();
+  }
+
+  private static DataFileInfo toDataFileInfo(CacheFileInfo fileInfo) {
+    DataFileInfo file = new DataFileInfo();
+    file.setPath(fileInfo.getFilePath());
+    file.setType(fileInfo.getFileType());
+    file.setSize(valueOf(fileInfo.getFileSize()));
+    file.setMask(valueOf(fileInfo.getFileMask()));
+    file.setIndex(valueOf(fileInfo.getFileIndex()));
+    file.setSpecId(valueOf(fileInfo.getSpecId()));
+    file.setPartition(fileInfo.getPartitionName());
+    file.setCommitTime(valueOf(fileInfo.getCommitTime()));
+    file.setRecordCount(valueOf(fileInfo.getRecordCount()));
+    return file;
+  }
+
+  private static long valueOf(Long value) {
+    return value == null ? 0 : value;
+  }
+
+  private static class TableFiles {
+    private final Map<String, DataFileInfo> fileMap = new LinkedHashMap<>();
+
+    void add(String primaryKeyMd5, DataFileInfo file) {
+      fileMap.put(primaryKeyMd5, file);
+    }
+
+    void remove(String primaryKeyMd5) {
+      fileMap.remove(primaryKeyMd5);
+    }
+
+    int size() {
+      return fileMap.size();
+    }
+  }
+}
@@ -18,6 +18,7 @@
 
 package com.netease.arctic.ams.server.service.impl;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.netease.arctic.ams.api.InvalidObjectException;
 import com.netease.arctic.ams.api.JobId;
 import com.netease.arctic.ams.api.MetaException;
@@ -25,6 +26,8 @@ import com.netease.arctic.ams.api.NoSuchObjectException;
 import com.netease.arctic.ams.api.OptimizeStatus;
 import com.netease.arctic.ams.api.OptimizeTask;
 import com.netease.arctic.ams.api.OptimizeType;
+import com.netease.arctic.ams.server.ArcticMetaStore;
+import com.netease.arctic.ams.server.config.ArcticMetaStoreConf;
 import com.netease.arctic.ams.server.mapper.ContainerMetadataMapper;
 import com.netease.arctic.ams.server.mapper.OptimizeQueueMapper;
 import com.netease.arctic.ams.server.model.BaseOptimizeTask;
@@ -37,13 +40,14 @@ import com.netease.arctic.ams.server.optimize.BaseOptimizePlan;
 import com.netease.arctic.ams.server.optimize.OptimizeTaskItem;
 import com.netease.arctic.ams.server.optimize.TableOptimizeItem;
 import com.netease.arctic.ams.server.service.IJDBCService;
+import com.netease.arctic.ams.server.service.IQuotaService;
 import com.netease.arctic.ams.server.service.ITableTaskHistoryService;
 import com.netease.arctic.ams.server.service.ServiceContainer;
 import com.netease.arctic.ams.server.utils.OptimizeStatusUtil;
+import com.netease.arctic.ams.server.utils.ThreadPool;
 import com.netease.arctic.table.TableIdentifier;
 import com.netease.arctic.table.TableProperties;
 import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.lang.StringUtils;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 import org.apache.iceberg.util.PropertyUtil;
@@ -62,7 +66,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Condition;
@@ -299,6 +305,21 @@ public class OptimizeQueueService extends IJDBCService {
     optimizeQueues.values().forEach(c -> c.releaseTable(tableIdentifier));
   }
 
+  /**
+   * Mark the table to be planned, like after it is committed.
+   */
+  public void refreshTable(TableIdentifier tableIdentifier) {
+    // Mark in all queues because the queue of table may differ from the parameters in arcticTable Properties
+    optimizeQueues.values().forEach(c -> c.markDirty(tableIdentifier));
+  }
+
+  /**
+   * Mark all tables to be planned, for plans triggered by time like full optimize.
+   */
+  public void refreshAllTables() {
+    optimizeQueues.values().forEach(OptimizeQueueWrapper::markAllDirty);
+  }
+
   public void clearTasks(TableIdentifier tableIdentifier) {
     // Delete from all queues because the queue in which the task is running may differ from
     // the parameters in arcticTable Properties
@@ -319,20 +340,24 @@ public class OptimizeQueueService extends IJDBCService {
     }
   }
 
+  /**
+   * Tasks of a queue are planned ahead by the optimize plan pool, so polls of optimizers only wait for planned tasks.
+   * <p>
+   * Tables are marked dirty when bound, committed or refreshed periodically, dirty tables are planned concurrently in
+   * order of quota until the queue holds {@link ArcticMetaStoreConf#OPTIMIZE_QUEUE_TARGET_DEPTH} tasks.
+   */
   public static class OptimizeQueueWrapper {
 
     private final ReentrantLock lock = new ReentrantLock();
-    private final Condition planThreadCondition = lock.newCondition();
-    private final AtomicBoolean planThreadStarted = new AtomicBoolean(false);
+    private final Condition taskAdded = lock.newCondition();
     private final OptimizeQueueItem optimizeQueue;
     private final Queue<OptimizeTaskItem> tasks;
     private final Set<TableIdentifier> tables = new HashSet<>();
-    // plan retry times
-    private final int retryTime = 5;
-    // plan retry interval unit ms
-    private final long retryInterval = 1000;
+    private final Set<TableIdentifier> dirtyTables = ConcurrentHashMap.newKeySet();
+    private final Set<TableIdentifier> planningTables = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean scheduleRequested = new AtomicBoolean(false);
 
-    private OptimizeQueueWrapper(OptimizeQueueMeta optimizeQueue) {
+    protected OptimizeQueueWrapper(OptimizeQueueMeta optimizeQueue) {
       this.optimizeQueue = new OptimizeQueueItem(optimizeQueue);
       this.tasks = new LinkedTransferQueue<>();
     }
@@ -341,26 +366,52 @@ public class OptimizeQueueService extends IJDBCService {
       return new OptimizeQueueWrapper(optimizeQueue);
     }
 
-    private void bindTable(TableIdentifier tableIdentifier) {
+    public void bindTable(TableIdentifier tableIdentifier) {
       lock();
       try {
         tables.add(tableIdentifier);
+        dirtyTables.add(tableIdentifier);
       } finally {
         unlock();
       }
+      requestPlan();
     }
 
-    private void releaseTable(TableIdentifier tableIdentifier) {
+    public void releaseTable(TableIdentifier tableIdentifier) {
       lock();
       try {
         clearTasks(tableIdentifier);
         tables.remove(tableIdentifier);
+        dirtyTables.remove(tableIdentifier);
       } finally {
         unlock();
       }
     }
 
-    private void addIntoOptimizeQueue(OptimizeTaskItem task) throws InvalidObjectException {
+    public void markDirty(TableIdentifier tableIdentifier) {
+      lock();
+      try {
+        if (!tables.contains(tableIdentifier)) {
+          return;
+        }
+        dirtyTables.add(tableIdentifier);
+      } finally {
+        unlock();
+      }
+      requestPlan();
+    }
+
+    public void markAllDirty() {
+      lock();
+      try {
+        dirtyTables.addAll(tables);
+      } finally {
+        unlock();
+      }
+      requestPlan();
+    }
+
+    protected void addIntoOptimizeQueue(OptimizeTaskItem task) throws InvalidObjectException {
       lock();
       try {
         if (!tables.contains(task.getTableIdentifier())) {
@@ -374,6 +425,7 @@ public class OptimizeQueueService extends IJDBCService {
             // update task status
             task.onPending();
           }
+          taskAdded.signalAll();
           LOG.info("submitTask into queue {} success, {}", queueName(), task);
         } else {
           throw new InvalidObjectException(
@@ -400,81 +452,36 @@ public class OptimizeQueueService extends IJDBCService {
     public OptimizeTask poll(JobId jobId, final String attemptId, long waitTime) {
       long startTime = System.currentTimeMillis();
       while (true) {
-        long duration = System.currentTimeMillis() - startTime;
-        if (duration > waitTime) {
-          LOG.warn("pool task cost too much time {} ms, return null", duration);
-          return null;
-        }
         OptimizeTaskItem task = tasks.poll();
         if (task == null) {
+          if (!requestPlan()) {
+            // plan pool is not started, plan in the polling thread
+            plan(System.currentTimeMillis());
+          }
+          long remainingTime = waitTime - (System.currentTimeMillis() - startTime);
+          if (remainingTime <= 0) {
+            LOG.debug("The queue {} has no task have planned", optimizeQueue.getOptimizeQueueMeta().getQueueId());
+            return null;
+          }
+          lock();
           try {
-            if (planThreadStarted.compareAndSet(false, true)) {
-              Thread planThread = new Thread(() -> {
-                int retry = 0;
-                boolean isHaveTask = false;
-
-                try {
-                  LOG.info("this plan started {}, {}", attemptId, jobId);
-                  while (retry <= retryTime) {
-                    LOG.debug("start get plan task retry {}", retry);
-                    retry++;
-                    List<OptimizeTaskItem> tasks = plan(System.currentTimeMillis());
-                    if (CollectionUtils.isNotEmpty(tasks)) {
-                      isHaveTask = true;
-                      break;
-                    }
-
-                    try {
-                      Thread.sleep(retryInterval);
-                    } catch (InterruptedException e) {
-                      LOG.error("Internal Thread Interrupted", e);
-                    }
-                  }
-
-                  // no task have planned
-                  if (!isHaveTask) {
-                    LOG.debug("The queue {} has retry {} times, no task have planned",
-                        optimizeQueue.getOptimizeQueueMeta().queueId,
-                        retryTime);
-                  }
-                } catch (Throwable t) {
-                  LOG.error("failed to plan", t);
-                  throw t;
-                } finally {
-                  LOG.info("this plan end {}", attemptId);
-                  if (planThreadStarted.compareAndSet(true, false)) {
-                    lock();
-                    try {
-                      planThreadCondition.signalAll();
-                    } finally {
-                      unlock();
-                    }
-                  }
-                }
-              });
-              planThread.setName(
-                  "Optimize Plan Thread Queue-" + optimizeQueue.getOptimizeQueueMeta().getQueueId());
-              planThread.start();
-            } else {
-              lock();
-              try {
-                // if timeout, return null
-                if (!planThreadCondition.await(waitTime - (System.currentTimeMillis() - startTime),
-                    TimeUnit.MILLISECONDS)) {
-                  LOG.debug("The queue {} has no task have planned", optimizeQueue.getOptimizeQueueMeta().getQueueId());
-                  return null;
-                }
-              } finally {
-                unlock();
-              }
+            if (tasks.isEmpty() && !taskAdded.await(remainingTime, TimeUnit.MILLISECONDS)) {
+              LOG.debug("The queue {} has no task have planned", optimizeQueue.getOptimizeQueueMeta().getQueueId());
+              return null;
             }
-          } catch (Exception e) {
-            LOG.error("Failure when starting the plan thread, " + e);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+          } finally {
+            unlock();
           }
         } else {
           if (tables.contains(task.getTableIdentifier())) {
+            requestPlan();
             task.setFiles();
             TableTaskHistory tableTaskHistory = task.onExecuting(jobId, attemptId);
+            ServiceContainer.getQuotaService().onTaskExecuting(task.getTableIdentifier(), task.getTaskId(),
+                tableTaskHistory.getStartTime());
             try {
               insertTableTaskHistory(tableTaskHistory);
             } catch (Exception e) {
@@ -486,6 +493,67 @@ public class OptimizeQueueService extends IJDBCService {
       }
     }
 
+    /**
+     * Request the plan pool to plan dirty tables, without waiting for it.
+     *
+     * @return false if the plan pool is not started
+     */
+    private boolean requestPlan() {
+      ScheduledExecutorService planPool = ThreadPool.getOptimizePlanPool();
+      if (planPool == null) {
+        return false;
+      }
+      if (!dirtyTables.isEmpty() && scheduleRequested.compareAndSet(false, true)) {
+        planPool.execute(() -> {
+          scheduleRequested.set(false);
+          schedulePlan(planPool);
+        });
+      }
+      return true;
+    }
+
+    private synchronized void schedulePlan(ScheduledExecutorService planPool) {
+      int slots = planParallelism() - planningTables.size();
+      if (slots <= 0 || dirtyTables.isEmpty() || tasks.size() >= targetDepth()) {
+        return;
+      }
+      List<TableIdentifier> candidates = new ArrayList<>(dirtyTables);
+      candidates.removeAll(planningTables);
+      List<TableIdentifier> sortedTables = sortTableByQuota(candidates);
+      // tables can't be found are not planned any more
+      candidates.removeAll(sortedTables);
+      dirtyTables.removeAll(candidates);
+
+      for (TableIdentifier tableIdentifier : sortedTables) {
+        if (slots <= 0) {
+          break;
+        }
+        // a table committed during its plan stays dirty, and is planned again after the plan
+        if (planningTables.add(tableIdentifier)) {
+          dirtyTables.remove(tableIdentifier);
+          slots--;
+          planPool.execute(() -> {
+            try {
+              planTable(tableIdentifier, System.currentTimeMillis());
+            } finally {
+              planningTables.remove(tableIdentifier);
+              requestPlan();
+            }
+          });
+        }
+      }
+    }
+
+    private static int planParallelism() {
+      return ArcticMetaStore.conf == null ? ArcticMetaStoreConf.OPTIMIZE_PLAN_THREAD_POOL_SIZE.defaultValue() :
+          ArcticMetaStore.conf.getInteger(ArcticMetaStoreConf.OPTIMIZE_PLAN_THREAD_POOL_SIZE);
+    }
+
+    private static int targetDepth() {
+      return ArcticMetaStore.conf == null ? ArcticMetaStoreConf.OPTIMIZE_QUEUE_TARGET_DEPTH.defaultValue() :
+          ArcticMetaStore.conf.getInteger(ArcticMetaStoreConf.OPTIMIZE_QUEUE_TARGET_DEPTH);
+    }
+
     private void insertTableTaskHistory(TableTaskHistory tableTaskHistory) {
       ITableTaskHistoryService tableTaskHistoryService = ServiceContainer.getTableTaskHistoryService();
       tableTaskHistoryService.insertTaskHistory(tableTaskHistory);
@@ -526,68 +594,80 @@ public class OptimizeQueueService extends IJDBCService {
       List<TableIdentifier> tableSort = sortTableByQuota(new ArrayList<>(tables));
 
       for (TableIdentifier tableIdentifier : tableSort) {
-        LOG.debug("{} try plan", tableIdentifier);
-        try {
-          TableOptimizeItem tableItem = ServiceContainer.getOptimizeService().getTableOptimizeItem(tableIdentifier);
-
-          tableItem.checkTaskExecuteTimeout();
-          // if enable_optimize is false
-          if (!(Boolean.parseBoolean(PropertyUtil
-              .propertyAsString(tableItem.getArcticTable(false).properties(), TableProperties.ENABLE_OPTIMIZE,
-                  TableProperties.ENABLE_OPTIMIZE_DEFAULT)))) {
-            LOG.debug("{} is not enable optimize continue", tableIdentifier);
-            continue;
-          }
+        List<OptimizeTaskItem> toExecuteTasks = planTable(tableIdentifier, currentTime);
+        if (!toExecuteTasks.isEmpty()) {
+          return toExecuteTasks;
+        }
+      }
 
-          if (tableItem.getTableOptimizeRuntime().isRunning()) {
-            LOG.debug("{} is running continue", tableIdentifier);
-            continue;
-          }
+      return Collections.emptyList();
+    }
 
-          List<BaseOptimizeTask> optimizeTasks;
-          BaseOptimizePlan optimizePlan;
-          Map<String, String> properties = tableItem.getArcticTable(false).properties();
-          int queueId = ServiceContainer.getOptimizeQueueService().getQueueId(properties);
-          optimizePlan = tableItem.getFullPlan(queueId, currentTime);
-          optimizeTasks = optimizePlan.plan();
+    @VisibleForTesting
+    protected List<OptimizeTaskItem> planTable(TableIdentifier tableIdentifier, long currentTime) {
+      LOG.debug("{} try plan", tableIdentifier);
+      try {
+        TableOptimizeItem tableItem = ServiceContainer.getOptimizeService().getTableOptimizeItem(tableIdentifier);
+
+        tableItem.checkTaskExecuteTimeout();
+        // if enable_optimize is false
+        if (!(Boolean.parseBoolean(PropertyUtil
+            .propertyAsString(tableItem.getArcticTable(false).properties(), TableProperties.ENABLE_OPTIMIZE,
+                TableProperties.ENABLE_OPTIMIZE_DEFAULT)))) {
+          LOG.debug("{} is not enable optimize continue", tableIdentifier);
+          return Collections.emptyList();
+        }
 
-          // if no full tasks, then plan minor tasks
-          if (CollectionUtils.isEmpty(optimizeTasks)) {
-            optimizePlan = tableItem.getMajorPlan(queueId, currentTime);
-            optimizeTasks = optimizePlan.plan();
-          }
+        if (tableItem.getTableOptimizeRuntime().isRunning()) {
+          LOG.debug("{} is running continue", tableIdentifier);
+          return Collections.emptyList();
+        }
 
-          // if no major tasks and keyed table, then plan minor tasks
-          if (tableItem.isKeyedTable() && CollectionUtils.isEmpty(optimizeTasks)) {
-            optimizePlan = tableItem.getMinorPlan(queueId, currentTime);
-            optimizeTasks = optimizePlan.plan();
-          }
+        List<BaseOptimizeTask> optimizeTasks;
+        BaseOptimizePlan optimizePlan;
+        Map<String, String> properties = tableItem.getArcticTable(false).properties();
+        int queueId = ServiceContainer.getOptimizeQueueService().getQueueId(properties);
+        optimizePlan = tableItem.getFullPlan(queueId, currentTime);
+        optimizeTasks = optimizePlan.plan();
 
-          initTableOptimizeRuntime(tableItem, optimizePlan, optimizeTasks, optimizePlan.getPartitionOptimizeType());
-          LOG.debug("{} after plan get {} tasks", tableItem.getTableIdentifier(), optimizeTasks.size());
+        // if no full tasks, then plan minor tasks
+        if (CollectionUtils.isEmpty(optimizeTasks)) {
+          optimizePlan = tableItem.getMajorPlan(queueId, currentTime);
+          optimizeTasks = optimizePlan.plan();
+        }
 
-          List<OptimizeTaskItem> toExecuteTasks = addTask(tableItem, optimizeTasks);
-          if (!toExecuteTasks.isEmpty()) {
-            LOG.info("{} after plan put {} tasks into queue", tableItem.getTableIdentifier(), toExecuteTasks.size());
-            return toExecuteTasks;
-          } else {
-            LOG.debug("{} after plan put no tasks into queue, try next table", tableItem.getTableIdentifier());
-          }
-        } catch (Throwable e) {
-          LOG.error(tableIdentifier + " plan failed, continue", e);
+        // if no major tasks and keyed table, then plan minor tasks
+        if (tableItem.isKeyedTable() && CollectionUtils.isEmpty(optimizeTasks)) {
+          optimizePlan = tableItem.getMinorPlan(queueId, currentTime);
+          optimizeTasks = optimizePlan.plan();
         }
-      }
 
-      return Collections.emptyList();
+        initTableOptimizeRuntime(tableItem, optimizePlan, optimizeTasks, optimizePlan.getPartitionOptimizeType());
+        LOG.debug("{} after plan get {} tasks", tableItem.getTableIdentifier(), optimizeTasks.size());
+
+        List<OptimizeTaskItem> toExecuteTasks = addTask(tableItem, optimizeTasks);
+        if (!toExecuteTasks.isEmpty()) {
+          LOG.info("{} after plan put {} tasks into queue", tableItem.getTableIdentifier(), toExecuteTasks.size());
+        } else {
+          LOG.debug("{} after plan put no tasks into queue", tableItem.getTableIdentifier());
+        }
+        return toExecuteTasks;
+      } catch (Throwable e) {
+        LOG.error(tableIdentifier + " plan failed, continue", e);
+        return Collections.emptyList();
+      }
     }
 
-    private List<TableIdentifier> sortTableByQuota(List<TableIdentifier> tables) {
-      long currentTime = System.currentTimeMillis();
+    @VisibleForTesting
+    protected List<TableIdentifier> sortTableByQuota(List<TableIdentifier> tables) {
+      IQuotaService quotaService = ServiceContainer.getQuotaService();
       List<TableQuotaInfo> tableQuotaInfoList = tables.stream()
           .map(tableIdentifier -> {
             try {
-              return new TableQuotaInfo(tableIdentifier, evalQuotaRate(tableIdentifier, currentTime),
-                  ServiceContainer.getOptimizeService().getTableOptimizeItem(tableIdentifier).getQuotaCache());
+              double quota = ServiceContainer.getOptimizeService().getTableOptimizeItem(tableIdentifier)
+                  .getQuotaCache();
+              return new TableQuotaInfo(tableIdentifier,
+                  evalQuotaRate(quotaService.getUsedCoreCount(tableIdentifier), quota), quota);
             } catch (NoSuchObjectException e) {
               LOG.error("can't find table", e);
               return null;
@@ -600,45 +680,11 @@ public class OptimizeQueueService extends IJDBCService {
       return tableQuotaInfoList.stream().sorted().map(TableQuotaInfo::getTableIdentifier).collect(Collectors.toList());
     }
 
-    private BigDecimal evalQuotaRate(TableIdentifier tableId, long currentTime) throws NoSuchObjectException {
-      TableOptimizeItem tableItem;
-      tableItem = ServiceContainer.getOptimizeService().getTableOptimizeItem(tableId);
-      String latestHistoryId = tableItem.getTableOptimizeRuntime().getLatestTaskHistoryId();
-      if (StringUtils.isEmpty(latestHistoryId)) {
-        return BigDecimal.ZERO;
-      }
-
-      List<TableTaskHistory> latestTaskHistories =
-          ServiceContainer.getTableTaskHistoryService().selectTaskHistory(tableId, latestHistoryId);
-      if (CollectionUtils.isEmpty(latestTaskHistories)) {
-        return BigDecimal.ZERO;
-      }
-
-      long latestCostTime = 0;
-      long latestStartTime = 0;
-      for (TableTaskHistory latestTaskHistory : latestTaskHistories) {
-        if (latestStartTime == 0 || latestStartTime > latestTaskHistory.getStartTime()) {
-          latestStartTime = latestTaskHistory.getStartTime();
-        }
-
-        if (latestTaskHistory.getCostTime() != 0) {
-          latestCostTime = latestCostTime + latestTaskHistory.getCostTime();
-        } else {
-          latestCostTime = latestCostTime + currentTime - latestTaskHistory.getStartTime();
-        }
-      }
-      BigDecimal currentQuota = new BigDecimal(latestCostTime)
-          .divide(new BigDecimal(currentTime - latestStartTime),
-              2,
-              RoundingMode.HALF_UP);
-
-      BigDecimal tableQuota = BigDecimal.valueOf(tableItem.getQuotaCache());
-
-      if (tableQuota.compareTo(BigDecimal.ZERO) <= 0) {
+    private static BigDecimal evalQuotaRate(double usedCoreCount, double quota) {
+      if (quota <= 0) {
         return BigDecimal.valueOf(Long.MAX_VALUE);
       }
-
-      return currentQuota.divide(tableQuota, 2, RoundingMode.HALF_UP);
+      return BigDecimal.valueOf(usedCoreCount / quota).setScale(2, RoundingMode.HALF_UP);
     }
 
     private void initTableOptimizeRuntime(TableOptimizeItem tableItem,
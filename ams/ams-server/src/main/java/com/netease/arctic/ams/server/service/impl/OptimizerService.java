@@ -18,8 +18,11 @@
 
 package com.netease.arctic.ams.server.service.impl;
 
+import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
 import com.netease.arctic.ams.api.NoSuchObjectException;
+import com.netease.arctic.ams.api.OptimizeTaskId;
+import com.netease.arctic.ams.api.OptimizeType;
 import com.netease.arctic.ams.api.OptimizerStateReport;
 import com.netease.arctic.ams.server.mapper.OptimizerGroupMapper;
 import com.netease.arctic.ams.server.mapper.OptimizerMapper;
@@ -33,6 +36,7 @@ import com.netease.arctic.ams.server.service.IJDBCService;
 import com.netease.arctic.ams.server.service.ServiceContainer;
 import com.netease.arctic.optimizer.StatefulOptimizer;
 import com.netease.arctic.optimizer.factory.OptimizerFactory;
+import com.netease.arctic.table.TableIdentifier;
 import org.apache.ibatis.session.SqlSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,7 +44,14 @@ import org.slf4j.LoggerFactory;
 import java.util.List;
 import java.util.Map;
 
+import static com.netease.arctic.ams.api.properties.OptimizerProperties.LEASED_TASK_ATTEMPT_ID;
+import static com.netease.arctic.ams.api.properties.OptimizerProperties.LEASED_TASK_CATALOG;
+import static com.netease.arctic.ams.api.properties.OptimizerProperties.LEASED_TASK_DATABASE;
+import static com.netease.arctic.ams.api.properties.OptimizerProperties.LEASED_TASK_TABLE;
+import static com.netease.arctic.ams.api.properties.OptimizerProperties.LEASED_TASK_TRACE_ID;
+import static com.netease.arctic.ams.api.properties.OptimizerProperties.LEASED_TASK_TYPE;
 import static com.netease.arctic.ams.api.properties.OptimizerProperties.OPTIMIZER_LAUNCHER_INFO;
+import static com.netease.arctic.ams.api.properties.OptimizerProperties.OPTIMIZER_LEASED_TASKS;
 
 public class OptimizerService extends IJDBCService {
   private static final Logger LOG = LoggerFactory.getLogger(OptimizerService.class);
@@ -82,6 +93,13 @@ public class OptimizerService extends IJDBCService {
 
   public void updateOptimizerState(OptimizerStateReport reportData) throws NoSuchObjectException {
     LOG.info("get report {}", reportData);
+    if (reportData.optimizerState != null) {
+      // leases are renewed but not kept as state of the optimizer
+      String leasedTasks = reportData.optimizerState.remove(OPTIMIZER_LEASED_TASKS);
+      if (leasedTasks != null) {
+        renewTaskLeases(reportData.optimizerId, leasedTasks);
+      }
+    }
     if (reportData.optimizerState == null || reportData.optimizerState.isEmpty()) {
       return;
     }
@@ -117,6 +135,30 @@ public class OptimizerService extends IJDBCService {
     }
   }
 
+  private void renewTaskLeases(long optimizerId, String leasedTasks) {
+    JSONArray tasks = JSONArray.parseArray(leasedTasks);
+    int renewed = 0;
+    for (int i = 0; i < tasks.size(); i++) {
+      JSONObject task = tasks.getJSONObject(i);
+      TableIdentifier tableIdentifier = TableIdentifier.of(task.getString(LEASED_TASK_CATALOG),
+          task.getString(LEASED_TASK_DATABASE), task.getString(LEASED_TASK_TABLE));
+      OptimizeTaskId taskId = new OptimizeTaskId(OptimizeType.valueOf(task.getString(LEASED_TASK_TYPE)),
+          task.getString(LEASED_TASK_TRACE_ID));
+      try {
+        if (ServiceContainer.getOptimizeService().getTableOptimizeItem(tableIdentifier)
+            .renewTaskLease(taskId, task.getString(LEASED_TASK_ATTEMPT_ID))) {
+          renewed++;
+        } else {
+          LOG.warn("optimizer {} holds task {} of {} which is not leased to it any more", optimizerId, taskId,
+              tableIdentifier);
+        }
+      } catch (NoSuchObjectException e) {
+        LOG.warn("optimizer {} holds task {} of a table not found {}", optimizerId, taskId, tableIdentifier);
+      }
+    }
+    LOG.info("optimizer {} renewed leases of {}/{} tasks", optimizerId, renewed, tasks.size());
+  }
+
   public void updateOptimizerStatus(long optimizerId, TableTaskStatus status) {
     try (SqlSession sqlSession = getSqlSession(true)) {
       OptimizerMapper optimizerMapper = getMapper(sqlSession, OptimizerMapper.class);
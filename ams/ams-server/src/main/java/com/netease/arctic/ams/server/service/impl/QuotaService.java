@@ -18,6 +18,7 @@
 
 package com.netease.arctic.ams.server.service.impl;
 
+import com.netease.arctic.ams.api.OptimizeTaskId;
 import com.netease.arctic.ams.server.model.CoreInfo;
 import com.netease.arctic.ams.server.model.TableMetadata;
 import com.netease.arctic.ams.server.model.TableTaskHistory;
@@ -30,11 +31,27 @@ import org.apache.iceberg.util.PropertyUtil;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Cpu time used by optimize tasks of tables is accounted in memory for the latest {@link #USAGE_WINDOW}, in buckets
+ * of {@link #BUCKET_INTERVAL}, from the events of tasks. Usage of a table is loaded from task histories once when the
+ * table is first accessed, usage of a longer period is calculated from task histories.
+ */
 public class QuotaService implements IQuotaService {
+  // window of cpu time usage of tables accounted in memory
+  public static final long USAGE_WINDOW = 3600 * 1000L;
+  public static final long BUCKET_INTERVAL = 60 * 1000L;
+  // one more bucket since the window is not aligned with buckets
+  private static final int BUCKET_COUNT = (int) (USAGE_WINDOW / BUCKET_INTERVAL) + 1;
+
   private final ITableTaskHistoryService tableTaskHistoryService;
   private final IMetaService metaService;
+  private final Map<TableIdentifier, TableUsage> tableUsages = new ConcurrentHashMap<>();
 
   public QuotaService(ITableTaskHistoryService tableTaskHistoryService, IMetaService metaService) {
     this.tableTaskHistoryService = tableTaskHistoryService;
@@ -47,12 +64,17 @@ public class QuotaService implements IQuotaService {
 
     long endTime = System.currentTimeMillis();
     long startTime = endTime - period;
-    List<TableTaskHistory> tableTaskHistoryList = tableTaskHistoryService
-        .selectTaskHistoryByTableIdAndTime(tableIdentifier, startTime, endTime);
+    long totalCostTime;
+    if (period <= USAGE_WINDOW) {
+      totalCostTime = tableUsage(tableIdentifier).usage(startTime, endTime);
+    } else {
+      List<TableTaskHistory> tableTaskHistoryList = tableTaskHistoryService
+          .selectTaskHistoryByTableIdAndTime(tableIdentifier, startTime, endTime);
+      totalCostTime = calculateTotalCostTime(tableTaskHistoryList, startTime, endTime);
+    }
 
     result.setRealCoreCount(
-        new BigDecimal(calculateTotalCostTime(tableTaskHistoryList, startTime, endTime)).divide(new BigDecimal(period),
-            2, RoundingMode.HALF_UP).doubleValue());
+        new BigDecimal(totalCostTime).divide(new BigDecimal(period), 2, RoundingMode.HALF_UP).doubleValue());
 
     TableMetadata tableMetadata = metaService
         .loadTableMetadata(tableIdentifier);
@@ -62,6 +84,75 @@ public class QuotaService implements IQuotaService {
     return result;
   }
 
+  @Override
+  public void onTaskExecuting(TableIdentifier tableIdentifier, OptimizeTaskId taskId, long startTime) {
+    tableUsage(tableIdentifier).onExecuting(taskId, startTime);
+  }
+
+  @Override
+  public void onTaskLeased(TableIdentifier tableIdentifier, OptimizeTaskId taskId) {
+    TableUsage tableUsage = tableUsages.get(tableIdentifier);
+    if (tableUsage != null) {
+      tableUsage.onLeased(taskId);
+    }
+  }
+
+  @Override
+  public void onTaskFinished(TableIdentifier tableIdentifier, OptimizeTaskId taskId, long endTime, long costTime) {
+    tableUsage(tableIdentifier).onFinished(taskId, endTime, costTime);
+  }
+
+  @Override
+  public void onTasksCleared(TableIdentifier tableIdentifier) {
+    TableUsage tableUsage = tableUsages.get(tableIdentifier);
+    if (tableUsage != null) {
+      tableUsage.clearExecuting();
+    }
+  }
+
+  @Override
+  public double getUsedCoreCount(TableIdentifier tableIdentifier) {
+    long endTime = System.currentTimeMillis();
+    return (double) tableUsage(tableIdentifier).usage(endTime - USAGE_WINDOW, endTime) / USAGE_WINDOW;
+  }
+
+  @Override
+  public void onTableDropped(TableIdentifier tableIdentifier) {
+    tableUsages.remove(tableIdentifier);
+  }
+
+  private TableUsage tableUsage(TableIdentifier tableIdentifier) {
+    TableUsage tableUsage = tableUsages.get(tableIdentifier);
+    if (tableUsage == null) {
+      // load outside the map to not query task histories under the lock of map
+      TableUsage loaded = loadTableUsage(tableIdentifier);
+      tableUsage = tableUsages.putIfAbsent(tableIdentifier, loaded);
+      if (tableUsage == null) {
+        tableUsage = loaded;
+      }
+    }
+    return tableUsage;
+  }
+
+  /**
+   * Load usage of the latest {@link #USAGE_WINDOW} from task histories. Tasks not committed have no end time in
+   * histories, they are accounted until now like {@link #calculateTotalCostTime}, and only after now when finished.
+   */
+  private TableUsage loadTableUsage(TableIdentifier tableIdentifier) {
+    long endTime = System.currentTimeMillis();
+    long startTime = endTime - USAGE_WINDOW;
+    TableUsage tableUsage = new TableUsage(endTime);
+    List<TableTaskHistory> tableTaskHistoryList = tableTaskHistoryService
+        .selectTaskHistoryByTableIdAndTime(tableIdentifier, startTime, endTime);
+    for (TableTaskHistory tableTaskHistory : tableTaskHistoryList) {
+      long taskEndTime = tableTaskHistory.getEndTime() == 0 ?
+          endTime : Math.min(tableTaskHistory.getEndTime(), endTime);
+      long costTime = calculateTotalCostTime(Collections.singletonList(tableTaskHistory), startTime, endTime);
+      tableUsage.addCostTime(taskEndTime, costTime);
+    }
+    return tableUsage;
+  }
+
   private long calculateTotalCostTime(List<TableTaskHistory> tableTaskHistoryList, long startTime, long endTime) {
     long totalCostTime = 0;
     for (TableTaskHistory tableTaskHistory : tableTaskHistoryList) {
@@ -79,4 +170,79 @@ public class QuotaService implements IQuotaService {
 
     return totalCostTime;
   }
+
+  /**
+   * Cpu time of finished tasks in ring buckets, and start time of executing tasks.
+   */
+  public static class TableUsage {
+    private final long loadTime;
+    private final long[] bucketIds = new long[BUCKET_COUNT];
+    private final long[] costTimes = new long[BUCKET_COUNT];
+    private final Map<OptimizeTaskId, Long> executingTasks = new HashMap<>();
+
+    /**
+     * @param loadTime time until which usage is loaded from task histories
+     */
+    public TableUsage(long loadTime) {
+      this.loadTime = loadTime;
+    }
+
+    public synchronized void onExecuting(OptimizeTaskId taskId, long startTime) {
+      executingTasks.put(taskId, startTime);
+    }
+
+    public synchronized void onLeased(OptimizeTaskId taskId) {
+      executingTasks.remove(taskId);
+    }
+
+    public synchronized void onFinished(OptimizeTaskId taskId, long endTime, long costTime) {
+      if (executingTasks.remove(taskId) == null) {
+        // the task executed before usage is loaded, its cpu time before loading is loaded from task histories
+        costTime = Math.min(costTime, Math.max(0, endTime - loadTime));
+      }
+      addCostTime(endTime, costTime);
+    }
+
+    /**
+     * Add cpu time used before end time into buckets, cpu time out of {@link #USAGE_WINDOW} is ignored.
+     */
+    public synchronized void addCostTime(long endTime, long costTime) {
+      long startTime = Math.max(endTime - costTime, endTime - USAGE_WINDOW);
+      while (startTime < endTime) {
+        long bucketId = startTime / BUCKET_INTERVAL;
+        long bucketEnd = Math.min(endTime, (bucketId + 1) * BUCKET_INTERVAL);
+        int slot = (int) (bucketId % BUCKET_COUNT);
+        if (bucketIds[slot] < bucketId) {
+          bucketIds[slot] = bucketId;
+          costTimes[slot] = 0;
+        }
+        if (bucketIds[slot] == bucketId) {
+          costTimes[slot] += bucketEnd - startTime;
+        }
+        startTime = bucketEnd;
+      }
+    }
+
+    public synchronized void clearExecuting() {
+      executingTasks.clear();
+    }
+
+    /**
+     * @return cpu time used between start time and end time, precise to buckets for finished tasks
+     */
+    public synchronized long usage(long startTime, long endTime) {
+      long startBucketId = startTime / BUCKET_INTERVAL;
+      long endBucketId = endTime / BUCKET_INTERVAL;
+      long usage = 0;
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        if (bucketIds[i] >= startBucketId && bucketIds[i] <= endBucketId) {
+          usage += costTimes[i];
+        }
+      }
+      for (long executeTime : executingTasks.values()) {
+        usage += Math.max(0, endTime - Math.max(startTime, executeTime));
+      }
+      return usage;
+    }
+  }
 }
@@ -24,8 +24,10 @@ import com.netease.arctic.ams.server.config.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -37,6 +39,7 @@ import java.util.concurrent.TimeUnit;
 public class ThreadPool {
 
   private static final Logger LOG = LoggerFactory.getLogger(ThreadPool.class);
+  private static final long FILE_CACHE_COMMIT_DRAIN_TIMEOUT_MS = 30 * 1000L;
   private static ThreadPool self;
   private static ScheduledExecutorService optimizeCheckPool;
   private static ScheduledExecutorService commitPool;
@@ -46,6 +49,8 @@ public class ThreadPool {
   private static ScheduledExecutorService optimizerMonitorPool;
   private static ThreadPoolExecutor syncFileInfoCachePool;
   private static ScheduledExecutorService tableRuntimeDataExpirePool;
+  private static ThreadPoolExecutor[] fileCacheCommitPools;
+  private static ScheduledExecutorService optimizePlanPool;
 
   public enum Type {
     OPTIMIZE_CHECK,
@@ -55,7 +60,8 @@ public class ThreadPool {
     SYNC_FILE_INFO_CACHE,
     OPTIMIZER_MONITOR,
     TABLE_RUNTIME_DATA_EXPIRE,
-    HIVE_SYNC
+    HIVE_SYNC,
+    OPTIMIZE_PLAN
   }
 
   public static synchronized ThreadPool initialize(Configuration conf) {
@@ -120,6 +126,45 @@ public class ThreadPool {
     tableRuntimeDataExpirePool = Executors.newScheduledThreadPool(
         1,
         tableRuntimeDataExpirePoolThreadFactory);
+
+    // single thread executors, so commits of a table assigned to the same executor are handled in order.
+    // When the queue of an executor is full, the committing thread waits for room in the queue, so the commits stay
+    // in order and the queue bounds the memory of pending commits.
+    ThreadFactory fileCacheCommitThreadFactory = new ThreadFactoryBuilder().setDaemon(true)
+        .setNameFormat("Metastore File Cache Commit Worker %d").build();
+    fileCacheCommitPools = new ThreadPoolExecutor[
+        conf.getInteger(ArcticMetaStoreConf.FILE_CACHE_COMMIT_THREAD_POOL_SIZE)];
+    for (int i = 0; i < fileCacheCommitPools.length; i++) {
+      fileCacheCommitPools[i] = new ThreadPoolExecutor(
+          1,
+          1,
+          0,
+          TimeUnit.MILLISECONDS,
+          new LinkedBlockingQueue<>(conf.getInteger(ArcticMetaStoreConf.FILE_CACHE_COMMIT_QUEUE_SIZE)),
+          fileCacheCommitThreadFactory,
+          ThreadPool::waitForQueue);
+    }
+
+    ThreadFactory optimizePlanThreadFactory = new ThreadFactoryBuilder().setDaemon(false)
+        .setNameFormat("Metastore Optimize Plan Worker %d").build();
+    optimizePlanPool = Executors.newScheduledThreadPool(
+        conf.getInteger(ArcticMetaStoreConf.OPTIMIZE_PLAN_THREAD_POOL_SIZE),
+        optimizePlanThreadFactory);
+  }
+
+  /**
+   * Rejection handler putting the task into the queue of the executor, waiting until the queue has room.
+   */
+  private static void waitForQueue(Runnable task, ThreadPoolExecutor executor) {
+    if (executor.isShutdown()) {
+      throw new RejectedExecutionException("Executor is shut down");
+    }
+    try {
+      executor.getQueue().put(task);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException("Interrupted while waiting for the queue of executor", e);
+    }
   }
 
   public static ScheduledExecutorService getPool(Type type) {
@@ -141,6 +186,8 @@ public class ThreadPool {
         return tableRuntimeDataExpirePool;
       case HIVE_SYNC:
         return supportHiveSyncPool;
+      case OPTIMIZE_PLAN:
+        return optimizePlanPool;
       default:
         throw new RuntimeException("ThreadPool not support this type: " + type);
     }
@@ -150,6 +197,24 @@ public class ThreadPool {
     return syncFileInfoCachePool;
   }
 
+  /**
+   * @param key key of the tasks to be handled in order, like the table identifier
+   * @return the single thread executor of the key, or null if the thread pool is not initialized
+   */
+  public static ExecutorService getFileCacheCommitPool(Object key) {
+    if (self == null) {
+      return null;
+    }
+    return fileCacheCommitPools[Math.floorMod(key.hashCode(), fileCacheCommitPools.length)];
+  }
+
+  /**
+   * @return the pool to plan optimize tasks, or null if the thread pool is not initialized
+   */
+  public static ScheduledExecutorService getOptimizePlanPool() {
+    return self == null ? null : optimizePlanPool;
+  }
+
   public static synchronized void shutdown() {
     if (self != null) {
       optimizeCheckPool.shutdownNow();
@@ -160,6 +225,22 @@ public class ThreadPool {
       syncFileInfoCachePool.shutdownNow();
       tableRuntimeDataExpirePool.shutdownNow();
       supportHiveSyncPool.shutdownNow();
+      optimizePlanPool.shutdownNow();
+      // commits already queued are still written into file cache, waiting at most the drain timeout
+      for (ExecutorService pool : fileCacheCommitPools) {
+        pool.shutdown();
+      }
+      long deadline = System.currentTimeMillis() + FILE_CACHE_COMMIT_DRAIN_TIMEOUT_MS;
+      for (ExecutorService pool : fileCacheCommitPools) {
+        try {
+          if (!pool.awaitTermination(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS)) {
+            LOG.warn("{} file cache commits are not written before shutdown", pool.shutdownNow().size());
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          pool.shutdownNow();
+        }
+      }
       self = null;
     }
   }
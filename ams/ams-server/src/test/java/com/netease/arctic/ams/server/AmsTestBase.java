@@ -38,10 +38,14 @@ import com.netease.arctic.ams.server.optimize.TestOrphanFileClean;
 import com.netease.arctic.ams.server.optimize.TestOrphanFileCleanSupportHive;
 import com.netease.arctic.ams.server.optimize.TestSupportHiveMajorOptimizeCommit;
 import com.netease.arctic.ams.server.optimize.TestSupportHiveMajorOptimizePlan;
+import com.netease.arctic.ams.server.optimize.TestTableOptimizeItem;
 import com.netease.arctic.ams.server.service.MetaService;
 import com.netease.arctic.ams.server.service.ServiceContainer;
+import com.netease.arctic.ams.server.service.TestArcticTransactionService;
 import com.netease.arctic.ams.server.service.TestDDLTracerService;
 import com.netease.arctic.ams.server.service.TestFileInfoCacheService;
+import com.netease.arctic.ams.server.service.TestOptimizeQueueService;
+import com.netease.arctic.ams.server.service.TestQuotaService;
 import com.netease.arctic.ams.server.service.impl.AdaptHiveService;
 import com.netease.arctic.ams.server.service.TestSupportHiveSyncService;
 import com.netease.arctic.ams.server.service.impl.ArcticTransactionService;
@@ -96,6 +100,10 @@ import static org.powermock.api.mockito.PowerMockito.when;
     TestMinorOptimizePlan.class,
     TestOrphanFileClean.class,
     TestFileInfoCacheService.class,
+    TestArcticTransactionService.class,
+    TestOptimizeQueueService.class,
+    TestQuotaService.class,
+    TestTableOptimizeItem.class,
     TestSupportHiveMajorOptimizePlan.class,
     TestSupportHiveMajorOptimizeCommit.class,
     TestSupportHiveSyncService.class,
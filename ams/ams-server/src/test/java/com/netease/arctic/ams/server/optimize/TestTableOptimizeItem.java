@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.ams.server.optimize;
+
+import com.netease.arctic.ams.api.JobId;
+import com.netease.arctic.ams.api.JobType;
+import com.netease.arctic.ams.api.OptimizeStatus;
+import com.netease.arctic.ams.api.OptimizeTaskId;
+import com.netease.arctic.ams.api.OptimizeTaskStat;
+import com.netease.arctic.ams.api.OptimizeType;
+import com.netease.arctic.ams.server.model.BaseOptimizeTask;
+import com.netease.arctic.ams.server.model.BaseOptimizeTaskRuntime;
+import com.netease.arctic.ams.server.model.TableMetadata;
+import com.netease.arctic.ams.server.service.IQuotaService;
+import com.netease.arctic.ams.server.service.ServiceContainer;
+import com.netease.arctic.ams.server.service.impl.OptimizeQueueService;
+import com.netease.arctic.table.TableIdentifier;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+public class TestTableOptimizeItem {
+  private static final String ATTEMPT_ID = "attempt";
+
+  private final TableIdentifier tableIdentifier =
+      TableIdentifier.of("test_catalog", "test_db", "test_table_optimize_item");
+  private IQuotaService quotaService;
+  private OptimizeQueueService optimizeQueueService;
+  private TableOptimizeItem tableOptimizeItem;
+  private OptimizeTaskItem taskItem;
+
+  @Before
+  public void setUp() {
+    quotaService = mock(IQuotaService.class);
+    optimizeQueueService = mock(OptimizeQueueService.class);
+    when(ServiceContainer.getQuotaService()).thenReturn(quotaService);
+    when(ServiceContainer.getOptimizeQueueService()).thenReturn(optimizeQueueService);
+
+    TableMetadata tableMetadata = new TableMetadata();
+    tableMetadata.setTableIdentifier(tableIdentifier);
+    tableMetadata.setProperties(new HashMap<>());
+    tableOptimizeItem = new TableOptimizeItem(null, tableMetadata);
+
+    BaseOptimizeTask task = new BaseOptimizeTask();
+    task.setTaskId(new OptimizeTaskId(OptimizeType.Major, UUID.randomUUID().toString()));
+    task.setTableIdentifier(tableIdentifier.buildTableIdentifier());
+    task.setTaskGroup(UUID.randomUUID().toString());
+    taskItem = new OptimizeTaskItem(task, new BaseOptimizeTaskRuntime(task.getTaskId()));
+    tableOptimizeItem.initOptimizeTasks(Collections.singletonList(taskItem));
+    taskItem.onExecuting(jobId(), ATTEMPT_ID);
+  }
+
+  @After
+  public void tearDown() {
+    when(ServiceContainer.getQuotaService()).thenReturn(null);
+    when(ServiceContainer.getOptimizeQueueService()).thenReturn(null);
+  }
+
+  @Test
+  public void testReturnTask() throws Exception {
+    tableOptimizeItem.updateOptimizeTaskStat(taskStat(OptimizeStatus.Init));
+
+    Assert.assertEquals(OptimizeStatus.Init, taskItem.getOptimizeStatus());
+    Assert.assertNull(taskItem.getOptimizeRuntime().getAttemptId());
+    Assert.assertEquals(BaseOptimizeTaskRuntime.INVALID_TIME, taskItem.getOptimizeRuntime().getExecuteTime());
+    Assert.assertEquals(0, taskItem.getOptimizeRuntime().getRetry());
+    verify(optimizeQueueService, times(1)).submitTask(taskItem);
+    verify(quotaService, times(1)).onTaskFinished(eq(tableIdentifier), eq(taskItem.getTaskId()), anyLong(), eq(0L));
+
+    // the returned task can not be renewed or reported by the optimizer returned it
+    Assert.assertFalse(tableOptimizeItem.renewTaskLease(taskItem.getTaskId(), ATTEMPT_ID));
+    try {
+      tableOptimizeItem.updateOptimizeTaskStat(taskStat(OptimizeStatus.Executing));
+      Assert.fail("returned task is reported as started");
+    } catch (IllegalArgumentException e) {
+      // expected, the attempt does not hold the task any more
+    }
+  }
+
+  @Test
+  public void testStartLeasedTask() throws Exception {
+    long pollTime = taskItem.getOptimizeRuntime().getExecuteTime();
+    Assert.assertTrue(tableOptimizeItem.renewTaskLease(taskItem.getTaskId(), ATTEMPT_ID));
+    verify(quotaService, times(1)).onTaskLeased(tableIdentifier, taskItem.getTaskId());
+    Assert.assertFalse(tableOptimizeItem.renewTaskLease(taskItem.getTaskId(), "other_attempt"));
+
+    Thread.sleep(10);
+    tableOptimizeItem.updateOptimizeTaskStat(taskStat(OptimizeStatus.Executing));
+    Assert.assertEquals(OptimizeStatus.Executing, taskItem.getOptimizeStatus());
+    Assert.assertTrue(taskItem.isStartReported());
+    long startTime = taskItem.getOptimizeRuntime().getExecuteTime();
+    Assert.assertTrue(startTime > pollTime);
+    verify(quotaService, times(1)).onTaskExecuting(tableIdentifier, taskItem.getTaskId(), startTime);
+    verify(quotaService, never()).onTaskFinished(any(), any(), anyLong(), anyLong());
+
+    // started tasks are not accounted as leased again
+    Assert.assertTrue(tableOptimizeItem.renewTaskLease(taskItem.getTaskId(), ATTEMPT_ID));
+    verify(quotaService, times(1)).onTaskLeased(tableIdentifier, taskItem.getTaskId());
+  }
+
+  private static JobId jobId() {
+    JobId jobId = new JobId();
+    jobId.setId("optimizer");
+    jobId.setType(JobType.Optimize);
+    return jobId;
+  }
+
+  private OptimizeTaskStat taskStat(OptimizeStatus status) {
+    OptimizeTaskStat optimizeTaskStat = new OptimizeTaskStat();
+    optimizeTaskStat.setJobId(jobId());
+    optimizeTaskStat.setTableIdentifier(tableIdentifier.buildTableIdentifier());
+    optimizeTaskStat.setTaskId(taskItem.getTaskId());
+    optimizeTaskStat.setAttemptId(ATTEMPT_ID);
+    optimizeTaskStat.setStatus(status);
+    optimizeTaskStat.setReportTime(System.currentTimeMillis());
+    return optimizeTaskStat;
+  }
+}
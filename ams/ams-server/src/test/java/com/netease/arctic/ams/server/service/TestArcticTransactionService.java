@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.ams.server.service;
+
+import com.netease.arctic.TableTestBase;
+import com.netease.arctic.ams.api.TableIdentifier;
+import com.netease.arctic.ams.server.ArcticMetaStore;
+import com.netease.arctic.ams.server.config.ArcticMetaStoreConf;
+import com.netease.arctic.ams.server.service.impl.ArcticTransactionService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.netease.arctic.ams.server.AmsTestBase.AMS_TEST_CATALOG_NAME;
+import static com.netease.arctic.ams.server.AmsTestBase.AMS_TEST_DB_NAME;
+import static com.netease.arctic.ams.server.AmsTestBase.catalog;
+
+public class TestArcticTransactionService extends TableTestBase {
+
+  private com.netease.arctic.table.TableIdentifier tableId;
+  private TableIdentifier identifier;
+
+  @Before
+  public void createTransactionTable() {
+    tableId = com.netease.arctic.table.TableIdentifier.of(AMS_TEST_CATALOG_NAME, AMS_TEST_DB_NAME,
+        "tx_test_table_" + System.nanoTime());
+    catalog.newTableBuilder(tableId, TABLE_SCHEMA).withPrimaryKeySpec(PRIMARY_KEY_SPEC).create();
+    identifier = tableId.buildTableIdentifier();
+  }
+
+  @After
+  public void dropTransactionTable() {
+    ArcticMetaStore.conf.setInteger(ArcticMetaStoreConf.TRANSACTION_ID_BLOCK_SIZE,
+        ArcticMetaStoreConf.TRANSACTION_ID_BLOCK_SIZE.defaultValue());
+    catalog.dropTable(tableId, true);
+  }
+
+  @Test
+  public void testAllocateConcurrently() throws Exception {
+    ArcticMetaStore.conf.setInteger(ArcticMetaStoreConf.TRANSACTION_ID_BLOCK_SIZE, 7);
+    ArcticTransactionService service = new ArcticTransactionService();
+    int threads = 8;
+    int idsPerThread = 50;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<List<Long>>> futures = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      futures.add(executor.submit(() -> {
+        List<Long> ids = new ArrayList<>();
+        for (int j = 0; j < idsPerThread; j++) {
+          ids.add(service.allocateTransactionId(identifier, null, 3));
+        }
+        return ids;
+      }));
+    }
+    List<Long> allIds = new ArrayList<>();
+    try {
+      for (Future<List<Long>> future : futures) {
+        List<Long> ids = future.get();
+        for (int i = 1; i < ids.size(); i++) {
+          Assert.assertTrue("ids of a caller should increase", ids.get(i) > ids.get(i - 1));
+        }
+        allIds.addAll(ids);
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    // ids of one ams are unique and have no gaps, across block boundaries
+    Collections.sort(allIds);
+    for (int i = 0; i < allIds.size(); i++) {
+      Assert.assertEquals(i + 1, allIds.get(i).longValue());
+    }
+  }
+
+  @Test
+  public void testLeaseAtBlockBoundary() {
+    ArcticMetaStore.conf.setInteger(ArcticMetaStoreConf.TRANSACTION_ID_BLOCK_SIZE, 5);
+    ArcticTransactionService service = new ArcticTransactionService();
+    for (long expected = 1; expected <= 5; expected++) {
+      Assert.assertEquals(expected, service.allocateTransactionId(identifier, null, 1));
+    }
+    Assert.assertEquals(5L, currentTxId());
+
+    Assert.assertEquals(6, service.allocateTransactionId(identifier, null, 1));
+    Assert.assertEquals(10L, currentTxId());
+  }
+
+  @Test
+  public void testSkipLeasedIdsAfterRestart() {
+    ArcticMetaStore.conf.setInteger(ArcticMetaStoreConf.TRANSACTION_ID_BLOCK_SIZE, 10);
+    ArcticTransactionService service = new ArcticTransactionService();
+    Assert.assertEquals(1, service.allocateTransactionId(identifier, null, 1));
+    long signed = service.allocateTransactionId(identifier, "signature", 1);
+    Assert.assertEquals(2, signed);
+
+    // a restarted ams leases a new block, the ids left in the old block are never handed out
+    ArcticTransactionService restarted = new ArcticTransactionService();
+    Assert.assertEquals(11, restarted.allocateTransactionId(identifier, null, 1));
+    Assert.assertEquals(signed, restarted.allocateTransactionId(identifier, "signature", 1));
+    Assert.assertEquals(12, restarted.allocateTransactionId(identifier, "another signature", 1));
+    Assert.assertEquals(20L, currentTxId());
+  }
+
+  private long currentTxId() {
+    return ServiceContainer.getMetaService().loadTableMetadata(tableId).getCurrentTxId();
+  }
+}
@@ -28,19 +28,33 @@ import com.netease.arctic.ams.api.PartitionFieldData;
 import com.netease.arctic.ams.api.TableChange;
 import com.netease.arctic.ams.api.TableCommitMeta;
 import com.netease.arctic.ams.api.TableIdentifier;
+import com.netease.arctic.ams.server.ArcticMetaStore;
 import com.netease.arctic.ams.server.model.TransactionsOfTable;
+import com.netease.arctic.ams.server.service.impl.FileInfoCacheService;
+import com.netease.arctic.ams.server.utils.ThreadPool;
 import com.netease.arctic.table.KeyedTable;
 import com.netease.arctic.table.TableProperties;
 import com.netease.arctic.table.UnkeyedTable;
+import org.apache.iceberg.BaseTable;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.HasTableOperations;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.netease.arctic.ams.server.AmsTestBase.AMS_TEST_CATALOG_NAME;
@@ -168,6 +182,113 @@ public class TestFileInfoCacheService extends TableTestBase {
     Assert.assertEquals(dataFiles1.get(0).getPath(), dataFileInfos.get(0).getPath());
   }
 
+  @Test
+  public void testBatchCommit() throws MetaException {
+    TableIdentifier batchIdentifier = new TableIdentifier("test", "test", "test_batch_commit");
+    List<DataFile> addFiles = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      addFiles.add(genDatafile());
+    }
+    ServiceContainer.getFileInfoCacheService().commitCacheFileInfo(
+        genCommitMeta(batchIdentifier, -1, 1L, addFiles, null));
+    List<DataFile> addFiles1 = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      addFiles1.add(genDatafile());
+    }
+    // statements of a batch session are only sent to database on commit, inserts and updates must all be flushed
+    ServiceContainer.getFileInfoCacheService().commitCacheFileInfo(
+        genCommitMeta(batchIdentifier, 1L, 2L, addFiles1, addFiles.subList(0, 100)));
+
+    Set<String> expected = new HashSet<>();
+    addFiles.subList(100, 200).forEach(file -> expected.add(file.getPath()));
+    addFiles1.forEach(file -> expected.add(file.getPath()));
+    Set<String> cached = new HashSet<>();
+    ServiceContainer.getFileInfoCacheService().getOptimizeDatafiles(batchIdentifier, "base")
+        .forEach(file -> cached.add(file.getPath()));
+    Assert.assertEquals(expected, cached);
+    Assert.assertEquals(2, ServiceContainer.getFileInfoCacheService().getTxExcludeOptimize(batchIdentifier).size());
+    ServiceContainer.getFileInfoCacheService().deleteTableCache(
+        com.netease.arctic.table.TableIdentifier.of(batchIdentifier));
+  }
+
+  @Test
+  public void testAsyncCommit() throws Exception {
+    TableIdentifier asyncIdentifier = new TableIdentifier("test", "test", "test_async_commit");
+    ThreadPool.initialize(ArcticMetaStore.conf);
+    try {
+      // commits of a table are written in order, so every commit finds its parent cached
+      List<CompletableFuture<Void>> futures = new ArrayList<>();
+      Set<String> expected = new HashSet<>();
+      for (long snapshotId = 1; snapshotId <= 5; snapshotId++) {
+        DataFile dataFile = genDatafile();
+        expected.add(dataFile.getPath());
+        futures.add(ServiceContainer.getFileInfoCacheService().commitCacheFileInfoAsync(genCommitMeta(
+            asyncIdentifier, snapshotId == 1 ? -1 : snapshotId - 1, snapshotId,
+            Collections.singletonList(dataFile), null)));
+      }
+      for (CompletableFuture<Void> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+      Set<String> cached = new HashSet<>();
+      ServiceContainer.getFileInfoCacheService().getOptimizeDatafiles(asyncIdentifier, "base")
+          .forEach(file -> cached.add(file.getPath()));
+      Assert.assertEquals(expected, cached);
+
+      FileInfoCacheService failingService = new FileInfoCacheService() {
+        @Override
+        public void commitCacheFileInfo(TableCommitMeta tableCommitMeta) throws MetaException {
+          throw new MetaException("failed to write file cache");
+        }
+      };
+      CompletableFuture<Void> failed = failingService.commitCacheFileInfoAsync(
+          genCommitMeta(asyncIdentifier, 5L, 6L, Collections.singletonList(genDatafile()), null));
+      try {
+        failed.get(30, TimeUnit.SECONDS);
+        Assert.fail("failure of writing file cache should be surfaced");
+      } catch (ExecutionException e) {
+        Assert.assertTrue(e.getCause() instanceof MetaException);
+      }
+    } finally {
+      ThreadPool.shutdown();
+      ServiceContainer.getFileInfoCacheService().deleteTableCache(
+          com.netease.arctic.table.TableIdentifier.of(asyncIdentifier));
+    }
+  }
+
+  @Test
+  public void testFileIndexMatchesDatabase() throws MetaException {
+    TableIdentifier indexIdentifier = new TableIdentifier("test", "test", "test_file_index");
+    FileInfoCacheService service = ServiceContainer.getFileInfoCacheService();
+    try {
+      // index the table before commits, so later commits are applied to the index instead of reloaded
+      Assert.assertTrue(service.getOptimizeDatafiles(indexIdentifier, "base").isEmpty());
+
+      List<DataFile> addFiles = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        addFiles.add(genDatafile(i % 2 == 0 ? "2022-08-31" : "2022-09-01", 3, i % 4));
+      }
+      service.commitCacheFileInfo(genCommitMeta(indexIdentifier, -1, 1L, addFiles, null));
+      assertIndexMatchesDatabase(service, indexIdentifier);
+
+      List<DataFile> addFiles1 = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        addFiles1.add(genDatafile("2022-09-01", 1, i % 2));
+      }
+      service.commitCacheFileInfo(genCommitMeta(indexIdentifier, 1L, 2L, addFiles1, addFiles.subList(0, 5)));
+      assertIndexMatchesDatabase(service, indexIdentifier);
+
+      service.commitCacheFileInfo(genCommitMeta(indexIdentifier, 2L, 3L, Collections.emptyList(), addFiles1));
+      assertIndexMatchesDatabase(service, indexIdentifier);
+
+      // expiring removes rows of deleted files only, live files of the index are kept
+      service.expiredCache(System.currentTimeMillis() + 60000);
+      assertIndexMatchesDatabase(service, indexIdentifier);
+      Assert.assertEquals(3, service.getOptimizeDatafiles(indexIdentifier, "base").size());
+    } finally {
+      service.deleteTableCache(com.netease.arctic.table.TableIdentifier.of(indexIdentifier));
+    }
+  }
+
   @Test
   public void testUnkeyedTableSyncFileCache() {
     com.netease.arctic.table.TableIdentifier tableId =
@@ -192,6 +313,73 @@ public class TestFileInfoCacheService extends TableTestBase {
     testSyncFileCache(fileSyncKeyedTable.baseTable(), tableId);
   }
 
+  @Test
+  public void testUnkeyedTableIncrementalSyncFileCache() {
+    com.netease.arctic.table.TableIdentifier tableId =
+        com.netease.arctic.table.TableIdentifier.of(AMS_TEST_CATALOG_NAME, AMS_TEST_DB_NAME,
+            "file_incremental_sync_test_unkeyed_table");
+    UnkeyedTable table = catalog.newTableBuilder(tableId, TABLE_SCHEMA).withPartitionSpec(SPEC).create()
+        .asUnkeyedTable();
+    testIncrementalSyncFileCache(table, tableId);
+  }
+
+  @Test
+  public void testKeyedTableIncrementalSyncFileCache() {
+    com.netease.arctic.table.TableIdentifier tableId =
+        com.netease.arctic.table.TableIdentifier.of(AMS_TEST_CATALOG_NAME, AMS_TEST_DB_NAME,
+            "file_incremental_sync_test_keyed_table");
+    KeyedTable table = catalog.newTableBuilder(tableId, TABLE_SCHEMA).withPrimaryKeySpec(PRIMARY_KEY_SPEC)
+        .withPartitionSpec(SPEC).create().asKeyedTable();
+    testIncrementalSyncFileCache(table.baseTable(), tableId);
+  }
+
+  public void testIncrementalSyncFileCache(UnkeyedTable table, com.netease.arctic.table.TableIdentifier tableId) {
+    FileInfoCacheService service = ServiceContainer.getFileInfoCacheService();
+    TableIdentifier identifier = tableId.buildTableIdentifier();
+    org.apache.iceberg.DataFile fileA = genIcebergDataFile("a", "2022-01-01");
+    org.apache.iceberg.DataFile fileB = genIcebergDataFile("b", "2022-01-02");
+    org.apache.iceberg.DataFile fileC = genIcebergDataFile("c", "2022-01-03");
+    org.apache.iceberg.DataFile fileD = genIcebergDataFile("d", "2022-01-03");
+    table.newFastAppend().appendFile(fileA).commit();
+
+    // commit without tracing, so file cache misses these snapshots and has to sync them from the table
+    Table untraced = new BaseTable(((HasTableOperations) table).operations(), table.name());
+    untraced.newFastAppend().appendFile(fileB).appendFile(fileC).commit();
+    untraced.newOverwrite().deleteFile(fileA).addFile(fileD).commit();
+    untraced.newOverwrite().deleteFile(fileC).commit();
+    table.refresh();
+    Assert.assertEquals(1, service.getTxExcludeOptimize(identifier).size());
+
+    service.syncTableFileInfo(table, identifier, "base");
+    Set<String> incrementalFiles = new HashSet<>();
+    service.getOptimizeDatafiles(identifier, "base").forEach(file -> incrementalFiles.add(file.getPath()));
+    List<TransactionsOfTable> incrementalSnapInfos = service.getTxExcludeOptimize(identifier);
+    // snapshots since the cached one are synced one by one, instead of caching the current snapshot only
+    Assert.assertEquals(4, incrementalSnapInfos.size());
+    Assert.assertEquals(table.currentSnapshot().snapshotId(), incrementalSnapInfos.get(0).getTransactionId());
+
+    service.deleteTableCache(tableId);
+    service.syncTableFileInfo(table, identifier, "base");
+    Set<String> rescanFiles = new HashSet<>();
+    service.getOptimizeDatafiles(identifier, "base").forEach(file -> rescanFiles.add(file.getPath()));
+    List<TransactionsOfTable> rescanSnapInfos = service.getTxExcludeOptimize(identifier);
+    Assert.assertEquals(1, rescanSnapInfos.size());
+    Assert.assertEquals(table.currentSnapshot().snapshotId(), rescanSnapInfos.get(0).getTransactionId());
+
+    Assert.assertEquals(rescanFiles, incrementalFiles);
+    Assert.assertEquals(Sets.newHashSet(fileB.path().toString(), fileD.path().toString()), incrementalFiles);
+    service.deleteTableCache(tableId);
+  }
+
+  private org.apache.iceberg.DataFile genIcebergDataFile(String name, String day) {
+    return DataFiles.builder(SPEC)
+        .withPath("/path/to/incremental-sync-" + name + ".parquet")
+        .withFileSizeInBytes(0)
+        .withPartitionPath("op_time_day=" + day)
+        .withRecordCount(2)
+        .build();
+  }
+
   public void testSyncFileCache(UnkeyedTable fileSyncUnkeyedTable, com.netease.arctic.table.TableIdentifier tableId) {
     fileSyncUnkeyedTable.newFastAppend()
         .appendFile(FILE_A)
@@ -254,12 +442,51 @@ public class TestFileInfoCacheService extends TableTestBase {
         overwriteSnapInfos.get(0).getTransactionId());
   }
 
+  private void assertIndexMatchesDatabase(FileInfoCacheService service, TableIdentifier identifier) {
+    // a new service has nothing indexed, so it reads files from database
+    List<DataFileInfo> database = new FileInfoCacheService().getOptimizeDatafiles(identifier, "base");
+    Assert.assertEquals(fileKeys(database), fileKeys(service.getOptimizeDatafiles(identifier, "base")));
+  }
+
+  private Set<String> fileKeys(List<DataFileInfo> files) {
+    Set<String> keys = new HashSet<>();
+    files.forEach(file -> keys.add(file.getPath() + "," + file.getType() + "," + file.getSize() + "," +
+        file.getMask() + "," + file.getIndex() + "," + file.getPartition() + "," + file.getRecordCount()));
+    return keys;
+  }
+
+  private TableCommitMeta genCommitMeta(TableIdentifier identifier, long parentSnapshotId, long snapshotId,
+                                        List<DataFile> addFiles, List<DataFile> deleteFiles) {
+    TableCommitMeta meta = new TableCommitMeta();
+    meta.setAction("append");
+    meta.setCommitTime(System.currentTimeMillis());
+    meta.setCommitMetaProducer(CommitMetaProducer.INGESTION);
+    meta.setTableIdentifier(identifier);
+    TableChange change = new TableChange();
+    change.setParentSnapshotId(parentSnapshotId);
+    change.setSnapshotId(snapshotId);
+    change.setInnerTable("base");
+    change.setAddFiles(addFiles);
+    if (deleteFiles != null) {
+      change.setDeleteFiles(deleteFiles);
+    }
+    meta.setChanges(Collections.singletonList(change));
+    Map<String, String> properties = new HashMap<>();
+    properties.put(TableProperties.TABLE_EVENT_TIME_FIELD, "eventTime");
+    meta.setProperties(properties);
+    return meta;
+  }
+
   private DataFile genDatafile() {
+    return genDatafile("2022-08-31", 0, 0);
+  }
+
+  private DataFile genDatafile(String partition, long mask, long index) {
     DataFile dataFile = new DataFile();
     dataFile.setFileSize(1);
     dataFile.setFileType("INSERT_FILE");
-    dataFile.setIndex(0);
-    dataFile.setMask(0);
+    dataFile.setIndex(index);
+    dataFile.setMask(mask);
     dataFile.setPath("/tmp/test" + random.nextInt() + ".file");
     Map<String, ByteBuffer> upperBounds = new HashMap<>();
     byte[] bytes = ByteBuffer.allocate(Long.SIZE / Byte.SIZE).putLong(1000L).array();
@@ -267,7 +494,7 @@ public class TestFileInfoCacheService extends TableTestBase {
     dataFile.setUpperBounds(upperBounds);
     PartitionFieldData partitionFieldData = new PartitionFieldData();
     partitionFieldData.setName("pt");
-    partitionFieldData.setValue("2022-08-31");
+    partitionFieldData.setValue(partition);
     List<PartitionFieldData> partitionFieldDataList = new ArrayList<>();
     partitionFieldDataList.add(partitionFieldData);
     dataFile.setPartition(partitionFieldDataList);
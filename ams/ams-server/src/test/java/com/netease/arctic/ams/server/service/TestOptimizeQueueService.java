@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.ams.server.service;
+
+import com.netease.arctic.ams.api.JobId;
+import com.netease.arctic.ams.api.OptimizeStatus;
+import com.netease.arctic.ams.api.OptimizeTask;
+import com.netease.arctic.ams.server.ArcticMetaStore;
+import com.netease.arctic.ams.server.config.ArcticMetaStoreConf;
+import com.netease.arctic.ams.server.model.BaseOptimizeTask;
+import com.netease.arctic.ams.server.model.OptimizeQueueMeta;
+import com.netease.arctic.ams.server.model.TableTaskHistory;
+import com.netease.arctic.ams.server.optimize.OptimizeTaskItem;
+import com.netease.arctic.ams.server.service.impl.OptimizeQueueService;
+import com.netease.arctic.ams.server.utils.ThreadPool;
+import com.netease.arctic.table.TableIdentifier;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+public class TestOptimizeQueueService {
+
+  private static final int QUEUE_ID = 1;
+  private static final long WAIT_TIMEOUT = 10000;
+
+  private TestQueue queue;
+
+  @Before
+  public void setUp() {
+    when(ServiceContainer.getQuotaService()).thenReturn(mock(IQuotaService.class));
+    when(ServiceContainer.getTableTaskHistoryService()).thenReturn(mock(ITableTaskHistoryService.class));
+    OptimizeQueueMeta queueMeta = new OptimizeQueueMeta();
+    queueMeta.setQueueId(QUEUE_ID);
+    queueMeta.setName("test_plan_queue");
+    queue = new TestQueue(queueMeta);
+  }
+
+  @After
+  public void tearDown() {
+    ThreadPool.shutdown();
+    ArcticMetaStore.conf.setInteger(ArcticMetaStoreConf.OPTIMIZE_PLAN_THREAD_POOL_SIZE,
+        ArcticMetaStoreConf.OPTIMIZE_PLAN_THREAD_POOL_SIZE.defaultValue());
+    ArcticMetaStore.conf.setInteger(ArcticMetaStoreConf.OPTIMIZE_QUEUE_TARGET_DEPTH,
+        ArcticMetaStoreConf.OPTIMIZE_QUEUE_TARGET_DEPTH.defaultValue());
+    when(ServiceContainer.getQuotaService()).thenReturn(null);
+    when(ServiceContainer.getTableTaskHistoryService()).thenReturn(null);
+  }
+
+  @Test
+  public void testPlanOnBindAndCommit() throws Exception {
+    ThreadPool.initialize(ArcticMetaStore.conf);
+    TableIdentifier table = TableIdentifier.of("test_catalog", "test_db", "test_plan_on_commit");
+    queue.bindTable(table);
+    queue.awaitPlans(1);
+    Assert.assertEquals(Collections.singletonList(table), queue.plannedTables);
+
+    queue.markDirty(table);
+    queue.awaitPlans(2);
+    Assert.assertEquals(2, queue.size());
+
+    // commits of tables not bound to the queue are ignored
+    queue.markDirty(TableIdentifier.of("test_catalog", "test_db", "test_not_bound"));
+    Thread.sleep(200);
+    Assert.assertEquals(2, queue.plannedTables.size());
+
+    queue.releaseTable(table);
+    Assert.assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void testPlanToTargetDepth() throws Exception {
+    ArcticMetaStore.conf.setInteger(ArcticMetaStoreConf.OPTIMIZE_PLAN_THREAD_POOL_SIZE, 1);
+    ArcticMetaStore.conf.setInteger(ArcticMetaStoreConf.OPTIMIZE_QUEUE_TARGET_DEPTH, 2);
+    ThreadPool.initialize(ArcticMetaStore.conf);
+    for (int i = 0; i < 5; i++) {
+      queue.bindTable(TableIdentifier.of("test_catalog", "test_db", "test_target_depth_" + i));
+    }
+    queue.awaitPlans(2);
+    Thread.sleep(200);
+    // dirty tables are left to plan until tasks of the queue are polled
+    Assert.assertEquals(2, queue.plannedTables.size());
+    Assert.assertEquals(2, queue.size());
+
+    Assert.assertNotNull(queue.poll(new JobId(), "attempt", 0));
+    queue.awaitPlans(3);
+    Thread.sleep(200);
+    Assert.assertEquals(3, queue.plannedTables.size());
+    Assert.assertEquals(2, queue.size());
+  }
+
+  @Test
+  public void testReplanTableCommittedDuringPlan() throws Exception {
+    ThreadPool.initialize(ArcticMetaStore.conf);
+    TableIdentifier table = TableIdentifier.of("test_catalog", "test_db", "test_commit_during_plan");
+    CountDownLatch planning = new CountDownLatch(1);
+    CountDownLatch committed = new CountDownLatch(1);
+    queue.blockPlan(table, planning, committed);
+    queue.bindTable(table);
+    Assert.assertTrue(planning.await(WAIT_TIMEOUT, TimeUnit.MILLISECONDS));
+
+    // the table is still planning, so it is marked dirty again instead of planned concurrently
+    queue.markDirty(table);
+    Thread.sleep(200);
+    Assert.assertEquals(0, queue.plannedTables.size());
+    committed.countDown();
+
+    queue.awaitPlans(2);
+    Assert.assertEquals(2, queue.plannedTables.size());
+    Assert.assertEquals(1, queue.maxConcurrentPlans.get());
+  }
+
+  @Test
+  public void testPlanInPollingThreadWithoutPlanPool() {
+    TableIdentifier table = TableIdentifier.of("test_catalog", "test_db", "test_plan_without_pool");
+    queue.bindTable(table);
+    Assert.assertTrue(queue.plannedTables.isEmpty());
+
+    OptimizeTask task = queue.poll(new JobId(), "attempt", WAIT_TIMEOUT);
+    Assert.assertNotNull(task);
+    Assert.assertEquals(Collections.singletonList(table), queue.plannedTables);
+    Assert.assertEquals(Collections.singletonList(Thread.currentThread()), queue.planThreads);
+  }
+
+  private static class TestQueue extends OptimizeQueueService.OptimizeQueueWrapper {
+    private final List<TableIdentifier> plannedTables = new CopyOnWriteArrayList<>();
+    private final List<Thread> planThreads = new CopyOnWriteArrayList<>();
+    private final Map<TableIdentifier, CountDownLatch[]> blockedTables = new ConcurrentHashMap<>();
+    private final AtomicInteger concurrentPlans = new AtomicInteger();
+    private final AtomicInteger maxConcurrentPlans = new AtomicInteger();
+
+    TestQueue(OptimizeQueueMeta optimizeQueue) {
+      super(optimizeQueue);
+    }
+
+    void blockPlan(TableIdentifier table, CountDownLatch planning, CountDownLatch committed) {
+      blockedTables.put(table, new CountDownLatch[] {planning, committed});
+    }
+
+    @Override
+    protected List<OptimizeTaskItem> planTable(TableIdentifier tableIdentifier, long currentTime) {
+      maxConcurrentPlans.accumulateAndGet(concurrentPlans.incrementAndGet(), Math::max);
+      try {
+        CountDownLatch[] latches = blockedTables.remove(tableIdentifier);
+        if (latches != null) {
+          latches[0].countDown();
+          latches[1].await(WAIT_TIMEOUT, TimeUnit.MILLISECONDS);
+        }
+        OptimizeTaskItem task = mockTask(tableIdentifier);
+        addIntoOptimizeQueue(task);
+        planThreads.add(Thread.currentThread());
+        plannedTables.add(tableIdentifier);
+        return Collections.singletonList(task);
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      } finally {
+        concurrentPlans.decrementAndGet();
+      }
+    }
+
+    @Override
+    protected List<TableIdentifier> sortTableByQuota(List<TableIdentifier> tables) {
+      return new ArrayList<>(tables);
+    }
+
+    void awaitPlans(int count) throws InterruptedException {
+      long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+      while (plannedTables.size() < count && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      Assert.assertTrue("tables are not planned in time", plannedTables.size() >= count);
+    }
+
+    private static OptimizeTaskItem mockTask(TableIdentifier tableIdentifier) {
+      BaseOptimizeTask optimizeTask = new BaseOptimizeTask();
+      optimizeTask.setQueueId(QUEUE_ID);
+      OptimizeTaskItem task = mock(OptimizeTaskItem.class);
+      when(task.getTableIdentifier()).thenReturn(tableIdentifier);
+      when(task.getOptimizeStatus()).thenReturn(OptimizeStatus.Pending);
+      when(task.getOptimizeTask()).thenReturn(optimizeTask);
+      when(task.onExecuting(any(), any())).thenReturn(new TableTaskHistory());
+      return task;
+    }
+  }
+}
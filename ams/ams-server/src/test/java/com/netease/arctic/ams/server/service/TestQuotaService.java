@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.ams.server.service;
+
+import com.netease.arctic.ams.api.OptimizeTaskId;
+import com.netease.arctic.ams.api.OptimizeType;
+import com.netease.arctic.ams.server.model.TableTaskHistory;
+import com.netease.arctic.ams.server.service.impl.QuotaService;
+import com.netease.arctic.table.TableIdentifier;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.netease.arctic.ams.server.service.impl.QuotaService.BUCKET_INTERVAL;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+public class TestQuotaService {
+
+  private static final long WINDOW = QuotaService.USAGE_WINDOW;
+  private static final long SECOND = 1000L;
+  // aligned with buckets, so bucket boundaries are known
+  private static final long BASE_TIME = 1000 * BUCKET_INTERVAL;
+
+  private final OptimizeTaskId taskId = new OptimizeTaskId(OptimizeType.Major, "task-1");
+  private final OptimizeTaskId taskId2 = new OptimizeTaskId(OptimizeType.Major, "task-2");
+
+  @Test
+  public void testBucketRollover() {
+    QuotaService.TableUsage usage = new QuotaService.TableUsage(0);
+    usage.onExecuting(taskId, BASE_TIME);
+    usage.onFinished(taskId, BASE_TIME + 10 * SECOND, 10 * SECOND);
+    Assert.assertEquals(10 * SECOND, usage.usage(BASE_TIME + 10 * SECOND - WINDOW, BASE_TIME + 10 * SECOND));
+
+    // a task finished one window later is written into the same slot of ring buckets, replacing the expired cost
+    long laterTime = BASE_TIME + WINDOW + BUCKET_INTERVAL;
+    usage.onExecuting(taskId2, laterTime);
+    usage.onFinished(taskId2, laterTime + 5 * SECOND, 5 * SECOND);
+    Assert.assertEquals(5 * SECOND, usage.usage(laterTime + 5 * SECOND - WINDOW, laterTime + 5 * SECOND));
+    Assert.assertEquals(0, usage.usage(BASE_TIME, BASE_TIME + 10 * SECOND));
+  }
+
+  @Test
+  public void testTaskSpanningBuckets() {
+    QuotaService.TableUsage usage = new QuotaService.TableUsage(0);
+    long startTime = BASE_TIME + 50 * SECOND;
+    long endTime = BASE_TIME + 2 * BUCKET_INTERVAL + 10 * SECOND;
+    usage.onExecuting(taskId, startTime);
+    usage.onFinished(taskId, endTime, endTime - startTime);
+
+    Assert.assertEquals(endTime - startTime, usage.usage(BASE_TIME, endTime));
+    Assert.assertEquals(10 * SECOND, usage.usage(BASE_TIME, BASE_TIME + 1));
+    Assert.assertEquals(BUCKET_INTERVAL, usage.usage(BASE_TIME + BUCKET_INTERVAL, BASE_TIME + BUCKET_INTERVAL + 1));
+    Assert.assertEquals(10 * SECOND, usage.usage(BASE_TIME + 2 * BUCKET_INTERVAL, endTime));
+
+    // cpu time out of the window is not accounted
+    QuotaService.TableUsage longUsage = new QuotaService.TableUsage(0);
+    longUsage.onExecuting(taskId, BASE_TIME);
+    longUsage.onFinished(taskId, BASE_TIME + 2 * WINDOW, 2 * WINDOW);
+    Assert.assertEquals(WINDOW, longUsage.usage(BASE_TIME, BASE_TIME + 2 * WINDOW));
+  }
+
+  @Test
+  public void testExecutingTaskUsage() {
+    QuotaService.TableUsage usage = new QuotaService.TableUsage(0);
+    usage.onExecuting(taskId, BASE_TIME);
+    Assert.assertEquals(30 * SECOND, usage.usage(BASE_TIME + 30 * SECOND - WINDOW, BASE_TIME + 30 * SECOND));
+    Assert.assertEquals(20 * SECOND, usage.usage(BASE_TIME + 10 * SECOND, BASE_TIME + 30 * SECOND));
+
+    // finished task is accounted once in buckets, instead of also as executing
+    usage.onFinished(taskId, BASE_TIME + 40 * SECOND, 40 * SECOND);
+    Assert.assertEquals(40 * SECOND, usage.usage(BASE_TIME + 40 * SECOND - WINDOW, BASE_TIME + 40 * SECOND));
+
+    usage.onExecuting(taskId2, BASE_TIME + 40 * SECOND);
+    usage.clearExecuting();
+    Assert.assertEquals(40 * SECOND, usage.usage(BASE_TIME + 50 * SECOND - WINDOW, BASE_TIME + 50 * SECOND));
+  }
+
+  @Test
+  public void testTaskExecutedBeforeLoading() {
+    long loadTime = BASE_TIME + 20 * SECOND;
+    QuotaService.TableUsage usage = new QuotaService.TableUsage(loadTime);
+    // cpu time before loading is loaded from task histories, only the time after loading is added when finished
+    usage.onFinished(taskId, loadTime + 10 * SECOND, 30 * SECOND);
+    Assert.assertEquals(10 * SECOND, usage.usage(loadTime + 10 * SECOND - WINDOW, loadTime + 10 * SECOND));
+  }
+
+  @Test
+  public void testLoadUsageFromTaskHistories() {
+    TableIdentifier tableIdentifier = TableIdentifier.of("test_catalog", "test_db", "test_quota");
+    long now = System.currentTimeMillis();
+    TableTaskHistory committed = new TableTaskHistory();
+    committed.setStartTime(now - 30 * 60 * SECOND);
+    committed.setEndTime(now - 20 * 60 * SECOND);
+    committed.setCostTime(10 * 60 * SECOND);
+    TableTaskHistory executing = new TableTaskHistory();
+    executing.setStartTime(now - 5 * 60 * SECOND);
+    ITableTaskHistoryService tableTaskHistoryService = mock(ITableTaskHistoryService.class);
+    when(tableTaskHistoryService.selectTaskHistoryByTableIdAndTime(any(), anyLong(), anyLong()))
+        .thenReturn(Arrays.asList(committed, executing));
+    QuotaService quotaService = new QuotaService(tableTaskHistoryService, mock(IMetaService.class));
+
+    Assert.assertEquals(0.25, quotaService.getUsedCoreCount(tableIdentifier), 0.01);
+    quotaService.onTaskExecuting(tableIdentifier, taskId, System.currentTimeMillis());
+    quotaService.onTaskFinished(tableIdentifier, taskId2, System.currentTimeMillis(), 5 * 60 * SECOND);
+    Assert.assertEquals(0.25, quotaService.getUsedCoreCount(tableIdentifier), 0.01);
+    verify(tableTaskHistoryService, times(1)).selectTaskHistoryByTableIdAndTime(any(), anyLong(), anyLong());
+
+    // usage of dropped table is loaded again when accessed
+    quotaService.onTableDropped(tableIdentifier);
+    when(tableTaskHistoryService.selectTaskHistoryByTableIdAndTime(any(), anyLong(), anyLong()))
+        .thenReturn(Collections.emptyList());
+    Assert.assertEquals(0, quotaService.getUsedCoreCount(tableIdentifier), 0.01);
+    verify(tableTaskHistoryService, times(2)).selectTaskHistoryByTableIdAndTime(any(), anyLong(), anyLong());
+  }
+}
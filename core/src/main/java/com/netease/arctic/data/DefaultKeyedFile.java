@@ -175,6 +175,11 @@ public class DefaultKeyedFile implements PrimaryKeyedFile, Serializable {
     return internalFile.splitOffsets();
   }
 
+  @Override
+  public Integer sortOrderId() {
+    return internalFile.sortOrderId();
+  }
+
   @Override
   public DataFile copy() {
     return new DefaultKeyedFile(internalFile.copy());
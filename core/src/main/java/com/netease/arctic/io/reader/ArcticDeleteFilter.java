@@ -22,13 +22,13 @@ import com.netease.arctic.data.ChangedLsn;
 import com.netease.arctic.data.DataTreeNode;
 import com.netease.arctic.data.PrimaryKeyedFile;
 import com.netease.arctic.iceberg.optimize.InternalRecordWrapper;
-import com.netease.arctic.iceberg.optimize.StructLikeMap;
 import com.netease.arctic.iceberg.optimize.StructProjection;
 import com.netease.arctic.io.ArcticFileIO;
 import com.netease.arctic.scan.ArcticFileScanTask;
 import com.netease.arctic.scan.KeyedTableScanTask;
 import com.netease.arctic.table.MetadataColumns;
 import com.netease.arctic.table.PrimaryKeySpec;
+import com.netease.arctic.table.TableProperties;
 import com.netease.arctic.utils.NodeFilter;
 import org.apache.iceberg.Accessor;
 import org.apache.iceberg.DeleteFile;
@@ -39,7 +39,6 @@ import org.apache.iceberg.data.Record;
 import org.apache.iceberg.data.avro.DataReader;
 import org.apache.iceberg.data.parquet.GenericParquetReaders;
 import org.apache.iceberg.io.CloseableIterable;
-import org.apache.iceberg.io.CloseableIterator;
 import org.apache.iceberg.io.InputFile;
 import org.apache.iceberg.parquet.Parquet;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
@@ -49,16 +48,22 @@ import org.apache.iceberg.relocated.com.google.common.collect.Sets;
 import org.apache.iceberg.types.TypeUtil;
 import org.apache.iceberg.types.Types;
 import org.apache.iceberg.util.Filter;
+import org.apache.iceberg.util.PropertyUtil;
 
+import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -67,7 +72,7 @@ import java.util.stream.Collectors;
  *
  * @param <T> to indicate the record data type.
  */
-public abstract class ArcticDeleteFilter<T> {
+public abstract class ArcticDeleteFilter<T> implements Closeable {
 
   private static final Schema POS_DELETE_SCHEMA = new Schema(
       org.apache.iceberg.MetadataColumns.DELETE_FILE_PATH,
@@ -89,13 +94,13 @@ public abstract class ArcticDeleteFilter<T> {
   private final Schema deleteSchema;
   private final Filter<Record> deleteNodeFilter;
   private Predicate<T> eqPredicate;
-  private Map<String, Set<Long>> positionMap;
+  private EqDeleteIndex eqDeleteIndex;
+  private Map<String, PositionBitmap[]> positionMap;
   private final Accessor<StructLike> posAccessor;
   private final Accessor<StructLike> filePathAccessor;
   private final Set<String> pathSets;
 
   private String currentDataPath;
-  private Set<Long> currentPosSet;
 
   protected ArcticDeleteFilter(
       KeyedTableScanTask keyedTableScanTask, Schema tableSchema,
@@ -167,6 +172,27 @@ public abstract class ArcticDeleteFilter<T> {
     return null;
   }
 
+  /**
+   * @return table properties used to configure the equality delete index, see {@link EqDeleteIndex#create}
+   */
+  protected Map<String, String> tableProperties() {
+    return Collections.emptyMap();
+  }
+
+  /**
+   * @return local directory a spillable equality delete index writes its runs to
+   */
+  protected File spillDirectory() {
+    return EqDeleteIndex.defaultSpillDirectory();
+  }
+
+  /**
+   * Create the index of equality deletes, keyed by primary key fields in the order of {@link #requiredSchema()}.
+   */
+  protected EqDeleteIndex newEqDeleteIndex(Types.StructType primaryKeyType) {
+    return EqDeleteIndex.create(primaryKeyType, tableProperties(), spillDirectory());
+  }
+
   /**
    * @return The data not in equity delete file
    */
@@ -183,7 +209,6 @@ public abstract class ArcticDeleteFilter<T> {
 
   public void setCurrentDataPath(String currentDataPath) {
     this.currentDataPath = currentDataPath;
-    this.currentPosSet = null;
   }
 
   private ChangedLsn deleteLSN(StructLike structLike) {
@@ -207,18 +232,90 @@ public abstract class ArcticDeleteFilter<T> {
       return record -> false;
     }
 
+    Predicate<StructLike> isDeleted = eqDeletes(requiredSchema);
+    Predicate<T> isInDeleteSet = record -> isDeleted.test(asStructLike(record));
+
+    this.eqPredicate = isInDeleteSet;
+    return isInDeleteSet;
+  }
+
+  private CloseableIterable<T> applyEqDeletes(CloseableIterable<T> records, Predicate<T> predicate) {
+    if (eqDeletes.isEmpty()) {
+      return records;
+    }
+
+    Filter<T> remainingRowsFilter = new Filter<T>() {
+      @Override
+      protected boolean shouldKeep(T item) {
+        return predicate.test(item);
+      }
+    };
+
+    return remainingRowsFilter.filter(records);
+  }
+
+  /**
+   * Test rows against equality deletes, for readers applying deletes to the rows by themselves, e.g. vectorized
+   * readers.
+   *
+   * @param dataSchema schema of the rows, containing the primary key and lsn columns of {@link #requiredSchema()}
+   * @return a predicate returning true if the row is deleted, or null if the task has no equality delete
+   */
+  public Predicate<StructLike> eqDeletes(Schema dataSchema) {
+    if (eqDeletes.isEmpty()) {
+      return null;
+    }
+
+    Schema pkSchema = TypeUtil.select(requiredSchema, primaryKeyId);
+    StructProjection dataPKProjectRow = StructProjection.create(dataSchema, pkSchema);
+    Accessor<StructLike> transactionIdAccessor = dataSchema.accessorForField(MetadataColumns.TRANSACTION_ID_FILED_ID);
+    Accessor<StructLike> offsetAccessor = dataSchema.accessorForField(MetadataColumns.FILE_OFFSET_FILED_ID);
+    EqDeleteIndex index = eqDeleteIndex();
+
+    return data -> {
+      ChangedLsn deleteLsn = index.get(dataPKProjectRow.wrap(data));
+      if (deleteLsn == null) {
+        return false;
+      }
+      ChangedLsn dataLSN = ChangedLsn.of((Long) transactionIdAccessor.get(data), (Long) offsetAccessor.get(data));
+      return deleteLsn.compareTo(dataLSN) > 0;
+    };
+  }
+
+  /**
+   * Deleted positions of a data file, for readers applying deletes to the rows by themselves, e.g. vectorized
+   * readers.
+   *
+   * @return bitmaps of deleted positions, or null if no row of the file is deleted by position
+   */
+  public PositionBitmap[] deletedPositions(String dataPath) {
+    if (posDeletes.isEmpty()) {
+      return null;
+    }
+    if (positionMap == null) {
+      positionMap = loadPositionMap();
+    }
+    return positionMap.get(dataPath);
+  }
+
+  /**
+   * @return the index of all equality deletes of the task, built on the first call
+   */
+  protected EqDeleteIndex eqDeleteIndex() {
+    if (eqDeleteIndex != null) {
+      return eqDeleteIndex;
+    }
+
     Schema pkSchema = TypeUtil.select(requiredSchema, primaryKeyId);
     // a projection to select and reorder fields of the file schema to match the delete rows
     StructProjection deletePKProjectRow = StructProjection.create(deleteSchema, pkSchema);
-    StructProjection dataPKProjectRow = StructProjection.create(requiredSchema, pkSchema);
 
     Iterable<CloseableIterable<Record>> deleteRecords = Iterables.transform(
         eqDeletes,
         this::openDeletes);
 
-    // copy the delete records because they will be held in a map
-    CloseableIterable<Record> records = CloseableIterable.transform(
-        CloseableIterable.concat(deleteRecords), Record::copy);
+    // the index copies or encodes the primary key, so delete records can be reused
+    CloseableIterable<Record> records = CloseableIterable.concat(deleteRecords);
     if (deleteNodeFilter != null) {
       records = deleteNodeFilter.filter(records);
     }
@@ -226,54 +323,49 @@ public abstract class ArcticDeleteFilter<T> {
     CloseableIterable<StructLike> structLikeIterable = CloseableIterable.transform(
         records, record -> new InternalRecordWrapper(deleteSchema.asStruct()).wrap(record));
 
-    StructLikeMap<ChangedLsn> structLikeMap = StructLikeMap.create(pkSchema.asStruct());
-    //init map
+    EqDeleteIndex index = newEqDeleteIndex(pkSchema.asStruct());
+    //init index
     try (CloseableIterable<StructLike> deletes = structLikeIterable) {
       Iterator<StructLike> it = getArcticFileIo() == null ? deletes.iterator()
           : getArcticFileIo().doAs(deletes::iterator);
       while (it.hasNext()) {
         StructLike structLike = it.next();
-        StructLike deletePK = deletePKProjectRow.copyWrap(structLike);
-        ChangedLsn deleteLsn = deleteLSN(structLike);
-
-        ChangedLsn old = structLikeMap.get(deletePK);
-        if (old == null || old.compareTo(deleteLsn) <= 0) {
-          structLikeMap.put(deletePK, deleteLsn);
-        }
+        index.put(deletePKProjectRow.wrap(structLike), deleteLSN(structLike));
       }
-    } catch (IOException e) {
-      e.printStackTrace();
+    } catch (IOException | RuntimeException e) {
+      // never keep a partial index, which would bring deleted rows back
+      closeQuietly(index, e);
+      if (e instanceof IOException) {
+        throw new UncheckedIOException("Failed to read equality delete files", (IOException) e);
+      }
+      throw (RuntimeException) e;
     }
+    this.eqDeleteIndex = index;
+    return index;
+  }
 
-    Predicate<T> isInDeleteSet = record -> {
-      StructLike data = asStructLike(record);
-      StructLike dataPk = dataPKProjectRow.copyWrap(data);
-      ChangedLsn dataLSN = dataLSN(data);
-      ChangedLsn deleteLsn = structLikeMap.get(dataPk);
-      if (deleteLsn == null) {
-        return false;
+  /**
+   * Release the equality delete index, including any data spilled to local disk.
+   */
+  @Override
+  public void close() {
+    if (eqDeleteIndex != null) {
+      try {
+        eqDeleteIndex.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to close equality delete index", e);
       }
-
-      return deleteLsn.compareTo(dataLSN) > 0;
-    };
-
-    this.eqPredicate = isInDeleteSet;
-    return isInDeleteSet;
+      eqDeleteIndex = null;
+      eqPredicate = null;
+    }
   }
 
-  private CloseableIterable<T> applyEqDeletes(CloseableIterable<T> records, Predicate<T> predicate) {
-    if (eqDeletes.isEmpty()) {
-      return records;
+  private static void closeQuietly(EqDeleteIndex index, Exception cause) {
+    try {
+      index.close();
+    } catch (IOException | RuntimeException e) {
+      cause.addSuppressed(e);
     }
-
-    Filter<T> remainingRowsFilter = new Filter<T>() {
-      @Override
-      protected boolean shouldKeep(T item) {
-        return predicate.test(item);
-      }
-    };
-
-    return remainingRowsFilter.filter(records);
   }
 
   private CloseableIterable<Record> openDeletes(PrimaryKeyedFile deleteFile) {
@@ -309,53 +401,100 @@ public abstract class ArcticDeleteFilter<T> {
       return records;
     }
 
-    // if there are fewer deletes than a reasonable number to keep in memory, use a set
     if (positionMap == null) {
-      positionMap = new HashMap<>();
-      List<CloseableIterable<Record>> deletes = Lists.transform(posDeletes, this::openPosDeletes);
-      CloseableIterator<Record> iterator = CloseableIterable.concat(deletes).iterator();
-      while (iterator.hasNext()) {
-        Record deleteRecord = iterator.next();
-        String path = FILENAME_ACCESSOR.get(deleteRecord).toString();
-        if (!pathSets.contains(path)) {
-          continue;
-        }
-        Set<Long> posSet = positionMap.get(path);
-        if (posSet == null) {
-          posSet = new HashSet<>();
-          positionMap.put(path, posSet);
-        }
-        posSet.add((Long) POSITION_ACCESSOR.get(deleteRecord));
-      }
+      positionMap = loadPositionMap();
     }
 
+    // rows of a data file are read in position order, so a row is kept by comparing with the next deleted position
+    // and the bitmaps are only searched once per deleted position
     Filter<T> filter = new Filter<T>() {
+      private String cursorPath;
+      private PositionBitmap[] cursorBitmaps;
+      private long cursor;
+      private long nextDeleted;
+
       @Override
       protected boolean shouldKeep(T item) {
-
-        Set<Long> posSet;
-        if (currentDataPath != null) {
-          if (currentPosSet == null) {
-            currentPosSet = positionMap.get(currentDataPath);
-          }
-          posSet = currentPosSet;
-        } else {
-          posSet = positionMap.get(filePath(item));
+        String path = currentDataPath != null ? currentDataPath : filePath(item);
+        if (!path.equals(cursorPath)) {
+          cursorPath = path;
+          cursorBitmaps = positionMap.get(path);
+          cursor = 0;
+          nextDeleted = cursorBitmaps == null ? Long.MAX_VALUE : nextDeleted(cursorBitmaps, 0);
         }
-
-        if (posSet == null) {
+        if (cursorBitmaps == null) {
           return true;
         }
-        if (!posSet.contains(pos(item))) {
-          return true;
+
+        long pos = pos(item);
+        if (pos < cursor || nextDeleted < pos) {
+          cursor = pos;
+          nextDeleted = nextDeleted(cursorBitmaps, pos);
         }
-        return false;
+        return pos != nextDeleted;
       }
     };
 
     return filter.filter(records);
   }
 
+  private Map<String, PositionBitmap[]> loadPositionMap() {
+    Map<String, PositionBitmap[]> map = new HashMap<>();
+    boolean cached = PropertyUtil.propertyAsBoolean(tableProperties(),
+        TableProperties.READ_POS_DELETE_CACHE_ENABLED, TableProperties.READ_POS_DELETE_CACHE_ENABLED_DEFAULT);
+    for (DeleteFile posDelete : posDeletes) {
+      Function<String, Map<String, PositionBitmap>> loader = path -> getArcticFileIo() == null ?
+          readPosDeletes(posDelete) : getArcticFileIo().doAs(() -> readPosDeletes(posDelete));
+      String path = posDelete.path().toString();
+      Map<String, PositionBitmap> index = cached ? PosDeleteIndexCache.get(path, loader) : loader.apply(path);
+      for (Map.Entry<String, PositionBitmap> entry : index.entrySet()) {
+        if (!pathSets.contains(entry.getKey())) {
+          continue;
+        }
+        PositionBitmap[] bitmaps = map.get(entry.getKey());
+        if (bitmaps == null) {
+          bitmaps = new PositionBitmap[] {entry.getValue()};
+        } else {
+          bitmaps = Arrays.copyOf(bitmaps, bitmaps.length + 1);
+          bitmaps[bitmaps.length - 1] = entry.getValue();
+        }
+        map.put(entry.getKey(), bitmaps);
+      }
+    }
+    return map;
+  }
+
+  private Map<String, PositionBitmap> readPosDeletes(DeleteFile posDelete) {
+    Map<String, PositionBitmap> index = new HashMap<>();
+    try (CloseableIterable<Record> deletes = openPosDeletes(posDelete)) {
+      String lastPath = null;
+      PositionBitmap bitmap = null;
+      for (Record deleteRecord : deletes) {
+        String path = FILENAME_ACCESSOR.get(deleteRecord).toString();
+        // position delete files are sorted by path, avoid a lookup per position
+        if (!path.equals(lastPath)) {
+          lastPath = path;
+          bitmap = index.computeIfAbsent(path, p -> new PositionBitmap());
+        }
+        bitmap.add((Long) POSITION_ACCESSOR.get(deleteRecord));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read position delete file " + posDelete.path(), e);
+    }
+    return index;
+  }
+
+  private static long nextDeleted(PositionBitmap[] bitmaps, long from) {
+    long next = Long.MAX_VALUE;
+    for (PositionBitmap bitmap : bitmaps) {
+      long position = bitmap.nextPosition(from);
+      if (position >= 0 && position < next) {
+        next = position;
+      }
+    }
+    return next;
+  }
+
   private CloseableIterable<Record> openPosDeletes(DeleteFile file) {
     return openPositionDeletes(file, POS_DELETE_SCHEMA);
   }
@@ -19,7 +19,6 @@
 package com.netease.arctic.io.reader;
 
 import com.netease.arctic.data.DataTreeNode;
-import com.netease.arctic.data.PrimaryKeyedFile;
 import com.netease.arctic.io.ArcticFileIO;
 import com.netease.arctic.scan.ArcticFileScanTask;
 import com.netease.arctic.scan.KeyedTableScanTask;
@@ -36,12 +35,15 @@ import org.apache.iceberg.parquet.ParquetValueReader;
 import org.apache.iceberg.types.Type;
 import org.apache.parquet.schema.MessageType;
 
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * Abstract implementation of arctic data reader consuming {@link KeyedTableScanTask}, return records
@@ -59,6 +61,8 @@ public abstract class BaseArcticDataReader<T> {
   protected final BiFunction<Type, Object, Object> convertConstant;
   protected final PrimaryKeySpec primaryKeySpec;
   protected final boolean reuseContainer;
+  protected Map<String, String> tableProperties = Collections.emptyMap();
+  protected File spillDirectory = EqDeleteIndex.defaultSpillDirectory();
 
   public BaseArcticDataReader(
       ArcticFileIO fileIO,
@@ -93,41 +97,95 @@ public abstract class BaseArcticDataReader<T> {
     this.reuseContainer = reuseContainer;
   }
 
+  /**
+   * Set table properties, which configure how deletes are applied, e.g. the equality delete index.
+   */
+  public void setTableProperties(Map<String, String> tableProperties) {
+    this.tableProperties = tableProperties;
+  }
+
+  /**
+   * Set the local directory a spillable equality delete index writes its runs to, which is a setting of the engine
+   * rather than of the table, defaults to {@link EqDeleteIndex#defaultSpillDirectory()}.
+   */
+  public void setSpillDirectory(File spillDirectory) {
+    this.spillDirectory = spillDirectory;
+  }
+
   public CloseableIterator<T> readData(KeyedTableScanTask keyedTableScanTask) {
 
-    ArcticDeleteFilter<T> arcticDeleteFilter = new GenericArcticDeleteFilter(
-        keyedTableScanTask, tableSchema, projectedSchema, primaryKeySpec, sourceNodes
-    );
+    ArcticDeleteFilter<T> arcticDeleteFilter = newDeleteFilter(keyedTableScanTask);
     Schema newProjectedSchema = arcticDeleteFilter.requiredSchema();
 
     CloseableIterable<T> dataIterable = CloseableIterable.concat(CloseableIterable.transform(
         CloseableIterable.withNoopClose(keyedTableScanTask.dataTasks()),
         fileScanTask -> arcticDeleteFilter.filter(newParquetIterable(fileScanTask, newProjectedSchema,
             DataReaderCommon.getIdToConstant(fileScanTask, newProjectedSchema, convertConstant)))));
-    return fileIO.doAs(dataIterable::iterator);
+    return closeWith(fileIO.doAs(dataIterable::iterator), arcticDeleteFilter);
+  }
+
+  /**
+   * Create the delete filter of a task to be shared by {@link #readDeletedData(List, ArcticDeleteFilter)}, equality
+   * deletes of the task are indexed once for all its data tasks. The caller should close the filter.
+   */
+  public ArcticDeleteFilter<T> createDeleteFilter(KeyedTableScanTask keyedTableScanTask) {
+    return newDeleteFilter(keyedTableScanTask);
   }
 
   public CloseableIterator<T> readDeletedData(KeyedTableScanTask keyedTableScanTask) {
-    List<PrimaryKeyedFile> equDeleteFiles = keyedTableScanTask.arcticEquityDeletes().stream()
-        .map(ArcticFileScanTask::file).collect(Collectors.toList());
-
-    if (!equDeleteFiles.isEmpty()) {
-      ArcticDeleteFilter<T> arcticDeleteFilter = new GenericArcticDeleteFilter(
-          keyedTableScanTask, tableSchema, projectedSchema, primaryKeySpec, sourceNodes
-      );
-      Schema newProjectedSchema = arcticDeleteFilter.requiredSchema();
-
-      CloseableIterable<T> dataIterable = CloseableIterable.concat(CloseableIterable.transform(
-          CloseableIterable.withNoopClose(keyedTableScanTask.dataTasks()),
-          fileScanTask -> arcticDeleteFilter.filterNegate(
-              newParquetIterable(fileScanTask, newProjectedSchema,
-                  DataReaderCommon.getIdToConstant(fileScanTask, newProjectedSchema, convertConstant)))));
-      return fileIO.doAs(dataIterable::iterator);
+    if (!keyedTableScanTask.arcticEquityDeletes().isEmpty()) {
+      ArcticDeleteFilter<T> arcticDeleteFilter = newDeleteFilter(keyedTableScanTask);
+      return closeWith(readDeletedData(keyedTableScanTask.dataTasks(), arcticDeleteFilter), arcticDeleteFilter);
     } else {
       return CloseableIterator.empty();
     }
   }
 
+  /**
+   * Read records of some data tasks of the task that the delete filter is created for, which are deleted by
+   * equality deletes. The filter is not closed with the returned iterator.
+   */
+  public CloseableIterator<T> readDeletedData(List<ArcticFileScanTask> dataTasks, ArcticDeleteFilter<T> deleteFilter) {
+    Schema newProjectedSchema = deleteFilter.requiredSchema();
+    CloseableIterable<T> dataIterable = CloseableIterable.concat(CloseableIterable.transform(
+        CloseableIterable.withNoopClose(dataTasks),
+        fileScanTask -> deleteFilter.filterNegate(
+            newParquetIterable(fileScanTask, newProjectedSchema,
+                DataReaderCommon.getIdToConstant(fileScanTask, newProjectedSchema, convertConstant)))));
+    return fileIO.doAs(dataIterable::iterator);
+  }
+
+  protected ArcticDeleteFilter<T> newDeleteFilter(KeyedTableScanTask keyedTableScanTask) {
+    return new GenericArcticDeleteFilter(keyedTableScanTask, tableSchema, projectedSchema, primaryKeySpec, sourceNodes);
+  }
+
+  protected Map<Integer, ?> idToConstant(ArcticFileScanTask fileScanTask, Schema schema) {
+    return DataReaderCommon.getIdToConstant(fileScanTask, schema, convertConstant);
+  }
+
+  protected static <T> CloseableIterator<T> closeWith(CloseableIterator<T> iterator, Closeable closeable) {
+    return new CloseableIterator<T>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public T next() {
+        return iterator.next();
+      }
+
+      @Override
+      public void close() throws IOException {
+        try {
+          iterator.close();
+        } finally {
+          closeable.close();
+        }
+      }
+    };
+  }
+
   private CloseableIterable<T> newParquetIterable(
       FileScanTask task, Schema schema, Map<Integer, ?> idToConstant) {
     Parquet.ReadBuilder builder = Parquet.read(fileIO.newInputFile(task.file().path().toString()))
@@ -188,5 +246,15 @@ public abstract class BaseArcticDataReader<T> {
     protected ArcticFileIO getArcticFileIo() {
       return fileIO;
     }
+
+    @Override
+    protected Map<String, String> tableProperties() {
+      return tableProperties;
+    }
+
+    @Override
+    protected File spillDirectory() {
+      return spillDirectory;
+    }
   }
 }
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.reader;
+
+import com.netease.arctic.data.ChangedLsn;
+import com.netease.arctic.table.TableProperties;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.PropertyUtil;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.Map;
+
+/**
+ * Index of equality delete records, mapping primary key to the largest {@link ChangedLsn} deleting it.
+ * <p>
+ * Keys passed to {@link #put} may be reused by the caller after the call returns, implementations must not keep
+ * a reference to them.
+ */
+public interface EqDeleteIndex extends Closeable {
+
+  /**
+   * JVM system property of the local directory spilled runs are written to, defaults to {@code java.io.tmpdir}.
+   * The directory is a setting of the host reading the table rather than a table property, engines may also pass
+   * their own directory to {@link #create}.
+   */
+  String SPILL_DIRECTORY_PROPERTY = "arctic.eq-delete.spill-dir";
+
+  /**
+   * Record a delete of the primary key, keeping the larger lsn if the key is already present.
+   */
+  void put(StructLike primaryKey, ChangedLsn lsn);
+
+  /**
+   * @return the largest lsn deleting the primary key, or null if the key is not deleted
+   */
+  ChangedLsn get(StructLike primaryKey);
+
+  /**
+   * @return the spill directory set by {@link #SPILL_DIRECTORY_PROPERTY}, or {@code java.io.tmpdir}
+   */
+  static File defaultSpillDirectory() {
+    return new File(System.getProperty(SPILL_DIRECTORY_PROPERTY, System.getProperty("java.io.tmpdir")));
+  }
+
+  /**
+   * Create the index configured by table properties, see {@link TableProperties#READ_EQ_DELETE_INDEX_TYPE}.
+   *
+   * @param spillDirectory local directory a spillable index writes its runs to
+   */
+  static EqDeleteIndex create(Types.StructType primaryKeyType, Map<String, String> properties, File spillDirectory) {
+    String type = PropertyUtil.propertyAsString(properties,
+        TableProperties.READ_EQ_DELETE_INDEX_TYPE, TableProperties.READ_EQ_DELETE_INDEX_TYPE_DEFAULT);
+    switch (type.toLowerCase()) {
+      case TableProperties.READ_EQ_DELETE_INDEX_TYPE_HEAP:
+        return new HeapEqDeleteIndex(primaryKeyType);
+      case TableProperties.READ_EQ_DELETE_INDEX_TYPE_SPILLABLE:
+        long memoryBytes = PropertyUtil.propertyAsLong(properties,
+            TableProperties.READ_EQ_DELETE_INDEX_MEMORY_BYTES,
+            TableProperties.READ_EQ_DELETE_INDEX_MEMORY_BYTES_DEFAULT);
+        return new SpillableEqDeleteIndex(primaryKeyType, memoryBytes, spillDirectory);
+      default:
+        throw new IllegalArgumentException("Unsupported equality delete index type: " + type);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.reader;
+
+import com.netease.arctic.data.ChangedLsn;
+import com.netease.arctic.iceberg.optimize.StructLikeMap;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.types.Types;
+
+/**
+ * {@link EqDeleteIndex} keeping all primary keys in a heap {@link StructLikeMap}.
+ */
+public class HeapEqDeleteIndex implements EqDeleteIndex {
+
+  private final StructLikeMap<ChangedLsn> structLikeMap;
+
+  public HeapEqDeleteIndex(Types.StructType primaryKeyType) {
+    this.structLikeMap = StructLikeMap.create(primaryKeyType);
+  }
+
+  @Override
+  public void put(StructLike primaryKey, ChangedLsn lsn) {
+    ChangedLsn old = structLikeMap.get(primaryKey);
+    if (old == null || old.compareTo(lsn) <= 0) {
+      structLikeMap.put(StructLikeCopy.copy(primaryKey), lsn);
+    }
+  }
+
+  @Override
+  public ChangedLsn get(StructLike primaryKey) {
+    return structLikeMap.get(primaryKey);
+  }
+
+  @Override
+  public void close() {
+    structLikeMap.clear();
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.reader;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Position delete files loaded into {@link PositionBitmap}s per data file path, shared in jvm.
+ * <p>
+ * Position delete files are never rewritten in place, so a loaded file is cached by its path and reused by all
+ * tasks referencing it. The cache is bounded by the estimated size of bitmaps and disabled by default, an engine
+ * enables it by {@link #setMaxBytes} or the system property {@link #MAX_BYTES_PROPERTY}. A table opts out by
+ * {@link com.netease.arctic.table.TableProperties#READ_POS_DELETE_CACHE_ENABLED}.
+ */
+public class PosDeleteIndexCache {
+
+  public static final String MAX_BYTES_PROPERTY = "arctic.pos-delete-cache.max-bytes";
+  private static final long MAX_BYTES_DEFAULT = 0L;
+
+  private static volatile long maxBytes = Long.getLong(MAX_BYTES_PROPERTY, MAX_BYTES_DEFAULT);
+
+  private static final Cache<String, Map<String, PositionBitmap>> CACHE = Caffeine.newBuilder()
+      .maximumWeight(Math.max(maxBytes, 0))
+      .weigher(PosDeleteIndexCache::weigh)
+      .build();
+
+  private PosDeleteIndexCache() {
+  }
+
+  /**
+   * Resize the cache, loaded files are evicted if the cache gets smaller.
+   *
+   * @param bytes max estimated bytes of cached bitmaps, 0 to disable the cache
+   */
+  public static synchronized void setMaxBytes(long bytes) {
+    Preconditions.checkArgument(bytes >= 0, "Max bytes of position delete cache must not be negative: %s", bytes);
+    maxBytes = bytes;
+    CACHE.policy().eviction().ifPresent(eviction -> eviction.setMaximum(bytes));
+    if (bytes == 0) {
+      CACHE.invalidateAll();
+    }
+  }
+
+  public static long maxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * @param path   path of the position delete file
+   * @param loader load positions of the file, grouped by data file path
+   * @return positions of the file, grouped by data file path
+   */
+  public static Map<String, PositionBitmap> get(String path, Function<String, Map<String, PositionBitmap>> loader) {
+    if (maxBytes <= 0) {
+      return loader.apply(path);
+    }
+    return CACHE.get(path, loader);
+  }
+
+  public static void invalidateAll() {
+    CACHE.invalidateAll();
+  }
+
+  private static int weigh(String path, Map<String, PositionBitmap> index) {
+    long bytes = path.length();
+    for (Map.Entry<String, PositionBitmap> entry : index.entrySet()) {
+      bytes += entry.getKey().length() + entry.getValue().sizeInBytes();
+    }
+    return (int) Math.min(bytes, Integer.MAX_VALUE);
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.reader;
+
+import java.util.Arrays;
+
+/**
+ * Compressed bitmap of row positions, organized like a roaring bitmap.
+ * <p>
+ * Positions are split by their high bits into chunks of 65536 positions. A chunk with few positions is kept as a
+ * sorted {@code char[]}, a dense chunk as a {@code long[]} bitmap, so memory is about 2 bytes per position for
+ * sparse deletes and at most 8KB per chunk for dense deletes.
+ */
+public class PositionBitmap {
+
+  private static final int CHUNK_BITS = 16;
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+  private static final int ARRAY_MAX_SIZE = 4096;
+  private static final int BITMAP_WORDS = CHUNK_SIZE / 64;
+
+  private long[] keys = new long[4];
+  private Object[] containers = new Object[4];
+  private int[] cardinalities = new int[4];
+  private int size;
+  private long cardinality;
+
+  public void add(long position) {
+    long key = position >>> CHUNK_BITS;
+    char low = (char) (position & CHUNK_MASK);
+    int idx = Arrays.binarySearch(keys, 0, size, key);
+    if (idx < 0) {
+      idx = -idx - 1;
+      insertChunk(idx, key);
+    }
+    Object container = containers[idx];
+    if (container instanceof long[]) {
+      long[] bitmap = (long[]) container;
+      long bit = 1L << low;
+      if ((bitmap[low >>> 6] & bit) == 0) {
+        bitmap[low >>> 6] |= bit;
+        cardinalities[idx]++;
+        cardinality++;
+      }
+      return;
+    }
+
+    char[] array = (char[]) container;
+    int count = cardinalities[idx];
+    int pos = Arrays.binarySearch(array, 0, count, low);
+    if (pos >= 0) {
+      return;
+    }
+    pos = -pos - 1;
+    if (count == ARRAY_MAX_SIZE) {
+      long[] bitmap = new long[BITMAP_WORDS];
+      for (int i = 0; i < count; i++) {
+        bitmap[array[i] >>> 6] |= 1L << array[i];
+      }
+      bitmap[low >>> 6] |= 1L << low;
+      containers[idx] = bitmap;
+    } else {
+      if (count == array.length) {
+        array = Arrays.copyOf(array, Math.min(ARRAY_MAX_SIZE, array.length * 2));
+        containers[idx] = array;
+      }
+      System.arraycopy(array, pos, array, pos + 1, count - pos);
+      array[pos] = low;
+    }
+    cardinalities[idx]++;
+    cardinality++;
+  }
+
+  public boolean contains(long position) {
+    int idx = Arrays.binarySearch(keys, 0, size, position >>> CHUNK_BITS);
+    if (idx < 0) {
+      return false;
+    }
+    char low = (char) (position & CHUNK_MASK);
+    Object container = containers[idx];
+    if (container instanceof long[]) {
+      return (((long[]) container)[low >>> 6] & (1L << low)) != 0;
+    }
+    return Arrays.binarySearch((char[]) container, 0, cardinalities[idx], low) >= 0;
+  }
+
+  /**
+   * @return the smallest position in the bitmap not less than the given position, or -1 if there is none
+   */
+  public long nextPosition(long from) {
+    long key = from >>> CHUNK_BITS;
+    int idx = Arrays.binarySearch(keys, 0, size, key);
+    int low;
+    if (idx < 0) {
+      idx = -idx - 1;
+      low = 0;
+    } else {
+      low = (int) (from & CHUNK_MASK);
+    }
+    for (; idx < size; idx++, low = 0) {
+      int next = nextInChunk(idx, low);
+      if (next >= 0) {
+        return (keys[idx] << CHUNK_BITS) | next;
+      }
+    }
+    return -1;
+  }
+
+  public long cardinality() {
+    return cardinality;
+  }
+
+  public boolean isEmpty() {
+    return cardinality == 0;
+  }
+
+  /**
+   * @return estimated bytes retained by the bitmap
+   */
+  public long sizeInBytes() {
+    long bytes = 16L * keys.length + 4L * cardinalities.length;
+    for (int i = 0; i < size; i++) {
+      Object container = containers[i];
+      bytes += container instanceof long[] ? 8L * BITMAP_WORDS : 2L * ((char[]) container).length;
+    }
+    return bytes;
+  }
+
+  private int nextInChunk(int idx, int low) {
+    Object container = containers[idx];
+    if (container instanceof long[]) {
+      long[] bitmap = (long[]) container;
+      int word = low >>> 6;
+      long bits = bitmap[word] & (-1L << low);
+      while (true) {
+        if (bits != 0) {
+          return word * 64 + Long.numberOfTrailingZeros(bits);
+        }
+        if (++word == BITMAP_WORDS) {
+          return -1;
+        }
+        bits = bitmap[word];
+      }
+    }
+    char[] array = (char[]) container;
+    int count = cardinalities[idx];
+    int pos = Arrays.binarySearch(array, 0, count, (char) low);
+    if (pos < 0) {
+      pos = -pos - 1;
+    }
+    return pos < count ? array[pos] : -1;
+  }
+
+  private void insertChunk(int idx, long key) {
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size * 2);
+      containers = Arrays.copyOf(containers, size * 2);
+      cardinalities = Arrays.copyOf(cardinalities, size * 2);
+    }
+    System.arraycopy(keys, idx, keys, idx + 1, size - idx);
+    System.arraycopy(containers, idx, containers, idx + 1, size - idx);
+    System.arraycopy(cardinalities, idx, cardinalities, idx + 1, size - idx);
+    keys[idx] = key;
+    containers[idx] = new char[4];
+    cardinalities[idx] = 0;
+    size++;
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.reader;
+
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Encode primary keys into a compact binary form, two keys are equal if and only if their encoded bytes are equal.
+ * <p>
+ * Values are expected in iceberg internal representation, as produced by
+ * {@link com.netease.arctic.iceberg.optimize.InternalRecordWrapper}. The encoder reuses one buffer, the bytes
+ * returned by {@link #buffer()} are only valid until the next call of {@link #encode(StructLike)}.
+ */
+public class PrimaryKeyEncoder {
+
+  private static final byte NULL = 0;
+  private static final byte NOT_NULL = 1;
+
+  private final Type.TypeID[] types;
+  private byte[] buffer = new byte[64];
+  private int length;
+
+  public PrimaryKeyEncoder(Types.StructType primaryKeyType) {
+    List<Types.NestedField> fields = primaryKeyType.fields();
+    this.types = new Type.TypeID[fields.size()];
+    for (int i = 0; i < fields.size(); i++) {
+      Type type = fields.get(i).type();
+      if (!type.isPrimitiveType()) {
+        throw new IllegalArgumentException("Unsupported primary key type: " + type);
+      }
+      types[i] = type.typeId();
+    }
+  }
+
+  /**
+   * @return the length of encoded bytes in {@link #buffer()}
+   */
+  public int encode(StructLike primaryKey) {
+    length = 0;
+    for (int i = 0; i < types.length; i++) {
+      Object value = primaryKey.get(i, Object.class);
+      if (value == null) {
+        writeByte(NULL);
+        continue;
+      }
+      writeByte(NOT_NULL);
+      switch (types[i]) {
+        case BOOLEAN:
+          writeByte((Boolean) value ? (byte) 1 : (byte) 0);
+          break;
+        case INTEGER:
+        case DATE:
+          writeInt(((Number) value).intValue());
+          break;
+        case LONG:
+        case TIME:
+        case TIMESTAMP:
+          writeLong(((Number) value).longValue());
+          break;
+        case FLOAT:
+          writeInt(Float.floatToIntBits(((Number) value).floatValue()));
+          break;
+        case DOUBLE:
+          writeLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+          break;
+        case STRING:
+          writeBytes(value.toString().getBytes(StandardCharsets.UTF_8));
+          break;
+        case UUID:
+          UUID uuid = (UUID) value;
+          writeLong(uuid.getMostSignificantBits());
+          writeLong(uuid.getLeastSignificantBits());
+          break;
+        case FIXED:
+        case BINARY:
+          if (value instanceof ByteBuffer) {
+            ByteBuffer byteBuffer = ((ByteBuffer) value).duplicate();
+            byte[] bytes = new byte[byteBuffer.remaining()];
+            byteBuffer.get(bytes);
+            writeBytes(bytes);
+          } else {
+            writeBytes((byte[]) value);
+          }
+          break;
+        case DECIMAL:
+          BigDecimal decimal = (BigDecimal) value;
+          writeInt(decimal.scale());
+          writeBytes(decimal.unscaledValue().toByteArray());
+          break;
+        default:
+          throw new IllegalArgumentException("Unsupported primary key type: " + types[i]);
+      }
+    }
+    return length;
+  }
+
+  public byte[] buffer() {
+    return buffer;
+  }
+
+  public int length() {
+    return length;
+  }
+
+  /**
+   * 64-bit hash of encoded bytes, used for both hash tables and bloom filters.
+   */
+  public static long hash(byte[] bytes, int offset, int len) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = offset; i < offset + len; i++) {
+      h ^= bytes[i];
+      h *= 0x100000001b3L;
+    }
+    // fmix64 of murmur3 to spread the low bits
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  private void writeByte(byte b) {
+    ensureCapacity(1);
+    buffer[length++] = b;
+  }
+
+  private void writeInt(int v) {
+    ensureCapacity(4);
+    buffer[length++] = (byte) (v >>> 24);
+    buffer[length++] = (byte) (v >>> 16);
+    buffer[length++] = (byte) (v >>> 8);
+    buffer[length++] = (byte) v;
+  }
+
+  private void writeLong(long v) {
+    writeInt((int) (v >>> 32));
+    writeInt((int) v);
+  }
+
+  private void writeBytes(byte[] bytes) {
+    writeInt(bytes.length);
+    ensureCapacity(bytes.length);
+    System.arraycopy(bytes, 0, buffer, length, bytes.length);
+    length += bytes.length;
+  }
+
+  private void ensureCapacity(int more) {
+    if (length + more > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + more));
+    }
+  }
+}
@@ -0,0 +1,688 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.reader;
+
+import com.netease.arctic.data.ChangedLsn;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.types.Types;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * {@link EqDeleteIndex} with a bounded memory budget.
+ * <p>
+ * Primary keys are encoded by {@link PrimaryKeyEncoder} and kept in a heap arena indexed by a primitive
+ * open-addressing hash table. When the arena and the hash table exceed the memory budget, the entries are sorted
+ * and spilled as a run to local disk. Each spilled run keeps only a bloom filter and a sparse block index on heap,
+ * which are counted in the memory budget, so the arena shrinks as more runs are spilled. Run files are deleted when
+ * the index is closed.
+ */
+public class SpillableEqDeleteIndex implements EqDeleteIndex {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SpillableEqDeleteIndex.class);
+
+  private static final int LSN_BYTES = 16;
+  private static final int BLOCK_ENTRIES = 64;
+  private static final int INITIAL_ARENA_BYTES = 1 << 20;
+  private static final int MIN_ARENA_BYTES = 1024;
+  private static final int INITIAL_SLOTS = 1 << 14;
+  private static final int MAX_RUNS = 16;
+
+  private final PrimaryKeyEncoder encoder;
+  private final long memoryBytes;
+  private final File spillDirectory;
+  private final List<SpilledRun> runs = new ArrayList<>();
+  // heap bytes of bloom filters and block indexes of spilled runs
+  private long runsHeapBytes;
+
+  // entries are laid out as [int key length][key bytes][long transaction id][long file offset]
+  private ByteBuffer arena;
+  // arena position + 1 of each entry, 0 means the slot is empty
+  private int[] slots;
+  private int entryCount;
+  private byte[] scratch = new byte[64];
+  // buffer to read blocks of spilled runs, shared by all runs
+  private ByteBuffer block = ByteBuffer.allocate(4096);
+  private boolean overBudgetWarned;
+
+  public SpillableEqDeleteIndex(Types.StructType primaryKeyType, long memoryBytes, File spillDirectory) {
+    this.encoder = new PrimaryKeyEncoder(primaryKeyType);
+    this.memoryBytes = memoryBytes;
+    this.spillDirectory = spillDirectory;
+    this.arena = ByteBuffer.allocate((int) Math.min(INITIAL_ARENA_BYTES, Math.max(memoryBytes / 2, MIN_ARENA_BYTES)));
+    this.slots = new int[INITIAL_SLOTS];
+  }
+
+  @Override
+  public void put(StructLike primaryKey, ChangedLsn lsn) {
+    int len = encoder.encode(primaryKey);
+    byte[] key = encoder.buffer();
+    long hash = PrimaryKeyEncoder.hash(key, 0, len);
+
+    int slot = findSlot(key, 0, len, hash);
+    if (slots[slot] != 0) {
+      int lsnPos = slots[slot] - 1 + 4 + len;
+      if (compareLsn(arena.getLong(lsnPos), arena.getLong(lsnPos + 8), lsn) <= 0) {
+        arena.putLong(lsnPos, lsn.transactionId());
+        arena.putLong(lsnPos + 8, lsn.fileOffset());
+      }
+      return;
+    }
+
+    int entrySize = 4 + len + LSN_BYTES;
+    if (!ensureRoom(entrySize, false)) {
+      spill();
+      ensureRoom(entrySize, true);
+    }
+    // the hash table may have been resized or cleared
+    slot = findSlot(key, 0, len, hash);
+    int pos = arena.position();
+    arena.putInt(len);
+    arena.put(key, 0, len);
+    arena.putLong(lsn.transactionId());
+    arena.putLong(lsn.fileOffset());
+    slots[slot] = pos + 1;
+    entryCount++;
+  }
+
+  @Override
+  public ChangedLsn get(StructLike primaryKey) {
+    int len = encoder.encode(primaryKey);
+    byte[] key = encoder.buffer();
+    return get(key, 0, len, PrimaryKeyEncoder.hash(key, 0, len));
+  }
+
+  /**
+   * Look up a primary key already encoded by {@link PrimaryKeyEncoder}, so readers can encode and hash the keys of
+   * a whole batch at once.
+   *
+   * @param hash hash of the encoded key, see {@link PrimaryKeyEncoder#hash(byte[], int, int)}
+   * @return the largest lsn deleting the primary key, or null if the key is not deleted
+   */
+  public ChangedLsn get(byte[] key, int offset, int len, long hash) {
+    long transactionId = 0;
+    long fileOffset = 0;
+    boolean found = false;
+    if (entryCount > 0) {
+      int slot = findSlot(key, offset, len, hash);
+      if (slots[slot] != 0) {
+        int lsnPos = slots[slot] - 1 + 4 + len;
+        transactionId = arena.getLong(lsnPos);
+        fileOffset = arena.getLong(lsnPos + 8);
+        found = true;
+      }
+    }
+    for (SpilledRun run : runs) {
+      long[] lsn = run.get(key, offset, len, hash);
+      if (lsn != null && (!found || lsn[0] > transactionId || (lsn[0] == transactionId && lsn[1] > fileOffset))) {
+        transactionId = lsn[0];
+        fileOffset = lsn[1];
+        found = true;
+      }
+    }
+    return found ? ChangedLsn.of(transactionId, fileOffset) : null;
+  }
+
+  /**
+   * @return number of runs spilled to disk
+   */
+  public int spilledRuns() {
+    return runs.size();
+  }
+
+  /**
+   * @return estimated bytes of memory retained by the index, for engines accounting memory of readers
+   */
+  public long estimatedBytes() {
+    if (arena == null) {
+      return 0;
+    }
+    return arena.capacity() + slots.length * 4L + block.capacity() + runsHeapBytes;
+  }
+
+  @Override
+  public void close() {
+    for (SpilledRun run : runs) {
+      run.close();
+    }
+    runs.clear();
+    runsHeapBytes = 0;
+    arena = null;
+    slots = null;
+  }
+
+  private int findSlot(byte[] key, int offset, int len, long hash) {
+    int mask = slots.length - 1;
+    int idx = (int) hash & mask;
+    while (slots[idx] != 0) {
+      int pos = slots[idx] - 1;
+      if (arena.getInt(pos) == len && arenaKeyEquals(pos + 4, key, offset, len)) {
+        return idx;
+      }
+      idx = (idx + 1) & mask;
+    }
+    return idx;
+  }
+
+  private boolean arenaKeyEquals(int pos, byte[] key, int offset, int len) {
+    for (int i = 0; i < len; i++) {
+      if (arena.get(pos + i) != key[offset + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean ensureRoom(int entrySize, boolean force) {
+    if ((entryCount + 1) * 2L > slots.length) {
+      long newSlotsBytes = slots.length * 8L;
+      if (!force && arena.capacity() + newSlotsBytes + runsHeapBytes > memoryBytes) {
+        return false;
+      }
+      rehash(slots.length * 2);
+    }
+    if (arena.remaining() < entrySize) {
+      long newCapacity = Math.max(arena.capacity() * 2L, (long) arena.position() + entrySize);
+      if (!force && newCapacity + slots.length * 4L + runsHeapBytes > memoryBytes) {
+        return false;
+      }
+      if (newCapacity > Integer.MAX_VALUE) {
+        return false;
+      }
+      ByteBuffer newArena = ByteBuffer.allocate((int) newCapacity);
+      arena.flip();
+      newArena.put(arena);
+      arena = newArena;
+    }
+    return true;
+  }
+
+  private void rehash(int newSize) {
+    int[] oldSlots = slots;
+    slots = new int[newSize];
+    int mask = newSize - 1;
+    for (int entry : oldSlots) {
+      if (entry == 0) {
+        continue;
+      }
+      int len = arena.getInt(entry - 1);
+      long hash = PrimaryKeyEncoder.hash(readKey(entry - 1 + 4, len), 0, len);
+      int idx = (int) hash & mask;
+      while (slots[idx] != 0) {
+        idx = (idx + 1) & mask;
+      }
+      slots[idx] = entry;
+    }
+  }
+
+  private byte[] readKey(int pos, int len) {
+    if (scratch.length < len) {
+      scratch = new byte[Math.max(len, scratch.length * 2)];
+    }
+    for (int i = 0; i < len; i++) {
+      scratch[i] = arena.get(pos + i);
+    }
+    return scratch;
+  }
+
+  private void spill() {
+    if (entryCount == 0) {
+      return;
+    }
+    int[] positions = new int[entryCount];
+    int n = 0;
+    for (int entry : slots) {
+      if (entry != 0) {
+        positions[n++] = entry - 1;
+      }
+    }
+    sort(positions, 0, n - 1);
+
+    try (RunWriter writer = new RunWriter(spillDirectory, n)) {
+      for (int i = 0; i < n; i++) {
+        int pos = positions[i];
+        int len = arena.getInt(pos);
+        writer.write(readKey(pos + 4, len), len, arena.getLong(pos + 4 + len), arena.getLong(pos + 4 + len + 8));
+      }
+      SpilledRun run = writer.finish();
+      runs.add(run);
+      runsHeapBytes += run.heapBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to spill equality delete index to " + spillDirectory, e);
+    }
+    LOG.debug("Spilled {} equality delete keys to {}, {} runs in total", n, spillDirectory, runs.size());
+
+    arena.clear();
+    Arrays.fill(slots, 0);
+    entryCount = 0;
+
+    if (runs.size() >= MAX_RUNS) {
+      mergeRuns();
+    }
+    shrinkToBudget();
+  }
+
+  /**
+   * Shrink the empty arena and hash table, so they fit in the memory left by spilled runs.
+   */
+  private void shrinkToBudget() {
+    long available = memoryBytes - runsHeapBytes;
+    if (arena.capacity() + slots.length * 4L <= available) {
+      return;
+    }
+    int slotCount = INITIAL_SLOTS;
+    while (slotCount > 16 && slotCount * 4L > available / 2) {
+      slotCount >>>= 1;
+    }
+    arena = ByteBuffer.allocate((int) Math.max(MIN_ARENA_BYTES,
+        Math.min(arena.capacity(), available - slotCount * 4L)));
+    slots = new int[slotCount];
+    if (available < MIN_ARENA_BYTES && !overBudgetWarned) {
+      overBudgetWarned = true;
+      LOG.warn("Spilled equality delete runs take {} bytes of heap, over the memory budget {}",
+          runsHeapBytes, memoryBytes);
+    }
+  }
+
+  /**
+   * Merge all spilled runs into one, so a probe checks a bounded number of runs.
+   */
+  private void mergeRuns() {
+    long total = 0;
+    for (SpilledRun run : runs) {
+      total += run.count;
+    }
+    List<RunCursor> cursors = new ArrayList<>();
+    PriorityQueue<RunCursor> queue = new PriorityQueue<>(
+        (c1, c2) -> compareKeys(c1.key, 0, c1.len, c2.key, 0, c2.len));
+    SpilledRun merged;
+    try (RunWriter writer = new RunWriter(spillDirectory, (int) Math.min(total, Integer.MAX_VALUE))) {
+      for (SpilledRun run : runs) {
+        RunCursor cursor = new RunCursor(run);
+        cursors.add(cursor);
+        if (cursor.next()) {
+          queue.add(cursor);
+        }
+      }
+      while (!queue.isEmpty()) {
+        RunCursor head = queue.poll();
+        int len = head.len;
+        if (scratch.length < len) {
+          scratch = new byte[Math.max(len, scratch.length * 2)];
+        }
+        System.arraycopy(head.key, 0, scratch, 0, len);
+        long transactionId = head.transactionId;
+        long fileOffset = head.fileOffset;
+        if (head.next()) {
+          queue.add(head);
+        }
+        // the same key may be in several runs, keep the largest lsn
+        while (!queue.isEmpty() && compareKeys(scratch, 0, len, queue.peek().key, 0, queue.peek().len) == 0) {
+          RunCursor same = queue.poll();
+          if (same.transactionId > transactionId ||
+              (same.transactionId == transactionId && same.fileOffset > fileOffset)) {
+            transactionId = same.transactionId;
+            fileOffset = same.fileOffset;
+          }
+          if (same.next()) {
+            queue.add(same);
+          }
+        }
+        writer.write(scratch, len, transactionId, fileOffset);
+      }
+      merged = writer.finish();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to merge spilled equality delete runs in " + spillDirectory, e);
+    } finally {
+      for (RunCursor cursor : cursors) {
+        cursor.close();
+      }
+    }
+    for (SpilledRun run : runs) {
+      run.close();
+    }
+    runs.clear();
+    runs.add(merged);
+    runsHeapBytes = merged.heapBytes();
+    LOG.info("Merged spilled equality delete runs into {} keys", merged.count);
+  }
+
+  private void sort(int[] positions, int low, int high) {
+    while (low < high) {
+      int pivot = positions[(low + high) >>> 1];
+      int i = low;
+      int j = high;
+      while (i <= j) {
+        while (compareEntries(positions[i], pivot) < 0) {
+          i++;
+        }
+        while (compareEntries(positions[j], pivot) > 0) {
+          j--;
+        }
+        if (i <= j) {
+          int tmp = positions[i];
+          positions[i++] = positions[j];
+          positions[j--] = tmp;
+        }
+      }
+      // recurse into the smaller part to bound the stack depth
+      if (j - low < high - i) {
+        sort(positions, low, j);
+        low = i;
+      } else {
+        sort(positions, i, high);
+        high = j;
+      }
+    }
+  }
+
+  private int compareEntries(int pos1, int pos2) {
+    int len1 = arena.getInt(pos1);
+    int len2 = arena.getInt(pos2);
+    for (int i = 0; i < Math.min(len1, len2); i++) {
+      int cmp = (arena.get(pos1 + 4 + i) & 0xff) - (arena.get(pos2 + 4 + i) & 0xff);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return len1 - len2;
+  }
+
+  private static int compareKeys(byte[] key1, int offset1, int len1, byte[] key2, int offset2, int len2) {
+    for (int i = 0; i < Math.min(len1, len2); i++) {
+      int cmp = (key1[offset1 + i] & 0xff) - (key2[offset2 + i] & 0xff);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return len1 - len2;
+  }
+
+  private static int compareLsn(long transactionId, long fileOffset, ChangedLsn lsn) {
+    int cmp = Long.compare(transactionId, lsn.transactionId());
+    return cmp != 0 ? cmp : Long.compare(fileOffset, lsn.fileOffset());
+  }
+
+  /**
+   * A sorted run of entries on local disk, with a sparse index of the first key of every block.
+   */
+  private class SpilledRun {
+
+    private final File file;
+    private final byte[][] blockKeys;
+    private final long[] blockOffsets;
+    private final long length;
+    private final long count;
+    private final BloomFilter bloomFilter;
+    private RandomAccessFile randomAccessFile;
+
+    SpilledRun(
+        File file, byte[][] blockKeys, long[] blockOffsets, long length, long count, BloomFilter bloomFilter) {
+      this.file = file;
+      this.blockKeys = blockKeys;
+      this.blockOffsets = blockOffsets;
+      this.length = length;
+      this.count = count;
+      this.bloomFilter = bloomFilter;
+    }
+
+    long heapBytes() {
+      long bytes = bloomFilter.sizeInBytes() + blockOffsets.length * 8L;
+      for (byte[] blockKey : blockKeys) {
+        bytes += blockKey.length + 16;
+      }
+      return bytes;
+    }
+
+    long[] get(byte[] key, int offset, int len, long hash) {
+      if (!bloomFilter.mightContain(hash)) {
+        return null;
+      }
+      int low = 0;
+      int high = blockKeys.length - 1;
+      int blockIdx = -1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        if (compareKeys(key, offset, len, blockKeys[mid], 0, blockKeys[mid].length) >= 0) {
+          blockIdx = mid;
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+      if (blockIdx < 0) {
+        return null;
+      }
+
+      ByteBuffer buffer = readBlock(blockIdx);
+      while (buffer.hasRemaining()) {
+        int entryLen = buffer.getInt();
+        int cmp = compareKeys(key, offset, len, buffer.array(), buffer.position(), entryLen);
+        if (cmp == 0) {
+          buffer.position(buffer.position() + entryLen);
+          return new long[] {buffer.getLong(), buffer.getLong()};
+        } else if (cmp < 0) {
+          return null;
+        }
+        buffer.position(buffer.position() + entryLen + LSN_BYTES);
+      }
+      return null;
+    }
+
+    private ByteBuffer readBlock(int blockIdx) {
+      long start = blockOffsets[blockIdx];
+      long end = blockIdx + 1 < blockOffsets.length ? blockOffsets[blockIdx + 1] : length;
+      int size = (int) (end - start);
+      if (block.capacity() < size) {
+        block = ByteBuffer.allocate(size);
+      }
+      block.clear();
+      block.limit(size);
+      try {
+        if (randomAccessFile == null) {
+          randomAccessFile = new RandomAccessFile(file, "r");
+        }
+        FileChannel channel = randomAccessFile.getChannel();
+        long position = start;
+        while (block.hasRemaining()) {
+          int read = channel.read(block, position);
+          if (read < 0) {
+            throw new IOException("Unexpected end of spilled run " + file);
+          }
+          position += read;
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to read spilled equality delete run " + file, e);
+      }
+      block.flip();
+      return block;
+    }
+
+    void close() {
+      try {
+        if (randomAccessFile != null) {
+          randomAccessFile.close();
+        }
+      } catch (IOException e) {
+        LOG.warn("Failed to close spilled run {}", file, e);
+      }
+      if (!file.delete()) {
+        LOG.warn("Failed to delete spilled run {}", file);
+      }
+    }
+  }
+
+  /**
+   * Write sorted entries into a new run file.
+   */
+  private class RunWriter implements Closeable {
+
+    private final File file;
+    private final DataOutputStream out;
+    private final BloomFilter bloomFilter;
+    private final List<byte[]> blockKeys = new ArrayList<>();
+    private long[] blockOffsets = new long[16];
+    private long length;
+    private long count;
+    private boolean finished;
+
+    RunWriter(File directory, int expectedKeys) throws IOException {
+      this.file = File.createTempFile("arctic-eq-delete-", ".run", directory);
+      this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+      this.bloomFilter = new BloomFilter(expectedKeys);
+    }
+
+    void write(byte[] key, int len, long transactionId, long fileOffset) throws IOException {
+      if (count % BLOCK_ENTRIES == 0) {
+        int block = blockKeys.size();
+        if (block == blockOffsets.length) {
+          blockOffsets = Arrays.copyOf(blockOffsets, block * 2);
+        }
+        blockKeys.add(Arrays.copyOf(key, len));
+        blockOffsets[block] = length;
+      }
+      bloomFilter.add(PrimaryKeyEncoder.hash(key, 0, len));
+      out.writeInt(len);
+      out.write(key, 0, len);
+      out.writeLong(transactionId);
+      out.writeLong(fileOffset);
+      length += 4 + len + LSN_BYTES;
+      count++;
+    }
+
+    SpilledRun finish() throws IOException {
+      out.close();
+      finished = true;
+      return new SpilledRun(file, blockKeys.toArray(new byte[0][]),
+          Arrays.copyOf(blockOffsets, blockKeys.size()), length, count, bloomFilter);
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+      // a run failed to write is never used
+      if (!finished && !file.delete()) {
+        LOG.warn("Failed to delete spilled run {}", file);
+      }
+    }
+  }
+
+  /**
+   * Sequentially read entries of a run file.
+   */
+  private static class RunCursor implements Closeable {
+
+    private final DataInputStream in;
+    private final long length;
+    private long position;
+    private byte[] key = new byte[64];
+    private int len;
+    private long transactionId;
+    private long fileOffset;
+
+    RunCursor(SpilledRun run) throws IOException {
+      this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(run.file)));
+      this.length = run.length;
+    }
+
+    boolean next() throws IOException {
+      if (position >= length) {
+        return false;
+      }
+      len = in.readInt();
+      if (key.length < len) {
+        key = new byte[Math.max(len, key.length * 2)];
+      }
+      in.readFully(key, 0, len);
+      transactionId = in.readLong();
+      fileOffset = in.readLong();
+      position += 4 + len + LSN_BYTES;
+      return true;
+    }
+
+    @Override
+    public void close() {
+      try {
+        in.close();
+      } catch (IOException e) {
+        LOG.warn("Failed to close spilled run cursor", e);
+      }
+    }
+  }
+
+  /**
+   * Bloom filter over key hashes, about 1% false positive rate.
+   */
+  private static class BloomFilter {
+
+    private static final int BITS_PER_KEY = 10;
+    private static final int NUM_HASHES = 7;
+
+    private final long[] bits;
+    private final long numBits;
+
+    BloomFilter(int expectedKeys) {
+      this.bits = new long[(int) Math.max(1, ((long) expectedKeys * BITS_PER_KEY + 63) / 64)];
+      this.numBits = bits.length * 64L;
+    }
+
+    void add(long hash) {
+      int hash1 = (int) hash;
+      int hash2 = (int) (hash >>> 32);
+      for (int i = 1; i <= NUM_HASHES; i++) {
+        long bit = ((hash1 + (long) i * hash2) & Long.MAX_VALUE) % numBits;
+        bits[(int) (bit >>> 6)] |= 1L << bit;
+      }
+    }
+
+    long sizeInBytes() {
+      return bits.length * 8L;
+    }
+
+    boolean mightContain(long hash) {
+      int hash1 = (int) hash;
+      int hash2 = (int) (hash >>> 32);
+      for (int i = 1; i <= NUM_HASHES; i++) {
+        long bit = ((hash1 + (long) i * hash2) & Long.MAX_VALUE) % numBits;
+        if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
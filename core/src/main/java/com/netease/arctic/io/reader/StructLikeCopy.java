@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.reader;
+
+import org.apache.iceberg.StructLike;
+
+/**
+ * Shallow, read-only copy of a {@link StructLike}, used to keep primary keys of reused records.
+ */
+class StructLikeCopy implements StructLike {
+
+  private final Object[] values;
+
+  private StructLikeCopy(Object[] values) {
+    this.values = values;
+  }
+
+  static StructLikeCopy copy(StructLike struct) {
+    Object[] values = new Object[struct.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = struct.get(i, Object.class);
+    }
+    return new StructLikeCopy(values);
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+
+  @Override
+  public <T> T get(int pos, Class<T> javaClass) {
+    return javaClass.cast(values[pos]);
+  }
+
+  @Override
+  public <T> void set(int pos, T value) {
+    throw new UnsupportedOperationException("Cannot update a copied struct");
+  }
+}
@@ -23,6 +23,7 @@ import com.netease.arctic.data.DataTreeNode;
 import com.netease.arctic.data.PrimaryKeyData;
 import com.netease.arctic.io.ArcticFileIO;
 import com.netease.arctic.table.PrimaryKeySpec;
+import com.netease.arctic.table.TableProperties;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.FileFormat;
 import org.apache.iceberg.PartitionKey;
@@ -34,18 +35,55 @@ import org.apache.iceberg.io.FileAppenderFactory;
 import org.apache.iceberg.io.TaskWriter;
 import org.apache.iceberg.io.WriteResult;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
-import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.apache.iceberg.relocated.com.google.common.util.concurrent.MoreExecutors;
+import org.apache.iceberg.relocated.com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.iceberg.util.PropertyUtil;
 import org.apache.iceberg.util.Tasks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Predicate;
 
 /**
  * Abstract implementation of writer for {@link com.netease.arctic.table.BaseTable}.
+ * <p>
+ * Open writers can be bounded by {@link TableProperties#WRITE_OPEN_FILES_MAX} and by the estimated memory buffered by
+ * open writers, {@link TableProperties#WRITE_OPEN_FILES_MEMORY_BYTES}. Both are unbounded by default. When a bound is
+ * exceeded, the least recently used writers are closed into completed files. Buffered memory is estimated from the
+ * records not flushed to files yet, sized by the bytes per record of flushed data, or
+ * {@link #DEFAULT_RECORD_BYTES} before any data is flushed. With {@link TableProperties#WRITE_CLUSTERED_ENABLED}
+ * records are expected to arrive clustered by partition, so writers of other partitions are closed when a new
+ * partition starts.
+ * <p>
+ * Rolled and evicted writers are closed asynchronously on a shared pool when
+ * {@link TableProperties#WRITE_ASYNC_CLOSE_ENABLED} is set, {@link #complete()} waits for all of them. It is disabled
+ * by default, so writers are closed in the writing thread unless a table opts in.
  * @param <T> to indicate the record data type.
  */
 public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
+  private static final Logger LOG = LoggerFactory.getLogger(BaseTaskWriter.class);
+
+  public static final String CLOSE_THREADS_PROPERTY = "arctic.writer.close.num-threads";
+  private static final int CLOSE_THREADS_DEFAULT = 8;
+  public static final long DEFAULT_RECORD_BYTES = 1024;
+
+  private static volatile ExecutorService closePool;
+
   private final FileFormat format;
   private final FileAppenderFactory<T> appenderFactory;
   private final OutputFileFactory outputFileFactory;
@@ -56,8 +94,19 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
   private final PartitionKey partitionKey;
   private final PrimaryKeyData primaryKey;
 
-  private final Map<TaskWriterKey, DataWriter<T>> dataWriterMap = Maps.newHashMap();
+  // in access order, the first writer is the least recently used one
+  private final Map<TaskWriterKey, OpenWriter<T>> dataWriterMap = new LinkedHashMap<>(16, 0.75f, true);
   private final List<DataFile> completedFiles = Lists.newArrayList();
+  private int maxOpenFiles = TableProperties.WRITE_OPEN_FILES_MAX_DEFAULT;
+  private long openFilesMemoryBytes = TableProperties.WRITE_OPEN_FILES_MEMORY_BYTES_DEFAULT;
+  private boolean clustered = TableProperties.WRITE_CLUSTERED_ENABLED_DEFAULT;
+  private boolean asyncClose = TableProperties.WRITE_ASYNC_CLOSE_ENABLED_DEFAULT;
+  private int maxPendingCloses = TableProperties.WRITE_ASYNC_CLOSE_MAX_PENDING_DEFAULT;
+  // records buffered by open writers, and the flushed records and bytes to estimate the size of them
+  private long bufferedRecords;
+  private long flushedRecords;
+  private long flushedBytes;
+  private final Deque<Future<DataFile>> closingFiles = new ArrayDeque<>();
 
   protected BaseTaskWriter(FileFormat format, FileAppenderFactory<T> appenderFactory,
                            OutputFileFactory outputFileFactory, ArcticFileIO io, long targetFileSize, long mask,
@@ -72,24 +121,61 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
     this.primaryKey = primaryKeySpec == null ? null : new PrimaryKeyData(primaryKeySpec, schema);
   }
 
+  /**
+   * Config the bounds of open writers by table properties.
+   */
+  public void setTableProperties(Map<String, String> tableProperties) {
+    this.maxOpenFiles = PropertyUtil.propertyAsInt(tableProperties,
+        TableProperties.WRITE_OPEN_FILES_MAX, TableProperties.WRITE_OPEN_FILES_MAX_DEFAULT);
+    this.openFilesMemoryBytes = PropertyUtil.propertyAsLong(tableProperties,
+        TableProperties.WRITE_OPEN_FILES_MEMORY_BYTES, TableProperties.WRITE_OPEN_FILES_MEMORY_BYTES_DEFAULT);
+    this.clustered = PropertyUtil.propertyAsBoolean(tableProperties,
+        TableProperties.WRITE_CLUSTERED_ENABLED, TableProperties.WRITE_CLUSTERED_ENABLED_DEFAULT);
+    this.asyncClose = PropertyUtil.propertyAsBoolean(tableProperties,
+        TableProperties.WRITE_ASYNC_CLOSE_ENABLED, TableProperties.WRITE_ASYNC_CLOSE_ENABLED_DEFAULT);
+    this.maxPendingCloses = PropertyUtil.propertyAsInt(tableProperties,
+        TableProperties.WRITE_ASYNC_CLOSE_MAX_PENDING, TableProperties.WRITE_ASYNC_CLOSE_MAX_PENDING_DEFAULT);
+  }
+
   @Override
   public void write(T row) throws IOException {
     TaskWriterKey writerKey = buildWriterKey(row);
-    DataWriter<T> writer;
-    if (!dataWriterMap.containsKey(writerKey)) {
+    TaskWriterKey openKey = writerKey;
+    OpenWriter<T> openWriter = dataWriterMap.get(writerKey);
+    if (openWriter == null) {
       TaskWriterKey key = new TaskWriterKey(partitionKey.copy(), writerKey.getTreeNode(), writerKey.getFileType());
-      writer = io.doAs(() -> appenderFactory.newDataWriter(
+      if (clustered) {
+        closeWriters(other -> !sameCluster(other, key));
+      }
+      DataWriter<T> writer = io.doAs(() -> appenderFactory.newDataWriter(
           outputFileFactory.newOutputFile(writerKey), format, key.getPartitionKey()));
-      dataWriterMap.put(key, writer);
-    } else {
-      writer = dataWriterMap.get(writerKey);
+      // file headers are written on open, which are not flushed records
+      openWriter = new OpenWriter<>(writer, format.equals(FileFormat.ORC) ? 0 : writer.length());
+      dataWriterMap.put(key, openWriter);
+      openKey = key;
     }
-    write(writer, row);
+    write(openWriter.writer, row);
+    openWriter.bufferedRecords++;
+    bufferedRecords++;
 
-    if (shouldRollToNewFile(writer)) {
-      writer.close();
-      completedFiles.add(writer.toDataFile());
-      dataWriterMap.remove(writerKey);
+    // TODO: ORC file now not support target file size before closed
+    if (format.equals(FileFormat.ORC)) {
+      evictWriters(openKey);
+      return;
+    }
+    long length = openWriter.writer.length();
+    if (length > openWriter.flushedLength) {
+      // buffered records are flushed to the file
+      flushedBytes += length - openWriter.flushedLength;
+      flushedRecords += openWriter.bufferedRecords;
+      bufferedRecords -= openWriter.bufferedRecords;
+      openWriter.bufferedRecords = 0;
+      openWriter.flushedLength = length;
+    }
+    if (length >= targetFileSize) {
+      closeWriter(dataWriterMap.remove(openKey));
+    } else {
+      evictWriters(openKey);
     }
   }
 
@@ -108,20 +194,138 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
     return new TaskWriterKey(partitionKey, node, DataFileType.BASE_FILE);
   }
 
-  private boolean shouldRollToNewFile(DataWriter<T> dataWriter) {
-    // TODO: ORC file now not support target file size before closed
-    return !format.equals(FileFormat.ORC) && dataWriter.length() >= targetFileSize;
+  private boolean sameCluster(TaskWriterKey key1, TaskWriterKey key2) {
+    return Objects.equals(key1.getPartitionKey(), key2.getPartitionKey());
+  }
+
+  /**
+   * Close the least recently used writers until open writers are in bounds, the current writer is kept open.
+   */
+  private void evictWriters(TaskWriterKey currentKey) throws IOException {
+    if (!exceedBounds()) {
+      return;
+    }
+    Iterator<Map.Entry<TaskWriterKey, OpenWriter<T>>> it = dataWriterMap.entrySet().iterator();
+    while (it.hasNext() && exceedBounds()) {
+      Map.Entry<TaskWriterKey, OpenWriter<T>> entry = it.next();
+      if (entry.getKey().equals(currentKey)) {
+        continue;
+      }
+      LOG.debug("close least recently used writer of {}, open writers {}, buffered bytes {}",
+          entry.getKey(), dataWriterMap.size(), bufferedBytes());
+      it.remove();
+      closeWriter(entry.getValue());
+    }
+  }
+
+  private boolean exceedBounds() {
+    return (maxOpenFiles > 0 && dataWriterMap.size() > maxOpenFiles) ||
+        (openFilesMemoryBytes > 0 && bufferedBytes() > openFilesMemoryBytes);
+  }
+
+  /**
+   * @return the estimated memory buffered by open writers
+   */
+  private long bufferedBytes() {
+    long recordBytes = flushedRecords > 0 ? Math.max(1, flushedBytes / flushedRecords) : DEFAULT_RECORD_BYTES;
+    return bufferedRecords * recordBytes;
+  }
+
+  private void closeWriters(Predicate<TaskWriterKey> filter) throws IOException {
+    Iterator<Map.Entry<TaskWriterKey, OpenWriter<T>>> it = dataWriterMap.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<TaskWriterKey, OpenWriter<T>> entry = it.next();
+      if (filter.test(entry.getKey())) {
+        it.remove();
+        closeWriter(entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Close the writer into a completed file. With async close, the writer is closed on the shared close pool and at
+   * most {@link TableProperties#WRITE_ASYNC_CLOSE_MAX_PENDING} writers of this task writer are closing at once.
+   */
+  private void closeWriter(OpenWriter<T> openWriter) throws IOException {
+    bufferedRecords -= openWriter.bufferedRecords;
+    openWriter.bufferedRecords = 0;
+    DataWriter<T> writer = openWriter.writer;
+    if (!asyncClose) {
+      writer.close();
+      completedFiles.add(writer.toDataFile());
+      return;
+    }
+    closingFiles.add(closePool().submit(() -> io.doAs(() -> {
+      try {
+        writer.close();
+      } catch (IOException e) {
+        // doAs wraps checked exceptions, keep the cause so it is rethrown as is
+        throw new UncheckedIOException(e);
+      }
+      return writer.toDataFile();
+    })));
+    while (closingFiles.size() > maxPendingCloses) {
+      completedFiles.add(awaitClose(closingFiles.poll()));
+    }
+  }
+
+  /**
+   * Wait for all closing writers, the first failure is thrown after all writers are done.
+   */
+  private void awaitCloses() throws IOException {
+    IOException failure = null;
+    while (!closingFiles.isEmpty()) {
+      try {
+        completedFiles.add(awaitClose(closingFiles.poll()));
+      } catch (IOException e) {
+        failure = addFailure(failure, e);
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private static IOException addFailure(IOException failure, IOException e) {
+    if (failure == null) {
+      return e;
+    }
+    failure.addSuppressed(e);
+    return failure;
+  }
+
+  private DataFile awaitClose(Future<DataFile> closing) throws IOException {
+    try {
+      return closing.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while closing data file");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) cause).getCause();
+      }
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      // thrown as IOException, so all other closing writers are still waited for
+      throw new IOException("Failed to close data file", cause);
+    }
   }
 
   @Override
   public void abort() throws IOException {
-    close();
-
-    // clean up files created by this writer
-    Tasks.foreach(completedFiles)
-        .throwFailureWhenFinished()
-        .noRetry()
-        .run(file -> io.deleteFile(file.path().toString()));
+    try {
+      close();
+    } finally {
+      // clean up files created by this writer, also when closing some of the writers failed
+      List<DataFile> files = Lists.newArrayList(completedFiles);
+      completedFiles.clear();
+      Tasks.foreach(files)
+          .throwFailureWhenFinished()
+          .noRetry()
+          .run(file -> io.deleteFile(file.path().toString()));
+    }
   }
 
   @Override
@@ -134,15 +338,58 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
 
   @Override
   public void close() throws IOException {
-    for (DataWriter<T> dataWriter : dataWriterMap.values()) {
-      dataWriter.close();
-      completedFiles.add(dataWriter.toDataFile());
+    IOException failure = null;
+    try {
+      // every open writer is closed once, even if closing some of them failed
+      for (OpenWriter<T> openWriter : dataWriterMap.values()) {
+        try {
+          closeWriter(openWriter);
+        } catch (IOException e) {
+          failure = addFailure(failure, e);
+        }
+      }
+    } finally {
+      dataWriterMap.clear();
+      bufferedRecords = 0;
+      try {
+        awaitCloses();
+      } catch (IOException e) {
+        failure = addFailure(failure, e);
+      }
+    }
+    if (failure != null) {
+      throw failure;
     }
-    dataWriterMap.clear();
   }
 
   /**
    * Wrap the data as a {@link StructLike}.
    */
   protected abstract StructLike asStructLike(T data);
+
+  private static ExecutorService closePool() {
+    if (closePool == null) {
+      synchronized (BaseTaskWriter.class) {
+        if (closePool == null) {
+          int threads = Integer.getInteger(CLOSE_THREADS_PROPERTY, CLOSE_THREADS_DEFAULT);
+          closePool = MoreExecutors.getExitingExecutorService(
+              (ThreadPoolExecutor) Executors.newFixedThreadPool(
+                  threads,
+                  new ThreadFactoryBuilder().setDaemon(true).setNameFormat("arctic-writer-close-%d").build()));
+        }
+      }
+    }
+    return closePool;
+  }
+
+  private static class OpenWriter<T> {
+    private final DataWriter<T> writer;
+    private long flushedLength;
+    private long bufferedRecords;
+
+    OpenWriter(DataWriter<T> writer, long flushedLength) {
+      this.writer = writer;
+      this.flushedLength = flushedLength;
+    }
+  }
 }
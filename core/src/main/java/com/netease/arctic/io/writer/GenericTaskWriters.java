@@ -32,6 +32,7 @@ import org.apache.iceberg.data.Record;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 import org.apache.iceberg.util.PropertyUtil;
 
+import java.io.File;
 import java.util.Locale;
 
 /**
@@ -84,10 +85,13 @@ public class GenericTaskWriters {
           TableProperties.WRITE_TARGET_FILE_SIZE_BYTES_DEFAULT);
       long mask = PropertyUtil.propertyAsLong(table.properties(), TableProperties.BASE_FILE_INDEX_HASH_BUCKET,
           TableProperties.BASE_FILE_INDEX_HASH_BUCKET_DEFAULT) - 1;
-      return new GenericBaseTaskWriter(fileFormat, new GenericAppenderFactory(table.baseTable().schema(), table.spec()),
+      GenericBaseTaskWriter writer = new GenericBaseTaskWriter(fileFormat,
+          new GenericAppenderFactory(table.baseTable().schema(), table.spec()),
           new CommonOutputFileFactory(table.baseLocation(), table.spec(), fileFormat, table.io(),
               table.baseTable().encryption(), partitionId, taskId, transactionId),
           table.io(), fileSizeBytes, mask, table.baseTable().schema(), table.spec(), table.primaryKeySpec());
+      writer.setTableProperties(table.properties());
+      return writer;
     }
 
     public SortedPosDeleteWriter<Record> buildBasePosDeleteWriter(long mask, long index, StructLike partitionKey) {
@@ -105,7 +109,11 @@ public class GenericTaskWriters {
       return new SortedPosDeleteWriter<>(appenderFactory,
           new CommonOutputFileFactory(table.baseLocation(), table.spec(), fileFormat, table.io(),
               table.baseTable().encryption(), partitionId, taskId, transactionId),
-          fileFormat, mask, index, partitionKey);
+          fileFormat, mask, index, partitionKey,
+          PropertyUtil.propertyAsLong(table.properties(), TableProperties.WRITE_POS_DELETE_MEMORY_BYTES,
+              TableProperties.WRITE_POS_DELETE_MEMORY_BYTES_DEFAULT),
+          new File(PropertyUtil.propertyAsString(table.properties(), TableProperties.WRITE_POS_DELETE_SPILL_DIR,
+              System.getProperty("java.io.tmpdir"))));
     }
 
     public GenericChangeTaskWriter buildChangeWriter() {
@@ -117,12 +125,14 @@ public class GenericTaskWriters {
       long mask = PropertyUtil.propertyAsLong(table.properties(), TableProperties.CHANGE_FILE_INDEX_HASH_BUCKET,
           TableProperties.CHANGE_FILE_INDEX_HASH_BUCKET_DEFAULT) - 1;
       Schema changeWriteSchema = SchemaUtil.changeWriteSchema(table.changeTable().schema());
-      return new GenericChangeTaskWriter(fileFormat,
+      GenericChangeTaskWriter writer = new GenericChangeTaskWriter(fileFormat,
           new GenericAppenderFactory(changeWriteSchema, table.spec()),
           new CommonOutputFileFactory(table.changeLocation(), table.spec(), fileFormat, table.io(),
               table.changeTable().encryption(), partitionId, taskId, transactionId),
           table.io(), fileSizeBytes, mask, table.changeTable().schema(), table.spec(), table.primaryKeySpec(),
           changeAction);
+      writer.setTableProperties(table.properties());
+      return writer;
     }
 
   }
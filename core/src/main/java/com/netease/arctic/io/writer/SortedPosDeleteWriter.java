@@ -31,22 +31,50 @@ import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.apache.iceberg.types.Comparators;
 import org.apache.iceberg.util.CharSequenceSet;
 import org.apache.iceberg.util.CharSequenceWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 
 /**
  * Abstract implementation of positional delete writer for {@link com.netease.arctic.table.BaseTable}.
+ * <p>
+ * Positions are buffered in primitive long arrays per data file path. When the buffered positions exceed the memory
+ * budget, they are sorted and spilled as a run to local disk, and all runs are merged into one sorted position
+ * delete file when the writer is flushed. Positions deleted with a row are kept on heap, they are counted in the
+ * memory budget too and flushed into a position delete file when they alone exceed the budget.
  * @param <T> to indicate the record data type.
  */
 public class SortedPosDeleteWriter<T> implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(SortedPosDeleteWriter.class);
+
   private static final long DEFAULT_RECORDS_NUM_THRESHOLD = Long.MAX_VALUE;
+  private static final long DEFAULT_MEMORY_BYTES = Long.MAX_VALUE;
+  // estimated bytes of a buffered path besides its positions, including the map entry and the path itself
+  private static final int PATH_OVERHEAD_BYTES = 96;
+  // estimated bytes of a buffered row with its position, rows are not sized one by one
+  private static final int POS_ROW_BYTES = 256;
+  private static final Comparator<CharSequence> PATH_COMPARATOR = Comparators.charSequences();
 
-  private final Map<CharSequenceWrapper, List<PosRow<T>>> posDeletes = Maps.newHashMap();
+  private final Map<CharSequenceWrapper, PositionBuffer> positions = Maps.newHashMap();
+  private final Map<CharSequenceWrapper, List<PosRow<T>>> posRows = Maps.newHashMap();
+  private final List<File> spilledRuns = Lists.newArrayList();
   private final List<DeleteFile> completedFiles = Lists.newArrayList();
   private final CharSequenceSet referencedDataFiles = CharSequenceSet.empty();
   private final CharSequenceWrapper wrapper = CharSequenceWrapper.wrap(null);
@@ -56,20 +84,49 @@ public class SortedPosDeleteWriter<T> implements Closeable {
   private final FileFormat format;
   private final TaskWriterKey writerKey;
   private final long recordsNumThreshold;
+  private final long memoryBytes;
+  private final File spillDirectory;
 
-  private int records = 0;
+  private long records = 0;
+  private long bufferedBytes = 0;
+  private long rowBytes = 0;
 
   public SortedPosDeleteWriter(FileAppenderFactory<T> appenderFactory,
                                OutputFileFactory fileFactory,
                                FileFormat format,
                                long mask, long index,
                                StructLike partitionKey,
-                               long recordsNumThreshold) {
+                               long recordsNumThreshold,
+                               long memoryBytes,
+                               File spillDirectory) {
     this.appenderFactory = appenderFactory;
     this.fileFactory = fileFactory;
     this.format = format;
     this.writerKey = new TaskWriterKey(partitionKey, DataTreeNode.of(mask, index), DataFileType.POS_DELETE_FILE);
     this.recordsNumThreshold = recordsNumThreshold;
+    this.memoryBytes = memoryBytes;
+    this.spillDirectory = spillDirectory;
+  }
+
+  public SortedPosDeleteWriter(FileAppenderFactory<T> appenderFactory,
+                               OutputFileFactory fileFactory,
+                               FileFormat format,
+                               long mask, long index,
+                               StructLike partitionKey,
+                               long memoryBytes,
+                               File spillDirectory) {
+    this(appenderFactory, fileFactory, format, mask, index, partitionKey, DEFAULT_RECORDS_NUM_THRESHOLD,
+        memoryBytes, spillDirectory);
+  }
+
+  public SortedPosDeleteWriter(FileAppenderFactory<T> appenderFactory,
+                               OutputFileFactory fileFactory,
+                               FileFormat format,
+                               long mask, long index,
+                               StructLike partitionKey,
+                               long recordsNumThreshold) {
+    this(appenderFactory, fileFactory, format, mask, index, partitionKey, recordsNumThreshold,
+        DEFAULT_MEMORY_BYTES, null);
   }
 
   public SortedPosDeleteWriter(FileAppenderFactory<T> appenderFactory,
@@ -85,18 +142,35 @@ public class SortedPosDeleteWriter<T> implements Closeable {
   }
 
   public void delete(CharSequence path, long pos, T row) {
-    List<PosRow<T>> posRows = posDeletes.get(wrapper.set(path));
-    if (posRows != null) {
-      posRows.add(PosRow.of(pos, row));
+    if (row != null) {
+      List<PosRow<T>> rows = posRows.get(wrapper.set(path));
+      if (rows != null) {
+        rows.add(PosRow.of(pos, row));
+      } else {
+        posRows.put(CharSequenceWrapper.wrap(path), Lists.newArrayList(PosRow.of(pos, row)));
+        rowBytes += PATH_OVERHEAD_BYTES + 2L * path.length();
+      }
+      rowBytes += POS_ROW_BYTES;
     } else {
-      posDeletes.put(CharSequenceWrapper.wrap(path), Lists.newArrayList(PosRow.of(pos, row)));
+      PositionBuffer buffer = positions.get(wrapper.set(path));
+      if (buffer == null) {
+        buffer = new PositionBuffer();
+        positions.put(CharSequenceWrapper.wrap(path), buffer);
+        bufferedBytes += PATH_OVERHEAD_BYTES + 2L * path.length() + buffer.sizeInBytes();
+      }
+      bufferedBytes += buffer.add(pos);
     }
 
     records += 1;
 
-    // TODO Flush buffer based on the policy that checking whether whole heap memory size exceed the threshold.
     if (records >= recordsNumThreshold) {
       flushDeletes();
+    } else if (bufferedBytes + rowBytes > memoryBytes) {
+      spill();
+      // rows can not be spilled
+      if (rowBytes > memoryBytes) {
+        flushDeletes();
+      }
     }
   }
 
@@ -111,7 +185,7 @@ public class SortedPosDeleteWriter<T> implements Closeable {
   }
 
   public boolean isEmpty() {
-    return posDeletes.isEmpty();
+    return positions.isEmpty() && posRows.isEmpty() && spilledRuns.isEmpty();
   }
 
   @Override
@@ -119,8 +193,46 @@ public class SortedPosDeleteWriter<T> implements Closeable {
     flushDeletes();
   }
 
+  /**
+   * Write buffered positions sorted by path and position to local disk, as a run of
+   * [path length][path UTF-8 bytes][position count][positions] for each path.
+   */
+  private void spill() {
+    if (spillDirectory == null || positions.isEmpty()) {
+      return;
+    }
+    File run;
+    try {
+      run = File.createTempFile("arctic-pos-delete-", ".run", spillDirectory);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to create spill file in " + spillDirectory, e);
+    }
+
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), 1 << 16))) {
+      for (CharSequence path : sortedPaths(positions.keySet())) {
+        PositionBuffer buffer = positions.get(wrapper.set(path));
+        buffer.sort();
+        byte[] pathBytes = path.toString().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(pathBytes.length);
+        out.write(pathBytes);
+        out.writeInt(buffer.size);
+        for (int i = 0; i < buffer.size; i++) {
+          out.writeLong(buffer.positions[i]);
+        }
+      }
+    } catch (IOException e) {
+      run.delete();
+      throw new UncheckedIOException("Failed to spill position deletes to " + run, e);
+    }
+    spilledRuns.add(run);
+    LOG.debug("Spilled {} bytes of position deletes to {}", bufferedBytes, run);
+
+    positions.clear();
+    bufferedBytes = 0;
+  }
+
   private void flushDeletes() {
-    if (posDeletes.isEmpty()) {
+    if (isEmpty()) {
       return;
     }
 
@@ -130,29 +242,48 @@ public class SortedPosDeleteWriter<T> implements Closeable {
 
     PositionDeleteWriter<T> writer = appenderFactory
         .newPosDeleteWriter(outputFile, format, writerKey.getPartitionKey());
+    List<Source<T>> sources = Lists.newArrayList();
     try (PositionDeleteWriter<T> closeableWriter = writer) {
-      // Sort all the paths.
-      List<CharSequence> paths = Lists.newArrayListWithCapacity(posDeletes.keySet().size());
-      for (CharSequenceWrapper charSequenceWrapper : posDeletes.keySet()) {
-        paths.add(charSequenceWrapper.get());
+      // Merge all the sorted <path, pos, row> triples of spilled runs and buffers.
+      for (File run : spilledRuns) {
+        sources.add(new RunSource<>(run));
       }
-      paths.sort(Comparators.charSequences());
-
-      // Write all the sorted <path, pos, row> triples.
-      for (CharSequence path : paths) {
-        List<PosRow<T>> positions = posDeletes.get(wrapper.set(path));
-        positions.sort(Comparator.comparingLong(PosRow::pos));
+      sources.add(new BufferSource());
+      sources.add(new RowSource());
 
-        positions.forEach(posRow -> closeableWriter.delete(path, posRow.pos(), posRow.row()));
+      PriorityQueue<Source<T>> queue = new PriorityQueue<>(sources.size(), (s1, s2) -> {
+        int cmp = PATH_COMPARATOR.compare(s1.path(), s2.path());
+        return cmp != 0 ? cmp : Long.compare(s1.pos(), s2.pos());
+      });
+      for (Source<T> source : sources) {
+        if (source.advance()) {
+          queue.add(source);
+        }
+      }
+      while (!queue.isEmpty()) {
+        Source<T> source = queue.poll();
+        closeableWriter.delete(source.path(), source.pos(), source.row());
+        if (source.advance()) {
+          queue.add(source);
+        }
       }
     } catch (IOException e) {
       throw new UncheckedIOException("Failed to write the sorted path/pos pairs to pos-delete file: " +
           outputFile.encryptingOutputFile().location(), e);
+    } finally {
+      for (Source<T> source : sources) {
+        source.close();
+      }
+      spilledRuns.forEach(File::delete);
+      spilledRuns.clear();
     }
 
     // Clear the buffered pos-deletions.
-    posDeletes.clear();
+    positions.clear();
+    posRows.clear();
     records = 0;
+    bufferedBytes = 0;
+    rowBytes = 0;
 
     // Add the referenced data files.
     referencedDataFiles.addAll(writer.referencedDataFiles());
@@ -161,6 +292,195 @@ public class SortedPosDeleteWriter<T> implements Closeable {
     completedFiles.add(writer.toDeleteFile());
   }
 
+  private static List<CharSequence> sortedPaths(Iterable<CharSequenceWrapper> wrappers) {
+    List<CharSequence> paths = Lists.newArrayList();
+    for (CharSequenceWrapper charSequenceWrapper : wrappers) {
+      paths.add(charSequenceWrapper.get());
+    }
+    paths.sort(PATH_COMPARATOR);
+    return paths;
+  }
+
+  /**
+   * Growable array of positions of one data file.
+   */
+  private static class PositionBuffer {
+    private long[] positions = new long[16];
+    private int size;
+
+    /**
+     * @return bytes newly allocated to add the position
+     */
+    long add(long pos) {
+      long grown = 0;
+      if (size == positions.length) {
+        grown = 8L * positions.length;
+        positions = Arrays.copyOf(positions, positions.length * 2);
+      }
+      positions[size++] = pos;
+      return grown;
+    }
+
+    void sort() {
+      Arrays.sort(positions, 0, size);
+    }
+
+    long sizeInBytes() {
+      return 8L * positions.length;
+    }
+  }
+
+  /**
+   * Sorted <path, pos, row> triples, merged into one position delete file.
+   */
+  private interface Source<T> extends Closeable {
+
+    boolean advance() throws IOException;
+
+    CharSequence path();
+
+    long pos();
+
+    T row();
+
+    @Override
+    void close();
+  }
+
+  private class BufferSource implements Source<T> {
+    private final List<CharSequence> paths = sortedPaths(positions.keySet());
+    private int pathIdx = -1;
+    private PositionBuffer buffer;
+    private int posIdx;
+
+    @Override
+    public boolean advance() {
+      while (buffer == null || ++posIdx >= buffer.size) {
+        if (++pathIdx >= paths.size()) {
+          return false;
+        }
+        buffer = positions.get(wrapper.set(paths.get(pathIdx)));
+        buffer.sort();
+        posIdx = -1;
+      }
+      return true;
+    }
+
+    @Override
+    public CharSequence path() {
+      return paths.get(pathIdx);
+    }
+
+    @Override
+    public long pos() {
+      return buffer.positions[posIdx];
+    }
+
+    @Override
+    public T row() {
+      return null;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private class RowSource implements Source<T> {
+    private final List<CharSequence> paths = sortedPaths(posRows.keySet());
+    private int pathIdx = -1;
+    private List<PosRow<T>> rows;
+    private int rowIdx;
+
+    @Override
+    public boolean advance() {
+      while (rows == null || ++rowIdx >= rows.size()) {
+        if (++pathIdx >= paths.size()) {
+          return false;
+        }
+        rows = posRows.get(wrapper.set(paths.get(pathIdx)));
+        rows.sort(Comparator.comparingLong(PosRow::pos));
+        rowIdx = -1;
+      }
+      return true;
+    }
+
+    @Override
+    public CharSequence path() {
+      return paths.get(pathIdx);
+    }
+
+    @Override
+    public long pos() {
+      return rows.get(rowIdx).pos();
+    }
+
+    @Override
+    public T row() {
+      return rows.get(rowIdx).row();
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static class RunSource<T> implements Source<T> {
+    private final File file;
+    private final DataInputStream in;
+    private String path;
+    private int remaining;
+    private long pos;
+
+    RunSource(File file) throws IOException {
+      this.file = file;
+      this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+    }
+
+    @Override
+    public boolean advance() throws IOException {
+      while (remaining == 0) {
+        int pathLength;
+        try {
+          pathLength = in.readInt();
+        } catch (EOFException e) {
+          return false;
+        }
+        byte[] pathBytes = new byte[pathLength];
+        in.readFully(pathBytes);
+        path = new String(pathBytes, StandardCharsets.UTF_8);
+        remaining = in.readInt();
+      }
+      pos = in.readLong();
+      remaining--;
+      return true;
+    }
+
+    @Override
+    public CharSequence path() {
+      return path;
+    }
+
+    @Override
+    public long pos() {
+      return pos;
+    }
+
+    @Override
+    public T row() {
+      return null;
+    }
+
+    @Override
+    public void close() {
+      try {
+        in.close();
+      } catch (IOException e) {
+        LOG.warn("Failed to close spilled position delete run {}", file, e);
+      }
+    }
+  }
+
   private static class PosRow<R> {
     private final long pos;
     private final R row;
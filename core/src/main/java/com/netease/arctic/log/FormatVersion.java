@@ -26,9 +26,13 @@ import static com.netease.arctic.log.LogData.MAGIC_NUMBER;
 
 /**
  * Log format version.
+ * <p>
+ * {@link #FORMAT_VERSION_V1} messages carry the row as JSON, {@link #FORMAT_VERSION_V2} messages carry the row in
+ * the binary layout of {@link LogDataBinarySerialization}.
  */
 public enum FormatVersion {
-  FORMAT_VERSION_V1(new MessageBytes().append(MAGIC_NUMBER).append((byte) 1).toBytes());
+  FORMAT_VERSION_V1(new MessageBytes().append(MAGIC_NUMBER).append((byte) 1).toBytes()),
+  FORMAT_VERSION_V2(new MessageBytes().append(MAGIC_NUMBER).append((byte) 2).toBytes());
 
   /**
    * the version of log format, contains a fixed magic number and actual version number,
@@ -59,6 +63,9 @@ public enum FormatVersion {
   }
 
   public static FormatVersion fromBytes(byte[] data) {
+    if (data == null) {
+      return null;
+    }
     for (FormatVersion formatVersion : FormatVersion.values()) {
       byte[] expected = formatVersion.asBytes();
       if (Arrays.equals(expected, data)) {
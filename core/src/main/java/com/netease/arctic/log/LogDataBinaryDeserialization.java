@@ -0,0 +1,292 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.log;
+
+import com.netease.arctic.log.data.LogArrayData;
+import com.netease.arctic.log.data.LogMapData;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.netease.arctic.utils.FlipUtil.convertToBoolean;
+import static org.apache.iceberg.relocated.com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Deserialization that deserializes binary bytes of {@link FormatVersion#FORMAT_VERSION_V2} written by
+ * {@link LogDataBinarySerialization} into an instance of {@link LogData}
+ * through {@link LogData.Factory#create(Object, Object...)}
+ */
+public class LogDataBinaryDeserialization<T> implements Serializable {
+  private static final long serialVersionUID = -2390563415826209845L;
+  private static final int ROW_BEGINNING_POS = 18;
+
+  private final ValueReader rowReader;
+  private final LogData.Factory<T> factory;
+
+  public LogDataBinaryDeserialization(
+      Schema schema,
+      LogData.Factory<T> factory,
+      LogArrayData.Factory arrayFactory,
+      LogMapData.Factory mapFactory) {
+    this.factory = Preconditions.checkNotNull(factory);
+    this.rowReader = createStructReader(
+        schema.asStruct(), factory, Preconditions.checkNotNull(arrayFactory), Preconditions.checkNotNull(mapFactory));
+  }
+
+  public LogData<T> deserialize(byte[] message) {
+    checkArgument(message != null, "message is null.");
+    checkArgument(message.length >= ROW_BEGINNING_POS, "message is illegal.");
+    BinaryInput input = new BinaryInput(message);
+    byte[] versionBytes = input.readBytes(4);
+    byte[] upstreamIdBytes = input.readBytes(4);
+    long epicNo = input.readLong();
+    boolean flip = convertToBoolean(input.readByte());
+    byte changeActionByte = input.readByte();
+
+    if (flip) {
+      // we can ignore actual value which should be empty, when flip is true.
+      return factory.create(null, versionBytes, upstreamIdBytes, epicNo, true, changeActionByte);
+    }
+    T actualValue = (T) rowReader.read(input);
+    return factory.create(actualValue, versionBytes, upstreamIdBytes, epicNo, false, changeActionByte);
+  }
+
+  /**
+   * Reader of a non-null value.
+   */
+  interface ValueReader extends Serializable {
+    Object read(BinaryInput input);
+  }
+
+  private static <T> ValueReader createReader(
+      Type type,
+      LogData.Factory<T> factory,
+      LogArrayData.Factory arrayFactory,
+      LogMapData.Factory mapFactory) {
+    switch (type.typeId()) {
+      case BOOLEAN:
+        return input -> input.readByte() != 0;
+      case INTEGER:
+      case DATE:
+        return BinaryInput::readInt;
+      case LONG:
+      case TIME:
+        return BinaryInput::readLong;
+      case FLOAT:
+        return input -> Float.intBitsToFloat(input.readInt());
+      case DOUBLE:
+        return input -> Double.longBitsToDouble(input.readLong());
+      case TIMESTAMP:
+        if (((Types.TimestampType) type).shouldAdjustToUTC()) {
+          return input -> Instant.ofEpochSecond(input.readLong(), input.readInt());
+        } else {
+          return input -> LocalDateTime.ofEpochSecond(input.readLong(), input.readInt(), ZoneOffset.UTC);
+        }
+      case STRING:
+        return BinaryInput::readString;
+      case UUID:
+      case FIXED:
+      case BINARY:
+        return input -> input.readBytes(input.readVarInt());
+      case DECIMAL:
+        return input -> {
+          int scale = input.readVarInt();
+          return new BigDecimal(new BigInteger(input.readBytes(input.readVarInt())), scale);
+        };
+      case LIST:
+        Types.NestedField elementField = type.asListType().fields().get(0);
+        ElementsReader elementsReader = createElementsReader(elementField, true, factory, arrayFactory, mapFactory);
+        return input -> arrayFactory.create(elementsReader.read(input, input.readVarInt()));
+      case MAP:
+        Types.MapType mapType = type.asMapType();
+        ElementsReader keysReader =
+            createElementsReader(mapType.field(mapType.keyId()), false, factory, arrayFactory, mapFactory);
+        ElementsReader valuesReader =
+            createElementsReader(mapType.field(mapType.valueId()), false, factory, arrayFactory, mapFactory);
+        return input -> {
+          int size = input.readVarInt();
+          Object[] keys = keysReader.read(input, size);
+          Object[] values = valuesReader.read(input, size);
+          Map<Object, Object> map = new HashMap<>(Math.max((int) (size / .75f) + 1, 16));
+          for (int i = 0; i < size; i++) {
+            map.put(keys[i], values[i]);
+          }
+          return mapFactory.create(map);
+        };
+      case STRUCT:
+        return createStructReader(type.asStructType(), factory, arrayFactory, mapFactory);
+      default:
+        throw new UnsupportedOperationException("Not Support to parse type: " + type);
+    }
+  }
+
+  /**
+   * Reader of the null bitmap and values of elements, the size is known by the caller. Elements of lists are read
+   * into an array typed by the element type as {@link LogArrayData.Factory} expects, keys and values of maps into
+   * plain object arrays.
+   */
+  interface ElementsReader extends Serializable {
+    Object[] read(BinaryInput input, int size);
+  }
+
+  private static <T> ElementsReader createElementsReader(
+      Types.NestedField elementField,
+      boolean typedArray,
+      LogData.Factory<T> factory,
+      LogArrayData.Factory arrayFactory,
+      LogMapData.Factory mapFactory) {
+    Type elementType = elementField.type();
+    ValueReader elementReader = createReader(elementType, factory, arrayFactory, mapFactory);
+    final Class<?> elementClass;
+    if (!typedArray) {
+      elementClass = Object.class;
+    } else if (elementType.typeId() == Type.TypeID.STRUCT) {
+      elementClass = factory.getActualValueClass();
+    } else {
+      elementClass = elementType.typeId().javaClass();
+    }
+    return (input, size) -> {
+      Object[] array = (Object[]) Array.newInstance(elementClass, size);
+      int bitmapPos = input.skipBitmap(size);
+      for (int i = 0; i < size; i++) {
+        if (!input.isNull(bitmapPos, i)) {
+          array[i] = factory.convertIfNecessary(elementType, elementReader.read(input));
+        }
+      }
+      return array;
+    };
+  }
+
+  private static <T> ValueReader createStructReader(
+      Types.StructType structType,
+      LogData.Factory<T> factory,
+      LogArrayData.Factory arrayFactory,
+      LogMapData.Factory mapFactory) {
+    List<Types.NestedField> fields = structType.fields();
+    int fieldCount = fields.size();
+    Type[] fieldTypes = new Type[fieldCount];
+    ValueReader[] fieldReaders = new ValueReader[fieldCount];
+    for (int i = 0; i < fieldCount; i++) {
+      fieldTypes[i] = fields.get(i).type();
+      fieldReaders[i] = createReader(fieldTypes[i], factory, arrayFactory, mapFactory);
+    }
+    return input -> {
+      Object[] struct = new Object[fieldCount];
+      int bitmapPos = input.skipBitmap(fieldCount);
+      for (int i = 0; i < fieldCount; i++) {
+        if (!input.isNull(bitmapPos, i)) {
+          struct[i] = fieldReaders[i].read(input);
+        }
+      }
+      return factory.createActualValue(struct, fieldTypes);
+    };
+  }
+
+  /**
+   * Cursor over a message, values are read in place without copying the message.
+   */
+  static class BinaryInput {
+    private final byte[] buffer;
+    private int pos;
+
+    BinaryInput(byte[] buffer) {
+      this.buffer = buffer;
+    }
+
+    byte readByte() {
+      checkRemaining(1);
+      return buffer[pos++];
+    }
+
+    byte[] readBytes(int length) {
+      checkRemaining(length);
+      byte[] bytes = Arrays.copyOfRange(buffer, pos, pos + length);
+      pos += length;
+      return bytes;
+    }
+
+    int readInt() {
+      checkRemaining(4);
+      int value = (buffer[pos] & 0xFF) << 24 |
+          (buffer[pos + 1] & 0xFF) << 16 |
+          (buffer[pos + 2] & 0xFF) << 8 |
+          (buffer[pos + 3] & 0xFF);
+      pos += 4;
+      return value;
+    }
+
+    long readLong() {
+      long high = readInt();
+      return high << 32 | (readInt() & 0xFFFFFFFFL);
+    }
+
+    int readVarInt() {
+      int value = 0;
+      for (int shift = 0; shift < 32; shift += 7) {
+        byte b = readByte();
+        value |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("Malformed var-int at position " + pos);
+    }
+
+    String readString() {
+      int length = readVarInt();
+      checkRemaining(length);
+      String value = new String(buffer, pos, length, StandardCharsets.UTF_8);
+      pos += length;
+      return value;
+    }
+
+    int skipBitmap(int count) {
+      int bytes = (count + 7) >>> 3;
+      checkRemaining(bytes);
+      int bitmapPos = pos;
+      pos += bytes;
+      return bitmapPos;
+    }
+
+    boolean isNull(int bitmapPos, int index) {
+      return (buffer[bitmapPos + (index >>> 3)] & (1 << (index & 7))) != 0;
+    }
+
+    private void checkRemaining(int length) {
+      if (length < 0 || pos + length > buffer.length) {
+        throw new IllegalArgumentException(
+            String.format("message is illegal, need %d bytes at position %d of %d.", length, pos, buffer.length));
+      }
+    }
+  }
+}
@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.log;
+
+import com.netease.arctic.log.data.LogArrayData;
+import com.netease.arctic.log.data.LogMapData;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Serialization that serializes an instance of {@link LogData} into binary bytes of
+ * {@link FormatVersion#FORMAT_VERSION_V2}.
+ * <p>
+ * The header is the same as {@link LogDataJsonSerialization}, the row follows as a struct. Field names are not
+ * written, a struct is a null bitmap of its fields followed by values of the non-null fields in schema order:
+ * <ul>
+ *   <li>boolean as 1 byte, int and date as 4 bytes, long and time as 8 bytes, float and double as their bits</li>
+ *   <li>timestamp as 8 bytes epoch seconds and 4 bytes nanos in UTC</li>
+ *   <li>string, binary, fixed and uuid as var-int length and bytes</li>
+ *   <li>decimal as var-int scale, var-int length and bytes of the unscaled value</li>
+ *   <li>list as var-int size, null bitmap of elements and values of non-null elements</li>
+ *   <li>map as var-int size, followed by keys and values both encoded like lists without size</li>
+ * </ul>
+ * The output buffer is reused across rows, only the returned message is allocated per row.
+ */
+public class LogDataBinarySerialization<T> implements Serializable {
+  private static final long serialVersionUID = 3312459016471628372L;
+
+  private final ValueWriter rowWriter;
+  private transient BinaryOutput output;
+
+  public LogDataBinarySerialization(Schema schema, LogData.FieldGetterFactory<T> fieldGetterFactory) {
+    this.rowWriter = createStructWriter(schema.asStruct(), fieldGetterFactory);
+  }
+
+  public byte[] serialize(LogData<T> element) {
+    if (output == null) {
+      output = new BinaryOutput();
+    }
+    output.reset();
+    // 4 bytes version + 4 bytes upstreamId + 8 bytes EpicNo + 1 byte flip + 1 byte rowKind + n bytes object data
+    output.writeBytes(element.getVersionBytes());
+    output.writeBytes(element.getUpstreamIdBytes());
+    output.writeLong(element.getEpicNo());
+    output.writeByte(element.getFlipByte());
+    output.writeByte(element.getChangeActionByte());
+
+    // would ignore serializing actual value if flip is true.
+    if (!element.getFlip()) {
+      try {
+        rowWriter.write(element.getActualValue(), output);
+      } catch (Throwable t) {
+        throw new RuntimeException("Could not serialize row '" + element + "'. ", t);
+      }
+    }
+    return output.toBytes();
+  }
+
+  /**
+   * Writer of a non-null value.
+   */
+  interface ValueWriter extends Serializable {
+    void write(Object value, BinaryOutput output);
+  }
+
+  private static <T> ValueWriter createWriter(Type type, LogData.FieldGetterFactory<T> fieldGetterFactory) {
+    switch (type.typeId()) {
+      case BOOLEAN:
+        return (value, output) -> output.writeByte((Boolean) value ? (byte) 1 : (byte) 0);
+      case INTEGER:
+      case DATE:
+        return (value, output) -> output.writeInt((int) value);
+      case LONG:
+      case TIME:
+        return (value, output) -> output.writeLong((long) value);
+      case FLOAT:
+        return (value, output) -> output.writeInt(Float.floatToIntBits((float) value));
+      case DOUBLE:
+        return (value, output) -> output.writeLong(Double.doubleToLongBits((double) value));
+      case TIMESTAMP:
+        if (((Types.TimestampType) type).shouldAdjustToUTC()) {
+          return (value, output) -> {
+            Instant instant = (Instant) value;
+            output.writeLong(instant.getEpochSecond());
+            output.writeInt(instant.getNano());
+          };
+        } else {
+          return (value, output) -> {
+            LocalDateTime localDateTime = (LocalDateTime) value;
+            output.writeLong(localDateTime.toEpochSecond(ZoneOffset.UTC));
+            output.writeInt(localDateTime.getNano());
+          };
+        }
+      case STRING:
+        return (value, output) -> output.writeString(value.toString());
+      case UUID:
+      case FIXED:
+      case BINARY:
+        return (value, output) -> {
+          byte[] bytes = (byte[]) value;
+          output.writeVarInt(bytes.length);
+          output.writeBytes(bytes);
+        };
+      case DECIMAL:
+        return (value, output) -> {
+          BigDecimal decimal = (BigDecimal) value;
+          byte[] unscaled = decimal.unscaledValue().toByteArray();
+          output.writeVarInt(decimal.scale());
+          output.writeVarInt(unscaled.length);
+          output.writeBytes(unscaled);
+        };
+      case LIST:
+        Types.NestedField elementField = type.asListType().fields().get(0);
+        ValueWriter listWriter = createElementsWriter(elementField, fieldGetterFactory);
+        return (value, output) -> {
+          LogArrayData array = (LogArrayData) value;
+          output.writeVarInt(array.size());
+          listWriter.write(array, output);
+        };
+      case MAP:
+        Types.MapType mapType = type.asMapType();
+        ValueWriter keysWriter = createElementsWriter(mapType.field(mapType.keyId()), fieldGetterFactory);
+        ValueWriter valuesWriter = createElementsWriter(mapType.field(mapType.valueId()), fieldGetterFactory);
+        return (value, output) -> {
+          LogMapData map = (LogMapData) value;
+          output.writeVarInt(map.size());
+          keysWriter.write(map.keyArray(), output);
+          valuesWriter.write(map.valueArray(), output);
+        };
+      case STRUCT:
+        return createStructWriter(type.asStructType(), fieldGetterFactory);
+      default:
+        throw new UnsupportedOperationException("Not Support to serialize type: " + type);
+    }
+  }
+
+  /**
+   * Writer of the null bitmap and values of elements of a {@link LogArrayData}, without size.
+   */
+  private static <T> ValueWriter createElementsWriter(
+      Types.NestedField elementField,
+      LogData.FieldGetterFactory<T> fieldGetterFactory) {
+    LogArrayData.ElementGetter elementGetter = LogArrayData.createElementGetter(elementField);
+    ValueWriter elementWriter = createWriter(elementField.type(), fieldGetterFactory);
+    return (value, output) -> {
+      LogArrayData array = (LogArrayData) value;
+      int size = array.size();
+      int bitmapPos = output.reserveBitmap(size);
+      for (int i = 0; i < size; i++) {
+        Object element = array.isNullAt(i) ? null : elementGetter.getElementOrNull(array, i);
+        if (element == null) {
+          output.setNull(bitmapPos, i);
+        } else {
+          elementWriter.write(element, output);
+        }
+      }
+    };
+  }
+
+  private static <T> ValueWriter createStructWriter(
+      Types.StructType structType,
+      LogData.FieldGetterFactory<T> fieldGetterFactory) {
+    List<Types.NestedField> fields = structType.fields();
+    int fieldCount = fields.size();
+    ValueWriter[] fieldWriters = new ValueWriter[fieldCount];
+    LogData.FieldGetter<T>[] fieldGetters = new LogData.FieldGetter[fieldCount];
+    for (int i = 0; i < fieldCount; i++) {
+      Type fieldType = fields.get(i).type();
+      fieldWriters[i] = createWriter(fieldType, fieldGetterFactory);
+      fieldGetters[i] = fieldGetterFactory.createFieldGetter(fieldType, i);
+    }
+    return (value, output) -> {
+      T struct = (T) value;
+      int bitmapPos = output.reserveBitmap(fieldCount);
+      for (int i = 0; i < fieldCount; i++) {
+        Object field = fieldGetters[i].getFieldOrNull(struct, i);
+        if (field == null) {
+          output.setNull(bitmapPos, i);
+        } else {
+          try {
+            fieldWriters[i].write(field, output);
+          } catch (Throwable t) {
+            throw new RuntimeException(
+                String.format("Fail to serialize at field: %s.", fields.get(i).name()), t);
+          }
+        }
+      }
+    };
+  }
+
+  /**
+   * Growable output buffer reused across messages.
+   */
+  static class BinaryOutput {
+    private byte[] buffer = new byte[256];
+    private int pos;
+
+    void reset() {
+      pos = 0;
+    }
+
+    byte[] toBytes() {
+      return Arrays.copyOf(buffer, pos);
+    }
+
+    void writeByte(byte value) {
+      ensureCapacity(1);
+      buffer[pos++] = value;
+    }
+
+    void writeBytes(byte[] bytes) {
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buffer, pos, bytes.length);
+      pos += bytes.length;
+    }
+
+    void writeInt(int value) {
+      ensureCapacity(4);
+      buffer[pos++] = (byte) (value >>> 24);
+      buffer[pos++] = (byte) (value >>> 16);
+      buffer[pos++] = (byte) (value >>> 8);
+      buffer[pos++] = (byte) value;
+    }
+
+    void writeLong(long value) {
+      writeInt((int) (value >>> 32));
+      writeInt((int) value);
+    }
+
+    void writeVarInt(int value) {
+      ensureCapacity(5);
+      while ((value & ~0x7F) != 0) {
+        buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buffer[pos++] = (byte) value;
+    }
+
+    void writeString(String value) {
+      int length = value.length();
+      boolean ascii = true;
+      for (int i = 0; i < length && ascii; i++) {
+        ascii = value.charAt(i) < 0x80;
+      }
+      if (ascii) {
+        // encode ascii strings in place without an intermediate byte array
+        writeVarInt(length);
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+          buffer[pos++] = (byte) value.charAt(i);
+        }
+      } else {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        writeBytes(bytes);
+      }
+    }
+
+    /**
+     * @return position of the reserved bitmap, bits are set by {@link #setNull(int, int)}
+     */
+    int reserveBitmap(int count) {
+      int bytes = (count + 7) >>> 3;
+      ensureCapacity(bytes);
+      int bitmapPos = pos;
+      Arrays.fill(buffer, pos, pos + bytes, (byte) 0);
+      pos += bytes;
+      return bitmapPos;
+    }
+
+    void setNull(int bitmapPos, int index) {
+      buffer[bitmapPos + (index >>> 3)] |= (byte) (1 << (index & 7));
+    }
+
+    private void ensureCapacity(int length) {
+      if (pos + length > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, pos + length));
+      }
+    }
+  }
+}
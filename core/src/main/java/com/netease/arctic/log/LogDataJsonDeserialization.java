@@ -40,6 +40,9 @@ import static org.apache.iceberg.relocated.com.google.common.base.Preconditions.
 /**
  * Deserialization that deserializes a JSON bytes array into an instance of {@link LogData}
  * through {@link LogData.Factory#create(Object, Object...)}
+ * <p>
+ * Messages of {@link FormatVersion#FORMAT_VERSION_V2} are deserialized by {@link LogDataBinaryDeserialization},
+ * so readers keep reading topics written in either format.
  */
 public class LogDataJsonDeserialization<T> implements Serializable {
   private static final long serialVersionUID = -5741370033707067127L;
@@ -48,6 +51,7 @@ public class LogDataJsonDeserialization<T> implements Serializable {
 
   private final JsonToLogDataConverters.JsonToLogDataConverter<T> jsonToLogDataConverter;
   private final LogData.Factory<T> factory;
+  private final LogDataBinaryDeserialization<T> binaryDeserialization;
 
   /**
    * Object mapper for parsing the JSON.
@@ -60,6 +64,7 @@ public class LogDataJsonDeserialization<T> implements Serializable {
       LogArrayData.Factory arrayFactory,
       LogMapData.Factory mapFactory) {
     this.factory = factory;
+    this.binaryDeserialization = new LogDataBinaryDeserialization<>(schema, factory, arrayFactory, mapFactory);
     this.jsonToLogDataConverter =
         new JsonToLogDataConverters<>(factory, arrayFactory, mapFactory)
             .createConverter(schema.asStruct());
@@ -85,10 +90,23 @@ public class LogDataJsonDeserialization<T> implements Serializable {
         });
   }
 
+  private static boolean isBinaryFormat(byte[] message) {
+    byte[] binaryVersion = FormatVersion.FORMAT_VERSION_V2.asBytes();
+    for (int i = 0; i < binaryVersion.length; i++) {
+      if (message[i] != binaryVersion[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public LogData<T> deserialize(byte[] message) throws IOException {
     try {
       checkArgument(message != null, "message is null.");
       checkArgument(message.length >= ROW_BEGINNING_POS, "message is illegal.");
+      if (isBinaryFormat(message)) {
+        return binaryDeserialization.deserialize(message);
+      }
       byte[] versionBytes = Bytes.subByte(message, 0, 4);
       byte[] upstreamIdBytes = Bytes.subByte(message, 4, 4);
       long epicNo = Longs.fromByteArray(Bytes.subByte(message, 8, 8));
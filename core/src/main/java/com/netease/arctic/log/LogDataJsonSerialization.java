@@ -23,13 +23,18 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.iceberg.Schema;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 /**
  * Serialization that serializes an instance of {@link LogData} into a JSON bytes.
+ * <p>
+ * Elements of {@link FormatVersion#FORMAT_VERSION_V2} are serialized by {@link LogDataBinarySerialization}
+ * instead, so writers choose the format by the version of elements they create.
  */
 public class LogDataJsonSerialization<T> implements Serializable {
   private static final long serialVersionUID = 66420071549145794L;
   private LogDataToJsonConverters.LogDataToJsonConverter<T> logDataToJsonConverter;
+  private final LogDataBinarySerialization<T> binarySerialization;
 
   /**
    * Reusable object node.
@@ -44,9 +49,13 @@ public class LogDataJsonSerialization<T> implements Serializable {
 
   public LogDataJsonSerialization(Schema schema, LogData.FieldGetterFactory<T> fieldGetterFactory) {
     this.logDataToJsonConverter = LogDataToJsonConverters.createConverter(schema.asStruct(), fieldGetterFactory);
+    this.binarySerialization = new LogDataBinarySerialization<>(schema, fieldGetterFactory);
   }
 
   public byte[] serialize(LogData<T> element) {
+    if (Arrays.equals(FormatVersion.FORMAT_VERSION_V2.asBytes(), element.getVersionBytes())) {
+      return binarySerialization.serialize(element);
+    }
     // 4 bytes version + 4 bytes upstreamId + 8 bytes EpicNo + 1 byte flip + 1 byte rowKind + n bytes object data
     MessageBytes messageBytes = new MessageBytes();
 
@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static com.netease.arctic.log.LogData.MAGIC_NUMBER;
+import static org.apache.iceberg.relocated.com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A batch packs serialized {@link LogData} messages of the same upstream and epicNo into one log queue message.
+ * <p>
+ * 4 bytes batch version + 1 byte compression + var-int message count + var-int uncompressed length + payload,
+ * the payload is the messages each prefixed by its var-int length, compressed as a whole block. The batch version
+ * shares the magic number of {@link FormatVersion} with a version number no row format uses, so a batch is told
+ * apart from a single message by {@link #isBatch(byte[])}.
+ */
+public class LogMessageBatch {
+
+  public static final byte[] BATCH_VERSION =
+      new MessageBytes().append(MAGIC_NUMBER).append((byte) 0x7F).toBytes();
+  private static final int HEADER_LENGTH = BATCH_VERSION.length + 1;
+
+  public enum Compression {
+    NONE((byte) 0),
+    DEFLATE((byte) 1);
+
+    private final byte id;
+
+    Compression(byte id) {
+      this.id = id;
+    }
+
+    public static Compression fromName(String name) {
+      return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    static Compression fromId(byte id) {
+      for (Compression compression : values()) {
+        if (compression.id == id) {
+          return compression;
+        }
+      }
+      throw new IllegalArgumentException("Unknown log batch compression: " + id);
+    }
+  }
+
+  private LogMessageBatch() {
+  }
+
+  public static boolean isBatch(byte[] message) {
+    if (message == null || message.length < HEADER_LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < BATCH_VERSION.length; i++) {
+      if (message[i] != BATCH_VERSION[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return messages packed in the batch, in the order they were added
+   */
+  public static List<byte[]> unpack(byte[] batch) {
+    checkArgument(isBatch(batch), "message is not a log message batch.");
+    Compression compression = Compression.fromId(batch[BATCH_VERSION.length]);
+    int[] pos = new int[]{HEADER_LENGTH};
+    int count = readVarInt(batch, pos);
+    int rawLength = readVarInt(batch, pos);
+
+    byte[] payload;
+    int payloadPos;
+    if (compression == Compression.NONE) {
+      payload = batch;
+      payloadPos = pos[0];
+    } else {
+      payload = new byte[rawLength];
+      payloadPos = 0;
+      Inflater inflater = new Inflater();
+      try {
+        inflater.setInput(batch, pos[0], batch.length - pos[0]);
+        int length = 0;
+        while (length < rawLength && !inflater.finished()) {
+          int inflated = inflater.inflate(payload, length, rawLength - length);
+          if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+            break;
+          }
+          length += inflated;
+        }
+        checkArgument(length == rawLength, "log message batch is truncated.");
+      } catch (DataFormatException e) {
+        throw new IllegalArgumentException("log message batch is corrupted.", e);
+      } finally {
+        inflater.end();
+      }
+    }
+
+    List<byte[]> messages = new ArrayList<>(count);
+    pos[0] = payloadPos;
+    for (int i = 0; i < count; i++) {
+      int length = readVarInt(payload, pos);
+      checkArgument(pos[0] + length <= payload.length, "log message batch is truncated.");
+      messages.add(Arrays.copyOfRange(payload, pos[0], pos[0] + length));
+      pos[0] += length;
+    }
+    return messages;
+  }
+
+  private static int readVarInt(byte[] bytes, int[] pos) {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      checkArgument(pos[0] < bytes.length, "log message batch is truncated.");
+      byte b = bytes[pos[0]++];
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("log message batch is corrupted.");
+  }
+
+  /**
+   * Accumulates messages into a batch, buffers are reused after {@link #build()}. Not thread safe.
+   */
+  public static class Builder {
+    private final Compression compression;
+    private final Deflater deflater;
+    private byte[] payload = new byte[4096];
+    private int payloadLength;
+    private int count;
+    private long firstAddTime;
+    private byte[] compressed;
+
+    public Builder(Compression compression) {
+      this.compression = compression;
+      this.deflater = compression == Compression.DEFLATE ? new Deflater(Deflater.BEST_SPEED) : null;
+    }
+
+    public void add(byte[] message) {
+      if (count == 0) {
+        firstAddTime = System.currentTimeMillis();
+      }
+      ensureCapacity(message.length + 5);
+      payloadLength = writeVarInt(payload, payloadLength, message.length);
+      System.arraycopy(message, 0, payload, payloadLength, message.length);
+      payloadLength += message.length;
+      count++;
+    }
+
+    public boolean isEmpty() {
+      return count == 0;
+    }
+
+    public int count() {
+      return count;
+    }
+
+    /**
+     * @return uncompressed size of messages added
+     */
+    public int sizeInBytes() {
+      return payloadLength;
+    }
+
+    /**
+     * @return time in milliseconds when the first message of the current batch was added
+     */
+    public long firstAddTime() {
+      return firstAddTime;
+    }
+
+    /**
+     * Builds the batch of messages added so far and resets the builder.
+     */
+    public byte[] build() {
+      byte[] header = new byte[HEADER_LENGTH + 10];
+      System.arraycopy(BATCH_VERSION, 0, header, 0, BATCH_VERSION.length);
+      header[BATCH_VERSION.length] = compression.id;
+      int headerLength = writeVarInt(header, HEADER_LENGTH, count);
+      headerLength = writeVarInt(header, headerLength, payloadLength);
+
+      byte[] body = payload;
+      int bodyLength = payloadLength;
+      if (compression == Compression.DEFLATE) {
+        if (compressed == null || compressed.length < payloadLength / 2) {
+          compressed = new byte[Math.max(payloadLength / 2, 1024)];
+        }
+        deflater.reset();
+        deflater.setInput(payload, 0, payloadLength);
+        deflater.finish();
+        bodyLength = 0;
+        while (!deflater.finished()) {
+          if (bodyLength == compressed.length) {
+            compressed = Arrays.copyOf(compressed, compressed.length * 2);
+          }
+          bodyLength += deflater.deflate(compressed, bodyLength, compressed.length - bodyLength);
+        }
+        body = compressed;
+      }
+
+      byte[] batch = new byte[headerLength + bodyLength];
+      System.arraycopy(header, 0, batch, 0, headerLength);
+      System.arraycopy(body, 0, batch, headerLength, bodyLength);
+      payloadLength = 0;
+      count = 0;
+      return batch;
+    }
+
+    public void close() {
+      if (deflater != null) {
+        deflater.end();
+      }
+    }
+
+    private void ensureCapacity(int length) {
+      if (payloadLength + length > payload.length) {
+        payload = Arrays.copyOf(payload, Math.max(payload.length * 2, payloadLength + length));
+      }
+    }
+
+    private static int writeVarInt(byte[] bytes, int pos, int value) {
+      while ((value & ~0x7F) != 0) {
+        bytes[pos++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      bytes[pos++] = (byte) value;
+      return pos;
+    }
+  }
+}
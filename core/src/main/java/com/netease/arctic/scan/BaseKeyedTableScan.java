@@ -22,16 +22,17 @@ import com.netease.arctic.data.DataTreeNode;
 import com.netease.arctic.table.BaseKeyedTable;
 import com.netease.arctic.table.TableProperties;
 import com.netease.arctic.table.UnkeyedTable;
-import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.StructLike;
-import org.apache.iceberg.TableScan;
 import org.apache.iceberg.expressions.Expression;
 import org.apache.iceberg.expressions.Expressions;
 import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
 import org.apache.iceberg.relocated.com.google.common.collect.ListMultimap;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.apache.iceberg.relocated.com.google.common.collect.Multimaps;
+import org.apache.iceberg.relocated.com.google.common.util.concurrent.MoreExecutors;
+import org.apache.iceberg.relocated.com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.iceberg.util.BinPacking;
 import org.apache.iceberg.util.PropertyUtil;
 import org.apache.iceberg.util.StructLikeMap;
@@ -42,27 +43,44 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Base implementation of {@link KeyedTableScan}, including the merge-on-read plan logical
+ * <p>
+ * Base and change files are planned concurrently, then every partition is planned and split on the planning pool.
+ * Partitions are returned in order as soon as they are planned, so consumers can start combining and scheduling
+ * tasks before all partitions are done.
+ * <p>
+ * A planning task not started by the pool yet is run by the thread waiting for it, so planning never waits for tasks
+ * queued behind blocked threads, e.g. when tables are planned from threads of the planning pool itself.
  */
 public class BaseKeyedTableScan implements KeyedTableScan {
   private static final Logger LOG = LoggerFactory.getLogger(BaseKeyedTableScan.class);
 
+  public static final String PLANNER_THREADS_PROPERTY = "arctic.scan.planner.num-threads";
+
+  private static volatile ExecutorService sharedPlannerPool;
+
   private final BaseKeyedTable table;
-  List<NodeFileScanTask> splitTasks = new ArrayList<>();
-  private final Map<StructLike, List<NodeFileScanTask>> fileScanTasks = new HashMap<>();
   private final int lookBack;
   private final long openFileCost;
   private final long splitSize;
+  private final boolean planningCacheEnabled;
   private Expression expression;
+  private ExecutorService plannerPool;
 
   public BaseKeyedTableScan(BaseKeyedTable table) {
     this.table = table;
@@ -72,6 +90,8 @@ public class BaseKeyedTableScan implements KeyedTableScan {
         TableProperties.SPLIT_SIZE, TableProperties.SPLIT_SIZE_DEFAULT);
     lookBack = PropertyUtil.propertyAsInt(table.properties(),
         TableProperties.SPLIT_LOOKBACK, TableProperties.SPLIT_LOOKBACK_DEFAULT);
+    planningCacheEnabled = PropertyUtil.propertyAsBoolean(table.properties(),
+        TableProperties.READ_PLANNING_CACHE_ENABLED, TableProperties.READ_PLANNING_CACHE_ENABLED_DEFAULT);
   }
 
   @Override
@@ -85,70 +105,63 @@ public class BaseKeyedTableScan implements KeyedTableScan {
   }
 
   @Override
-  public CloseableIterable<CombinedScanTask> planTasks() {
-    // base file
-    List<ArcticFileScanTask> changeFileList = new ArrayList<>();
-    List<ArcticFileScanTask> baseFileList = new ArrayList<>();
-    table.io().doAs(() -> {
-      planFiles(table.baseTable()).forEach(
-          fileScanTask -> baseFileList.add(new BaseArcticFileScanTask(fileScanTask))
-      );
-      return null;
-    });
+  public KeyedTableScan planWith(ExecutorService executorService) {
+    this.plannerPool = executorService;
+    return this;
+  }
 
+  @Override
+  public CloseableIterable<CombinedScanTask> planTasks() {
+    ExecutorService executor = plannerPool != null ? plannerPool : sharedPlannerPool();
+    // base and change files are planned concurrently, manifests of each table are read by iceberg worker pool
+    FutureTask<List<ArcticFileScanTask>> baseFiles = submit(executor, () -> planFiles(table.baseTable(), false));
+    FutureTask<List<ArcticFileScanTask>> changeFiles = null;
     if (table.primaryKeySpec().primaryKeyExisted()) {
-      table.io().doAs(() -> {
-        planFiles(table.changeTable()).forEach(
-            fileScanTask -> changeFileList.add(new BaseArcticFileScanTask(fileScanTask))
-        );
-        return null;
-      });
+      changeFiles = submit(executor, () -> planFiles(table.changeTable(), true));
     }
+    List<ArcticFileScanTask> baseFileList = await(baseFiles);
+    List<ArcticFileScanTask> changeFileList = changeFiles == null ? new ArrayList<>() : await(changeFiles);
     LOG.info("mor statistics plan change file size {},base file size {}", changeFileList.size(), baseFileList.size());
 
     // 1. group files by partition
     Map<StructLike, Collection<ArcticFileScanTask>> partitionedFiles =
         groupFilesByPartition(changeFileList, baseFileList);
     LOG.info("planning table {} need plan partition size {}", table.id(), partitionedFiles.size());
-    partitionedFiles.forEach(this::partitionPlan);
-    LOG.info("planning table {} partitionPlan end", table.id());
-    // 2.split node task (FileScanTask -> FileScanTask List)
-    split();
-    LOG.info("planning table {} split end", table.id());
-    // 3.combine node task (FileScanTask List -> CombinedScanTask)
-    CloseableIterable<CombinedScanTask> tasksIterable = combineNode(CloseableIterable.withNoopClose(splitTasks),
+    // 2. plan and split node tasks of each partition in parallel (FileScanTask -> FileScanTask List)
+    List<FutureTask<List<NodeFileScanTask>>> partitionTasks = new ArrayList<>(partitionedFiles.size());
+    partitionedFiles.values().forEach(files -> partitionTasks.add(submit(executor, () -> split(partitionPlan(files)))));
+    Iterable<NodeFileScanTask> splitTasks = Iterables.concat(Iterables.transform(partitionTasks, this::await));
+    // 3.combine node task (FileScanTask List -> CombinedScanTask), streamed as partitions are planned
+    return combineNode(
+        CloseableIterable.combine(splitTasks, () -> partitionTasks.forEach(task -> task.cancel(true))),
         splitSize, lookBack, openFileCost);
-    return tasksIterable;
   }
 
-  private CloseableIterable<FileScanTask> planFiles(UnkeyedTable internalTable) {
-    TableScan scan = internalTable.newScan();
-    if (this.expression != null) {
-      scan = scan.filter(this.expression);
-    }
-    return scan.planFiles();
+  private List<ArcticFileScanTask> planFiles(UnkeyedTable internalTable, boolean appendOnly) {
+    return table.io().doAs(() -> {
+      if (planningCacheEnabled) {
+        return PlanningCache.planFiles(internalTable, expression, appendOnly);
+      }
+      return PlanningCache.collect(PlanningCache.scan(internalTable, expression), internalTable);
+    });
   }
 
-  private void split() {
-    fileScanTasks.forEach((structLike, fileScanTasks1) -> {
-      Iterator<NodeFileScanTask> it = fileScanTasks1.iterator();
-      while (it.hasNext()) {
-        NodeFileScanTask task = it.next();
-        if (task.cost() <= splitSize) {
-          splitTasks.add(task);
-          continue;
-        }
-        if (task.dataTasks().size() < 2) {
-          splitTasks.add(task);
-          continue;
-        }
-        CloseableIterable<NodeFileScanTask> tasksIterable = splitNode(CloseableIterable.withNoopClose(task.dataTasks()),
-            task.arcticEquityDeletes(), splitSize, lookBack, openFileCost);
-        List<NodeFileScanTask> tasks =
-            org.apache.iceberg.relocated.com.google.common.collect.Lists.newArrayList(tasksIterable);
-        splitTasks.addAll(tasks);
+  private List<NodeFileScanTask> split(List<NodeFileScanTask> nodeTasks) {
+    List<NodeFileScanTask> splitTasks = new ArrayList<>();
+    for (NodeFileScanTask task : nodeTasks) {
+      if (task.cost() <= splitSize) {
+        splitTasks.add(task);
+        continue;
       }
-    });
+      if (task.dataTasks().size() < 2) {
+        splitTasks.add(task);
+        continue;
+      }
+      CloseableIterable<NodeFileScanTask> tasksIterable = splitNode(CloseableIterable.withNoopClose(task.dataTasks()),
+          task.arcticEquityDeletes(), splitSize, lookBack, openFileCost);
+      splitTasks.addAll(Lists.newArrayList(tasksIterable));
+    }
+    return splitTasks;
   }
 
   public CloseableIterable<NodeFileScanTask> splitNode(
@@ -182,48 +195,46 @@ public class BaseKeyedTableScan implements KeyedTableScan {
   /**
    * Construct tree node task according to partition
    * 1. Put all files into the node they originally belonged to
-   * 2. Find all data nodes, traverse, and find the delete that intersects them
+   * 2. Walk up the ancestors of every node, attach the deletes of a node to its data ancestors and the deletes of
+   * ancestors to a data node, so every data node gets the deletes that intersect it
    */
-  private void partitionPlan(StructLike partition, Collection<ArcticFileScanTask> keyedTableTasks) {
+  private List<NodeFileScanTask> partitionPlan(Collection<ArcticFileScanTask> keyedTableTasks) {
     Map<DataTreeNode, NodeFileScanTask> nodeFileScanTaskMap = new HashMap<>();
     // planfiles() cannot guarantee the uniqueness of the file,
     // so Set<path> here is used to remove duplicate files
     Set<String> pathSets = new HashSet<>();
-    keyedTableTasks.stream().forEach(task -> {
-      if (!pathSets.contains(task.file().path().toString())) {
-        pathSets.add(task.file().path().toString());
+    keyedTableTasks.forEach(task -> {
+      if (pathSets.add(task.file().path().toString())) {
         DataTreeNode treeNode = task.file().node();
-        NodeFileScanTask nodeFileScanTask = nodeFileScanTaskMap.getOrDefault(treeNode, new NodeFileScanTask(treeNode));
-        nodeFileScanTask.addFile(task);
-        nodeFileScanTaskMap.put(treeNode, nodeFileScanTask);
+        nodeFileScanTaskMap.computeIfAbsent(treeNode, NodeFileScanTask::new).addFile(task);
       }
     });
 
+    // deletes are collected before attaching, so deletes attached to a node are not propagated again
+    Map<DataTreeNode, List<ArcticFileScanTask>> nodeDeletes = new HashMap<>();
+    nodeFileScanTaskMap.forEach((treeNode, nodeFileScanTask) ->
+        nodeDeletes.put(treeNode, new ArrayList<>(nodeFileScanTask.arcticEquityDeletes())));
     nodeFileScanTaskMap.forEach((treeNode, nodeFileScanTask) -> {
-      if (!nodeFileScanTask.isDataNode()) {
-        return;
-      }
-
-      nodeFileScanTaskMap.forEach((treeNode1, nodeFileScanTask1) -> {
-        if (!treeNode1.equals(treeNode) && (treeNode1.isSonOf(treeNode) || treeNode.isSonOf(treeNode1))) {
-          List<ArcticFileScanTask> deletes = nodeFileScanTask1.arcticEquityDeletes().stream()
-              .filter(file -> file.file().node().equals(treeNode1))
-              .collect(Collectors.toList());
-
-          nodeFileScanTask.addTasks(deletes);
+      List<ArcticFileScanTask> deletes = nodeDeletes.get(treeNode);
+      DataTreeNode ancestor = treeNode;
+      while (ancestor.mask() > 0) {
+        ancestor = ancestor.parent();
+        NodeFileScanTask ancestorTask = nodeFileScanTaskMap.get(ancestor);
+        if (ancestorTask == null) {
+          continue;
+        }
+        if (ancestorTask.isDataNode()) {
+          ancestorTask.addTasks(deletes);
+        }
+        if (nodeFileScanTask.isDataNode()) {
+          nodeFileScanTask.addTasks(nodeDeletes.get(ancestor));
         }
-      });
-    });
-
-    List<NodeFileScanTask> fileScanTaskList = new ArrayList<>();
-    nodeFileScanTaskMap.forEach((treeNode, nodeFileScanTask) -> {
-      if (!nodeFileScanTask.isDataNode()) {
-        return;
       }
-      fileScanTaskList.add(nodeFileScanTask);
     });
 
-    fileScanTasks.put(partition, fileScanTaskList);
+    return nodeFileScanTaskMap.values().stream()
+        .filter(NodeFileScanTask::isDataNode)
+        .collect(Collectors.toList());
   }
 
   public Map<StructLike, Collection<ArcticFileScanTask>> groupFilesByPartition(List<ArcticFileScanTask> changeTasks,
@@ -253,4 +264,47 @@ public class BaseKeyedTableScan implements KeyedTableScan {
     });
     return filesGroupedByPartition.asMap();
   }
-}
\ No newline at end of file
+
+  private static <T> FutureTask<T> submit(ExecutorService executor, Callable<T> callable) {
+    FutureTask<T> task = new FutureTask<>(callable);
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      // run by the thread waiting for it
+      LOG.debug("Planning task rejected by the planning pool", e);
+    }
+    return task;
+  }
+
+  private <T> T await(FutureTask<T> future) {
+    // run the task in this thread if it is not started yet, it is a no-op if the task is running or done
+    future.run();
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while planning table " + table.id(), e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new RuntimeException("Failed to plan table " + table.id(), cause);
+    }
+  }
+
+  private static ExecutorService sharedPlannerPool() {
+    if (sharedPlannerPool == null) {
+      synchronized (BaseKeyedTableScan.class) {
+        if (sharedPlannerPool == null) {
+          int threads = Integer.getInteger(PLANNER_THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+          sharedPlannerPool = MoreExecutors.getExitingExecutorService(
+              (ThreadPoolExecutor) Executors.newFixedThreadPool(
+                  threads,
+                  new ThreadFactoryBuilder().setDaemon(true).setNameFormat("arctic-scan-planner-%d").build()));
+        }
+      }
+    }
+    return sharedPlannerPool;
+  }
+}
@@ -21,6 +21,8 @@ package com.netease.arctic.scan;
 import org.apache.iceberg.expressions.Expression;
 import org.apache.iceberg.io.CloseableIterable;
 
+import java.util.concurrent.ExecutorService;
+
 /**
  * API for configuring a {@link com.netease.arctic.table.KeyedTable} scan.
  */
@@ -34,6 +36,14 @@ public interface KeyedTableScan {
    */
   KeyedTableScan filter(Expression expr);
 
+  /**
+   * Config this scan to plan files and partitions on the {@link ExecutorService}.
+   *
+   * @param executorService the executor used for planning
+   * @return scan based on this planned with the executor
+   */
+  KeyedTableScan planWith(ExecutorService executorService);
+
   /**
    * Plan the {@link CombinedScanTask tasks} for this scan.
    *
@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.scan;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.netease.arctic.table.UnkeyedTable;
+import org.apache.iceberg.DataOperations;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.TableScan;
+import org.apache.iceberg.exceptions.ValidationException;
+import org.apache.iceberg.expressions.Binder;
+import org.apache.iceberg.expressions.BoundPredicate;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.expressions.ExpressionVisitors;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.expressions.UnboundPredicate;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.util.SnapshotUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Planned files of the base and change stores of keyed tables, shared in jvm.
+ * <p>
+ * Files are cached by table location and filter together with the snapshot they are planned from, so a cached plan
+ * is only used for the same snapshot and never gets stale. Filters are bound to the table schema to build the key, so
+ * filters only share a plan when they select the same rows of the same columns. When the change store only appended
+ * files since the cached snapshot, only the manifests of the new snapshots are planned and added to the cached plan.
+ * The cache is bounded by the number of cached files, configured by system property {@link #MAX_FILES_PROPERTY}.
+ */
+public class PlanningCache {
+  private static final Logger LOG = LoggerFactory.getLogger(PlanningCache.class);
+
+  public static final String MAX_FILES_PROPERTY = "arctic.scan.planning-cache.max-files";
+  private static final long MAX_FILES_DEFAULT = 100000L;
+
+  private static final Cache<Key, Plan> CACHE = Caffeine.newBuilder()
+      .maximumWeight(Long.getLong(MAX_FILES_PROPERTY, MAX_FILES_DEFAULT))
+      .weigher((Key key, Plan plan) -> plan.files.size() + 1)
+      .build();
+
+  private PlanningCache() {
+  }
+
+  /**
+   * Plan files of the current snapshot of the table.
+   *
+   * @param table      base or change store of a keyed table
+   * @param filter     filter of the scan, may be null
+   * @param appendOnly whether the table only appends files, so a cached plan of an ancestor snapshot can be reused
+   * @return the planned files, should not be modified
+   */
+  public static List<ArcticFileScanTask> planFiles(UnkeyedTable table, Expression filter, boolean appendOnly) {
+    Snapshot snapshot = table.currentSnapshot();
+    if (snapshot == null) {
+      return Collections.emptyList();
+    }
+    long snapshotId = snapshot.snapshotId();
+    Key key;
+    try {
+      key = new Key(table.location(), filterKey(table, filter));
+    } catch (ValidationException e) {
+      LOG.warn("planning table {} without cache, failed to bind filter {}", table.id(), filter, e);
+      return collect(scan(table, filter).useSnapshot(snapshotId), table);
+    }
+    Plan cached = CACHE.getIfPresent(key);
+    if (cached != null && cached.snapshotId == snapshotId) {
+      return cached.files;
+    }
+
+    List<ArcticFileScanTask> files = null;
+    if (cached != null && appendOnly && onlyAppendedSince(table, cached.snapshotId, snapshotId)) {
+      List<ArcticFileScanTask> appended = collect(
+          scan(table, filter).appendsBetween(cached.snapshotId, snapshotId), table);
+      LOG.info("planning table {} incrementally from snapshot {} to {}, appended file size {}",
+          table.id(), cached.snapshotId, snapshotId, appended.size());
+      files = new ArrayList<>(cached.files.size() + appended.size());
+      files.addAll(cached.files);
+      files.addAll(appended);
+    }
+    if (files == null) {
+      files = collect(scan(table, filter).useSnapshot(snapshotId), table);
+    }
+    files = Collections.unmodifiableList(files);
+    CACHE.put(key, new Plan(snapshotId, files));
+    return files;
+  }
+
+  public static void invalidateAll() {
+    CACHE.invalidateAll();
+  }
+
+  static TableScan scan(UnkeyedTable table, Expression filter) {
+    TableScan scan = table.newScan();
+    if (filter != null) {
+      scan = scan.filter(filter);
+    }
+    return scan;
+  }
+
+  static List<ArcticFileScanTask> collect(TableScan scan, UnkeyedTable table) {
+    List<ArcticFileScanTask> files = new ArrayList<>();
+    try (CloseableIterable<FileScanTask> tasks = scan.planFiles()) {
+      tasks.forEach(fileScanTask -> files.add(new BaseArcticFileScanTask(fileScanTask)));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to close table scan of " + table.name(), e);
+    }
+    return files;
+  }
+
+  /**
+   * Build a key of the filter bound to the table schema, made of operations, field ids and literal values converted
+   * to the field types, so it does not depend on how literals are written in the filter.
+   */
+  static Object filterKey(UnkeyedTable table, Expression filter) {
+    if (filter == null) {
+      return null;
+    }
+    Expression bound = Binder.bind(table.schema().asStruct(), Expressions.rewriteNot(filter), true);
+    return ExpressionVisitors.visit(bound, new FilterKeyVisitor());
+  }
+
+  private static boolean onlyAppendedSince(UnkeyedTable table, long fromSnapshotId, long toSnapshotId) {
+    if (table.snapshot(fromSnapshotId) == null || !SnapshotUtil.ancestorOf(table, toSnapshotId, fromSnapshotId)) {
+      return false;
+    }
+    for (Long snapshotId : SnapshotUtil.snapshotIdsBetween(table, fromSnapshotId, toSnapshotId)) {
+      if (!DataOperations.APPEND.equals(table.snapshot(snapshotId).operation())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static class FilterKeyVisitor extends ExpressionVisitors.ExpressionVisitor<Object> {
+
+    @Override
+    public Object alwaysTrue() {
+      return Expression.Operation.TRUE;
+    }
+
+    @Override
+    public Object alwaysFalse() {
+      return Expression.Operation.FALSE;
+    }
+
+    @Override
+    public Object not(Object result) {
+      return ImmutableList.of(Expression.Operation.NOT, result);
+    }
+
+    @Override
+    public Object and(Object leftResult, Object rightResult) {
+      return ImmutableList.of(Expression.Operation.AND, leftResult, rightResult);
+    }
+
+    @Override
+    public Object or(Object leftResult, Object rightResult) {
+      return ImmutableList.of(Expression.Operation.OR, leftResult, rightResult);
+    }
+
+    @Override
+    public <T> Object predicate(BoundPredicate<T> pred) {
+      // terms of bound predicates are printed with field ids and types, never with values written by users
+      String term = pred.term().toString();
+      if (pred.isLiteralPredicate()) {
+        return ImmutableList.of(pred.op(), term, value(pred.asLiteralPredicate().literal().value()));
+      } else if (pred.isSetPredicate()) {
+        Set<Object> values = new HashSet<>();
+        pred.asSetPredicate().literalSet().forEach(value -> values.add(value(value)));
+        return ImmutableList.of(pred.op(), term, values);
+      }
+      return ImmutableList.of(pred.op(), term);
+    }
+
+    @Override
+    public <T> Object predicate(UnboundPredicate<T> pred) {
+      throw new IllegalStateException("Filter is not bound: " + pred);
+    }
+
+    private static Object value(Object value) {
+      // char sequences do not implement equals, compare them by content
+      return value instanceof CharSequence ? value.toString() : value;
+    }
+  }
+
+  private static class Key {
+    private final String location;
+    private final Object filter;
+
+    Key(String location, Object filter) {
+      this.location = location;
+      this.filter = filter;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return Objects.equals(location, key.location) && Objects.equals(filter, key.filter);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(location, filter);
+    }
+  }
+
+  private static class Plan {
+    private final long snapshotId;
+    private final List<ArcticFileScanTask> files;
+
+    Plan(long snapshotId, List<ArcticFileScanTask> files) {
+      this.snapshotId = snapshotId;
+      this.files = files;
+    }
+  }
+}
@@ -161,6 +161,27 @@ public class TableProperties {
   public static final String WRITE_DISTRIBUTION_HASH_AUTO = "auto";
   public static final String WRITE_DISTRIBUTION_HASH_MODE_DEFAULT = WRITE_DISTRIBUTION_HASH_AUTO;
 
+  // bounds of open writers of a task writer, a non-positive value means unbounded
+  public static final String WRITE_OPEN_FILES_MAX = "write.open-files.max";
+  public static final int WRITE_OPEN_FILES_MAX_DEFAULT = -1;
+
+  public static final String WRITE_OPEN_FILES_MEMORY_BYTES = "write.open-files.memory-bytes";
+  public static final long WRITE_OPEN_FILES_MEMORY_BYTES_DEFAULT = -1;
+
+  public static final String WRITE_CLUSTERED_ENABLED = "write.clustered.enabled";
+  public static final boolean WRITE_CLUSTERED_ENABLED_DEFAULT = false;
+
+  public static final String WRITE_ASYNC_CLOSE_ENABLED = "write.async-close.enabled";
+  public static final boolean WRITE_ASYNC_CLOSE_ENABLED_DEFAULT = false;
+
+  public static final String WRITE_ASYNC_CLOSE_MAX_PENDING = "write.async-close.max-pending";
+  public static final int WRITE_ASYNC_CLOSE_MAX_PENDING_DEFAULT = 4;
+
+  public static final String WRITE_POS_DELETE_MEMORY_BYTES = "write.pos-delete.memory-bytes";
+  public static final long WRITE_POS_DELETE_MEMORY_BYTES_DEFAULT = 134217728; // 128 MB
+
+  public static final String WRITE_POS_DELETE_SPILL_DIR = "write.pos-delete.spill-dir";
+
   /**
    * table read related properties
    */
@@ -183,6 +204,27 @@ public class TableProperties {
 
   public static final String SPLIT_OPEN_FILE_COST = org.apache.iceberg.TableProperties.SPLIT_OPEN_FILE_COST;
   public static final long SPLIT_OPEN_FILE_COST_DEFAULT = 4 * 1024 * 1024; // 4MB
+
+  public static final String READ_PLANNING_CACHE_ENABLED = "read.planning-cache.enabled";
+  public static final boolean READ_PLANNING_CACHE_ENABLED_DEFAULT = false;
+
+  public static final String READ_EQ_DELETE_INDEX_TYPE = "read.eq-delete.index-type";
+  public static final String READ_EQ_DELETE_INDEX_TYPE_HEAP = "heap";
+  public static final String READ_EQ_DELETE_INDEX_TYPE_SPILLABLE = "spillable";
+  public static final String READ_EQ_DELETE_INDEX_TYPE_DEFAULT = READ_EQ_DELETE_INDEX_TYPE_HEAP;
+
+  public static final String READ_EQ_DELETE_INDEX_MEMORY_BYTES = "read.eq-delete.index.memory-bytes";
+  public static final long READ_EQ_DELETE_INDEX_MEMORY_BYTES_DEFAULT = 67108864; // 64 MB
+
+  public static final String READ_POS_DELETE_CACHE_ENABLED = "read.pos-delete.cache.enabled";
+  public static final boolean READ_POS_DELETE_CACHE_ENABLED_DEFAULT = true;
+
+  public static final String READ_VECTORIZATION_ENABLED = "read.vectorization.enabled";
+  public static final boolean READ_VECTORIZATION_ENABLED_DEFAULT = false;
+
+  public static final String READ_VECTORIZATION_BATCH_SIZE = "read.vectorization.batch-size";
+  public static final int READ_VECTORIZATION_BATCH_SIZE_DEFAULT = 5000;
+
   /**
    * log store related properties
    */
@@ -201,4 +243,24 @@ public class TableProperties {
 
   public static final String LOG_STORE_DATA_VERSION = "log-store.data-version";
   public static final String LOG_STORE_DATA_VERSION_DEFAULT = "v1";
+  /**
+   * Version writing rows in a compact binary layout instead of JSON, readers handle both versions.
+   */
+  public static final String LOG_STORE_DATA_VERSION_BINARY = "v2";
+
+  /**
+   * Pack rows sent to the same partition of the log store into one compressed message, only readers supporting
+   * batches can consume the topic when enabled.
+   */
+  public static final String LOG_STORE_BATCH_ENABLED = "log-store.batch.enabled";
+  public static final boolean LOG_STORE_BATCH_ENABLED_DEFAULT = false;
+
+  public static final String LOG_STORE_BATCH_MAX_BYTES = "log-store.batch.max-bytes";
+  public static final int LOG_STORE_BATCH_MAX_BYTES_DEFAULT = 65536; // 64 KB
+
+  public static final String LOG_STORE_BATCH_LINGER_MS = "log-store.batch.linger-ms";
+  public static final long LOG_STORE_BATCH_LINGER_MS_DEFAULT = 100L;
+
+  public static final String LOG_STORE_BATCH_COMPRESSION = "log-store.batch.compression";
+  public static final String LOG_STORE_BATCH_COMPRESSION_DEFAULT = "deflate";
 }
@@ -0,0 +1,499 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils;
+
+import org.apache.iceberg.ArcticContentFiles;
+import org.apache.iceberg.ContentFile;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileContent;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.Metrics;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Compact binary codec of iceberg {@link DataFile}s and {@link DeleteFile}s carried by optimize tasks, which replaces
+ * java serialization writing class descriptors and boxed values of every file.
+ * <p>
+ * 1 byte magic + 1 byte version, followed by:
+ * <ul>
+ *   <li>content, spec id, path and format</li>
+ *   <li>partition type as var-int field count and id, name and type of each field, then a null bitmap and values of
+ *   the partition in iceberg single-value serialization, so files are decoded without the table</li>
+ *   <li>record count and file size as var-longs</li>
+ *   <li>metrics: ids of columns with any metric once as delta var-ints, each metric map is a presence bitmap over
+ *   the column ids followed by var-long counts or length-prefixed bounds</li>
+ *   <li>key metadata, split offsets as delta var-longs, equality field ids and sort order id, all nullable</li>
+ * </ul>
+ * Partition types shared by files are parsed once and cached by their encoded bytes. Bytes not starting with the
+ * magic are java serialized files, see {@link SerializationUtil#toInternalTableFile(byte[])}.
+ */
+public class ContentFileCodec {
+
+  private static final byte MAGIC = (byte) 0xA7;
+  public static final byte VERSION_1 = 1;
+
+  private static final int MAX_CACHED_PARTITION_TYPES = 1024;
+  private static final Map<ByteBuffer, Types.StructType> PARTITION_TYPES = new ConcurrentHashMap<>();
+
+  private ContentFileCodec() {
+  }
+
+  public static boolean isEncoded(byte[] bytes) {
+    return bytes != null && bytes.length >= 2 && bytes[0] == MAGIC;
+  }
+
+  public static boolean isEncoded(ByteBuffer buffer) {
+    return buffer != null && buffer.remaining() >= 2 && buffer.get(buffer.position()) == MAGIC;
+  }
+
+  /**
+   * @return encoded bytes of the file, or null if the file is not a plain iceberg file and can not be encoded
+   */
+  public static byte[] encode(ContentFile<?> file) {
+    if (!ArcticContentFiles.isGenericFile(file)) {
+      return null;
+    }
+    Output output = new Output();
+    output.writeByte(MAGIC);
+    output.writeByte(VERSION_1);
+    output.writeByte((byte) file.content().ordinal());
+    output.writeVarLong(file.specId());
+    output.writeString(file.path().toString());
+    output.writeString(file.format().name());
+    writePartition(ArcticContentFiles.partitionType(file), file.partition(), output);
+    output.writeVarLong(file.recordCount());
+    output.writeVarLong(file.fileSizeInBytes());
+    writeMetrics(file, output);
+    writeNullableBytes(file.keyMetadata(), output);
+    writeOffsets(file.splitOffsets(), output);
+    List<Integer> equalityFieldIds = file.equalityFieldIds();
+    output.writeBoolean(equalityFieldIds != null);
+    if (equalityFieldIds != null) {
+      output.writeVarLong(equalityFieldIds.size());
+      equalityFieldIds.forEach(output::writeVarLong);
+    }
+    Integer sortOrderId = file.sortOrderId();
+    output.writeBoolean(sortOrderId != null);
+    if (sortOrderId != null) {
+      output.writeVarLong(sortOrderId);
+    }
+    return output.toBytes();
+  }
+
+  public static ContentFile<?> decode(byte[] bytes) {
+    if (!isEncoded(bytes)) {
+      throw new IllegalArgumentException("bytes are not an encoded content file.");
+    }
+    Input input = new Input(bytes);
+    input.readByte();
+    byte version = input.readByte();
+    if (version != VERSION_1) {
+      throw new IllegalArgumentException("Unsupported content file codec version: " + version);
+    }
+    FileContent content = FileContent.values()[input.readByte()];
+    int specId = input.readVarInt();
+    String path = input.readString();
+    FileFormat format = FileFormat.valueOf(input.readString());
+    Types.StructType partitionType = readPartitionType(input);
+    Object[] partitionValues = readPartitionValues(partitionType, input);
+    long recordCount = input.readVarLong();
+    long fileSizeInBytes = input.readVarLong();
+    Metrics metrics = readMetrics(recordCount, input);
+    ByteBuffer keyMetadata = readNullableBytes(input);
+    List<Long> splitOffsets = readOffsets(input);
+    int[] equalityFieldIds = null;
+    if (input.readBoolean()) {
+      equalityFieldIds = new int[input.readVarInt()];
+      for (int i = 0; i < equalityFieldIds.length; i++) {
+        equalityFieldIds[i] = input.readVarInt();
+      }
+    }
+    Integer sortOrderId = input.readBoolean() ? input.readVarInt() : null;
+
+    if (content == FileContent.DATA) {
+      return ArcticContentFiles.newDataFile(
+          specId, path, format, partitionType, partitionValues, fileSizeInBytes, metrics, keyMetadata, splitOffsets,
+          sortOrderId);
+    } else {
+      return ArcticContentFiles.newDeleteFile(
+          specId, content, path, format, partitionType, partitionValues, fileSizeInBytes, metrics, equalityFieldIds,
+          sortOrderId, keyMetadata);
+    }
+  }
+
+  private static void writePartition(Types.StructType partitionType, StructLike partition, Output output) {
+    List<Types.NestedField> fields = partitionType.fields();
+    int typeStart = output.position();
+    output.writeVarLong(fields.size());
+    for (Types.NestedField field : fields) {
+      output.writeVarLong(field.fieldId());
+      output.writeString(field.name());
+      output.writeString(field.type().toString());
+    }
+    output.writeVarLong(output.position() - typeStart);
+
+    int bitmapPos = output.reserveBitmap(fields.size());
+    for (int i = 0; i < fields.size(); i++) {
+      Object value = partition.get(i, Object.class);
+      if (value == null) {
+        output.setBit(bitmapPos, i);
+      } else {
+        writeBytes(Conversions.toByteBuffer(fields.get(i).type(), value), output);
+      }
+    }
+  }
+
+  private static Types.StructType readPartitionType(Input input) {
+    int typeStart = input.position();
+    int fieldCount = input.readVarInt();
+    for (int i = 0; i < fieldCount; i++) {
+      input.readVarInt();
+      input.readString();
+      input.readString();
+    }
+    int typeLength = input.position() - typeStart;
+    if (input.readVarInt() != typeLength) {
+      throw new IllegalArgumentException("content file is corrupted.");
+    }
+    return partitionType(input.buffer(), typeStart, typeLength);
+  }
+
+  private static Object[] readPartitionValues(Types.StructType partitionType, Input input) {
+    List<Types.NestedField> fields = partitionType.fields();
+    Object[] values = new Object[fields.size()];
+    int bitmapPos = input.skipBitmap(fields.size());
+    for (int i = 0; i < fields.size(); i++) {
+      if (!input.isBitSet(bitmapPos, i)) {
+        Type type = fields.get(i).type();
+        Object value = Conversions.fromByteBuffer(type, readBytes(input));
+        values[i] = type.typeId() == Type.TypeID.STRING ? value.toString() : value;
+      }
+    }
+    return values;
+  }
+
+  private static Types.StructType partitionType(byte[] buffer, int offset, int length) {
+    ByteBuffer key = ByteBuffer.wrap(buffer, offset, length);
+    Types.StructType partitionType = PARTITION_TYPES.get(key);
+    if (partitionType != null) {
+      return partitionType;
+    }
+    Input input = new Input(Arrays.copyOfRange(buffer, offset, offset + length));
+    int fieldCount = input.readVarInt();
+    List<Types.NestedField> fields = new ArrayList<>(fieldCount);
+    for (int i = 0; i < fieldCount; i++) {
+      int fieldId = input.readVarInt();
+      String name = input.readString();
+      Type type = Types.fromPrimitiveString(input.readString());
+      fields.add(Types.NestedField.optional(fieldId, name, type));
+    }
+    partitionType = Types.StructType.of(fields);
+    if (PARTITION_TYPES.size() >= MAX_CACHED_PARTITION_TYPES) {
+      PARTITION_TYPES.clear();
+    }
+    PARTITION_TYPES.put(ByteBuffer.wrap(Arrays.copyOfRange(buffer, offset, offset + length)), partitionType);
+    return partitionType;
+  }
+
+  private static void writeMetrics(ContentFile<?> file, Output output) {
+    List<Map<Integer, Long>> counts = Arrays.asList(
+        file.columnSizes(), file.valueCounts(), file.nullValueCounts(), file.nanValueCounts());
+    List<Map<Integer, ByteBuffer>> bounds = Arrays.asList(file.lowerBounds(), file.upperBounds());
+
+    TreeSet<Integer> columnIds = new TreeSet<>();
+    counts.stream().filter(Objects::nonNull).forEach(map -> columnIds.addAll(map.keySet()));
+    bounds.stream().filter(Objects::nonNull).forEach(map -> columnIds.addAll(map.keySet()));
+    output.writeVarLong(columnIds.size());
+    int lastId = 0;
+    for (int id : columnIds) {
+      output.writeVarLong(id - lastId);
+      lastId = id;
+    }
+
+    for (Map<Integer, Long> map : counts) {
+      output.writeBoolean(map != null);
+      if (map != null) {
+        writeColumnValues(columnIds, map, output, output::writeVarLong);
+      }
+    }
+    for (Map<Integer, ByteBuffer> map : bounds) {
+      output.writeBoolean(map != null);
+      if (map != null) {
+        writeColumnValues(columnIds, map, output, value -> writeBytes(value, output));
+      }
+    }
+  }
+
+  private static <V> void writeColumnValues(
+      TreeSet<Integer> columnIds, Map<Integer, V> map, Output output, Consumer<V> valueWriter) {
+    int bitmapPos = output.reserveBitmap(columnIds.size());
+    int i = 0;
+    for (Integer id : columnIds) {
+      V value = map.get(id);
+      if (value != null) {
+        output.setBit(bitmapPos, i);
+        valueWriter.accept(value);
+      }
+      i++;
+    }
+  }
+
+  private static Metrics readMetrics(long recordCount, Input input) {
+    int[] columnIds = new int[input.readVarInt()];
+    int lastId = 0;
+    for (int i = 0; i < columnIds.length; i++) {
+      lastId += input.readVarInt();
+      columnIds[i] = lastId;
+    }
+
+    List<Map<Integer, Long>> counts = new ArrayList<>(4);
+    for (int m = 0; m < 4; m++) {
+      counts.add(input.readBoolean() ? readColumnValues(columnIds, input, Input::readVarLong) : null);
+    }
+    List<Map<Integer, ByteBuffer>> bounds = new ArrayList<>(2);
+    for (int m = 0; m < 2; m++) {
+      bounds.add(input.readBoolean() ? readColumnValues(columnIds, input, ContentFileCodec::readBytes) : null);
+    }
+    return new Metrics(recordCount, counts.get(0), counts.get(1), counts.get(2), counts.get(3),
+        bounds.get(0), bounds.get(1));
+  }
+
+  private static <V> Map<Integer, V> readColumnValues(
+      int[] columnIds, Input input, Function<Input, V> valueReader) {
+    int bitmapPos = input.skipBitmap(columnIds.length);
+    Map<Integer, V> values = new HashMap<>();
+    for (int i = 0; i < columnIds.length; i++) {
+      if (input.isBitSet(bitmapPos, i)) {
+        values.put(columnIds[i], valueReader.apply(input));
+      }
+    }
+    return values;
+  }
+
+  private static void writeOffsets(List<Long> offsets, Output output) {
+    output.writeBoolean(offsets != null);
+    if (offsets != null) {
+      output.writeVarLong(offsets.size());
+      long last = 0;
+      for (long offset : offsets) {
+        output.writeZigZagVarLong(offset - last);
+        last = offset;
+      }
+    }
+  }
+
+  private static List<Long> readOffsets(Input input) {
+    if (!input.readBoolean()) {
+      return null;
+    }
+    int size = input.readVarInt();
+    List<Long> offsets = new ArrayList<>(size);
+    long last = 0;
+    for (int i = 0; i < size; i++) {
+      last += input.readZigZagVarLong();
+      offsets.add(last);
+    }
+    return offsets;
+  }
+
+  private static void writeNullableBytes(ByteBuffer buffer, Output output) {
+    output.writeBoolean(buffer != null);
+    if (buffer != null) {
+      writeBytes(buffer, output);
+    }
+  }
+
+  private static ByteBuffer readNullableBytes(Input input) {
+    return input.readBoolean() ? readBytes(input) : null;
+  }
+
+  private static void writeBytes(ByteBuffer buffer, Output output) {
+    ByteBuffer duplicate = buffer.duplicate();
+    output.writeVarLong(duplicate.remaining());
+    output.writeBytes(duplicate);
+  }
+
+  private static ByteBuffer readBytes(Input input) {
+    return ByteBuffer.wrap(input.readBytes(input.readVarInt()));
+  }
+
+  private static class Output {
+    private byte[] buffer = new byte[256];
+    private int pos;
+
+    int position() {
+      return pos;
+    }
+
+    byte[] toBytes() {
+      return Arrays.copyOf(buffer, pos);
+    }
+
+    void writeByte(byte value) {
+      ensureCapacity(1);
+      buffer[pos++] = value;
+    }
+
+    void writeBoolean(boolean value) {
+      writeByte(value ? (byte) 1 : (byte) 0);
+    }
+
+    void writeBytes(ByteBuffer bytes) {
+      int length = bytes.remaining();
+      ensureCapacity(length);
+      bytes.get(buffer, pos, length);
+      pos += length;
+    }
+
+    void writeVarLong(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buffer[pos++] = (byte) value;
+    }
+
+    void writeZigZagVarLong(long value) {
+      writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void writeString(String value) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarLong(bytes.length);
+      writeBytes(ByteBuffer.wrap(bytes));
+    }
+
+    int reserveBitmap(int count) {
+      int bytes = (count + 7) >>> 3;
+      ensureCapacity(bytes);
+      int bitmapPos = pos;
+      Arrays.fill(buffer, pos, pos + bytes, (byte) 0);
+      pos += bytes;
+      return bitmapPos;
+    }
+
+    void setBit(int bitmapPos, int index) {
+      buffer[bitmapPos + (index >>> 3)] |= (byte) (1 << (index & 7));
+    }
+
+    private void ensureCapacity(int length) {
+      if (pos + length > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, pos + length));
+      }
+    }
+  }
+
+  private static class Input {
+    private final byte[] buffer;
+    private int pos;
+
+    Input(byte[] buffer) {
+      this.buffer = buffer;
+    }
+
+    byte[] buffer() {
+      return buffer;
+    }
+
+    int position() {
+      return pos;
+    }
+
+    byte readByte() {
+      checkRemaining(1);
+      return buffer[pos++];
+    }
+
+    boolean readBoolean() {
+      return readByte() != 0;
+    }
+
+    byte[] readBytes(int length) {
+      checkRemaining(length);
+      byte[] bytes = Arrays.copyOfRange(buffer, pos, pos + length);
+      pos += length;
+      return bytes;
+    }
+
+    long readVarLong() {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = readByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("content file is corrupted.");
+    }
+
+    int readVarInt() {
+      return (int) readVarLong();
+    }
+
+    long readZigZagVarLong() {
+      long value = readVarLong();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    String readString() {
+      int length = readVarInt();
+      checkRemaining(length);
+      String value = new String(buffer, pos, length, StandardCharsets.UTF_8);
+      pos += length;
+      return value;
+    }
+
+    int skipBitmap(int count) {
+      int bytes = (count + 7) >>> 3;
+      checkRemaining(bytes);
+      int bitmapPos = pos;
+      pos += bytes;
+      return bitmapPos;
+    }
+
+    boolean isBitSet(int bitmapPos, int index) {
+      return (buffer[bitmapPos + (index >>> 3)] & (1 << (index & 7))) != 0;
+    }
+
+    private void checkRemaining(int length) {
+      if (length < 0 || pos + length > buffer.length) {
+        throw new IllegalArgumentException("content file is truncated.");
+      }
+    }
+  }
+}
@@ -42,6 +42,19 @@ public class SerializationUtil {
     }
   }
 
+  /**
+   * Serialize a content file by {@link ContentFileCodec} if compact, falling back to java serialization if the file
+   * is not a plain iceberg file.
+   * <p>
+   * Readers before the codec only read java serialized files, so files are encoded compact only when all readers are
+   * upgraded: ams encodes task files compact once optimizers are upgraded, and optimizers encode result files compact
+   * only for tasks whose files are encoded compact by ams.
+   */
+  public static ByteBuffer toByteBuffer(ContentFile<?> file, boolean compact) {
+    byte[] bytes = compact ? ContentFileCodec.encode(file) : null;
+    return bytes != null ? ByteBuffer.wrap(bytes) : toByteBuffer((Object) file);
+  }
+
   public static ByteBuffer byteArrayToByteBuffer(byte[] bytes) {
     return ByteBuffer.wrap(bytes);
   }
@@ -72,10 +85,17 @@ public class SerializationUtil {
   }
 
   public static ContentFile<?> toInternalTableFile(ByteBuffer buffer) {
-    return (ContentFile<?>) toObject(buffer);
+    return toInternalTableFile(ByteBuffers.toByteArray(buffer));
   }
 
+  /**
+   * Deserialize a content file encoded by {@link ContentFileCodec} or java serialized, files persisted before the
+   * codec was introduced are java serialized.
+   */
   public static ContentFile<?> toInternalTableFile(byte[] bytes) {
+    if (ContentFileCodec.isEncoded(bytes)) {
+      return ContentFileCodec.decode(bytes);
+    }
     return (ContentFile<?>) toObject(bytes);
   }
 }
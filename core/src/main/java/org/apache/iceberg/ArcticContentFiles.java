@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.iceberg;
+
+import org.apache.iceberg.types.Types;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Creates iceberg content files from their decoded fields, the constructors are package private in iceberg.
+ */
+public class ArcticContentFiles {
+
+  private ArcticContentFiles() {
+  }
+
+  /**
+   * @return true if the file is an iceberg data file or delete file, not a wrapper or another implementation
+   */
+  public static boolean isGenericFile(ContentFile<?> file) {
+    return (file instanceof GenericDataFile || file instanceof GenericDeleteFile) &&
+        file.partition() instanceof PartitionData;
+  }
+
+  /**
+   * @return partition type of a file checked by {@link #isGenericFile(ContentFile)}
+   */
+  public static Types.StructType partitionType(ContentFile<?> file) {
+    return ((PartitionData) file.partition()).getPartitionType();
+  }
+
+  public static DataFile newDataFile(
+      int specId, String path, FileFormat format, Types.StructType partitionType, Object[] partitionValues,
+      long fileSizeInBytes, Metrics metrics, ByteBuffer keyMetadata, List<Long> splitOffsets, Integer sortOrderId) {
+    return new GenericDataFile(
+        specId, path, format, partitionData(partitionType, partitionValues), fileSizeInBytes, metrics, keyMetadata,
+        splitOffsets, sortOrderId);
+  }
+
+  public static DeleteFile newDeleteFile(
+      int specId, FileContent content, String path, FileFormat format, Types.StructType partitionType,
+      Object[] partitionValues, long fileSizeInBytes, Metrics metrics, int[] equalityFieldIds, Integer sortOrderId,
+      ByteBuffer keyMetadata) {
+    return new GenericDeleteFile(
+        specId, content, path, format, partitionData(partitionType, partitionValues), fileSizeInBytes, metrics,
+        equalityFieldIds, sortOrderId, keyMetadata);
+  }
+
+  private static PartitionData partitionData(Types.StructType partitionType, Object[] partitionValues) {
+    if (partitionType.fields().isEmpty()) {
+      return null;
+    }
+    PartitionData partition = new PartitionData(partitionType);
+    for (int i = 0; i < partitionValues.length; i++) {
+      partition.set(i, partitionValues[i]);
+    }
+    return partition;
+  }
+}
@@ -0,0 +1,308 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.io;
+
+import com.netease.arctic.TableTestBase;
+import com.netease.arctic.io.writer.BaseTaskWriter;
+import com.netease.arctic.io.writer.CommonOutputFileFactory;
+import com.netease.arctic.io.writer.GenericBaseTaskWriter;
+import com.netease.arctic.table.TableProperties;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.Metrics;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.deletes.EqualityDeleteWriter;
+import org.apache.iceberg.deletes.PositionDeleteWriter;
+import org.apache.iceberg.encryption.EncryptedOutputFile;
+import org.apache.iceberg.io.DataWriter;
+import org.apache.iceberg.io.FileAppender;
+import org.apache.iceberg.io.FileAppenderFactory;
+import org.apache.iceberg.io.OutputFile;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class BaseTaskWriterTest extends TableTestBase {
+
+  // partition of closed files, in the order they are closed
+  private final List<String> closedPartitions = Collections.synchronizedList(Lists.newArrayList());
+  private final List<String> closedLocations = Collections.synchronizedList(Lists.newArrayList());
+  private final Set<Thread> closeThreads = Collections.synchronizedSet(Sets.newHashSet());
+  private final Map<String, CountDownLatch> blockedPartitions = Maps.newConcurrentMap();
+  private final Set<String> failingPartitions = Sets.newConcurrentHashSet();
+  // appenders buffer all records until closed, instead of flushing every record
+  private boolean bufferUntilClose;
+
+  @Test
+  public void testCloseLeastRecentlyUsedWriters() throws IOException {
+    GenericBaseTaskWriter writer = newWriter(ImmutableMap.of(TableProperties.WRITE_OPEN_FILES_MAX, "2"));
+    write(writer, 1, 2, 1, 3);
+    Assert.assertEquals(Collections.singletonList(partition(2)), closedPartitions);
+    write(writer, 4);
+    Assert.assertEquals(Arrays.asList(partition(2), partition(1)), closedPartitions);
+
+    DataFile[] files = writer.complete().dataFiles();
+    Assert.assertEquals(4, files.length);
+    Assert.assertEquals(5, Arrays.stream(files).mapToLong(DataFile::recordCount).sum());
+  }
+
+  @Test
+  public void testKeepAllWritersOpenByDefault() throws IOException {
+    GenericBaseTaskWriter writer = newWriter(ImmutableMap.of());
+    write(writer, 1, 2, 3, 4);
+    Assert.assertEquals(Collections.emptyList(), closedPartitions);
+    Assert.assertEquals(4, writer.complete().dataFiles().length);
+  }
+
+  @Test
+  public void testCloseWritersOverBufferedMemory() throws IOException {
+    bufferUntilClose = true;
+    GenericBaseTaskWriter writer = newWriter(ImmutableMap.of(TableProperties.WRITE_OPEN_FILES_MEMORY_BYTES,
+        String.valueOf(2 * BaseTaskWriter.DEFAULT_RECORD_BYTES)));
+    write(writer, 1, 2);
+    Assert.assertEquals(Collections.emptyList(), closedPartitions);
+    write(writer, 3);
+    Assert.assertEquals(Collections.singletonList(partition(1)), closedPartitions);
+
+    DataFile[] files = writer.complete().dataFiles();
+    Assert.assertEquals(3, files.length);
+  }
+
+  @Test
+  public void testReopenEvictedWriter() throws IOException {
+    GenericBaseTaskWriter writer = newWriter(ImmutableMap.of(TableProperties.WRITE_OPEN_FILES_MAX, "1"));
+    write(writer, 1, 2, 1);
+    Assert.assertEquals(Arrays.asList(partition(1), partition(2)), closedPartitions);
+
+    DataFile[] files = writer.complete().dataFiles();
+    Assert.assertEquals(3, files.length);
+    Assert.assertEquals(3, Arrays.stream(files).map(file -> file.path().toString()).distinct().count());
+    Assert.assertEquals(2, Arrays.stream(files)
+        .filter(file -> file.path().toString().contains(partition(1)))
+        .peek(file -> Assert.assertEquals(1, file.recordCount()))
+        .count());
+  }
+
+  @Test
+  public void testAbortAfterCloseFails() throws IOException {
+    GenericBaseTaskWriter writer = newWriter(ImmutableMap.of(TableProperties.WRITE_OPEN_FILES_MAX, "1"));
+    failingPartitions.add(partition(2));
+    write(writer, 1, 2);
+    try {
+      write(writer, 3);
+      Assert.fail("closing the evicted writer should fail");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains(partition(2)));
+    }
+
+    writer.abort();
+    Assert.assertEquals(Arrays.asList(partition(1), partition(3)), closedPartitions);
+    for (String location : closedLocations) {
+      Assert.assertFalse("completed file should be deleted: " + location, testKeyedTable.io().exists(location));
+    }
+    Assert.assertEquals(0, writer.complete().dataFiles().length);
+  }
+
+  @Test
+  public void testCloseInWritingThreadByDefault() throws IOException {
+    GenericBaseTaskWriter writer = newWriter(ImmutableMap.of(TableProperties.WRITE_OPEN_FILES_MAX, "1"));
+    write(writer, 1, 2, 3);
+    Assert.assertEquals(3, writer.complete().dataFiles().length);
+    Assert.assertEquals(Collections.singleton(Thread.currentThread()), closeThreads);
+  }
+
+  @Test
+  public void testWaitForMaxPendingCloses() throws Exception {
+    GenericBaseTaskWriter writer = newWriter(ImmutableMap.of(
+        TableProperties.WRITE_OPEN_FILES_MAX, "1",
+        TableProperties.WRITE_ASYNC_CLOSE_ENABLED, "true",
+        TableProperties.WRITE_ASYNC_CLOSE_MAX_PENDING, "1"));
+    CountDownLatch closeLatch = new CountDownLatch(1);
+    blockedPartitions.put(partition(1), closeLatch);
+
+    AtomicInteger written = new AtomicInteger();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread writeThread = new Thread(() -> {
+      try {
+        for (int day = 1; day <= 3; day++) {
+          write(writer, day);
+          written.incrementAndGet();
+        }
+      } catch (Throwable t) {
+        failure.set(t);
+      }
+    });
+    writeThread.start();
+
+    // writing day 3 closes day 2, so two closes are pending and the writer waits for day 1
+    while (written.get() < 2) {
+      Thread.sleep(10);
+    }
+    writeThread.join(300);
+    Assert.assertTrue(writeThread.isAlive());
+    Assert.assertEquals(2, written.get());
+
+    closeLatch.countDown();
+    writeThread.join(TimeUnit.SECONDS.toMillis(10));
+    Assert.assertNull(failure.get());
+    Assert.assertEquals(3, written.get());
+    Assert.assertEquals(3, writer.complete().dataFiles().length);
+    Assert.assertFalse(closeThreads.contains(Thread.currentThread()));
+    Assert.assertFalse(closeThreads.contains(writeThread));
+  }
+
+  @Test
+  public void testAbortAfterAsyncCloseFails() throws IOException {
+    GenericBaseTaskWriter writer = newWriter(ImmutableMap.of(
+        TableProperties.WRITE_OPEN_FILES_MAX, "1",
+        TableProperties.WRITE_ASYNC_CLOSE_ENABLED, "true"));
+    failingPartitions.add(partition(2));
+    write(writer, 1, 2, 3);
+
+    try {
+      writer.abort();
+      Assert.fail("abort should throw the failure of closing");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains(partition(2)));
+    }
+    Assert.assertEquals(2, closedLocations.size());
+    for (String location : closedLocations) {
+      Assert.assertFalse("completed file should be deleted: " + location, testKeyedTable.io().exists(location));
+    }
+
+    // nothing is closed again or left behind
+    writer.abort();
+    Assert.assertEquals(0, writer.complete().dataFiles().length);
+    Assert.assertEquals(2, closedLocations.size());
+  }
+
+  private GenericBaseTaskWriter newWriter(Map<String, String> properties) {
+    GenericBaseTaskWriter writer = new GenericBaseTaskWriter(FileFormat.PARQUET, new TestAppenderFactory(),
+        new CommonOutputFileFactory(testKeyedTable.baseLocation(), SPEC, FileFormat.PARQUET, testKeyedTable.io(),
+            testKeyedTable.baseTable().encryption(), 0, 0, 1L),
+        testKeyedTable.io(), Long.MAX_VALUE, 0, TABLE_SCHEMA, SPEC, PRIMARY_KEY_SPEC);
+    writer.setTableProperties(properties);
+    return writer;
+  }
+
+  private static void write(GenericBaseTaskWriter writer, int... days) throws IOException {
+    GenericRecord record = GenericRecord.create(TABLE_SCHEMA);
+    for (int day : days) {
+      writer.write(record.copy(ImmutableMap.of("id", day, "name", "name" + day,
+          "op_time", LocalDateTime.of(2022, 1, day, 12, 0, 0))));
+    }
+  }
+
+  private static String partition(int day) {
+    return String.format("op_time_day=2022-01-%02d", day);
+  }
+
+  private class TestAppenderFactory implements FileAppenderFactory<Record> {
+
+    @Override
+    public FileAppender<Record> newAppender(OutputFile outputFile, FileFormat fileFormat) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public DataWriter<Record> newDataWriter(EncryptedOutputFile file, FileFormat format, StructLike partition) {
+      String location = file.encryptingOutputFile().location();
+      return new DataWriter<>(new TestAppender(location), format, location, SPEC, partition, file.keyMetadata());
+    }
+
+    @Override
+    public EqualityDeleteWriter<Record> newEqDeleteWriter(
+        EncryptedOutputFile file, FileFormat format, StructLike partition) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public PositionDeleteWriter<Record> newPosDeleteWriter(
+        EncryptedOutputFile file, FileFormat format, StructLike partition) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * Appender counting records, which creates an empty file when closed, so closes can be blocked or failed.
+   */
+  private class TestAppender implements FileAppender<Record> {
+    private final String location;
+    private final String partition;
+    private long count;
+
+    TestAppender(String location) {
+      this.location = location;
+      this.partition = location.replaceAll(".*/(op_time_day=[^/]*)/.*", "$1");
+    }
+
+    @Override
+    public void add(Record record) {
+      count++;
+    }
+
+    @Override
+    public Metrics metrics() {
+      return new Metrics(count, null, null, null);
+    }
+
+    @Override
+    public long length() {
+      return bufferUntilClose ? 0 : count * 10;
+    }
+
+    @Override
+    public void close() throws IOException {
+      closeThreads.add(Thread.currentThread());
+      CountDownLatch latch = blockedPartitions.get(partition);
+      if (latch != null) {
+        try {
+          latch.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException(e);
+        }
+      }
+      if (failingPartitions.contains(partition)) {
+        throw new IOException("Failed to close " + location);
+      }
+      testKeyedTable.io().newOutputFile(location).create().close();
+      closedPartitions.add(partition);
+      closedLocations.add(location);
+    }
+  }
+}
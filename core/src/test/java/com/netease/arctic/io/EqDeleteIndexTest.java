@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io;
+
+import com.netease.arctic.data.ChangedLsn;
+import com.netease.arctic.io.reader.EqDeleteIndex;
+import com.netease.arctic.io.reader.HeapEqDeleteIndex;
+import com.netease.arctic.io.reader.SpillableEqDeleteIndex;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+public class EqDeleteIndexTest {
+
+  private static final Types.StructType PK_TYPE = Types.StructType.of(
+      Types.NestedField.required(1, "id", Types.IntegerType.get()),
+      Types.NestedField.required(2, "name", Types.StringType.get()));
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void testHeapIndex() throws IOException {
+    try (EqDeleteIndex index = new HeapEqDeleteIndex(PK_TYPE)) {
+      assertIndex(index, 1000);
+    }
+  }
+
+  @Test
+  public void testSpillableIndexInMemory() throws IOException {
+    try (SpillableEqDeleteIndex index = new SpillableEqDeleteIndex(PK_TYPE, 64 * 1024 * 1024, temp.newFolder())) {
+      assertIndex(index, 1000);
+      Assert.assertEquals(0, index.spilledRuns());
+      Assert.assertTrue(index.estimatedBytes() > 0);
+      index.close();
+      Assert.assertEquals(0, index.estimatedBytes());
+    }
+  }
+
+  @Test
+  public void testSpillableIndexSpill() throws IOException {
+    File spillDirectory = temp.newFolder();
+    try (SpillableEqDeleteIndex index = new SpillableEqDeleteIndex(PK_TYPE, 256 * 1024, spillDirectory)) {
+      assertIndex(index, 100_000);
+      // spilled runs are merged once there are too many of them
+      Assert.assertTrue(index.spilledRuns() >= 1);
+      Assert.assertTrue(index.spilledRuns() < 16);
+      // bloom filters and sparse block indexes of spilled runs are counted in the budget
+      Assert.assertTrue(index.estimatedBytes() > 0);
+      Assert.assertTrue(index.estimatedBytes() <= 256 * 1024);
+    }
+    Assert.assertArrayEquals(new String[0], spillDirectory.list());
+  }
+
+  private void assertIndex(EqDeleteIndex index, int count) {
+    Record key = GenericRecord.create(PK_TYPE);
+    for (int i = 0; i < count; i++) {
+      index.put(key(key, i), ChangedLsn.of(i % 7, i));
+    }
+    // deletes with a smaller lsn must not override
+    for (int i = 0; i < count; i += 3) {
+      index.put(key(key, i), ChangedLsn.of(-1, i));
+    }
+    // deletes with a larger lsn must override
+    for (int i = 0; i < count; i += 5) {
+      index.put(key(key, i), ChangedLsn.of(100, i));
+    }
+
+    for (int i = 0; i < count; i++) {
+      ChangedLsn expected = i % 5 == 0 ? ChangedLsn.of(100, i) : ChangedLsn.of(i % 7, i);
+      Assert.assertEquals(expected, index.get(key(key, i)));
+    }
+    Assert.assertNull(index.get(key(key, count + 1)));
+    Assert.assertNull(index.get(key(key, -1)));
+  }
+
+  private static Record key(Record key, int i) {
+    key.set(0, i);
+    key.set(1, "name-" + i);
+    return key;
+  }
+}
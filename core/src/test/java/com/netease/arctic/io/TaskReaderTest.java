@@ -19,21 +19,29 @@
 package com.netease.arctic.io;
 
 import com.google.common.collect.Sets;
+import com.netease.arctic.io.reader.ArcticDeleteFilter;
 import com.netease.arctic.io.reader.BaseIcebergPosDeleteReader;
 import com.netease.arctic.io.reader.GenericArcticDataReader;
+import com.netease.arctic.io.reader.PosDeleteIndexCache;
+import com.netease.arctic.scan.ArcticFileScanTask;
 import com.netease.arctic.scan.CombinedScanTask;
 import com.netease.arctic.scan.KeyedTableScanTask;
+import com.netease.arctic.table.TableProperties;
 import org.apache.iceberg.MetadataColumns;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.data.GenericRecord;
 import org.apache.iceberg.data.IdentityPartitionConverters;
 import org.apache.iceberg.data.Record;
 import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.CloseableIterator;
 import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -115,4 +123,129 @@ public class TaskReaderTest extends TableTestBaseWithInitData {
     Set<Integer> rightIds = Sets.newHashSet(5);
     Assert.assertEquals(rightIds, resultIds);
   }
+
+  @Test
+  public void testReadNegateWithSharedDeleteFilter() throws IOException {
+    CloseableIterable<CombinedScanTask> combinedScanTasks = testKeyedTable.newScan().planTasks();
+    Schema schema = testKeyedTable.schema();
+    GenericArcticDataReader genericArcticDataReader = new GenericArcticDataReader(
+        testKeyedTable.io(),
+        schema,
+        schema,
+        testKeyedTable.primaryKeySpec(),
+        null,
+        true,
+        IdentityPartitionConverters::convertConstant
+    );
+    ImmutableList.Builder<Record> builder = ImmutableList.builder();
+    for (CombinedScanTask combinedScanTask: combinedScanTasks){
+      for (KeyedTableScanTask keyedTableScanTask: combinedScanTask.tasks()){
+        if (keyedTableScanTask.arcticEquityDeletes().isEmpty()) {
+          continue;
+        }
+        // read data tasks one by one with the equality deletes indexed once
+        try (ArcticDeleteFilter<Record> deleteFilter =
+                 genericArcticDataReader.createDeleteFilter(keyedTableScanTask)) {
+          for (ArcticFileScanTask dataTask : keyedTableScanTask.dataTasks()) {
+            try (CloseableIterator<Record> records =
+                     genericArcticDataReader.readDeletedData(Collections.singletonList(dataTask), deleteFilter)) {
+              builder.addAll(records);
+            }
+          }
+        }
+      }
+    }
+    List<Record> records = builder.build();
+    Set resultIds = records.stream().map(s -> s.get(0)).collect(Collectors.toSet());
+
+    Set<Integer> rightIds = Sets.newHashSet(5);
+    Assert.assertEquals(rightIds, resultIds);
+  }
+
+  @Test
+  public void testFailedEqDeleteIndexNotReused() throws IOException {
+    CloseableIterable<CombinedScanTask> combinedScanTasks = testKeyedTable.newScan().planTasks();
+    Schema schema = testKeyedTable.schema();
+    GenericArcticDataReader genericArcticDataReader = new GenericArcticDataReader(
+        testKeyedTable.io(),
+        schema,
+        schema,
+        testKeyedTable.primaryKeySpec(),
+        null,
+        true,
+        IdentityPartitionConverters::convertConstant
+    );
+    int failures = 0;
+    for (CombinedScanTask combinedScanTask: combinedScanTasks){
+      for (KeyedTableScanTask keyedTableScanTask: combinedScanTask.tasks()){
+        if (keyedTableScanTask.arcticEquityDeletes().isEmpty()) {
+          continue;
+        }
+        for (ArcticFileScanTask eqDelete : keyedTableScanTask.arcticEquityDeletes()) {
+          testKeyedTable.io().deleteFile(eqDelete.file().path().toString());
+        }
+        try (ArcticDeleteFilter<Record> deleteFilter =
+                 genericArcticDataReader.createDeleteFilter(keyedTableScanTask)) {
+          // a failed load must fail every read, instead of leaving a partial index to the next one
+          for (int i = 0; i < 2; i++) {
+            try (CloseableIterator<Record> records = genericArcticDataReader.readDeletedData(
+                keyedTableScanTask.dataTasks(), deleteFilter)) {
+              records.hasNext();
+              Assert.fail("reading with missing equality delete files should fail");
+            } catch (RuntimeException e) {
+              failures++;
+            }
+          }
+        }
+      }
+    }
+    Assert.assertTrue(failures >= 2);
+  }
+
+  @Test
+  public void testPosDeleteCache() throws IOException {
+    Schema schema = testKeyedTable.schema();
+    GenericArcticDataReader genericArcticDataReader = new GenericArcticDataReader(
+        testKeyedTable.io(),
+        schema,
+        schema,
+        testKeyedTable.primaryKeySpec(),
+        null,
+        true,
+        IdentityPartitionConverters::convertConstant
+    );
+    PosDeleteIndexCache.setMaxBytes(1024 * 1024);
+    try {
+      Set<Record> records = readRecords(genericArcticDataReader);
+      Assert.assertEquals(4, records.size());
+      // cached position deletes are reused without reading the file again
+      testKeyedTable.io().deleteFile(deleteFileOfPositionDelete.path().toString());
+      Assert.assertEquals(records, readRecords(genericArcticDataReader));
+
+      genericArcticDataReader.setTableProperties(
+          ImmutableMap.of(TableProperties.READ_POS_DELETE_CACHE_ENABLED, "false"));
+      try {
+        readRecords(genericArcticDataReader);
+        Assert.fail("reading position deletes of a table not using the cache should read the file");
+      } catch (RuntimeException e) {
+        // expected
+      }
+    } finally {
+      PosDeleteIndexCache.setMaxBytes(0);
+    }
+  }
+
+  private Set<Record> readRecords(GenericArcticDataReader reader) throws IOException {
+    Set<Record> records = Sets.newHashSet();
+    try (CloseableIterable<CombinedScanTask> combinedScanTasks = testKeyedTable.newScan().planTasks()) {
+      for (CombinedScanTask combinedScanTask : combinedScanTasks) {
+        for (KeyedTableScanTask keyedTableScanTask : combinedScanTask.tasks()) {
+          try (CloseableIterator<Record> iterator = reader.readData(keyedTableScanTask)) {
+            iterator.forEachRemaining(records::add);
+          }
+        }
+      }
+    }
+    return records;
+  }
 }
@@ -19,10 +19,12 @@
 package com.netease.arctic.io;
 
 import com.netease.arctic.TableTestBase;
+import com.netease.arctic.io.reader.BaseIcebergPosDeleteReader;
 import com.netease.arctic.io.writer.GenericBaseTaskWriter;
 import com.netease.arctic.io.writer.GenericChangeTaskWriter;
 import com.netease.arctic.io.writer.GenericTaskWriters;
 import com.netease.arctic.io.writer.SortedPosDeleteWriter;
+import com.netease.arctic.table.TableProperties;
 import com.netease.arctic.utils.ManifestEntryFields;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.DeleteFile;
@@ -33,17 +35,24 @@ import org.apache.iceberg.data.GenericRecord;
 import org.apache.iceberg.data.IcebergGenerics;
 import org.apache.iceberg.data.Record;
 import org.apache.iceberg.hadoop.HadoopTables;
+import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.io.WriteResult;
 import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
 import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.types.Comparators;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 public class TaskWriterTest extends TableTestBase {
 
@@ -92,6 +101,87 @@ public class TaskWriterTest extends TableTestBase {
         });
   }
 
+  @Test
+  public void testBasePosDeleteWriterSpill() throws IOException {
+    File spillDir = temp.newFolder();
+    testKeyedTable.updateProperties()
+        .set(TableProperties.WRITE_POS_DELETE_MEMORY_BYTES, "4096")
+        .set(TableProperties.WRITE_POS_DELETE_SPILL_DIR, spillDir.getAbsolutePath())
+        .commit();
+    SortedPosDeleteWriter<Record> writer = GenericTaskWriters.builderFor(testKeyedTable)
+        .withTransactionId(1).buildBasePosDeleteWriter(2, 1, FILE_A.partition());
+
+    // delete positions of three files in a random order, so that every spilled run holds unsorted positions
+    List<Object[]> deletes = Lists.newArrayList();
+    for (CharSequence path : new CharSequence[] {FILE_C.path(), FILE_A.path(), FILE_B.path()}) {
+      for (long pos = 0; pos < 3000; pos += 3) {
+        deletes.add(new Object[] {path.toString(), pos});
+      }
+    }
+    Collections.shuffle(deletes, new Random(7));
+    for (Object[] delete : deletes) {
+      writer.delete((String) delete[0], (Long) delete[1]);
+    }
+    Assert.assertTrue("positions should be spilled", spillDir.list().length > 1);
+
+    List<DeleteFile> result = writer.complete();
+    Assert.assertEquals(1, result.size());
+    Assert.assertEquals(deletes.size(), result.get(0).recordCount());
+    Assert.assertEquals("spilled runs should be deleted", 0, spillDir.list().length);
+
+    Comparator<CharSequence> pathComparator = Comparators.charSequences();
+    deletes.sort((d1, d2) -> {
+      int cmp = pathComparator.compare((String) d1[0], (String) d2[0]);
+      return cmp != 0 ? cmp : Long.compare((Long) d1[1], (Long) d2[1]);
+    });
+    BaseIcebergPosDeleteReader reader = new BaseIcebergPosDeleteReader(testKeyedTable.io(), result);
+    List<Object[]> written = Lists.newArrayList();
+    try (CloseableIterable<Record> records = reader.readDeletes()) {
+      for (Record record : records) {
+        written.add(new Object[] {reader.readPath(record), reader.readPos(record)});
+      }
+    }
+    Assert.assertEquals(deletes.size(), written.size());
+    for (int i = 0; i < deletes.size(); i++) {
+      Assert.assertArrayEquals("position delete " + i + " is out of order", deletes.get(i), written.get(i));
+    }
+  }
+
+  @Test
+  public void testBasePosDeleteWriterSpillLongPath() throws IOException {
+    File spillDir = temp.newFolder();
+    testKeyedTable.updateProperties()
+        .set(TableProperties.WRITE_POS_DELETE_MEMORY_BYTES, "1024")
+        .set(TableProperties.WRITE_POS_DELETE_SPILL_DIR, spillDir.getAbsolutePath())
+        .commit();
+    SortedPosDeleteWriter<Record> writer = GenericTaskWriters.builderFor(testKeyedTable)
+        .withTransactionId(1).buildBasePosDeleteWriter(2, 1, FILE_A.partition());
+
+    // longer than the 64KB limit of modified UTF-8 strings
+    StringBuilder longPath = new StringBuilder(FILE_A.path());
+    while (longPath.length() <= 70_000) {
+      longPath.append("/\u00e9");
+    }
+    String path = longPath.toString();
+    for (long pos = 0; pos < 100; pos++) {
+      writer.delete(path, pos);
+    }
+    Assert.assertTrue("positions should be spilled", spillDir.list().length > 0);
+
+    List<DeleteFile> result = writer.complete();
+    Assert.assertEquals(1, result.size());
+    Assert.assertEquals(100, result.get(0).recordCount());
+    BaseIcebergPosDeleteReader reader = new BaseIcebergPosDeleteReader(testKeyedTable.io(), result);
+    long pos = 0;
+    try (CloseableIterable<Record> records = reader.readDeletes()) {
+      for (Record record : records) {
+        Assert.assertEquals(path, reader.readPath(record));
+        Assert.assertEquals(pos++, (long) reader.readPos(record));
+      }
+    }
+    Assert.assertEquals(100, pos);
+  }
+
   @Test
   public void testChangeWriter() throws IOException {
     GenericChangeTaskWriter writer =   GenericTaskWriters.builderFor(testKeyedTable)
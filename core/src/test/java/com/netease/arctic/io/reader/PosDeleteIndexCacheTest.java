@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.io.reader;
+
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class PosDeleteIndexCacheTest {
+
+  private final AtomicInteger loads = new AtomicInteger();
+  private final Function<String, Map<String, PositionBitmap>> loader = path -> {
+    loads.incrementAndGet();
+    PositionBitmap bitmap = new PositionBitmap();
+    bitmap.add(1);
+    return ImmutableMap.of("data-file", bitmap);
+  };
+
+  @After
+  public void resetCache() {
+    PosDeleteIndexCache.setMaxBytes(0);
+  }
+
+  @Test
+  public void testDisabledByDefault() {
+    Assert.assertEquals(0, PosDeleteIndexCache.maxBytes());
+    PosDeleteIndexCache.get("pos-delete-file", loader);
+    PosDeleteIndexCache.get("pos-delete-file", loader);
+    Assert.assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void testEnableAndDisable() {
+    PosDeleteIndexCache.setMaxBytes(1024 * 1024);
+    Map<String, PositionBitmap> index = PosDeleteIndexCache.get("pos-delete-file", loader);
+    Assert.assertSame(index, PosDeleteIndexCache.get("pos-delete-file", loader));
+    Assert.assertEquals(1, loads.get());
+    Assert.assertTrue(index.get("data-file").contains(1));
+
+    // disabling the cache drops loaded files
+    PosDeleteIndexCache.setMaxBytes(0);
+    PosDeleteIndexCache.setMaxBytes(1024 * 1024);
+    PosDeleteIndexCache.get("pos-delete-file", loader);
+    Assert.assertEquals(2, loads.get());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeMaxBytes() {
+    PosDeleteIndexCache.setMaxBytes(-1);
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.io.reader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+public class PositionBitmapTest {
+
+  @Test
+  public void testSparseToDense() {
+    PositionBitmap bitmap = new PositionBitmap();
+    for (long pos = 0; pos < 4096 * 2; pos += 2) {
+      bitmap.add(pos);
+    }
+    Assert.assertEquals(4096, bitmap.cardinality());
+
+    // one more position in the chunk converts the array to a bitmap, which does not grow with more positions
+    bitmap.add(1);
+    Assert.assertEquals(4097, bitmap.cardinality());
+    long bitmapBytes = bitmap.sizeInBytes();
+    for (long pos = 0; pos < 4096 * 2; pos += 2) {
+      Assert.assertTrue(bitmap.contains(pos));
+      Assert.assertFalse(pos > 1 && bitmap.contains(pos + 1));
+    }
+    Assert.assertTrue(bitmap.contains(1));
+    Assert.assertEquals(1, bitmap.nextPosition(1));
+    Assert.assertEquals(4, bitmap.nextPosition(3));
+    Assert.assertEquals(-1, bitmap.nextPosition(4096 * 2));
+
+    // duplicates do not count in both containers
+    bitmap.add(2);
+    bitmap.add(1);
+    Assert.assertEquals(4097, bitmap.cardinality());
+
+    for (long pos = 4096 * 2; pos < 65536; pos++) {
+      bitmap.add(pos);
+    }
+    Assert.assertEquals(bitmapBytes, bitmap.sizeInBytes());
+    Assert.assertEquals(65536 - 4096 * 2 + 4097, bitmap.cardinality());
+  }
+
+  @Test
+  public void testDuplicatesInArray() {
+    PositionBitmap bitmap = new PositionBitmap();
+    Assert.assertTrue(bitmap.isEmpty());
+    bitmap.add(7);
+    bitmap.add(7);
+    bitmap.add(3);
+    Assert.assertFalse(bitmap.isEmpty());
+    Assert.assertEquals(2, bitmap.cardinality());
+    Assert.assertEquals(3, bitmap.nextPosition(0));
+    Assert.assertEquals(7, bitmap.nextPosition(4));
+    Assert.assertEquals(-1, bitmap.nextPosition(8));
+  }
+
+  @Test
+  public void testChunkBoundaries() {
+    PositionBitmap bitmap = new PositionBitmap();
+    long[] positions = {0, 63, 64, 65535, 65536, 131071, 655360};
+    for (long pos : positions) {
+      bitmap.add(pos);
+    }
+    for (long pos : positions) {
+      Assert.assertTrue(bitmap.contains(pos));
+      Assert.assertEquals(pos, bitmap.nextPosition(pos));
+    }
+    Assert.assertFalse(bitmap.contains(1));
+    Assert.assertFalse(bitmap.contains(65534));
+    Assert.assertFalse(bitmap.contains(131072));
+    Assert.assertEquals(65535, bitmap.nextPosition(65));
+    Assert.assertEquals(131071, bitmap.nextPosition(65537));
+    // skips chunks without positions
+    Assert.assertEquals(655360, bitmap.nextPosition(131072));
+    Assert.assertEquals(-1, bitmap.nextPosition(655361));
+  }
+
+  @Test
+  public void testDenseChunkBoundaries() {
+    PositionBitmap bitmap = new PositionBitmap();
+    for (long pos = 65536; pos < 65536 * 2; pos++) {
+      bitmap.add(pos);
+    }
+    Assert.assertEquals(65536, bitmap.cardinality());
+    Assert.assertFalse(bitmap.contains(65535));
+    Assert.assertFalse(bitmap.contains(65536 * 2));
+    Assert.assertEquals(65536, bitmap.nextPosition(0));
+    Assert.assertEquals(65536 * 2 - 1, bitmap.nextPosition(65536 * 2 - 1));
+    Assert.assertEquals(-1, bitmap.nextPosition(65536 * 2));
+  }
+
+  @Test
+  public void testBeyond32Bits() {
+    PositionBitmap bitmap = new PositionBitmap();
+    long[] positions = {(1L << 32) - 1, 1L << 32, (1L << 32) + 1, 5L << 32, (1L << 40) + 7, Long.MAX_VALUE};
+    for (long pos : positions) {
+      bitmap.add(pos);
+    }
+    Assert.assertEquals(positions.length, bitmap.cardinality());
+    for (long pos : positions) {
+      Assert.assertTrue(bitmap.contains(pos));
+    }
+    Assert.assertFalse(bitmap.contains(0));
+    Assert.assertFalse(bitmap.contains(1L << 33));
+    Assert.assertFalse(bitmap.contains((5L << 32) + 65536));
+    Assert.assertEquals((1L << 32) - 1, bitmap.nextPosition(0));
+    Assert.assertEquals(5L << 32, bitmap.nextPosition((1L << 32) + 2));
+    Assert.assertEquals((1L << 40) + 7, bitmap.nextPosition((5L << 32) + 1));
+    Assert.assertEquals(Long.MAX_VALUE, bitmap.nextPosition((1L << 40) + 8));
+  }
+
+  @Test
+  public void testSameAsTreeSet() {
+    Random random = new Random(17);
+    PositionBitmap bitmap = new PositionBitmap();
+    TreeSet<Long> expected = new TreeSet<>();
+    for (int i = 0; i < 50000; i++) {
+      // a dense chunk, sparse chunks and positions beyond 32 bits
+      long pos;
+      switch (i % 3) {
+        case 0:
+          pos = random.nextInt(65536);
+          break;
+        case 1:
+          pos = random.nextInt(1 << 24);
+          break;
+        default:
+          pos = (1L << 32) + random.nextInt(1 << 20);
+      }
+      bitmap.add(pos);
+      expected.add(pos);
+    }
+    Assert.assertEquals(expected.size(), bitmap.cardinality());
+    for (int i = 0; i < 50000; i++) {
+      long pos = i % 2 == 0 ? random.nextInt(1 << 24) : (1L << 32) + random.nextInt(1 << 21);
+      Assert.assertEquals(expected.contains(pos), bitmap.contains(pos));
+      Long next = expected.ceiling(pos);
+      Assert.assertEquals(next == null ? -1 : next, bitmap.nextPosition(pos));
+    }
+  }
+}
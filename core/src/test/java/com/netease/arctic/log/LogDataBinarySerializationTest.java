@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.log;
+
+import com.netease.arctic.data.ChangeAction;
+import com.netease.arctic.utils.IdGenerator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LogDataBinarySerializationTest extends BaseFormatTest {
+
+  @Test
+  public void testLogDataSerialize() throws IOException {
+    LogDataBinarySerialization<UserPojo> serialization =
+        new LogDataBinarySerialization<>(userSchema, fieldGetterFactory);
+    LogData<UserPojo> logData = createLogData(FormatVersion.FORMAT_VERSION_V2, false);
+
+    byte[] bytes = serialization.serialize(logData);
+    Assert.assertNotNull(bytes);
+    assertArrayEquals(FormatVersion.FORMAT_VERSION_V2.asBytes(), Bytes.subByte(bytes, 0, 4));
+
+    LogDataBinaryDeserialization<UserPojo> deserialization =
+        new LogDataBinaryDeserialization<>(userSchema, factory, arrayFactory, mapFactory);
+    check(logData, deserialization.deserialize(bytes));
+
+    // the reused buffer must not leak bytes of the previous row
+    assertArrayEquals(bytes, serialization.serialize(logData));
+  }
+
+  @Test
+  public void testJsonSerializationDispatch() throws IOException {
+    LogDataJsonSerialization<UserPojo> jsonSerialization =
+        new LogDataJsonSerialization<>(userSchema, fieldGetterFactory);
+    LogDataJsonDeserialization<UserPojo> jsonDeserialization =
+        new LogDataJsonDeserialization<>(userSchema, factory, arrayFactory, mapFactory);
+
+    LogData<UserPojo> binaryData = createLogData(FormatVersion.FORMAT_VERSION_V2, false);
+    byte[] binaryBytes = jsonSerialization.serialize(binaryData);
+    assertArrayEquals(
+        new LogDataBinarySerialization<>(userSchema, fieldGetterFactory).serialize(binaryData), binaryBytes);
+    check(binaryData, jsonDeserialization.deserialize(binaryBytes));
+
+    LogData<UserPojo> jsonData = createLogData(FormatVersion.FORMAT_VERSION_V1, false);
+    byte[] jsonBytes = jsonSerialization.serialize(jsonData);
+    check(jsonData, jsonDeserialization.deserialize(jsonBytes));
+    assertTrue(binaryBytes.length < jsonBytes.length);
+  }
+
+  @Test
+  public void testFlipSerialize() {
+    LogData<UserPojo> flip = createLogData(FormatVersion.FORMAT_VERSION_V2, true);
+    byte[] bytes = new LogDataBinarySerialization<>(userSchema, fieldGetterFactory).serialize(flip);
+    assertEquals(18, bytes.length);
+
+    LogData<UserPojo> result =
+        new LogDataBinaryDeserialization<>(userSchema, factory, arrayFactory, mapFactory).deserialize(bytes);
+    assertTrue(result.getFlip());
+    assertNull(result.getActualValue());
+  }
+
+  private LogData<UserPojo> createLogData(FormatVersion version, boolean flip) {
+    UserPojo subUserPojo = new UserPojo();
+    subUserPojo.objects = new Object[]{false, 2, 987654321L};
+    UserPojo userPojo = new UserPojo();
+    userPojo.objects = new Object[]{
+        // boolean
+        true,
+        // int
+        1,
+        // long
+        123456789L,
+        // struct
+        subUserPojo,
+        // float double
+        123.45f, 123.456789d,
+        // date int
+        (int) LocalDate.of(2022, 11, 11).toEpochDay(),
+        // time nanosecond long
+        LocalTime.of(13, 23, 23, 98766545).toNanoOfDay(),
+        // timestamp local time
+        LocalDateTime.of(2022, 12, 12, 13, 14, 14, 987654234),
+        // timestamp with time zone
+        Instant.parse("2022-12-13T13:33:44.98765432Z"),
+        "ssss_string_中文",
+        // uuid
+        new byte[]{1},
+        // fixed
+        new byte[]{'1'},
+        // binary
+        new byte[]{2},
+        new BigDecimal("-111.111"),
+        new GenericArrayData(new Long[]{123L, 234L, null, 345L}, 4, false),
+        new GenericArrayData(new int[]{123, 234, 0, 345}, 4, true),
+        new GenericArrayData(new UserPojo[]{subUserPojo}, 1, false),
+        new GenericMapData(new HashMap<Long, String>() {{
+          put(1123L, "Str_123");
+          put(1124L, null);
+          put(1125L, "Str_125");
+        }})
+    };
+    return new LogDataUser(
+        version.asBytes(),
+        IdGenerator.generateUpstreamId(),
+        123455L,
+        flip,
+        ChangeAction.INSERT,
+        flip ? null : userPojo
+    );
+  }
+
+  private void check(LogData<UserPojo> expected, LogData<UserPojo> actual) {
+    Assert.assertNotNull(actual);
+    assertArrayEquals(expected.getVersionBytes(), actual.getVersionBytes());
+    assertArrayEquals(expected.getUpstreamIdBytes(), actual.getUpstreamIdBytes());
+    assertEquals(expected.getEpicNo(), actual.getEpicNo());
+    assertEquals(expected.getFlip(), actual.getFlip());
+    assertEquals(expected.getChangeActionByte(), actual.getChangeActionByte());
+    assertEquals(expected.getActualValue().toString(), actual.getActualValue().toString());
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.log;
+
+import com.netease.arctic.data.ChangeAction;
+import com.netease.arctic.utils.IdGenerator;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LogMessageBatchTest extends BaseFormatTest {
+
+  @Test
+  public void testPackAndUnpack() throws IOException {
+    for (LogMessageBatch.Compression compression : LogMessageBatch.Compression.values()) {
+      LogMessageBatch.Builder builder = new LogMessageBatch.Builder(compression);
+      // the builder is reused after building a batch
+      for (int round = 1; round <= 2; round++) {
+        List<byte[]> messages = new ArrayList<>();
+        for (int i = 0; i < 100 * round; i++) {
+          byte[] message = new byte[i % 50];
+          for (int j = 0; j < message.length; j++) {
+            message[j] = (byte) ('a' + j % 3);
+          }
+          messages.add(message);
+          builder.add(message);
+        }
+        assertEquals(messages.size(), builder.count());
+
+        byte[] batch = builder.build();
+        assertTrue(builder.isEmpty());
+        assertTrue(LogMessageBatch.isBatch(batch));
+        List<byte[]> unpacked = LogMessageBatch.unpack(batch);
+        assertEquals(messages.size(), unpacked.size());
+        for (int i = 0; i < messages.size(); i++) {
+          assertArrayEquals(messages.get(i), unpacked.get(i));
+        }
+      }
+      builder.close();
+    }
+  }
+
+  @Test
+  public void testUnpackLogData() throws IOException {
+    LogDataJsonSerialization<UserPojo> serialization = new LogDataJsonSerialization<>(userSchema, fieldGetterFactory);
+    LogDataJsonDeserialization<UserPojo> deserialization =
+        new LogDataJsonDeserialization<>(userSchema, factory, arrayFactory, mapFactory);
+    LogMessageBatch.Builder builder = new LogMessageBatch.Builder(LogMessageBatch.Compression.DEFLATE);
+    List<LogData<UserPojo>> rows = new ArrayList<>();
+    byte[] upstreamId = IdGenerator.generateUpstreamId();
+    for (int i = 0; i < 10; i++) {
+      UserPojo sub = new UserPojo();
+      sub.objects = new Object[]{false, i, 987654321L};
+      UserPojo pojo = new UserPojo();
+      pojo.objects = new Object[]{true, i, (long) i, sub, 1.0f, 2.0d, 3, 4L, null, null, "str_" + i, null, null, null,
+          null, null, null, null, null};
+      LogData<UserPojo> row = new LogDataUser(
+          FormatVersion.FORMAT_VERSION_V2.asBytes(), upstreamId, 3L, false, ChangeAction.INSERT, pojo);
+      rows.add(row);
+      builder.add(serialization.serialize(row));
+    }
+    byte[] batch = builder.build();
+    builder.close();
+
+    List<byte[]> messages = LogMessageBatch.unpack(batch);
+    assertEquals(rows.size(), messages.size());
+    for (int i = 0; i < rows.size(); i++) {
+      LogData<UserPojo> actual = deserialization.deserialize(messages.get(i));
+      assertEquals(rows.get(i).getEpicNo(), actual.getEpicNo());
+      assertEquals(rows.get(i).getActualValue().toString(), actual.getActualValue().toString());
+    }
+  }
+
+  @Test
+  public void testSingleMessageIsNotBatch() {
+    assertFalse(LogMessageBatch.isBatch(FormatVersion.FORMAT_VERSION_V1.asBytes()));
+    assertFalse(LogMessageBatch.isBatch(FormatVersion.FORMAT_VERSION_V2.asBytes()));
+    assertFalse(LogMessageBatch.isBatch(null));
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.scan;
+
+import com.netease.arctic.TableTestBase;
+import com.netease.arctic.data.DataFileType;
+import com.netease.arctic.data.DataTreeNode;
+import com.netease.arctic.data.DefaultKeyedFile;
+import org.apache.iceberg.AppendFiles;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class KeyedTableScanTest extends TableTestBase {
+
+  private static final String[] PARTITIONS = {"op_time_day=2022-01-01", "op_time_day=2022-01-02"};
+
+  @Test
+  public void testPlanTasksWithNodeTree() throws IOException {
+    List<DataFile> files = commitNodeTreeFiles();
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    Map<String, List<String>> planned;
+    try {
+      planned = plan(executor);
+    } finally {
+      executor.shutdown();
+    }
+    Assert.assertTrue("planning should run on the given executor",
+        ((ThreadPoolExecutor) executor).getCompletedTaskCount() > 0);
+
+    Assert.assertEquals(nestedLoopPlan(files), planned);
+  }
+
+  @Test
+  public void testPlanTasksOnPlanningThread() throws Exception {
+    List<DataFile> files = commitNodeTreeFiles();
+
+    // planning tasks are queued behind the thread planning the table
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Map<String, List<String>>> planned = executor.submit(() -> plan(executor));
+      Assert.assertEquals(nestedLoopPlan(files), planned.get(30, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private List<DataFile> commitNodeTreeFiles() {
+    List<DataFile> files = Lists.newArrayList();
+    for (String partition : PARTITIONS) {
+      // data and deletes spread over the root and three levels of the tree
+      files.add(newFile(partition, DataFileType.BASE_FILE, 2));
+      files.add(newFile(partition, DataFileType.BASE_FILE, 5));
+      files.add(newFile(partition, DataFileType.BASE_FILE, 12));
+      files.add(newFile(partition, DataFileType.INSERT_FILE, 4));
+      files.add(newFile(partition, DataFileType.INSERT_FILE, 9));
+      files.add(newFile(partition, DataFileType.INSERT_FILE, 3));
+      files.add(newFile(partition, DataFileType.EQ_DELETE_FILE, 1));
+      files.add(newFile(partition, DataFileType.EQ_DELETE_FILE, 2));
+      files.add(newFile(partition, DataFileType.EQ_DELETE_FILE, 3));
+      files.add(newFile(partition, DataFileType.EQ_DELETE_FILE, 6));
+      files.add(newFile(partition, DataFileType.EQ_DELETE_FILE, 11));
+      files.add(newFile(partition, DataFileType.EQ_DELETE_FILE, 15));
+      files.add(newFile(partition, DataFileType.EQ_DELETE_FILE, 24));
+    }
+    AppendFiles baseAppend = testKeyedTable.baseTable().newAppend();
+    AppendFiles changeAppend = testKeyedTable.changeTable().newAppend();
+    for (DataFile file : files) {
+      if (new DefaultKeyedFile(file).type() == DataFileType.BASE_FILE) {
+        baseAppend.appendFile(file);
+      } else {
+        changeAppend.appendFile(file);
+      }
+    }
+    baseAppend.commit();
+    changeAppend.commit();
+    return files;
+  }
+
+  /**
+   * @return sorted paths of the equality deletes planned for every data file
+   */
+  private Map<String, List<String>> plan(ExecutorService executor) throws IOException {
+    Map<String, List<String>> planned = Maps.newHashMap();
+    try (CloseableIterable<CombinedScanTask> tasks = testKeyedTable.newScan().planWith(executor).planTasks()) {
+      for (CombinedScanTask combinedTask : tasks) {
+        for (KeyedTableScanTask task : combinedTask.tasks()) {
+          for (ArcticFileScanTask dataTask : task.dataTasks()) {
+            planned.computeIfAbsent(dataTask.file().path().toString(), path -> Lists.newArrayList())
+                .addAll(paths(task.arcticEquityDeletes()));
+          }
+        }
+      }
+    }
+    planned.values().forEach(deletes -> deletes.sort(String::compareTo));
+    return planned;
+  }
+
+  /**
+   * Attach deletes to data files in the way of comparing every pair of nodes in a partition.
+   */
+  private static Map<String, List<String>> nestedLoopPlan(List<DataFile> files) {
+    Map<String, List<String>> plan = Maps.newHashMap();
+    for (DataFile file : files) {
+      DefaultKeyedFile dataFile = new DefaultKeyedFile(file);
+      if (dataFile.type() == DataFileType.EQ_DELETE_FILE) {
+        continue;
+      }
+      List<String> deletes = Lists.newArrayList();
+      for (DataFile other : files) {
+        DefaultKeyedFile deleteFile = new DefaultKeyedFile(other);
+        DataTreeNode node = dataFile.node();
+        DataTreeNode deleteNode = deleteFile.node();
+        if (deleteFile.type() == DataFileType.EQ_DELETE_FILE &&
+            file.partition().equals(other.partition()) &&
+            (deleteNode.isSonOf(node) || node.isSonOf(deleteNode))) {
+          deletes.add(other.path().toString());
+        }
+      }
+      deletes.sort(String::compareTo);
+      plan.put(file.path().toString(), deletes);
+    }
+    return plan;
+  }
+
+  private static List<String> paths(List<ArcticFileScanTask> tasks) {
+    return tasks.stream().map(task -> task.file().path().toString()).collect(Collectors.toList());
+  }
+
+  private static DataFile newFile(String partition, DataFileType type, long nodeId) {
+    return DataFiles.builder(SPEC)
+        .withPath(String.format("/path/to/%s/%d-%s-1-0-0-%d.parquet", partition, nodeId, type.shortName(), nodeId))
+        .withFileSizeInBytes(10)
+        .withPartitionPath(partition)
+        .withRecordCount(2)
+        .build();
+  }
+}
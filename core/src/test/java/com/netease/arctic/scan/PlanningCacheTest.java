@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.scan;
+
+import com.netease.arctic.TableTestBase;
+import com.netease.arctic.table.UnkeyedTable;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.expressions.Literal;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+public class PlanningCacheTest extends TableTestBase {
+
+  private static final DataFile FILE_1 = newFile("1-I-1-0-0-1.parquet", "op_time_day=2022-01-01");
+  private static final DataFile FILE_2 = newFile("1-I-2-0-0-1.parquet", "op_time_day=2022-01-02");
+  private static final DataFile FILE_3 = newFile("1-I-3-0-0-1.parquet", "op_time_day=2022-01-01");
+
+  @Before
+  public void clearCache() {
+    PlanningCache.invalidateAll();
+  }
+
+  @Test
+  public void testPlanIncrementallyOnAppends() {
+    UnkeyedTable changeTable = testKeyedTable.changeTable();
+    changeTable.newAppend().appendFile(FILE_1).commit();
+    List<ArcticFileScanTask> first = PlanningCache.planFiles(changeTable, null, true);
+    Assert.assertEquals(1, first.size());
+    Assert.assertSame(first, PlanningCache.planFiles(changeTable, null, true));
+
+    changeTable.newAppend().appendFile(FILE_2).commit();
+    changeTable.newAppend().appendFile(FILE_3).commit();
+    List<ArcticFileScanTask> second = PlanningCache.planFiles(changeTable, null, true);
+    Assert.assertEquals(3, second.size());
+    // files of the cached plan are reused, only the appended manifests are planned
+    Assert.assertSame(first.get(0), second.get(0));
+    Assert.assertEquals(FILE_1.path().toString(), second.get(0).file().path().toString());
+  }
+
+  @Test
+  public void testReplanOnNonAppendCommits() {
+    UnkeyedTable changeTable = testKeyedTable.changeTable();
+    changeTable.newAppend().appendFile(FILE_1).appendFile(FILE_2).commit();
+    List<ArcticFileScanTask> first = PlanningCache.planFiles(changeTable, null, true);
+    Assert.assertEquals(2, first.size());
+
+    changeTable.newDelete().deleteFile(FILE_1).commit();
+    changeTable.newAppend().appendFile(FILE_3).commit();
+    List<ArcticFileScanTask> second = PlanningCache.planFiles(changeTable, null, true);
+    Assert.assertEquals(2, second.size());
+    second.forEach(task -> Assert.assertNotEquals(FILE_1.path().toString(), task.file().path().toString()));
+    second.forEach(task -> Assert.assertFalse(first.contains(task)));
+  }
+
+  @Test
+  public void testReplanTablesNotOnlyAppending() {
+    UnkeyedTable baseTable = testKeyedTable.baseTable();
+    baseTable.newAppend().appendFile(FILE_1).commit();
+    List<ArcticFileScanTask> first = PlanningCache.planFiles(baseTable, null, false);
+
+    baseTable.newAppend().appendFile(FILE_2).commit();
+    List<ArcticFileScanTask> second = PlanningCache.planFiles(baseTable, null, false);
+    Assert.assertEquals(2, second.size());
+    second.forEach(task -> Assert.assertFalse(first.contains(task)));
+  }
+
+  @Test
+  public void testFilterKey() {
+    UnkeyedTable changeTable = testKeyedTable.changeTable();
+    long micros = Literal.of("2022-01-01T00:00:00").<Long>to(Types.TimestampType.withoutZone()).value();
+    Expression filter = Expressions.and(
+        Expressions.equal("op_time", "2022-01-01T00:00:00"),
+        Expressions.in("id", 1, 2));
+
+    Assert.assertEquals(PlanningCache.filterKey(changeTable, filter), PlanningCache.filterKey(changeTable,
+        Expressions.and(Expressions.equal("op_time", micros), Expressions.in("id", 2L, 1L))));
+    Assert.assertEquals(PlanningCache.filterKey(changeTable, Expressions.notEqual("name", "a")),
+        PlanningCache.filterKey(changeTable, Expressions.not(Expressions.equal("name", "a"))));
+    Assert.assertNotEquals(PlanningCache.filterKey(changeTable, filter), PlanningCache.filterKey(changeTable,
+        Expressions.and(Expressions.equal("op_time", micros), Expressions.in("id", 1, 3))));
+    Assert.assertNotEquals(PlanningCache.filterKey(changeTable, Expressions.equal("name", "1")),
+        PlanningCache.filterKey(changeTable, Expressions.equal("id", 1)));
+    Assert.assertNotEquals(PlanningCache.filterKey(changeTable, Expressions.lessThan("id", 1)),
+        PlanningCache.filterKey(changeTable, Expressions.lessThanOrEqual("id", 1)));
+
+    changeTable.newAppend().appendFile(FILE_1).appendFile(FILE_2).commit();
+    List<ArcticFileScanTask> planned = PlanningCache.planFiles(changeTable,
+        Expressions.equal("op_time", "2022-01-01T00:00:00"), true);
+    Assert.assertEquals(1, planned.size());
+    Assert.assertSame(planned, PlanningCache.planFiles(changeTable, Expressions.equal("op_time", micros), true));
+    Assert.assertEquals(2, PlanningCache.planFiles(changeTable, null, true).size());
+  }
+
+  private static DataFile newFile(String name, String partition) {
+    return DataFiles.builder(SPEC)
+        .withPath("/path/to/" + partition + "/" + name)
+        .withFileSizeInBytes(10)
+        .withPartitionPath(partition)
+        .withRecordCount(2)
+        .build();
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils;
+
+import org.apache.iceberg.ContentFile;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.FileMetadata;
+import org.apache.iceberg.Metrics;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class ContentFileCodecTest {
+
+  private static final Schema SCHEMA = new Schema(
+      Types.NestedField.required(1, "id", Types.IntegerType.get()),
+      Types.NestedField.optional(2, "name", Types.StringType.get()),
+      Types.NestedField.optional(3, "op_time", Types.TimestampType.withoutZone()));
+
+  private static final PartitionSpec SPEC = PartitionSpec.builderFor(SCHEMA)
+      .identity("name").day("op_time").withSpecId(3).build();
+
+  private static final Metrics METRICS = new Metrics(
+      100L,
+      ImmutableMap.of(1, 400L, 2, 1000L, 3, 800L),
+      ImmutableMap.of(1, 100L, 2, 100L, 3, 100L),
+      ImmutableMap.of(1, 0L, 2, 10L),
+      null,
+      ImmutableMap.of(1, Conversions.toByteBuffer(Types.IntegerType.get(), 1)),
+      ImmutableMap.of(1, Conversions.toByteBuffer(Types.IntegerType.get(), 100)));
+
+  @Test
+  public void testDataFile() {
+    DataFile dataFile = DataFiles.builder(SPEC)
+        .withPath("hdfs://warehouse/db/table/base/name=a/op_time_day=2022-01-01/00000-0-1-1.parquet")
+        .withFormat(FileFormat.PARQUET)
+        .withPartitionPath("name=a/op_time_day=2022-01-01")
+        .withFileSizeInBytes(2048L)
+        .withMetrics(METRICS)
+        .withSplitOffsets(Arrays.asList(4L, 1024L))
+        .build();
+
+    ByteBuffer encoded = SerializationUtil.toByteBuffer(dataFile, true);
+    Assert.assertTrue(ContentFileCodec.isEncoded(encoded));
+    Assert.assertTrue(encoded.remaining() < SerializationUtil.toByteBuffer(dataFile, false).remaining());
+    assertContentFile(dataFile, SerializationUtil.toInternalTableFile(encoded));
+  }
+
+  @Test
+  public void testDeleteFiles() {
+    DeleteFile posDeleteFile = FileMetadata.deleteFileBuilder(SPEC)
+        .ofPositionDeletes()
+        .withPath("hdfs://warehouse/db/table/base/name=a/op_time_day=2022-01-01/00000-0-1-2.parquet")
+        .withFormat(FileFormat.PARQUET)
+        .withPartitionPath("name=a/op_time_day=2022-01-01")
+        .withFileSizeInBytes(512L)
+        .withRecordCount(10L)
+        .build();
+    assertContentFile(posDeleteFile,
+        SerializationUtil.toInternalTableFile(SerializationUtil.toByteBuffer(posDeleteFile, true)));
+
+    DeleteFile eqDeleteFile = FileMetadata.deleteFileBuilder(SPEC)
+        .ofEqualityDeletes(1)
+        .withPath("hdfs://warehouse/db/table/change/name=a/op_time_day=2022-01-01/00000-0-1-3.parquet")
+        .withFormat(FileFormat.PARQUET)
+        .withPartitionPath("name=__HIVE_DEFAULT_PARTITION__/op_time_day=2022-01-01")
+        .withFileSizeInBytes(512L)
+        .withMetrics(METRICS)
+        .build();
+    assertContentFile(eqDeleteFile,
+        SerializationUtil.toInternalTableFile(SerializationUtil.toByteBuffer(eqDeleteFile, true)));
+  }
+
+  @Test
+  public void testJavaSerializedFile() {
+    DataFile dataFile = DataFiles.builder(PartitionSpec.unpartitioned())
+        .withPath("hdfs://warehouse/db/table/base/00000-0-1-1.parquet")
+        .withFormat(FileFormat.PARQUET)
+        .withFileSizeInBytes(2048L)
+        .withRecordCount(100L)
+        .build();
+    // files persisted before the codec and files not encoded compact are java serialized
+    ByteBuffer serialized = SerializationUtil.toByteBuffer(dataFile, false);
+    Assert.assertFalse(ContentFileCodec.isEncoded(serialized));
+    assertContentFile(dataFile, SerializationUtil.toInternalTableFile(serialized));
+    assertContentFile(dataFile, SerializationUtil.toInternalTableFile(SerializationUtil.toByteBuffer(dataFile, true)));
+  }
+
+  private static void assertContentFile(ContentFile<?> expected, ContentFile<?> actual) {
+    Assert.assertEquals(expected.getClass(), actual.getClass());
+    Assert.assertEquals(expected.content(), actual.content());
+    Assert.assertEquals(expected.specId(), actual.specId());
+    Assert.assertEquals(expected.path().toString(), actual.path().toString());
+    Assert.assertEquals(expected.format(), actual.format());
+    Assert.assertEquals(expected.partition(), actual.partition());
+    Assert.assertEquals(expected.recordCount(), actual.recordCount());
+    Assert.assertEquals(expected.fileSizeInBytes(), actual.fileSizeInBytes());
+    Assert.assertEquals(expected.columnSizes(), actual.columnSizes());
+    Assert.assertEquals(expected.valueCounts(), actual.valueCounts());
+    Assert.assertEquals(expected.nullValueCounts(), actual.nullValueCounts());
+    Assert.assertEquals(expected.nanValueCounts(), actual.nanValueCounts());
+    Assert.assertEquals(expected.lowerBounds(), actual.lowerBounds());
+    Assert.assertEquals(expected.upperBounds(), actual.upperBounds());
+    Assert.assertEquals(expected.keyMetadata(), actual.keyMetadata());
+    Assert.assertEquals(expected.splitOffsets(), actual.splitOffsets());
+    Assert.assertEquals(expected.equalityFieldIds(), actual.equalityFieldIds());
+    Assert.assertEquals(expected.sortOrderId(), actual.sortOrderId());
+  }
+}
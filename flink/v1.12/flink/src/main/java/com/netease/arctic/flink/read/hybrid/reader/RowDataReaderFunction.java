@@ -18,6 +18,7 @@
 
 package com.netease.arctic.flink.read.hybrid.reader;
 
+import com.netease.arctic.data.DataTreeNode;
 import com.netease.arctic.flink.read.hybrid.split.ArcticSplit;
 import com.netease.arctic.flink.read.source.ChangeLogDataIterator;
 import com.netease.arctic.flink.read.source.DataIterator;
@@ -34,6 +35,7 @@ import org.apache.iceberg.flink.data.RowDataUtil;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 
 import java.util.Collections;
+import java.util.Set;
 
 import static com.netease.arctic.flink.shuffle.RowKindUtil.convertToFlinkRowKind;
 import static com.netease.arctic.utils.SchemaUtil.changeWriteSchema;
@@ -65,12 +67,19 @@ public class RowDataReaderFunction extends DataIteratorReaderFunction<RowData> {
 
   @Override
   public DataIterator<RowData> createDataIterator(ArcticSplit split) {
+    return createDataIterator(split, Collections.singleton(split.dataTreeNode()));
+  }
+
+  /**
+   * Create a {@link DataIterator} of the split, which only produces records belong to the given nodes.
+   */
+  public DataIterator<RowData> createDataIterator(ArcticSplit split, Set<DataTreeNode> sourceNodes) {
     if (split.isSnapshotSplit()) {
 
       FileScanTaskReader<RowData> rowDataReader =
           new FlinkArcticDataReader(
               io, tableSchema, readSchema, primaryKeySpec, nameMapping, caseSensitive, RowDataUtil::convertConstant,
-              Collections.singleton(split.dataTreeNode()), false);
+              sourceNodes, false);
       return new DataIterator<>(
           rowDataReader,
           split.asSnapshotSplit().insertTasks(),
@@ -80,7 +89,7 @@ public class RowDataReaderFunction extends DataIteratorReaderFunction<RowData> {
           new FlinkArcticDataReader(
               io, wrapArcticFileOffsetColumnMeta(tableSchema), wrapArcticFileOffsetColumnMeta(readSchema),
               primaryKeySpec, nameMapping, caseSensitive, RowDataUtil::convertConstant,
-              Collections.singleton(split.dataTreeNode()), false);
+              sourceNodes, false);
       return new ChangeLogDataIterator<>(
           rowDataReader,
           split.asChangelogSplit().insertTasks(),
@@ -151,8 +151,8 @@ public class DynamicTableFactory implements DynamicTableSourceFactory, DynamicTa
         arcticDynamicSource = createLogSource(arcticTable, context);
     }
 
-    return new ArcticDynamicSource(identifier.getObjectName(), arcticDynamicSource, arcticTable, tableSchema,
-        arcticTable.properties());
+    return new ArcticDynamicSource(identifier.getObjectName(), arcticDynamicSource, arcticTable, tableLoader,
+        tableSchema, arcticTable.properties());
   }
 
   @Override
@@ -214,6 +214,9 @@ public class DynamicTableFactory implements DynamicTableSourceFactory, DynamicTa
     options.add(ArcticValidator.ARCTIC_TABLE);
     options.add(ArcticValidator.ARCTIC_DATABASE);
     options.add(ArcticValidator.DIM_TABLE_ENABLE);
+    options.add(ArcticValidator.LOOKUP_CACHE_MAX_ROWS);
+    options.add(ArcticValidator.LOOKUP_CACHE_TTL);
+    options.add(ArcticValidator.LOOKUP_REFRESH_INTERVAL);
     options.add(METASTORE_URL_OPTION);
     return options;
   }
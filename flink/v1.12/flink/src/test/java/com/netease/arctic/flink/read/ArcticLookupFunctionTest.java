@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.flink.read;
+
+import com.netease.arctic.data.ChangeAction;
+import com.netease.arctic.flink.FlinkTestBase;
+import com.netease.arctic.flink.table.ArcticTableLoader;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.functions.FunctionContext;
+import org.apache.iceberg.data.Record;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class ArcticLookupFunctionTest extends FlinkTestBase {
+  private static final long TIMEOUT = 30000;
+
+  private ArcticLookupFunction function;
+
+  @After
+  public void closeFunction() throws Exception {
+    if (function != null) {
+      function.close();
+    }
+  }
+
+  @Test
+  public void testLookupAndRefresh() throws Exception {
+    writeBase(PK_TABLE_ID, records(1, 100, "base"));
+    function = open(1000, 100);
+
+    Assert.assertEquals("base", lookupName(1));
+    Assert.assertNull(lookupName(1000));
+
+    writeChange(PK_TABLE_ID, ChangeAction.INSERT, Collections.singletonList(record(1, "change")));
+    writeChange(PK_TABLE_ID, ChangeAction.INSERT, Collections.singletonList(record(101, "change")));
+    writeChange(PK_TABLE_ID, ChangeAction.DELETE, Collections.singletonList(record(2, "base")));
+
+    long deadline = System.currentTimeMillis() + TIMEOUT;
+    while (!"change".equals(lookupName(1))) {
+      Assert.assertTrue("changes are not applied to lookup cache", System.currentTimeMillis() < deadline);
+      Thread.sleep(100);
+    }
+    Assert.assertEquals("change", lookupName(101));
+    Assert.assertNull(lookupName(2));
+    Assert.assertEquals("base", lookupName(3));
+  }
+
+  @Test
+  public void testEvictToMaxRows() throws Exception {
+    writeBase(PK_TABLE_ID, records(1, 200, "base"));
+    function = open(40, 60000);
+
+    for (int round = 0; round < 2; round++) {
+      for (int id = 1; id <= 200; id++) {
+        Assert.assertEquals("base", lookupName(id));
+        Assert.assertTrue(function.cachedRows() <= 40);
+      }
+    }
+    Assert.assertTrue(function.cachedRows() > 0);
+  }
+
+  @Test
+  public void testCacheNodesReadTogether() throws Exception {
+    writeBase(PK_TABLE_ID, records(1, 1000, "base"));
+    function = open(1000, 60000);
+
+    Assert.assertEquals("base", lookupName(1));
+    // a cache node holds about 1000 / 16 rows, other nodes of the file node read are cached too
+    Assert.assertTrue(function.cachedRows() > 100);
+    Assert.assertTrue(function.cachedRows() <= 1000);
+    for (int id = 1; id <= 1000; id++) {
+      Assert.assertEquals("base", lookupName(id));
+      Assert.assertTrue(function.cachedRows() <= 1000);
+    }
+  }
+
+  @Test
+  public void testCacheMask() {
+    Assert.assertEquals(3, ArcticLookupFunction.cacheMask(3, 0, 1000000));
+    Assert.assertEquals(3, ArcticLookupFunction.cacheMask(3, 200000, 1000000));
+    Assert.assertEquals(255, ArcticLookupFunction.cacheMask(3, 16000000, 1000000));
+    Assert.assertEquals(127, ArcticLookupFunction.cacheMask(3, 200, 40));
+    Assert.assertEquals((1 << 16) - 1, ArcticLookupFunction.cacheMask(3, Long.MAX_VALUE, 16));
+  }
+
+  private ArcticLookupFunction open(long maxRows, long refreshInterval) throws Exception {
+    ArcticLookupFunction lookupFunction = new ArcticLookupFunction(ArcticTableLoader.of(PK_TABLE_ID, catalogBuilder),
+        testKeyedTable.schema(), new int[] {0}, maxRows, 0, refreshInterval);
+    lookupFunction.open(new FunctionContext(null));
+    return lookupFunction;
+  }
+
+  private String lookupName(int id) throws Exception {
+    CompletableFuture<Collection<RowData>> future = new CompletableFuture<>();
+    function.eval(future, id);
+    List<RowData> rows = new ArrayList<>(future.get(TIMEOUT, TimeUnit.MILLISECONDS));
+    Assert.assertTrue(rows.size() <= 1);
+    if (rows.isEmpty()) {
+      return null;
+    }
+    Assert.assertEquals(id, rows.get(0).getInt(0));
+    return rows.get(0).getString(1).toString();
+  }
+
+  private static List<Record> records(int from, int to, String name) {
+    List<Record> records = new ArrayList<>();
+    for (int id = from; id <= to; id++) {
+      records.add(record(id, name));
+    }
+    return records;
+  }
+
+  private static Record record(int id, String name) {
+    return newGenericRecord(TABLE_SCHEMA, id, name, quickDate(id % 3 + 1));
+  }
+}
@@ -0,0 +1,561 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.flink.read;
+
+import com.netease.arctic.ams.api.CommitMetaProducer;
+import com.netease.arctic.data.DataTreeNode;
+import com.netease.arctic.data.PrimaryKeyData;
+import com.netease.arctic.flink.read.hybrid.reader.RowDataReaderFunction;
+import com.netease.arctic.flink.read.hybrid.split.ArcticSplit;
+import com.netease.arctic.flink.read.source.DataIterator;
+import com.netease.arctic.flink.table.ArcticTableLoader;
+import com.netease.arctic.flink.util.ArcticUtils;
+import com.netease.arctic.scan.ArcticFileScanTask;
+import com.netease.arctic.table.KeyedTable;
+import com.netease.arctic.table.TableProperties;
+import com.netease.arctic.trace.SnapshotSummary;
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.functions.AsyncTableFunction;
+import org.apache.flink.table.functions.FunctionContext;
+import org.apache.flink.types.RowKind;
+import org.apache.iceberg.DataOperations;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.TableScan;
+import org.apache.iceberg.flink.FlinkSchemaUtil;
+import org.apache.iceberg.flink.RowDataWrapper;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.util.PropertyUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Async lookup function of arctic keyed tables for lookup joins, which caches rows of the table on heap.
+ * <p>
+ * Rows are cached in units of tree nodes of primary keys. Cache nodes are split from the nodes of table files until a
+ * node of the table planned on open is expected to hold at most 1/{@value #MIN_CACHED_NODES} of
+ * {@link com.netease.arctic.flink.table.descriptors.ArcticValidator#LOOKUP_CACHE_MAX_ROWS}. A node is loaded the first
+ * time a key of it is looked up, and loaded again after
+ * {@link com.netease.arctic.flink.table.descriptors.ArcticValidator#LOOKUP_CACHE_TTL}. The least recently used nodes,
+ * including the nodes just loaded, are evicted once the cached rows exceed the max rows.
+ * <p>
+ * Lookups are answered by a loader thread, so nodes are loaded without blocking the operator thread, and nodes missed
+ * by lookups queued together are loaded in one pass over the table files. Loading a node still reads the files of its
+ * file node, so {@code table.exec.async-lookup.timeout} should be longer than reading them. Other nodes of the files
+ * read are cached too while the cache has room, if all their files are read in the pass. Lookup joins don't
+ * partition probe keys, so a subtask caches the nodes of all keys it probes.
+ * <p>
+ * Every {@link com.netease.arctic.flink.table.descriptors.ArcticValidator#LOOKUP_REFRESH_INTERVAL}, files appended to
+ * the change table are applied to the cached nodes. The cache is kept if the base table is only committed by
+ * optimizing, which rewrites files without changing rows, and invalidated otherwise, or if files are removed from the
+ * change table, so planned files are never more than the files of the table. If refreshing or planning the table
+ * fails, cached rows are still served and refreshing is retried in the next interval.
+ */
+public class ArcticLookupFunction extends AsyncTableFunction<RowData> {
+
+  private static final long serialVersionUID = 1L;
+  private static final Logger LOG = LoggerFactory.getLogger(ArcticLookupFunction.class);
+  private static final long NO_SNAPSHOT = -1L;
+  private static final int MIN_CACHED_NODES = 16;
+  private static final long MAX_CACHE_MASK = (1 << 16) - 1;
+  private static final long IDLE_POLL_TIMEOUT = 1000; // 1s
+  private static final long CLOSE_WAIT_TIMEOUT = 10000; // 10s
+
+  private final ArcticTableLoader tableLoader;
+  private final Schema readSchema;
+  private final int[] keyIndices;
+  private final long maxRows;
+  private final long ttl;
+  private final long refreshInterval;
+
+  // used by the operator thread calling eval
+  private transient RowDataWrapper probeWrapper;
+  private transient PrimaryKeyData probeKey;
+  private transient long mask;
+  private transient BlockingQueue<Lookup> lookups;
+  private transient Thread loader;
+  private transient volatile boolean closed;
+  private transient volatile long cachedRows;
+
+  // used by the loader thread only
+  private transient KeyedTable table;
+  private transient RowDataReaderFunction readerFunction;
+  private transient RowDataWrapper rowWrapper;
+  private transient PrimaryKeyData primaryKey;
+  private transient LinkedHashMap<DataTreeNode, CachedNode> cachedNodes;
+  private transient List<ArcticSplit> splits;
+  private transient AtomicInteger splitCount;
+  private transient long baseSnapshotId;
+  private transient long changeSnapshotId;
+  private transient long lastRefreshTime;
+  private transient long otherRows;
+
+  /**
+   * @param tableLoader     loader of the arctic keyed table
+   * @param readSchema      schema of rows produced, which contains all primary key fields
+   * @param keyIndices      positions in readSchema of the lookup keys, which are the primary key fields
+   * @param maxRows         max number of rows cached
+   * @param ttl             time in milliseconds after which a cached node is loaded again, 0 means never
+   * @param refreshInterval interval in milliseconds to apply new change table snapshots
+   */
+  public ArcticLookupFunction(
+      ArcticTableLoader tableLoader, Schema readSchema, int[] keyIndices, long maxRows, long ttl,
+      long refreshInterval) {
+    this.tableLoader = tableLoader;
+    this.readSchema = readSchema;
+    this.keyIndices = keyIndices;
+    this.maxRows = maxRows;
+    this.ttl = ttl;
+    this.refreshInterval = refreshInterval;
+  }
+
+  @Override
+  public void open(FunctionContext context) throws Exception {
+    super.open(context);
+    this.table = ArcticUtils.loadArcticTable(tableLoader).asKeyedTable();
+    this.readerFunction = new RowDataReaderFunction(new Configuration(), table.schema(), readSchema,
+        table.primaryKeySpec(), null, true, table.io());
+    this.rowWrapper = new RowDataWrapper(FlinkSchemaUtil.convert(readSchema), readSchema.asStruct());
+    this.primaryKey = new PrimaryKeyData(table.primaryKeySpec(), readSchema);
+    this.probeWrapper = new RowDataWrapper(FlinkSchemaUtil.convert(readSchema), readSchema.asStruct());
+    this.probeKey = new PrimaryKeyData(table.primaryKeySpec(), readSchema);
+    int buckets = PropertyUtil.propertyAsInt(table.properties(), TableProperties.BASE_FILE_INDEX_HASH_BUCKET,
+        TableProperties.BASE_FILE_INDEX_HASH_BUCKET_DEFAULT);
+    Preconditions.checkArgument(buckets > 0 && (buckets & (buckets - 1)) == 0,
+        "%s of table %s should be a power of 2, but is %s", TableProperties.BASE_FILE_INDEX_HASH_BUCKET,
+        table.id(), buckets);
+    this.cachedNodes = new LinkedHashMap<>(16, 0.75f, true);
+    this.splitCount = new AtomicInteger();
+    this.lastRefreshTime = System.currentTimeMillis();
+    table.refresh();
+    Preconditions.checkState(plan(), "failed to plan table %s for lookup", table.id());
+    long tableRows = estimateRows(splits);
+    this.mask = cacheMask(buckets - 1, tableRows, maxRows);
+    LOG.info("lookup cache of table {} with {} rows is split into {} nodes", table.id(), tableRows, mask + 1);
+
+    this.lookups = new LinkedBlockingQueue<>();
+    this.closed = false;
+    this.loader = new Thread(this::runLoader, "arctic-lookup-loader-" + table.id());
+    this.loader.setDaemon(true);
+    this.loader.start();
+  }
+
+  public void eval(CompletableFuture<Collection<RowData>> future, Object... keys) {
+    GenericRowData probe = new GenericRowData(readSchema.columns().size());
+    for (int i = 0; i < keys.length; i++) {
+      probe.setField(keyIndices[i], keys[i]);
+    }
+    probeKey.primaryKey(probeWrapper.wrap(probe));
+    PrimaryKeyData key = probeKey.copy();
+    lookups.add(new Lookup(key, nodeOf(key), future));
+    if (closed) {
+      failLookups(new IllegalStateException("lookup function of table " + table.id() + " is closed"));
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    closed = true;
+    if (loader != null) {
+      loader.interrupt();
+      loader.join(CLOSE_WAIT_TIMEOUT);
+    }
+    if (lookups != null) {
+      failLookups(new IllegalStateException("lookup function of table " + table.id() + " is closed"));
+    }
+    super.close();
+  }
+
+  /**
+   * Split nodes of table files into finer cache nodes, until a node is expected to hold at most
+   * 1/{@value #MIN_CACHED_NODES} of the max rows, so a node is never a large part of the cache.
+   */
+  @VisibleForTesting
+  static long cacheMask(long fileMask, long tableRows, long maxRows) {
+    long nodeRows = Math.max(1, maxRows / MIN_CACHED_NODES);
+    long mask = fileMask;
+    while (mask < MAX_CACHE_MASK && tableRows / (mask + 1) > nodeRows) {
+      mask = (mask << 1) | 1;
+    }
+    return mask;
+  }
+
+  /**
+   * @return number of rows cached after the last loading or refreshing
+   */
+  @VisibleForTesting
+  long cachedRows() {
+    return cachedRows;
+  }
+
+  /**
+   * Same as {@link com.netease.arctic.utils.NodeFilter}, which keeps the rows of a node when reading files.
+   */
+  private DataTreeNode nodeOf(PrimaryKeyData key) {
+    return DataTreeNode.of(mask, key.hashCode() & mask);
+  }
+
+  private void runLoader() {
+    List<Lookup> batch = new ArrayList<>();
+    while (!closed) {
+      try {
+        Lookup lookup = lookups.poll(IDLE_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+        if (lookup != null) {
+          batch.add(lookup);
+          lookups.drainTo(batch);
+        }
+        refreshIfNeeded();
+        if (!batch.isEmpty()) {
+          lookup(batch);
+        }
+      } catch (InterruptedException e) {
+        break;
+      } catch (Throwable t) {
+        LOG.error("failed to look up table {}", table.id(), t);
+        batch.forEach(lookup -> lookup.future.completeExceptionally(t));
+      }
+      batch.clear();
+    }
+    LOG.info("lookup loader of table {} exit", table.id());
+  }
+
+  /**
+   * Looks up keys of the batch, nodes missed are loaded together.
+   */
+  private void lookup(List<Lookup> batch) {
+    long now = System.currentTimeMillis();
+    Map<DataTreeNode, CachedNode> nodes = new HashMap<>();
+    Map<DataTreeNode, CachedNode> missed = new HashMap<>();
+    for (Lookup lookup : batch) {
+      if (nodes.containsKey(lookup.node)) {
+        continue;
+      }
+      CachedNode cached = cachedNodes.get(lookup.node);
+      if (cached == null || (ttl > 0 && now - cached.loadTime >= ttl)) {
+        cached = new CachedNode(now);
+        missed.put(lookup.node, cached);
+      }
+      nodes.put(lookup.node, cached);
+    }
+    if (!missed.isEmpty()) {
+      load(missed);
+    }
+    for (Lookup lookup : batch) {
+      RowData row = nodes.get(lookup.node).rows.get(lookup.key);
+      lookup.future.complete(row == null ? Collections.emptyList() : Collections.singletonList(row));
+    }
+  }
+
+  /**
+   * Loads the nodes in one pass over the planned splits. Rows of other nodes not cached in the files read are kept
+   * while the cache has room, and cached if no split related to their nodes is left unread.
+   */
+  private void load(Map<DataTreeNode, CachedNode> nodes) {
+    long start = System.currentTimeMillis();
+    Map<DataTreeNode, CachedNode> others = new HashMap<>();
+    Set<DataTreeNode> unreadNodes = new HashSet<>();
+    otherRows = 0;
+    for (ArcticSplit split : splits) {
+      if (!read(split, nodes, others, maxRows - cachedRows)) {
+        unreadNodes.add(split.dataTreeNode());
+      }
+    }
+    others.keySet().removeIf(node -> unreadNodes.stream().anyMatch(unread -> related(node, unread)));
+    // others are put before the nodes looked up, so they are evicted first
+    cachedNodes.putAll(others);
+    cachedNodes.putAll(nodes);
+    LOG.info("loaded {} rows of {} nodes and {} rows of {} other nodes of table {}, cost {} ms",
+        nodes.values().stream().mapToLong(cached -> cached.rows.size()).sum(), nodes.size(),
+        others.values().stream().mapToLong(cached -> cached.rows.size()).sum(), others.size(), table.id(),
+        System.currentTimeMillis() - start);
+    evict();
+  }
+
+  /**
+   * Reads rows of the split belonging to the target nodes, and applies them to the nodes in order. Rows of other
+   * nodes not cached are applied to nodes in others, new nodes are added into others until they hold budget rows.
+   *
+   * @param others nodes of other rows, null to skip other rows
+   * @return false if the split is not related to any target node and not read
+   */
+  private boolean read(ArcticSplit split, Map<DataTreeNode, CachedNode> targets,
+                       Map<DataTreeNode, CachedNode> others, long budget) {
+    DataTreeNode splitNode = split.dataTreeNode();
+    Set<DataTreeNode> nodes = targets.keySet().stream()
+        .filter(node -> splitNode == null || related(node, splitNode))
+        .collect(Collectors.toSet());
+    if (nodes.isEmpty()) {
+      return false;
+    }
+    if (others != null && splitNode != null) {
+      nodes = Collections.singleton(splitNode);
+    }
+    long loadTime = System.currentTimeMillis();
+    try (DataIterator<RowData> rows = readerFunction.createDataIterator(split, nodes)) {
+      while (rows.hasNext()) {
+        RowData row = rows.next();
+        primaryKey.primaryKey(rowWrapper.wrap(row));
+        DataTreeNode node = nodeOf(primaryKey);
+        CachedNode target = targets.get(node);
+        if (target == null && others != null) {
+          target = others.get(node);
+          if (target == null && otherRows < budget && !cachedNodes.containsKey(node)) {
+            target = new CachedNode(loadTime);
+            others.put(node, target);
+          }
+        }
+        if (target == null) {
+          continue;
+        }
+        switch (row.getRowKind()) {
+          case INSERT:
+          case UPDATE_AFTER:
+            row.setRowKind(RowKind.INSERT);
+            if (target.rows.put(primaryKey.copy(), row) == null && !targets.containsKey(node)) {
+              otherRows++;
+            }
+            break;
+          case DELETE:
+          case UPDATE_BEFORE:
+            target.rows.remove(primaryKey);
+            break;
+          default:
+            throw new IllegalArgumentException("Unsupported row kind " + row.getRowKind());
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return true;
+  }
+
+  private static boolean related(DataTreeNode node, DataTreeNode another) {
+    return node.isSonOf(another) || another.isSonOf(node);
+  }
+
+  /**
+   * Evicts the least recently used nodes until the cached rows are no more than the max rows.
+   */
+  private void evict() {
+    long rows = cachedNodes.values().stream().mapToLong(cached -> cached.rows.size()).sum();
+    Iterator<Map.Entry<DataTreeNode, CachedNode>> iterator = cachedNodes.entrySet().iterator();
+    while (rows > maxRows && iterator.hasNext()) {
+      Map.Entry<DataTreeNode, CachedNode> eldest = iterator.next();
+      rows -= eldest.getValue().rows.size();
+      iterator.remove();
+      LOG.debug("evicted node {} of table {} from lookup cache", eldest.getKey(), table.id());
+    }
+    cachedRows = rows;
+  }
+
+  private void refreshIfNeeded() {
+    long now = System.currentTimeMillis();
+    if (now - lastRefreshTime < refreshInterval) {
+      return;
+    }
+    lastRefreshTime = now;
+    try {
+      table.refresh();
+    } catch (RuntimeException e) {
+      LOG.warn("failed to refresh table {} for lookup, serve cached rows and retry in next interval", table.id(), e);
+      return;
+    }
+
+    try {
+      applyChanges();
+    } catch (RuntimeException e) {
+      LOG.warn("failed to apply change table snapshots of table {} to lookup cache, invalidate it", table.id(), e);
+      invalidate();
+      return;
+    }
+
+    Snapshot base = table.baseTable().currentSnapshot();
+    if (snapshotId(base) != baseSnapshotId) {
+      boolean optimizedOnly = onlyOptimizedSince(base, baseSnapshotId);
+      long appliedChangeSnapshotId = changeSnapshotId;
+      if (!plan()) {
+        return;
+      }
+      // changes committed after applying are not in the cached nodes
+      if (!optimizedOnly || changeSnapshotId != appliedChangeSnapshotId) {
+        LOG.info("base table of table {} is changed, invalidate lookup cache", table.id());
+        cachedNodes.clear();
+        cachedRows = 0;
+      }
+    }
+  }
+
+  /**
+   * Plans files appended to the change table since the last planning, and applies them to the cached nodes.
+   */
+  private void applyChanges() {
+    Snapshot change = table.changeTable().currentSnapshot();
+    if (change == null || change.snapshotId() == changeSnapshotId) {
+      return;
+    }
+    if (changeSnapshotId != NO_SNAPSHOT && !onlyAppendedSince(change, changeSnapshotId)) {
+      // planned splits may contain files removed from the change table
+      LOG.info("files are removed from change table of table {}, invalidate lookup cache", table.id());
+      invalidate();
+      return;
+    }
+    TableScan scan = changeSnapshotId == NO_SNAPSHOT ?
+        table.changeTable().newScan().useSnapshot(change.snapshotId()) :
+        table.changeTable().newScan().appendsBetween(changeSnapshotId, change.snapshotId());
+    List<ArcticSplit> changeSplits = FlinkSplitPlanner.planChangeTable(scan, splitCount);
+    // a copy, as looking up an access ordered map changes the order of nodes
+    Map<DataTreeNode, CachedNode> targets = new HashMap<>(cachedNodes);
+    for (ArcticSplit split : changeSplits) {
+      read(split, targets, null, 0);
+    }
+    splits.addAll(changeSplits);
+    changeSnapshotId = change.snapshotId();
+    evict();
+  }
+
+  private boolean onlyAppendedSince(Snapshot current, long snapshotId) {
+    Snapshot snapshot = current;
+    while (snapshot != null && snapshot.snapshotId() != snapshotId) {
+      if (!DataOperations.APPEND.equals(snapshot.operation())) {
+        return false;
+      }
+      snapshot = snapshot.parentId() == null ? null : table.changeTable().snapshot(snapshot.parentId());
+    }
+    return snapshot != null;
+  }
+
+  private boolean onlyOptimizedSince(Snapshot current, long snapshotId) {
+    if (snapshotId == NO_SNAPSHOT) {
+      return false;
+    }
+    try {
+      Snapshot snapshot = current;
+      while (snapshot != null && snapshot.snapshotId() != snapshotId) {
+        String producer = snapshot.summary().get(SnapshotSummary.SNAPSHOT_PRODUCER);
+        if (!CommitMetaProducer.OPTIMIZE.name().equals(producer)) {
+          return false;
+        }
+        snapshot = snapshot.parentId() == null ? null : table.baseTable().snapshot(snapshot.parentId());
+      }
+      return snapshot != null;
+    } catch (RuntimeException e) {
+      LOG.warn("failed to walk snapshots of base table of table {}", table.id(), e);
+      return false;
+    }
+  }
+
+  /**
+   * Clears the cache, as changes may be partially applied to cached nodes, and plans the table again.
+   */
+  private void invalidate() {
+    cachedNodes.clear();
+    cachedRows = 0;
+    plan();
+  }
+
+  /**
+   * Plans all files of the table, cached nodes are kept and loaded with new splits later. Planned splits and
+   * snapshots are kept if planning fails, so the table is planned again in the next interval.
+   *
+   * @return false if planning failed
+   */
+  private boolean plan() {
+    long plannedBaseSnapshotId = snapshotId(table.baseTable().currentSnapshot());
+    long plannedChangeSnapshotId = snapshotId(table.changeTable().currentSnapshot());
+    List<ArcticSplit> plannedSplits;
+    try {
+      plannedSplits = FlinkSplitPlanner.planFullTable(table, splitCount);
+    } catch (RuntimeException e) {
+      LOG.warn("failed to plan table {} for lookup, serve cached rows and retry in next interval", table.id(), e);
+      return false;
+    }
+    baseSnapshotId = plannedBaseSnapshotId;
+    changeSnapshotId = plannedChangeSnapshotId;
+    splits = plannedSplits;
+    LOG.info("planned {} splits of table {} for lookup, base snapshot {}, change snapshot {}", splits.size(),
+        table.id(), baseSnapshotId, changeSnapshotId);
+    return true;
+  }
+
+  private void failLookups(Throwable cause) {
+    Lookup lookup;
+    while ((lookup = lookups.poll()) != null) {
+      lookup.future.completeExceptionally(cause);
+    }
+  }
+
+  private static long estimateRows(List<ArcticSplit> splits) {
+    long rows = 0;
+    for (ArcticSplit split : splits) {
+      Collection<ArcticFileScanTask> tasks = split.isSnapshotSplit() ?
+          split.asSnapshotSplit().insertTasks() : split.asChangelogSplit().insertTasks();
+      if (tasks != null) {
+        rows += tasks.stream().mapToLong(task -> task.file().recordCount()).sum();
+      }
+    }
+    return rows;
+  }
+
+  private static long snapshotId(Snapshot snapshot) {
+    return snapshot == null ? NO_SNAPSHOT : snapshot.snapshotId();
+  }
+
+  private static class Lookup {
+    private final PrimaryKeyData key;
+    private final DataTreeNode node;
+    private final CompletableFuture<Collection<RowData>> future;
+
+    Lookup(PrimaryKeyData key, DataTreeNode node, CompletableFuture<Collection<RowData>> future) {
+      this.key = key;
+      this.node = node;
+      this.future = future;
+    }
+  }
+
+  private static class CachedNode {
+    private final long loadTime;
+    private final Map<PrimaryKeyData, RowData> rows = new HashMap<>();
+
+    CachedNode(long loadTime) {
+      this.loadTime = loadTime;
+    }
+  }
+}
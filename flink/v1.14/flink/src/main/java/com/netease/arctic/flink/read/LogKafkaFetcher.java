@@ -22,6 +22,7 @@ import com.netease.arctic.flink.read.internals.KafkaFetcher;
 import com.netease.arctic.flink.shuffle.LogRecordV1;
 import com.netease.arctic.log.LogData;
 import com.netease.arctic.log.LogDataJsonDeserialization;
+import com.netease.arctic.log.LogMessageBatch;
 import org.apache.flink.api.common.eventtime.WatermarkStrategy;
 import org.apache.flink.metrics.MetricGroup;
 import org.apache.flink.streaming.api.functions.source.SourceFunction;
@@ -129,28 +130,44 @@ public class LogKafkaFetcher extends KafkaFetcher<RowData> {
       if (!magicFormat) {
         throw new UnsupportedOperationException(
             "Can't deserialize arctic log queue message due to it does not contain magic number.");
-      } else {
-        // new format version
-        LogData<RowData> logData = logDataJsonDeserialization.deserialize(record.value());
-        if (!logData.getFlip() && filterByRowKind(logData.getActualValue())) {
-          LOG.info(
-              "filter the rowData, because of logConsumerAppendOnly is true, and rowData={}.",
-              logData.getActualValue());
-          continue;
-        }
-        final int partition = record.partition();
-        final long actualRowOffset = record.offset();
-        if (filterBuffer(logData, partition, actualRowOffset)) {
-          synchronized (checkpointLock) {
-            partitionState.setOffset(actualRowOffset);
+      } else if (LogMessageBatch.isBatch(value)) {
+        // rows of a batch share the offset of the record, so the offset must not be checkpointed until all rows of
+        // the batch have been handled.
+        List<byte[]> messages = LogMessageBatch.unpack(value);
+        synchronized (checkpointLock) {
+          for (byte[] message : messages) {
+            handleMessage(record, message, partitionState);
           }
-          continue;
         }
-        processMsg(record, logData, partitionState);
+      } else {
+        handleMessage(record, value, partitionState);
       }
     }
   }
 
+  private void handleMessage(
+      ConsumerRecord<byte[], byte[]> record,
+      byte[] message,
+      KafkaTopicPartitionState<RowData, TopicPartition> partitionState) throws IOException {
+    // new format version
+    LogData<RowData> logData = logDataJsonDeserialization.deserialize(message);
+    if (!logData.getFlip() && filterByRowKind(logData.getActualValue())) {
+      LOG.info(
+          "filter the rowData, because of logConsumerAppendOnly is true, and rowData={}.",
+          logData.getActualValue());
+      return;
+    }
+    final int partition = record.partition();
+    final long actualRowOffset = record.offset();
+    if (filterBuffer(logData, partition, actualRowOffset)) {
+      synchronized (checkpointLock) {
+        partitionState.setOffset(actualRowOffset);
+      }
+      return;
+    }
+    processMsg(record, logData, partitionState);
+  }
+
   /**
    * filter the rowData only works during
    * {@link com.netease.arctic.flink.table.descriptors.ArcticValidator#ARCTIC_LOG_CONSISTENCY_GUARANTEE_ENABLE}
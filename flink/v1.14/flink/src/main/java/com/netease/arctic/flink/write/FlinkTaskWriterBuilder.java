@@ -147,12 +147,14 @@ public class FlinkTaskWriterBuilder implements TaskWriterBuilder<RowData> {
         new AdaptHiveFlinkAppenderFactory(schema, flinkSchema, table.properties(), table.spec()) :
         new FlinkAppenderFactory(
             schema, flinkSchema, table.properties(), table.spec());
-    return new FlinkBaseTaskWriter(
+    FlinkBaseTaskWriter writer = new FlinkBaseTaskWriter(
         fileFormat,
         appenderFactory,
         outputFileFactory,
         table.io(), fileSizeBytes, mask,
         selectSchema, flinkSchema, table.spec(), primaryKeySpec);
+    writer.setTableProperties(table.properties());
+    return writer;
   }
 
   private TaskWriter<RowData> buildChangeWriter() {
@@ -177,12 +179,14 @@ public class FlinkTaskWriterBuilder implements TaskWriterBuilder<RowData> {
         taskId, transactionId);
     FlinkAppenderFactory appenderFactory = new FlinkAppenderFactory(
         changeSchemaWithMeta, flinkSchemaWithMeta, keyedTable.properties(), keyedTable.spec());
-    return new FlinkChangeTaskWriter(
+    FlinkChangeTaskWriter writer = new FlinkChangeTaskWriter(
         fileFormat,
         appenderFactory,
         outputFileFactory,
         keyedTable.io(), fileSizeBytes, mask,
         selectSchema, flinkSchema, keyedTable.spec(), keyedTable.primaryKeySpec());
+    writer.setTableProperties(keyedTable.properties());
+    return writer;
   }
 
   @Override
@@ -22,6 +22,7 @@ import com.netease.arctic.flink.write.hidden.ArcticLogPartitioner;
 import com.netease.arctic.flink.write.hidden.LogMsgFactory;
 import com.netease.arctic.log.LogData;
 import com.netease.arctic.log.LogDataJsonSerialization;
+import com.netease.arctic.log.LogMessageBatch;
 import org.apache.flink.streaming.connectors.kafka.FlinkKafkaErrorCode;
 import org.apache.flink.streaming.connectors.kafka.FlinkKafkaException;
 import org.apache.flink.streaming.connectors.kafka.internals.FlinkKafkaInternalProducer;
@@ -37,9 +38,14 @@ import javax.annotation.Nullable;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -47,6 +53,9 @@ import static org.apache.kafka.clients.producer.ProducerConfig.TRANSACTIONAL_ID_
 
 /**
  * This is hidden log queue kafka producer that serializes {@link LogData<T>} and emits to the kafka topic.
+ * <p>
+ * When batching is enabled, messages are packed into a {@link LogMessageBatch} per partition, which is sent when it
+ * reaches the max bytes, lingers longer than the linger time or the producer is flushed. Flips are never batched.
  */
 public class HiddenKafkaProducer<T> implements LogMsgFactory.Producer<T> {
   private static final Logger LOG = LoggerFactory.getLogger(HiddenKafkaProducer.class);
@@ -76,15 +85,39 @@ public class HiddenKafkaProducer<T> implements LogMsgFactory.Producer<T> {
   private ArcticLogPartitioner<T> arcticLogPartitioner;
   private int[] partitions;
 
+  /**
+   * Max uncompressed bytes of a batch, batching is disabled when it is not positive.
+   */
+  private final int batchMaxBytes;
+  private final long batchLingerMs;
+  private final LogMessageBatch.Compression batchCompression;
+  private transient Map<Integer, LogMessageBatch.Builder> batches;
+  private transient ScheduledExecutorService lingerExecutor;
+
   public HiddenKafkaProducer(
       Properties producerConfig,
       String topic,
       LogDataJsonSerialization<T> logDataJsonSerialization,
       ArcticLogPartitioner<T> arcticLogPartitioner) {
+    this(producerConfig, topic, logDataJsonSerialization, arcticLogPartitioner, 0, 0L,
+        LogMessageBatch.Compression.NONE);
+  }
+
+  public HiddenKafkaProducer(
+      Properties producerConfig,
+      String topic,
+      LogDataJsonSerialization<T> logDataJsonSerialization,
+      ArcticLogPartitioner<T> arcticLogPartitioner,
+      int batchMaxBytes,
+      long batchLingerMs,
+      LogMessageBatch.Compression batchCompression) {
     this.producerConfig = producerConfig;
     this.topic = topic;
     this.logDataJsonSerialization = logDataJsonSerialization;
     this.arcticLogPartitioner = arcticLogPartitioner;
+    this.batchMaxBytes = batchMaxBytes;
+    this.batchLingerMs = batchLingerMs;
+    this.batchCompression = batchCompression;
   }
 
   @Override
@@ -100,6 +133,24 @@ public class HiddenKafkaProducer<T> implements LogMsgFactory.Producer<T> {
     transactionalProducer.initTransactions();
     partitions = getPartitionsByTopic(topic, producer);
     LOG.info("HiddenKafkaPartition topic:{}, partitions:{}.", topic, partitions);
+    if (batchEnabled()) {
+      batches = new HashMap<>();
+      if (batchLingerMs > 0) {
+        lingerExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+          Thread thread = new Thread(r, "hidden-kafka-producer-linger-" + topic);
+          thread.setDaemon(true);
+          return thread;
+        });
+        lingerExecutor.scheduleWithFixedDelay(
+            this::sendLingeredBatches, batchLingerMs, batchLingerMs, TimeUnit.MILLISECONDS);
+      }
+      LOG.info("HiddenKafkaProducer batches messages, max bytes:{}, linger:{}ms, compression:{}.",
+          batchMaxBytes, batchLingerMs, batchCompression);
+    }
+  }
+
+  private boolean batchEnabled() {
+    return batchMaxBytes > 0;
   }
 
   @Override
@@ -107,14 +158,61 @@ public class HiddenKafkaProducer<T> implements LogMsgFactory.Producer<T> {
     checkErroneous();
     byte[] message = logDataJsonSerialization.serialize(logData);
     int partition = arcticLogPartitioner.partition(logData, partitions);
-    ProducerRecord<byte[], byte[]> producerRecord =
-        new ProducerRecord<>(topic, partition, null, null, message);
-    producer.send(producerRecord, callback);
+    if (!batchEnabled()) {
+      ProducerRecord<byte[], byte[]> producerRecord =
+          new ProducerRecord<>(topic, partition, null, null, message);
+      producer.send(producerRecord, callback);
+      return;
+    }
+    synchronized (batches) {
+      LogMessageBatch.Builder batch =
+          batches.computeIfAbsent(partition, p -> new LogMessageBatch.Builder(batchCompression));
+      batch.add(message);
+      if (batch.sizeInBytes() >= batchMaxBytes) {
+        sendBatch(partition, batch);
+      }
+    }
+  }
+
+  private void sendBatch(int partition, LogMessageBatch.Builder batch) {
+    producer.send(new ProducerRecord<>(topic, partition, null, null, batch.build()), callback);
+  }
+
+  private void sendBatches() {
+    if (batches == null) {
+      return;
+    }
+    synchronized (batches) {
+      batches.forEach((partition, batch) -> {
+        if (!batch.isEmpty()) {
+          sendBatch(partition, batch);
+        }
+      });
+    }
+  }
+
+  private void sendLingeredBatches() {
+    try {
+      long lingeredBefore = System.currentTimeMillis() - batchLingerMs;
+      synchronized (batches) {
+        batches.forEach((partition, batch) -> {
+          if (!batch.isEmpty() && batch.firstAddTime() <= lingeredBefore) {
+            sendBatch(partition, batch);
+          }
+        });
+      }
+    } catch (Throwable t) {
+      if (asyncException == null) {
+        asyncException = new Exception("Failed to send lingered batches.", t);
+      }
+    }
   }
 
   @Override
   public void sendToAllPartitions(LogData<T> logData) throws Exception {
     checkErroneous();
+    // messages batched before the flip must reach the topic ahead of it
+    sendBatches();
     byte[] message = logDataJsonSerialization.serialize(logData);
     List<ProducerRecord<byte[], byte[]>> recordList =
         IntStream.of(partitions)
@@ -139,11 +237,21 @@ public class HiddenKafkaProducer<T> implements LogMsgFactory.Producer<T> {
 
   @Override
   public void flush() {
+    sendBatches();
     producer.flush();
   }
 
   @Override
   public void close() throws Exception {
+    if (lingerExecutor != null) {
+      lingerExecutor.shutdownNow();
+    }
+    if (batches != null) {
+      synchronized (batches) {
+        batches.values().forEach(LogMessageBatch.Builder::close);
+        batches.clear();
+      }
+    }
     try {
       producer.close(Duration.ofSeconds(0));
       transactionalProducer.close(Duration.ofSeconds(0));
@@ -18,18 +18,23 @@
 
 package com.netease.arctic.flink.table;
 
+import com.netease.arctic.flink.read.ArcticLookupFunction;
 import com.netease.arctic.flink.shuffle.ReadShuffleRulePolicy;
 import com.netease.arctic.flink.shuffle.ShuffleHelper;
+import com.netease.arctic.flink.table.descriptors.ArcticValidator;
 import com.netease.arctic.table.ArcticTable;
 import com.netease.arctic.table.DistributionHashMode;
 import org.apache.flink.api.common.eventtime.WatermarkStrategy;
+import org.apache.flink.configuration.Configuration;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
 import org.apache.flink.table.api.TableSchema;
 import org.apache.flink.table.connector.ChangelogMode;
 import org.apache.flink.table.connector.ProviderContext;
+import org.apache.flink.table.connector.source.AsyncTableFunctionProvider;
 import org.apache.flink.table.connector.source.DataStreamScanProvider;
 import org.apache.flink.table.connector.source.DynamicTableSource;
+import org.apache.flink.table.connector.source.LookupTableSource;
 import org.apache.flink.table.connector.source.ScanTableSource;
 import org.apache.flink.table.connector.source.abilities.SupportsFilterPushDown;
 import org.apache.flink.table.connector.source.abilities.SupportsLimitPushDown;
@@ -44,14 +49,20 @@ import org.apache.iceberg.Schema;
 import org.apache.iceberg.flink.FlinkSchemaUtil;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 import org.apache.iceberg.types.TypeUtil;
+import org.apache.iceberg.types.Types;
 import org.apache.iceberg.util.PropertyUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.netease.arctic.flink.FlinkSchemaUtil.filterWatermark;
 import static com.netease.arctic.table.TableProperties.READ_DISTRIBUTION_HASH_MODE;
@@ -62,7 +73,7 @@ import static com.netease.arctic.table.TableProperties.READ_DISTRIBUTION_MODE_DE
 /**
  * Flink table api that generates source operators.
  */
-public class ArcticDynamicSource implements ScanTableSource, SupportsFilterPushDown,
+public class ArcticDynamicSource implements ScanTableSource, LookupTableSource, SupportsFilterPushDown,
     SupportsProjectionPushDown, SupportsLimitPushDown, SupportsWatermarkPushDown {
 
   public static final Logger LOG = LoggerFactory.getLogger(ArcticDynamicSource.class);
@@ -71,9 +82,11 @@ public class ArcticDynamicSource implements ScanTableSource, SupportsFilterPushD
 
   private final ScanTableSource arcticDynamicSource;
   private final ArcticTable arcticTable;
+  private final ArcticTableLoader tableLoader;
   private final Map<String, String> properties;
   private RowType flinkSchemaRowType;
   private Schema readSchema;
+  private int[][] projectedFields;
 
   @Nullable
   protected WatermarkStrategy<RowData> watermarkStrategy;
@@ -81,12 +94,16 @@ public class ArcticDynamicSource implements ScanTableSource, SupportsFilterPushD
   public ArcticDynamicSource(String tableName,
                              ScanTableSource arcticDynamicSource,
                              ArcticTable arcticTable,
+                             ArcticTableLoader tableLoader,
                              Schema readSchema,
                              RowType flinkSchemaRowType,
+                             int[][] projectedFields,
                              Map<String, String> properties) {
     this.tableName = tableName;
     this.arcticDynamicSource = arcticDynamicSource;
     this.arcticTable = arcticTable;
+    this.tableLoader = tableLoader;
+    this.projectedFields = projectedFields;
     this.properties = properties;
     this.readSchema = readSchema;
     this.flinkSchemaRowType = flinkSchemaRowType;
@@ -96,17 +113,20 @@ public class ArcticDynamicSource implements ScanTableSource, SupportsFilterPushD
    * @param tableName           tableName
    * @param arcticDynamicSource underlying source
    * @param arcticTable         arcticTable
+   * @param tableLoader         loader of arcticTable, used by lookup joins
    * @param projectedSchema     read schema
    * @param properties          With all ArcticTable properties and sql options
    */
   public ArcticDynamicSource(String tableName,
                              ScanTableSource arcticDynamicSource,
                              ArcticTable arcticTable,
+                             ArcticTableLoader tableLoader,
                              TableSchema projectedSchema,
                              Map<String, String> properties) {
     this.tableName = tableName;
     this.arcticDynamicSource = arcticDynamicSource;
     this.arcticTable = arcticTable;
+    this.tableLoader = tableLoader;
     this.properties = properties;
 
     readSchema = arcticTable.schema();
@@ -210,8 +230,47 @@ public class ArcticDynamicSource implements ScanTableSource, SupportsFilterPushD
 
   @Override
   public DynamicTableSource copy() {
-    return new ArcticDynamicSource(tableName, arcticDynamicSource, arcticTable, readSchema, flinkSchemaRowType,
-        properties);
+    return new ArcticDynamicSource(tableName, arcticDynamicSource, arcticTable, tableLoader, readSchema,
+        flinkSchemaRowType, projectedFields, properties);
+  }
+
+  @Override
+  public LookupRuntimeProvider getLookupRuntimeProvider(LookupContext context) {
+    Preconditions.checkArgument(arcticTable.isKeyedTable(),
+        "lookup join is only supported by table with primary key, but table %s has none", tableName);
+    Schema lookupSchema = lookupSchema();
+    int[] keyIndices = Arrays.stream(context.getKeys()).mapToInt(key -> {
+      Preconditions.checkArgument(key.length == 1, "nested lookup key is not supported by table %s", tableName);
+      return key[0];
+    }).toArray();
+    Set<String> keyNames = IntStream.of(keyIndices)
+        .mapToObj(index -> lookupSchema.columns().get(index).name())
+        .collect(Collectors.toSet());
+    Set<String> primaryKeys = new HashSet<>(arcticTable.asKeyedTable().primaryKeySpec().fieldNames());
+    Preconditions.checkArgument(keyNames.equals(primaryKeys),
+        "lookup keys %s should be the primary key %s of table %s", keyNames, primaryKeys, tableName);
+
+    Configuration config = ArcticValidator.asConfiguration(properties);
+    return AsyncTableFunctionProvider.of(new ArcticLookupFunction(tableLoader, lookupSchema, keyIndices,
+        config.get(ArcticValidator.LOOKUP_CACHE_MAX_ROWS),
+        config.get(ArcticValidator.LOOKUP_CACHE_TTL).toMillis(),
+        config.get(ArcticValidator.LOOKUP_REFRESH_INTERVAL).toMillis()));
+  }
+
+  /**
+   * Columns of readSchema in the order of the produced rows, which are projected if projection is pushed down.
+   */
+  private Schema lookupSchema() {
+    List<String> fieldNames = flinkSchemaRowType.getFieldNames();
+    int[] fields = projectedFields == null ? IntStream.range(0, fieldNames.size()).toArray() :
+        Arrays.stream(projectedFields).mapToInt(field -> field[0]).toArray();
+    List<Types.NestedField> columns = IntStream.of(fields).mapToObj(field -> {
+      Types.NestedField column = readSchema.findField(fieldNames.get(field));
+      Preconditions.checkArgument(column != null, "field %s of table %s can't be looked up",
+          fieldNames.get(field), tableName);
+      return column;
+    }).collect(Collectors.toList());
+    return new Schema(columns);
   }
 
   @Override
@@ -239,6 +298,7 @@ public class ArcticDynamicSource implements ScanTableSource, SupportsFilterPushD
 
   @Override
   public void applyProjection(int[][] projectedFields) {
+    this.projectedFields = projectedFields;
     if (arcticDynamicSource instanceof SupportsProjectionPushDown) {
       ((SupportsProjectionPushDown) arcticDynamicSource).applyProjection(projectedFields);
     }
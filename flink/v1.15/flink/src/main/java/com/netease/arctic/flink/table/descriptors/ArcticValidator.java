@@ -29,6 +29,7 @@ import org.apache.flink.table.descriptors.ConnectorDescriptorValidator;
 import org.apache.flink.table.descriptors.DescriptorProperties;
 import org.apache.flink.table.types.logical.RowType;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -138,6 +139,27 @@ public class ArcticValidator extends ConnectorDescriptorValidator {
           .defaultValue(false)
           .withDescription("If it is true, Arctic source will generate watermark after stock data being read");
 
+  public static final ConfigOption<Long> LOOKUP_CACHE_MAX_ROWS =
+      ConfigOptions.key("lookup.cache.max-rows")
+          .longType()
+          .defaultValue(1000000L)
+          .withDescription("The max number of rows cached by a lookup join subtask, rows are loaded and evicted in" +
+              " units of the tree nodes of primary keys, the least recently used nodes are evicted first.");
+
+  public static final ConfigOption<Duration> LOOKUP_CACHE_TTL =
+      ConfigOptions.key("lookup.cache.ttl")
+          .durationType()
+          .defaultValue(Duration.ofHours(1))
+          .withDescription("The time after which a tree node cached by a lookup join subtask is loaded again from" +
+              " table files, 0 means nodes are never loaded again.");
+
+  public static final ConfigOption<Duration> LOOKUP_REFRESH_INTERVAL =
+      ConfigOptions.key("lookup.refresh-interval")
+          .durationType()
+          .defaultValue(Duration.ofMinutes(1))
+          .withDescription("The interval at which a lookup join subtask applies new change table snapshots to its" +
+              " cached rows.");
+
   @Override
   public void validate(DescriptorProperties properties) {
     String emitMode = properties.getString(ARCTIC_EMIT_MODE);
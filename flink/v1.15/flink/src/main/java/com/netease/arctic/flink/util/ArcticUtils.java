@@ -26,12 +26,15 @@ import com.netease.arctic.flink.table.descriptors.ArcticValidator;
 import com.netease.arctic.flink.write.ArcticLogWriter;
 import com.netease.arctic.flink.write.hidden.HiddenLogWriter;
 import com.netease.arctic.flink.write.hidden.kafka.HiddenKafkaFactory;
+import com.netease.arctic.log.FormatVersion;
+import com.netease.arctic.log.LogMessageBatch;
 import com.netease.arctic.table.ArcticTable;
 import com.netease.arctic.table.PrimaryKeySpec;
 import com.netease.arctic.table.TableProperties;
 import com.netease.arctic.utils.IdGenerator;
 import org.apache.flink.table.api.TableSchema;
 import org.apache.flink.table.api.ValidationException;
+import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.types.logical.RowType;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.flink.FlinkSchemaUtil;
@@ -48,6 +51,7 @@ import java.util.Properties;
 import java.util.stream.Collectors;
 
 import static com.netease.arctic.table.TableProperties.LOG_STORE_DATA_VERSION;
+import static com.netease.arctic.table.TableProperties.LOG_STORE_DATA_VERSION_BINARY;
 import static com.netease.arctic.table.TableProperties.LOG_STORE_DATA_VERSION_DEFAULT;
 
 /**
@@ -123,19 +127,43 @@ public class ArcticUtils {
     }
 
     String version = properties.getOrDefault(LOG_STORE_DATA_VERSION, LOG_STORE_DATA_VERSION_DEFAULT);
+    final FormatVersion formatVersion;
     if (LOG_STORE_DATA_VERSION_DEFAULT.equals(version)) {
-      LOGGER.info("build log writer: HiddenLogWriter(v1)");
-      return new HiddenLogWriter(
-          FlinkSchemaUtil.convert(tableSchema),
-          producerConfig,
-          topic,
-          new HiddenKafkaFactory<>(),
-          LogRecordV1.fieldGetterFactory,
-          IdGenerator.generateUpstreamId(),
-          helper);
+      formatVersion = FormatVersion.FORMAT_VERSION_V1;
+    } else if (LOG_STORE_DATA_VERSION_BINARY.equals(version)) {
+      formatVersion = FormatVersion.FORMAT_VERSION_V2;
+    } else {
+      throw new UnsupportedOperationException("don't support log version '" + version +
+          "'. only support 'v1', 'v2' or empty");
+    }
+    LOGGER.info("build log writer: HiddenLogWriter({})", version);
+    return new HiddenLogWriter(
+        FlinkSchemaUtil.convert(tableSchema),
+        producerConfig,
+        topic,
+        buildHiddenKafkaFactory(properties),
+        LogRecordV1.fieldGetterFactory,
+        IdGenerator.generateUpstreamId(),
+        helper,
+        formatVersion);
+  }
+
+  private static HiddenKafkaFactory<RowData> buildHiddenKafkaFactory(Map<String, String> properties) {
+    boolean batchEnabled = PropertyUtil.propertyAsBoolean(properties, TableProperties.LOG_STORE_BATCH_ENABLED,
+        TableProperties.LOG_STORE_BATCH_ENABLED_DEFAULT);
+    if (!batchEnabled) {
+      return new HiddenKafkaFactory<>();
     }
-    throw new UnsupportedOperationException("don't support log version '" + version +
-        "'. only support 'v1' or empty");
+    int maxBytes = PropertyUtil.propertyAsInt(properties, TableProperties.LOG_STORE_BATCH_MAX_BYTES,
+        TableProperties.LOG_STORE_BATCH_MAX_BYTES_DEFAULT);
+    long lingerMs = PropertyUtil.propertyAsLong(properties, TableProperties.LOG_STORE_BATCH_LINGER_MS,
+        TableProperties.LOG_STORE_BATCH_LINGER_MS_DEFAULT);
+    LogMessageBatch.Compression compression = LogMessageBatch.Compression.fromName(
+        properties.getOrDefault(TableProperties.LOG_STORE_BATCH_COMPRESSION,
+            TableProperties.LOG_STORE_BATCH_COMPRESSION_DEFAULT));
+    LOGGER.info("log writer batches messages, max bytes:{}, linger:{}ms, compression:{}",
+        maxBytes, lingerMs, compression);
+    return new HiddenKafkaFactory<>(maxBytes, lingerMs, compression);
   }
 
   public static boolean arcticFileWriterEnable(String arcticEmitMode) {
@@ -44,6 +44,12 @@ import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static com.netease.arctic.table.TableProperties.LOG_STORE_MESSAGE_TOPIC;
 import static org.apache.iceberg.relocated.com.google.common.base.Preconditions.checkNotNull;
@@ -53,7 +59,8 @@ import static org.apache.iceberg.relocated.com.google.common.base.Preconditions.
  * Sending flip message to the kafka topic when the operator occurs restoring, through the {@link GlobalFlipCommitter}
  * commit {@link GlobalFlipCommitter.CommitRequest} to the jobMaster.
  * {@link this#processElement(StreamRecord)} will process records after all operators has sent flip message to the
- * jobMaster and the jobMaster has finished handling these requests.
+ * jobMaster and the jobMaster has finished handling these requests. The flip is committed by a background thread,
+ * records only wait for its future until it completes once.
  */
 public abstract class AbstractHiddenLogWriter extends ArcticLogWriter {
   public static final Logger LOG = LoggerFactory.getLogger(AbstractHiddenLogWriter.class);
@@ -70,14 +77,14 @@ public abstract class AbstractHiddenLogWriter extends ArcticLogWriter {
   protected final LogMsgFactory<RowData> factory;
   protected LogMsgFactory.Producer<RowData> producer;
 
-  private transient boolean shouldCheckFlipSent = false;
-  private transient boolean flipSentSucceed = false;
+  private transient CompletableFuture<Void> flipSent;
+  private transient ExecutorService flipExecutor;
 
   private GlobalFlipCommitter flipCommitter;
   private final LogData.FieldGetterFactory<RowData> fieldGetterFactory;
   protected transient LogDataJsonSerialization<RowData> logDataJsonSerialization;
 
-  protected FormatVersion logVersion = FormatVersion.FORMAT_VERSION_V1;
+  protected FormatVersion logVersion;
   protected byte[] jobIdentify;
   // start from 1L, epicNo is similar to checkpoint id.
   protected long epicNo = 1L;
@@ -92,6 +99,21 @@ public abstract class AbstractHiddenLogWriter extends ArcticLogWriter {
       LogData.FieldGetterFactory<RowData> fieldGetterFactory,
       byte[] jobId,
       ShuffleHelper helper) {
+    this(schema, producerConfig, topic, factory, fieldGetterFactory, jobId, helper, FormatVersion.FORMAT_VERSION_V1);
+  }
+
+  /**
+   * @param logVersion version of messages to write, {@link FormatVersion#FORMAT_VERSION_V2} writes rows in binary
+   */
+  public AbstractHiddenLogWriter(
+      Schema schema,
+      Properties producerConfig,
+      String topic,
+      LogMsgFactory<RowData> factory,
+      LogData.FieldGetterFactory<RowData> fieldGetterFactory,
+      byte[] jobId,
+      ShuffleHelper helper,
+      FormatVersion logVersion) {
     this.schema = schema;
     this.producerConfig = checkNotNull(producerConfig);
     this.producerConfig.put(LOG_STORE_MESSAGE_TOPIC, checkNotNull(topic));
@@ -99,6 +121,7 @@ public abstract class AbstractHiddenLogWriter extends ArcticLogWriter {
     this.fieldGetterFactory = fieldGetterFactory;
     this.jobIdentify = jobId;
     this.helper = helper;
+    this.logVersion = checkNotNull(logVersion);
   }
 
   @Override
@@ -156,8 +179,12 @@ public abstract class AbstractHiddenLogWriter extends ArcticLogWriter {
           new GenericRowData(0)
       );
       // signal flip topic
-      shouldCheckFlipSent = true;
-      flipSentSucceed = flipCommitter.commit(subtaskId, logFlip);
+      flipExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "hidden-log-writer-flip-" + subtaskId);
+        thread.setDaemon(true);
+        return thread;
+      });
+      flipSent = flipCommitter.commitAsync(subtaskId, logFlip, flipExecutor);
       // after send flip, epicNo + 1 The epicNo of the data sent by the subsequent processElement()
       // method will be 1 larger than the flip.epicNo.
       epicNo++;
@@ -215,26 +242,28 @@ public abstract class AbstractHiddenLogWriter extends ArcticLogWriter {
   }
 
   public void processElement(StreamRecord<RowData> element) throws Exception {
-    int waitCount = 0;
-    // this is a sync step that will check sending flip succeed or not
-    while (shouldCheckFlip() && !alreadySentFlip()) {
-      Thread.sleep(100);
-      if (waitCount++ % 100 == 0) {
-        LOG.info("Still waiting for sending flip," +
-            " while the other subtasks have committed to Global State. this subtask is {}.", subtaskId);
-      }
+    if (flipSent != null) {
+      waitForFlipSent();
     }
   }
 
-  private boolean alreadySentFlip() throws IOException {
-    if (!flipSentSucceed) {
-      flipSentSucceed = flipCommitter.hasCommittedFlip(logFlip);
+  private void waitForFlipSent() throws Exception {
+    int waitCount = 0;
+    while (true) {
+      try {
+        flipSent.get(10, TimeUnit.SECONDS);
+        break;
+      } catch (TimeoutException e) {
+        LOG.info("Still waiting for sending flip for {}s," +
+            " while the other subtasks have committed to Global State. this subtask is {}.",
+            ++waitCount * 10, subtaskId);
+      } catch (ExecutionException e) {
+        throw new IOException("Failed to commit flip " + logFlip, e.getCause());
+      }
     }
-    return flipSentSucceed;
-  }
-
-  private boolean shouldCheckFlip() {
-    return shouldCheckFlipSent;
+    flipSent = null;
+    flipExecutor.shutdown();
+    flipExecutor = null;
   }
 
   @Override
@@ -289,6 +318,9 @@ public abstract class AbstractHiddenLogWriter extends ArcticLogWriter {
 
   @Override
   public void close() throws Exception {
+    if (flipExecutor != null) {
+      flipExecutor.shutdownNow();
+    }
     if (producer != null) {
       producer.close();
     }
@@ -36,8 +36,11 @@ import java.util.NavigableMap;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
 
 import static org.apache.iceberg.relocated.com.google.common.base.Preconditions.checkNotNull;
 
@@ -48,6 +51,8 @@ public class GlobalFlipCommitter {
   private static final Logger LOG = LoggerFactory.getLogger(GlobalFlipCommitter.class);
 
   private static final String AGGREGATE_NAME = "flip-committer";
+  private static final long CHECK_COMMITTED_MIN_INTERVAL_MS = 10L;
+  private static final long CHECK_COMMITTED_MAX_INTERVAL_MS = 1000L;
   private final GlobalAggregateManager aggregateManager;
   private final FlipCommitFunction flipCommitFunction;
 
@@ -76,6 +81,30 @@ public class GlobalFlipCommitter {
     return committedEpicNo != null && committedEpicNo == logData.getEpicNo();
   }
 
+  /**
+   * Commits the flip and waits until the flip messages of all subtasks have been sent, off the calling thread.
+   *
+   * @return future completed once the flip has been sent to the log queue
+   */
+  public CompletableFuture<Void> commitAsync(int subtaskId, LogData<RowData> logData, Executor executor) {
+    return CompletableFuture.runAsync(() -> {
+      try {
+        boolean committed = commit(subtaskId, logData);
+        long waitMs = CHECK_COMMITTED_MIN_INTERVAL_MS;
+        while (!committed) {
+          Thread.sleep(waitMs);
+          waitMs = Math.min(waitMs * 2, CHECK_COMMITTED_MAX_INTERVAL_MS);
+          committed = hasCommittedFlip(logData);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CompletionException(e);
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    }, executor);
+  }
+
   static class FlipCommitFunction implements AggregateFunction<CommitRequest, LogGlobalState, Long> {
     private static final long serialVersionUID = 6399278898504357412L;
     private final int numberOfTasks;
@@ -22,6 +22,7 @@ import com.netease.arctic.flink.shuffle.ShuffleHelper;
 import com.netease.arctic.flink.write.hidden.ArcticLogPartitioner;
 import com.netease.arctic.flink.write.hidden.LogMsgFactory;
 import com.netease.arctic.log.LogDataJsonSerialization;
+import com.netease.arctic.log.LogMessageBatch;
 import com.netease.arctic.table.TableProperties;
 
 import java.util.Properties;
@@ -34,6 +35,25 @@ import static org.apache.iceberg.relocated.com.google.common.base.Preconditions.
 public class HiddenKafkaFactory<T> implements LogMsgFactory<T> {
   private static final long serialVersionUID = -1L;
 
+  private final int batchMaxBytes;
+  private final long batchLingerMs;
+  private final LogMessageBatch.Compression batchCompression;
+
+  public HiddenKafkaFactory() {
+    this(0, 0L, LogMessageBatch.Compression.NONE);
+  }
+
+  /**
+   * @param batchMaxBytes    max uncompressed bytes of a {@link LogMessageBatch}, not positive disables batching
+   * @param batchLingerMs    max time in milliseconds a batch waits for more messages before being sent
+   * @param batchCompression compression of batches
+   */
+  public HiddenKafkaFactory(int batchMaxBytes, long batchLingerMs, LogMessageBatch.Compression batchCompression) {
+    this.batchMaxBytes = batchMaxBytes;
+    this.batchLingerMs = batchLingerMs;
+    this.batchCompression = checkNotNull(batchCompression);
+  }
+
   @Override
   public Producer<T> createProducer(
       Properties producerConfig,
@@ -47,7 +67,10 @@ public class HiddenKafkaFactory<T> implements LogMsgFactory<T> {
         logDataJsonSerialization,
         new ArcticLogPartitioner<>(
             helper
-        ));
+        ),
+        batchMaxBytes,
+        batchLingerMs,
+        batchCompression);
   }
 
   @Override
@@ -46,6 +46,37 @@ public class HiveTableProperties {
   public static final String AUTO_SYNC_HIVE_DATA_WRITE = "base.hive.auto-sync-data-write";
   public static final boolean AUTO_SYNC_HIVE_DATA_WRITE_DEFAULT = false;
 
+  /**
+   * Number of hive partitions fetched from the metastore in one call when syncing hive data to arctic.
+   */
+  public static final String SYNC_HIVE_DATA_PARTITION_BATCH_SIZE = "base.hive.sync-data.partition-batch-size";
+  public static final int SYNC_HIVE_DATA_PARTITION_BATCH_SIZE_DEFAULT = 1000;
+
+  /**
+   * Max number of files deleted and added by one commit when syncing hive data to arctic, files of a partition are
+   * always committed together.
+   */
+  public static final String SYNC_HIVE_DATA_COMMIT_MAX_FILES = "base.hive.sync-data.commit-max-files";
+  public static final int SYNC_HIVE_DATA_COMMIT_MAX_FILES_DEFAULT = 10000;
+
+  /**
+   * Number of hive partitions dropped, added or altered by one metastore call when committing partitions.
+   */
+  public static final String HIVE_PARTITION_COMMIT_BATCH_SIZE = "base.hive.partition-commit.batch-size";
+  public static final int HIVE_PARTITION_COMMIT_BATCH_SIZE_DEFAULT = 500;
+
+  /**
+   * Number of metastore calls issued in parallel when committing partitions, bounded by the hive client pool size.
+   */
+  public static final String HIVE_PARTITION_COMMIT_THREADS = "base.hive.partition-commit.threads";
+  public static final int HIVE_PARTITION_COMMIT_THREADS_DEFAULT = 4;
+
+  /**
+   * Number of retries of a failed metastore call when committing partitions.
+   */
+  public static final String HIVE_PARTITION_COMMIT_RETRIES = "base.hive.partition-commit.retries";
+  public static final int HIVE_PARTITION_COMMIT_RETRIES_DEFAULT = 3;
+
   public static final String ALLOW_HIVE_TABLE_EXISTED = "allow-hive-table-existed";
 
   public static final String PARQUET_INPUT_FORMAT = "org.apache.hadoop.hive.ql.io.parquet.MapredParquetInputFormat";
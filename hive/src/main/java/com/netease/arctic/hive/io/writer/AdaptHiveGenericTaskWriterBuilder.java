@@ -21,6 +21,7 @@ package com.netease.arctic.hive.io.writer;
 import com.netease.arctic.data.ChangeAction;
 import com.netease.arctic.hive.table.HiveLocationKind;
 import com.netease.arctic.hive.table.SupportHive;
+import com.netease.arctic.hive.utils.HiveTableUtil;
 import com.netease.arctic.hive.utils.TableTypeUtil;
 import com.netease.arctic.io.writer.CommonOutputFileFactory;
 import com.netease.arctic.io.writer.GenericBaseTaskWriter;
@@ -52,6 +53,7 @@ import org.apache.iceberg.io.TaskWriter;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 import org.apache.iceberg.util.PropertyUtil;
 
+import java.io.File;
 import java.util.Locale;
 
 /**
@@ -65,6 +67,7 @@ public class AdaptHiveGenericTaskWriterBuilder implements TaskWriterBuilder<Reco
   private int partitionId = 0;
   private int taskId = 0;
   private ChangeAction changeAction = ChangeAction.INSERT;
+  private String hiveSubdirectory;
 
   private AdaptHiveGenericTaskWriterBuilder(ArcticTable table) {
     this.table = table;
@@ -90,6 +93,14 @@ public class AdaptHiveGenericTaskWriterBuilder implements TaskWriterBuilder<Reco
     return this;
   }
 
+  /**
+   * Sub directory of partitions in hive location for unkeyed table, a random one for each writer if not set.
+   */
+  public AdaptHiveGenericTaskWriterBuilder withHiveSubdirectory(String hiveSubdirectory) {
+    this.hiveSubdirectory = hiveSubdirectory;
+    return this;
+  }
+
   @Override
   public TaskWriter<Record> buildWriter(WriteOperationKind writeOperationKind) {
     LocationKind locationKind = AdaptHiveOperateToTableRelation.INSTANT.getLocationKindsFromOperateKind(
@@ -129,7 +140,11 @@ public class AdaptHiveGenericTaskWriterBuilder implements TaskWriterBuilder<Reco
     return new SortedPosDeleteWriter<>(appenderFactory,
         new CommonOutputFileFactory(table.baseLocation(), table.spec(), fileFormat, table.io(),
             table.baseTable().encryption(), partitionId, taskId, transactionId),
-        fileFormat, mask, index, partitionKey);
+        fileFormat, mask, index, partitionKey,
+        PropertyUtil.propertyAsLong(table.properties(), TableProperties.WRITE_POS_DELETE_MEMORY_BYTES,
+            TableProperties.WRITE_POS_DELETE_MEMORY_BYTES_DEFAULT),
+        new File(PropertyUtil.propertyAsString(table.properties(), TableProperties.WRITE_POS_DELETE_SPILL_DIR,
+            System.getProperty("java.io.tmpdir"))));
   }
 
   private GenericBaseTaskWriter buildBaseWriter(LocationKind locationKind) {
@@ -160,15 +175,18 @@ public class AdaptHiveGenericTaskWriterBuilder implements TaskWriterBuilder<Reco
 
     OutputFileFactory outputFileFactory = locationKind == HiveLocationKind.INSTANT ?
         new AdaptHiveOutputFileFactory(((SupportHive) table).hiveLocation(), table.spec(), fileFormat, table.io(),
-            encryptionManager, partitionId, taskId, transactionId) :
+            encryptionManager, partitionId, taskId, transactionId,
+            hiveSubdirectory == null ? HiveTableUtil.getRandomSubDir() : hiveSubdirectory) :
         new CommonOutputFileFactory(baseLocation, table.spec(), fileFormat, table.io(),
             encryptionManager, partitionId, taskId, transactionId);
     FileAppenderFactory<Record> appenderFactory = TableTypeUtil.isHive(table) ?
         new AdaptHiveGenericAppenderFactory(schema, table.spec()) :
         new GenericAppenderFactory(schema, table.spec());
-    return new GenericBaseTaskWriter(fileFormat, appenderFactory,
+    GenericBaseTaskWriter writer = new GenericBaseTaskWriter(fileFormat, appenderFactory,
         outputFileFactory,
         table.io(), fileSizeBytes, mask, schema, table.spec(), primaryKeySpec);
+    writer.setTableProperties(table.properties());
+    return writer;
   }
 
   private GenericChangeTaskWriter buildChangeWriter() {
@@ -189,12 +207,14 @@ public class AdaptHiveGenericTaskWriterBuilder implements TaskWriterBuilder<Reco
     FileAppenderFactory<Record> appenderFactory = TableTypeUtil.isHive(table) ?
         new AdaptHiveGenericAppenderFactory(changeWriteSchema, table.spec()) :
         new GenericAppenderFactory(changeWriteSchema, table.spec());
-    return new GenericChangeTaskWriter(fileFormat,
+    GenericChangeTaskWriter writer = new GenericChangeTaskWriter(fileFormat,
         appenderFactory,
         new CommonOutputFileFactory(table.changeLocation(), table.spec(), fileFormat, table.io(),
             table.changeTable().encryption(), partitionId, taskId, transactionId),
         table.io(), fileSizeBytes, mask, table.changeTable().schema(), table.spec(), table.primaryKeySpec(),
         changeAction);
+    writer.setTableProperties(table.properties());
+    return writer;
   }
 
   public static AdaptHiveGenericTaskWriterBuilder builderFor(ArcticTable table) {
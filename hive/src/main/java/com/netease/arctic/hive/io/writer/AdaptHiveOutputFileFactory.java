@@ -74,7 +74,7 @@ public class AdaptHiveOutputFileFactory implements OutputFileFactory {
   private final long taskId;
   private final Long transactionId;
 
-  private final String unKeyedTmpDir = HiveTableUtil.getRandomSubDir();
+  private final String unKeyedTmpDir;
 
   private final String unKeyedTableNameUUID = UUID.randomUUID().toString();
 
@@ -89,6 +89,24 @@ public class AdaptHiveOutputFileFactory implements OutputFileFactory {
       int partitionId,
       long taskId,
       Long transactionId) {
+    this(baseLocation, partitionSpec, format, io, encryptionManager, partitionId, taskId, transactionId,
+        HiveTableUtil.getRandomSubDir());
+  }
+
+  /**
+   * @param unKeyedTmpDir sub directory of partitions for unkeyed table, writers sharing it write files of a
+   *                      partition into the same directory
+   */
+  public AdaptHiveOutputFileFactory(
+      String baseLocation,
+      PartitionSpec partitionSpec,
+      FileFormat format,
+      ArcticFileIO io,
+      EncryptionManager encryptionManager,
+      int partitionId,
+      long taskId,
+      Long transactionId,
+      String unKeyedTmpDir) {
     this.baseLocation = baseLocation;
     this.partitionSpec = partitionSpec;
     this.format = format;
@@ -97,6 +115,7 @@ public class AdaptHiveOutputFileFactory implements OutputFileFactory {
     this.partitionId = partitionId;
     this.taskId = taskId;
     this.transactionId = transactionId;
+    this.unKeyedTmpDir = unKeyedTmpDir;
   }
 
 
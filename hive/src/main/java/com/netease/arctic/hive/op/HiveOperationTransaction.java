@@ -165,6 +165,11 @@ public class HiveOperationTransaction implements Transaction {
 
     public void commit() {
       for (Action<?, HiveMetaStoreClient, TException> action : pendingActions) {
+        if (action instanceof HivePartitionCommitter) {
+          // commit partitions in parallel batches with clients of the pool instead of one borrowed client
+          ((HivePartitionCommitter) action).commit(client);
+          continue;
+        }
         try {
           client.run(action);
         } catch (TException | InterruptedException e) {
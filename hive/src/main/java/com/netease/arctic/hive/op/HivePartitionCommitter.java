@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.hive.op;
+
+import com.netease.arctic.hive.HMSClient;
+import com.netease.arctic.hive.HiveTableProperties;
+import org.apache.hadoop.hive.metastore.HiveMetaStoreClient;
+import org.apache.hadoop.hive.metastore.PartitionDropOptions;
+import org.apache.hadoop.hive.metastore.api.AlreadyExistsException;
+import org.apache.hadoop.hive.metastore.api.InvalidObjectException;
+import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.iceberg.ClientPool;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.iceberg.util.PropertyUtil;
+import org.apache.iceberg.util.Tasks;
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Commits hive partitions of a table in phases of drop, add and alter. Partitions of a phase are split into batches
+ * of {@link HiveTableProperties#HIVE_PARTITION_COMMIT_BATCH_SIZE}, batches are committed in parallel over clients of
+ * the pool and retried on failure. A retried batch is idempotent: drop ignores partitions already dropped, add skips
+ * partitions already added and alter replaces partitions as a whole.
+ * <p>
+ * The committer is also an action of {@link HMSClient}, so it could be deferred by a transactional client, it commits
+ * all batches serially with the one client given when it is run that way.
+ */
+class HivePartitionCommitter implements ClientPool.Action<Void, HiveMetaStoreClient, TException> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(HivePartitionCommitter.class);
+
+  private final String db;
+  private final String tableName;
+  private final int batchSize;
+  private final int threads;
+  private final int retries;
+
+  private final List<Partition> partitionsToDrop = Lists.newArrayList();
+  private final List<Partition> partitionsToAdd = Lists.newArrayList();
+  private final List<Partition> partitionsToAlter = Lists.newArrayList();
+
+  HivePartitionCommitter(String db, String tableName, Map<String, String> properties) {
+    this.db = db;
+    this.tableName = tableName;
+    this.batchSize = Math.max(1, PropertyUtil.propertyAsInt(properties,
+        HiveTableProperties.HIVE_PARTITION_COMMIT_BATCH_SIZE,
+        HiveTableProperties.HIVE_PARTITION_COMMIT_BATCH_SIZE_DEFAULT));
+    this.threads = Math.max(1, PropertyUtil.propertyAsInt(properties,
+        HiveTableProperties.HIVE_PARTITION_COMMIT_THREADS,
+        HiveTableProperties.HIVE_PARTITION_COMMIT_THREADS_DEFAULT));
+    this.retries = Math.max(0, PropertyUtil.propertyAsInt(properties,
+        HiveTableProperties.HIVE_PARTITION_COMMIT_RETRIES,
+        HiveTableProperties.HIVE_PARTITION_COMMIT_RETRIES_DEFAULT));
+  }
+
+  HivePartitionCommitter drop(Collection<Partition> partitions) {
+    partitionsToDrop.addAll(partitions);
+    return this;
+  }
+
+  HivePartitionCommitter add(Collection<Partition> partitions) {
+    partitionsToAdd.addAll(partitions);
+    return this;
+  }
+
+  HivePartitionCommitter alter(Collection<Partition> partitions) {
+    partitionsToAlter.addAll(partitions);
+    return this;
+  }
+
+  boolean isEmpty() {
+    return partitionsToDrop.isEmpty() && partitionsToAdd.isEmpty() && partitionsToAlter.isEmpty();
+  }
+
+  /**
+   * Commits partitions with clients borrowed from the pool, batches of a phase are committed in parallel.
+   */
+  void commit(HMSClient clients) {
+    List<Batch> drops = batches(partitionsToDrop);
+    List<Batch> adds = batches(partitionsToAdd);
+    List<Batch> alters = batches(partitionsToAlter);
+    int parallelism = Math.min(threads, Math.max(drops.size(), Math.max(adds.size(), alters.size())));
+    ExecutorService executor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism,
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("hive-partition-commit-%d").build()) : null;
+    try {
+      runPhase("drop", drops, executor, batch -> clients.run(c -> dropPartitions(c, batch)));
+      runPhase("add", adds, executor, batch -> clients.run(c -> addPartitions(c, batch)));
+      runPhase("alter", alters, executor, batch -> clients.run(c -> alterPartitions(c, batch)));
+    } finally {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  /**
+   * Commits all batches serially with the given client.
+   */
+  @Override
+  public Void run(HiveMetaStoreClient client) throws TException {
+    runPhase("drop", batches(partitionsToDrop), null, batch -> dropPartitions(client, batch));
+    runPhase("add", batches(partitionsToAdd), null, batch -> addPartitions(client, batch));
+    runPhase("alter", batches(partitionsToAlter), null, batch -> alterPartitions(client, batch));
+    return null;
+  }
+
+  private void runPhase(String phase, List<Batch> batches, ExecutorService executor, BatchTask task) {
+    if (batches.isEmpty()) {
+      return;
+    }
+    long start = System.currentTimeMillis();
+    try {
+      Tasks.foreach(batches)
+          .executeWith(executor)
+          .retry(retries)
+          .exponentialBackoff(100, 5000, 60000, 2.0)
+          .stopRetryOn(AlreadyExistsException.class, InvalidObjectException.class, InterruptedException.class)
+          .stopOnFailure()
+          .throwFailureWhenFinished()
+          .run(batch -> {
+            batch.attempts++;
+            task.run(batch);
+          }, Exception.class);
+    } catch (Exception e) {
+      throw new RuntimeException(String.format("failed to %s partitions of hive table %s.%s", phase, db, tableName),
+          e);
+    }
+    int partitions = batches.stream().mapToInt(batch -> batch.partitions.size()).sum();
+    LOG.info("{} {} partitions of hive table {}.{} in {} batches, cost {} ms",
+        phase, partitions, db, tableName, batches.size(), System.currentTimeMillis() - start);
+  }
+
+  private Void dropPartitions(HiveMetaStoreClient client, Batch batch) throws TException {
+    PartitionDropOptions options = PartitionDropOptions.instance()
+        .deleteData(false)
+        .ifExists(true)
+        .purgeData(false)
+        .returnResults(false);
+    for (Partition p : batch.partitions) {
+      try {
+        client.dropPartition(db, tableName, p.getValues(), options);
+      } catch (NoSuchObjectException e) {
+        LOG.warn("try to delete hive partition {} but partition not exist.", p);
+      }
+    }
+    return null;
+  }
+
+  private Void addPartitions(HiveMetaStoreClient client, Batch batch) throws TException {
+    // a retried batch may have been added by the failed attempt, which is not a conflict
+    client.add_partitions(batch.partitions, batch.attempts > 1, false);
+    return null;
+  }
+
+  private Void alterPartitions(HiveMetaStoreClient client, Batch batch) throws TException {
+    client.alter_partitions(db, tableName, batch.partitions, null);
+    return null;
+  }
+
+  private List<Batch> batches(List<Partition> partitions) {
+    List<Batch> batches = Lists.newArrayList();
+    for (List<Partition> partition : Lists.partition(partitions, batchSize)) {
+      batches.add(new Batch(partition));
+    }
+    return batches;
+  }
+
+  private interface BatchTask {
+    void run(Batch batch) throws Exception;
+  }
+
+  private static class Batch {
+    private final List<Partition> partitions;
+    private volatile int attempts;
+
+    Batch(List<Partition> partitions) {
+      this.partitions = partitions;
+    }
+  }
+}
@@ -29,7 +29,6 @@ import com.netease.arctic.utils.FileUtil;
 import com.netease.arctic.utils.TablePropertyUtil;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.hive.metastore.PartitionDropOptions;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.Table;
@@ -421,43 +420,21 @@ public class OverwriteHiveFiles implements OverwriteFiles {
   }
 
   private void commitPartitionedTable() {
-    if (!partitionToDelete.isEmpty()) {
-      for (Partition p : partitionToDelete.values()) {
-        try {
-          transactionClient.run(c -> {
-            PartitionDropOptions options = PartitionDropOptions.instance()
-                .deleteData(false)
-                .ifExists(true)
-                .purgeData(false)
-                .returnResults(false);
-            c.dropPartition(db, tableName, p.getValues(), options);
-            return 0;
-          });
-        } catch (NoSuchObjectException e) {
-          LOG.warn("try to delete hive partition {} but partition not exist.", p);
-        } catch (TException | InterruptedException e) {
-          throw new RuntimeException(e);
-        }
-      }
-    }
-
-    if (!partitionToCreate.isEmpty()) {
-      try {
-        transactionClient.run(c -> c.add_partitions(Lists.newArrayList(partitionToCreate.values())));
-      } catch (TException | InterruptedException e) {
-        throw new RuntimeException(e);
-      }
+    HivePartitionCommitter committer = new HivePartitionCommitter(db, tableName, table.properties())
+        .drop(partitionToDelete.values())
+        .add(partitionToCreate.values())
+        .alter(partitionToAlter.values());
+    if (committer.isEmpty()) {
+      return;
     }
-
-    if (!partitionToAlter.isEmpty()) {
+    if (insideTransaction) {
       try {
-        transactionClient.run(c ->  {
-          c.alter_partitions(db, tableName, Lists.newArrayList(partitionToAlter.values()), null);
-          return null;
-        });
+        transactionClient.run(committer);
       } catch (TException | InterruptedException e) {
         throw new RuntimeException(e);
       }
+    } else {
+      committer.commit(transactionClient);
     }
   }
 
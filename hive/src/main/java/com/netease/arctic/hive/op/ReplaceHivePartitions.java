@@ -239,18 +239,20 @@ public class ReplaceHivePartitions implements ReplacePartitions {
   }
 
   private void commitPartitionedTable() {
-    try {
-      transactionalHMSClient.run(c -> {
-        if (!rewritePartitions.isEmpty()) {
-          c.alter_partitions(db, tableName, Lists.newArrayList(rewritePartitions.values()), null);
-        }
-        if (!newPartitions.isEmpty()) {
-          c.add_partitions(Lists.newArrayList(newPartitions.values()));
-        }
-        return 0;
-      });
-    } catch (TException | InterruptedException e) {
-      throw new RuntimeException(e);
+    HivePartitionCommitter committer = new HivePartitionCommitter(db, tableName, table.properties())
+        .alter(rewritePartitions.values())
+        .add(newPartitions.values());
+    if (committer.isEmpty()) {
+      return;
+    }
+    if (insideTransaction) {
+      try {
+        transactionalHMSClient.run(committer);
+      } catch (TException | InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+    } else {
+      committer.commit(transactionalHMSClient);
     }
   }
 
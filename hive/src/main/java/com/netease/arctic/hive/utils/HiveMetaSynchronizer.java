@@ -45,9 +45,13 @@ import org.apache.iceberg.relocated.com.google.common.collect.ListMultimap;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.apache.iceberg.relocated.com.google.common.collect.Multimaps;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
 import org.apache.iceberg.types.TypeUtil;
 import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.PropertyUtil;
 import org.apache.iceberg.util.StructLikeMap;
+import org.apache.iceberg.util.Tasks;
+import org.apache.iceberg.util.ThreadPools;
 import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,6 +60,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -152,57 +157,106 @@ public class HiveMetaSynchronizer {
           overwriteTable(table, deleteFiles, hiveDataFiles);
         }
       } else {
-        // list all hive partitions.
-        List<Partition> hivePartitions = hiveClient.run(client -> client.listPartitions(table.id().getDatabase(),
-            table.id().getTableName(), Short.MAX_VALUE));
-        // group arctic files by partition.
-        ListMultimap<StructLike, DataFile> filesGroupedByPartition
-            = Multimaps.newListMultimap(Maps.newHashMap(), Lists::newArrayList);
-        TableScan tableScan = baseStore.newScan();
-        for (org.apache.iceberg.FileScanTask fileScanTask : tableScan.planFiles()) {
-          filesGroupedByPartition.put(fileScanTask.file().partition(),fileScanTask.file());
-        }
-        Map<StructLike, Collection<DataFile>> filesMap = filesGroupedByPartition.asMap();
-        List<DataFile> filesToDelete = Lists.newArrayList();
-        List<DataFile> filesToAdd = Lists.newArrayList();
-        List<StructLike> icebergPartitions = Lists.newArrayList(filesMap.keySet());
-        for (Partition hivePartition : hivePartitions) {
-          StructLike partitionData = HivePartitionUtil.buildPartitionData(hivePartition.getValues(), table.spec());
-          icebergPartitions.remove(partitionData);
-          String hiveTransientTime =  hivePartition.getParameters().get("transient_lastDdlTime");
-          String arcticTransientTime = baseStore.partitionProperty().containsKey(partitionData) ?
-              baseStore.partitionProperty().get(partitionData)
-                  .get(HiveTableProperties.PARTITION_PROPERTIES_KEY_TRANSIENT_TIME) : null;
-          // compare hive partition parameter transient_lastDdlTime with arctic partition properties to
-          // find out if the partition is changed.
-          if (arcticTransientTime == null || !arcticTransientTime.equals(hiveTransientTime)) {
-            List<DataFile> hiveDataFiles = listHivePartitionFiles(table,
-                buildPartitionValueMap(hivePartition.getValues(), table.spec()),
-                hivePartition.getSd().getLocation());
-            if (filesMap.get(partitionData) != null) {
-              filesToDelete.addAll(filesMap.get(partitionData));
-              filesToAdd.addAll(hiveDataFiles);
-              // make sure new partition is not created by arctic
-            } else if (hivePartition.getParameters().get(HiveTableProperties.ARCTIC_TABLE_FLAG) == null) {
-              filesToAdd.addAll(hiveDataFiles);
-            }
-          }
+        syncPartitionedHiveData(table, baseStore, hiveClient);
+      }
+    } catch (TException | InterruptedException e) {
+      throw new RuntimeException("Failed to get hive table:" + table.id(), e);
+    }
+  }
+
+  /**
+   * Hive partitions are fetched page by page and compared with the partition properties of arctic, files of changed
+   * partitions are listed concurrently and committed in batches bounded by
+   * {@link HiveTableProperties#SYNC_HIVE_DATA_COMMIT_MAX_FILES}.
+   */
+  private static void syncPartitionedHiveData(ArcticTable table, UnkeyedTable baseStore, HMSClient hiveClient)
+      throws TException, InterruptedException {
+    String database = table.id().getDatabase();
+    String tableName = table.id().getTableName();
+    int partitionBatchSize = PropertyUtil.propertyAsInt(table.properties(),
+        HiveTableProperties.SYNC_HIVE_DATA_PARTITION_BATCH_SIZE,
+        HiveTableProperties.SYNC_HIVE_DATA_PARTITION_BATCH_SIZE_DEFAULT);
+    int commitMaxFiles = PropertyUtil.propertyAsInt(table.properties(),
+        HiveTableProperties.SYNC_HIVE_DATA_COMMIT_MAX_FILES,
+        HiveTableProperties.SYNC_HIVE_DATA_COMMIT_MAX_FILES_DEFAULT);
+
+    // group arctic files by partition.
+    ListMultimap<StructLike, DataFile> filesGroupedByPartition
+        = Multimaps.newListMultimap(Maps.newHashMap(), Lists::newArrayList);
+    TableScan tableScan = baseStore.newScan();
+    for (org.apache.iceberg.FileScanTask fileScanTask : tableScan.planFiles()) {
+      filesGroupedByPartition.put(fileScanTask.file().partition(), fileScanTask.file());
+    }
+    Map<StructLike, Collection<DataFile>> filesMap = filesGroupedByPartition.asMap();
+    Set<StructLike> icebergPartitions = Sets.newHashSet(filesMap.keySet());
+    StructLikeMap<Map<String, String>> partitionProperties = baseStore.partitionProperty();
+
+    // list all hive partitions page by page, as listing them in one call is truncated to Short.MAX_VALUE.
+    List<String> partitionNames = hiveClient.run(client -> client.listPartitionNames(database, tableName, (short) -1));
+    List<Partition> changedPartitions = Lists.newArrayList();
+    List<StructLike> changedPartitionData = Lists.newArrayList();
+    for (List<String> names : Lists.partition(partitionNames, partitionBatchSize)) {
+      List<Partition> hivePartitions =
+          hiveClient.run(client -> client.getPartitionsByNames(database, tableName, names));
+      for (Partition hivePartition : hivePartitions) {
+        StructLike partitionData = HivePartitionUtil.buildPartitionData(hivePartition.getValues(), table.spec());
+        icebergPartitions.remove(partitionData);
+        String hiveTransientTime = hivePartition.getParameters().get("transient_lastDdlTime");
+        Map<String, String> properties = partitionProperties.get(partitionData);
+        String arcticTransientTime = properties != null ?
+            properties.get(HiveTableProperties.PARTITION_PROPERTIES_KEY_TRANSIENT_TIME) : null;
+        // compare hive partition parameter transient_lastDdlTime with arctic partition properties to
+        // find out if the partition is changed, and make sure new partition is not created by arctic.
+        if ((arcticTransientTime == null || !arcticTransientTime.equals(hiveTransientTime)) &&
+            (filesMap.containsKey(partitionData) ||
+                hivePartition.getParameters().get(HiveTableProperties.ARCTIC_TABLE_FLAG) == null)) {
+          changedPartitions.add(hivePartition);
+          changedPartitionData.add(partitionData);
         }
+      }
+    }
 
-        icebergPartitions.forEach(partition -> {
-          List<DataFile> dataFiles = Lists.newArrayList(filesMap.get(partition));
-          if (dataFiles.size() > 0) {
-            // make sure dropped partition with no files
-            if (!table.io().exists(dataFiles.get(0).path().toString())) {
-              filesToDelete.addAll(filesMap.get(partition));
-            }
-          }
+    List<List<DataFile>> hiveDataFiles = Lists.newArrayList();
+    changedPartitions.forEach(partition -> hiveDataFiles.add(null));
+    Tasks.range(changedPartitions.size())
+        .executeWith(ThreadPools.getWorkerPool())
+        .stopOnFailure()
+        .throwFailureWhenFinished()
+        .run(i -> {
+          Partition hivePartition = changedPartitions.get(i);
+          hiveDataFiles.set(i, listHivePartitionFiles(table,
+              buildPartitionValueMap(hivePartition.getValues(), table.spec()),
+              hivePartition.getSd().getLocation()));
         });
+
+    List<DataFile> filesToDelete = Lists.newArrayList();
+    List<DataFile> filesToAdd = Lists.newArrayList();
+    for (int i = 0; i < changedPartitions.size(); i++) {
+      Collection<DataFile> arcticFiles = filesMap.get(changedPartitionData.get(i));
+      if (arcticFiles != null) {
+        filesToDelete.addAll(arcticFiles);
+      }
+      filesToAdd.addAll(hiveDataFiles.get(i));
+      if (filesToDelete.size() + filesToAdd.size() >= commitMaxFiles) {
         overwriteTable(table, filesToDelete, filesToAdd);
+        filesToDelete = Lists.newArrayList();
+        filesToAdd = Lists.newArrayList();
+      }
+    }
+
+    for (StructLike partition : icebergPartitions) {
+      List<DataFile> dataFiles = Lists.newArrayList(filesMap.get(partition));
+      // make sure dropped partition with no files
+      if (dataFiles.size() > 0 && !table.io().exists(dataFiles.get(0).path().toString())) {
+        filesToDelete.addAll(dataFiles);
+        if (filesToDelete.size() + filesToAdd.size() >= commitMaxFiles) {
+          overwriteTable(table, filesToDelete, filesToAdd);
+          filesToDelete = Lists.newArrayList();
+          filesToAdd = Lists.newArrayList();
+        }
       }
-    } catch (TException | InterruptedException e) {
-      throw new RuntimeException("Failed to get hive table:" + table.id(), e);
     }
+    overwriteTable(table, filesToDelete, filesToAdd);
   }
 
   private static List<DataFile> listHivePartitionFiles(ArcticTable arcticTable, Map<String, String> partitionValueMap,
@@ -106,6 +106,46 @@ public class TestOverwriteFiles extends HiveTableTestBase {
     assertHivePartitionLocations(partitionAndLocations, table);
   }
 
+  @Test
+  public void testOverwriteInPartitionBatches() throws TException {
+    UnkeyedTable table = testHiveTable;
+    table.updateProperties()
+        .set(HiveTableProperties.HIVE_PARTITION_COMMIT_BATCH_SIZE, "1")
+        .set(HiveTableProperties.HIVE_PARTITION_COMMIT_THREADS, "2")
+        .commit();
+    Map<String, String> partitionAndLocations = Maps.newHashMap();
+
+    List<Map.Entry<String, String>> files = Lists.newArrayList(
+        Maps.immutableEntry("name=aaa", "/test_path/partition1/data-a1.parquet"),
+        Maps.immutableEntry("name=bbb", "/test_path/partition2/data-b1.parquet"),
+        Maps.immutableEntry("name=ccc", "/test_path/partition3/data-c1.parquet")
+    );
+    MockDataFileBuilder dataFileBuilder = new MockDataFileBuilder(table, hms.getClient());
+    List<DataFile> dataFiles = dataFileBuilder.buildList(files);
+
+    OverwriteFiles overwriteFiles = table.newOverwrite();
+    dataFiles.forEach(overwriteFiles::addFile);
+    overwriteFiles.commit();
+
+    applyOverwrite(partitionAndLocations, s -> false, files);
+    assertHivePartitionLocations(partitionAndLocations, table);
+
+    // ================== test drop and add partitions in batches
+    files = Lists.newArrayList(
+        Maps.immutableEntry("name=aaa", "/test_path/partition4/data-a2.parquet"),
+        Maps.immutableEntry("name=ddd", "/test_path/partition5/data-d1.parquet")
+    );
+    dataFiles = dataFileBuilder.buildList(files);
+    overwriteFiles = table.newOverwrite();
+    overwriteFiles.overwriteByRowFilter(Expressions.alwaysTrue());
+    dataFiles.forEach(overwriteFiles::addFile);
+    overwriteFiles.commit();
+
+    partitionAndLocations.clear();
+    applyOverwrite(partitionAndLocations, s -> false, files);
+    assertHivePartitionLocations(partitionAndLocations, table);
+  }
+
   @Test
   public void testOverwriteOperationTransaction() throws TException {
     UnkeyedTable table = testHiveTable;
@@ -162,6 +162,32 @@ public class HiveMetaSynchronizerTest extends HiveTableTestBase {
         listTableFiles(testHiveTable).stream().map(DataFile::path).collect(Collectors.toSet()));
   }
 
+  @Test
+  public void testSyncDataToHiveInCommitBatches() throws IOException, TException {
+    testHiveTable.updateProperties()
+        .set(HiveTableProperties.SYNC_HIVE_DATA_PARTITION_BATCH_SIZE, "1")
+        .set(HiveTableProperties.SYNC_HIVE_DATA_COMMIT_MAX_FILES, "1")
+        .commit();
+    Table hiveTable = hms.getClient().getTable(HIVE_TABLE_ID.getDatabase(), HIVE_TABLE_ID.getTableName());
+    List<DataFile> newFiles = writeDataFiles(testHiveTable, HiveLocationKind.INSTANT,
+        writeRecords("p1", "p2"));
+    Assert.assertEquals(2, newFiles.size());
+    for (DataFile newFile : newFiles) {
+      Partition newPartition = HivePartitionUtil.newPartition(hiveTable,
+          Lists.newArrayList(newFile.partition().get(0, String.class)),
+          FileUtil.getFileDir(newFile.path().toString()), Lists.newArrayList(newFile),
+          (int) (System.currentTimeMillis() / 1000));
+      newPartition.getParameters().remove(HiveTableProperties.ARCTIC_TABLE_FLAG);
+      hms.getClient().add_partition(newPartition);
+    }
+
+    HiveMetaSynchronizer.syncHiveDataToArctic(testHiveTable, new TestHMSClient());
+    // every partition is fetched and committed separately
+    Assert.assertEquals(2, Iterables.size(testHiveTable.snapshots()));
+    Assert.assertEquals(newFiles.stream().map(DataFile::path).collect(Collectors.toSet()),
+        listTableFiles(testHiveTable).stream().map(DataFile::path).collect(Collectors.toSet()));
+  }
+
   private List<DataFile> listTableFiles(UnkeyedTable table) {
     List<DataFile> dataFiles = Lists.newArrayList();
     table.newScan().planFiles().forEach(fileScanTask -> dataFiles.add(fileScanTask.file()));
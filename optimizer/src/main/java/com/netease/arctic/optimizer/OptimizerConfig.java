@@ -38,6 +38,10 @@ public class OptimizerConfig implements Serializable {
   private String optimizerId = "unknown";
   @Option(name = "-hb", aliases = "--heart-beat", usage = "heart beat interval (ms)")
   private long heartBeat = 10000; // 10 s
+  @Option(name = "-tp", aliases = "--task-parallel",
+      usage = "Max parallel sub tasks of one major or full optimize task, each sub task runs in its own thread " +
+          "and indexes the eq-delete files related to its data files on its own")
+  private int taskParallel = 1;
 
   public OptimizerConfig() {
   }
@@ -71,6 +75,14 @@ public class OptimizerConfig implements Serializable {
     this.executorParallel = executorParallel;
   }
 
+  public int getTaskParallel() {
+    return taskParallel;
+  }
+
+  public void setTaskParallel(int taskParallel) {
+    this.taskParallel = taskParallel;
+  }
+
   public int getQueueId() {
     return queueId;
   }
@@ -95,6 +107,7 @@ public class OptimizerConfig implements Serializable {
         ", queueId=" + queueId +
         ", optimizerId='" + optimizerId + '\'' +
         ", heartBeat=" + heartBeat +
+        ", taskParallel=" + taskParallel +
         '}';
   }
 }
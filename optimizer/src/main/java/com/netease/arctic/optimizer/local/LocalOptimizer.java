@@ -25,10 +25,10 @@ import com.netease.arctic.ams.api.properties.OptimizerProperties;
 import com.netease.arctic.optimizer.OptimizerConfig;
 import com.netease.arctic.optimizer.StatefulOptimizer;
 import com.netease.arctic.optimizer.TaskWrapper;
-import com.netease.arctic.optimizer.operator.BaseTaskConsumer;
 import com.netease.arctic.optimizer.operator.BaseTaskExecutor;
 import com.netease.arctic.optimizer.operator.BaseTaskReporter;
 import com.netease.arctic.optimizer.operator.BaseToucher;
+import com.netease.arctic.optimizer.operator.PrefetchTaskConsumer;
 import org.kohsuke.args4j.CmdLineException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,7 +42,6 @@ import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
@@ -55,14 +54,14 @@ public class LocalOptimizer implements StatefulOptimizer {
 
   private OptimizerConfig config;
 
-  private Semaphore pollTaskSemaphore;
-
-  private Consumer consumer;
+  private PrefetchTaskConsumer consumer;
 
   private Map<String, String> properties;
 
   private static final String STATE_JOB_ID = "local-job-id";
 
+  private static final long TAKE_TASK_TIMEOUT = 10000; // 10s
+
   private ExecutorService executeThreadPool;
 
   private ScheduledExecutorService toucherService;
@@ -159,8 +158,9 @@ public class LocalOptimizer implements StatefulOptimizer {
       throw new IllegalArgumentException("already init");
     }
     this.config = config;
-    this.consumer = new Consumer();
-    this.pollTaskSemaphore = new Semaphore(1);
+    // prefetch the next task while the executor executes one, so the executor doesn't wait for Ams between tasks
+    this.consumer = new PrefetchTaskConsumer(config, 1);
+    this.consumer.start();
 
     ThreadFactory executorFactory = new ThreadFactoryBuilder().setDaemon(false)
         .setNameFormat("Executor %d").build();
@@ -180,6 +180,10 @@ public class LocalOptimizer implements StatefulOptimizer {
     if (executeThreadPool != null) {
       executeThreadPool.shutdownNow();
     }
+    if (consumer != null) {
+      // return tasks prefetched but not started to Ams
+      consumer.close();
+    }
     if (toucherService != null) {
       toucherService.shutdownNow();
     }
@@ -195,51 +199,6 @@ public class LocalOptimizer implements StatefulOptimizer {
     this.properties = state;
   }
 
-  private class Consumer {
-
-    private final BaseTaskConsumer baseTaskConsumer;
-
-    public Consumer() {
-      this.baseTaskConsumer = new BaseTaskConsumer(config);
-    }
-
-    public TaskWrapper pollTask() throws InterruptedException {
-      int retry = 0;
-      while (!stopped) {
-        try {
-          TaskWrapper task = baseTaskConsumer.pollTask();
-          if (task != null) {
-            LOG.info("poll task {}", task);
-            return task;
-          } else {
-            LOG.info("poll no task");
-          }
-        } catch (Throwable e) {
-          if (stopped) {
-            break;
-          }
-          // The subscription is abnormal and cannot be restored, and a new consumer can be activated
-          LOG.error("failed to poll task, retry {}", retry, e);
-          retry++;
-        } finally {
-          if (retry >= 3) {
-            //stop = true;
-            retry = 0;
-            LOG.error("consumer has tried too many times, and the subscription message is suspended." +
-                " Please check for errors");
-            try {
-              Thread.sleep(10000);
-            } catch (InterruptedException e) {
-              LOG.warn("consumer interrupted");
-              throw e;
-            }
-          }
-        }
-      }
-      return null;
-    }
-  }
-
   private class Executor implements Runnable {
 
     private final BaseTaskExecutor baseTaskExecutor;
@@ -255,15 +214,9 @@ public class LocalOptimizer implements StatefulOptimizer {
     public void run() {
       while (!stopped) {
         try {
-          TaskWrapper task;
-          pollTaskSemaphore.acquire();
-          try {
-            task = consumer.pollTask();
-            if (task == null) {
-              continue;
-            }
-          } finally {
-            pollTaskSemaphore.release();
+          TaskWrapper task = consumer.take(TAKE_TASK_TIMEOUT, TimeUnit.MILLISECONDS);
+          if (task == null) {
+            continue;
           }
           LOG.info("get task to execute {}", task.getTask().getTaskId());
           OptimizeTaskStat result = baseTaskExecutor.execute(task);
@@ -296,7 +249,7 @@ public class LocalOptimizer implements StatefulOptimizer {
       String processId = runtimeMXBean.getName().split("@")[0];
       Map<String, String> state = new HashMap<>();
       state.put(STATE_JOB_ID, processId);
-      boolean success = toucher.touch(state);
+      boolean success = toucher.touch(state, consumer);
       LOG.info("touch {}", success ? "success" : "failed");
     }
   }
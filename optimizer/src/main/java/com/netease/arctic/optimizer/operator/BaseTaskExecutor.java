@@ -39,6 +39,7 @@ import com.netease.arctic.optimizer.operator.executor.NodeTask;
 import com.netease.arctic.optimizer.operator.executor.OptimizeTaskResult;
 import com.netease.arctic.optimizer.operator.executor.TableIdentificationInfo;
 import com.netease.arctic.table.ArcticTable;
+import com.netease.arctic.utils.ContentFileCodec;
 import com.netease.arctic.utils.SerializationUtil;
 import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.collections.CollectionUtils;
@@ -234,6 +235,10 @@ public class BaseTaskExecutor implements Serializable {
     nodeTask.setTableIdentifier(toTableIdentifier(task.getTableIdentifier()));
     nodeTask.setTaskId(task.getTaskId());
     nodeTask.setAttemptId(attemptId);
+    nodeTask.setCompactFiles(task.getBaseFiles().stream().anyMatch(ContentFileCodec::isEncoded) ||
+        task.getInsertFiles().stream().anyMatch(ContentFileCodec::isEncoded) ||
+        task.getDeleteFiles().stream().anyMatch(ContentFileCodec::isEncoded) ||
+        task.getPosDeleteFiles().stream().anyMatch(ContentFileCodec::isEncoded));
 
     for (ByteBuffer file : task.getBaseFiles()) {
       nodeTask.addFile(SerializationUtil.toInternalTableFile(file), DataFileType.BASE_FILE);
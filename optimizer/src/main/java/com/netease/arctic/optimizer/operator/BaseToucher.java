@@ -18,15 +18,21 @@
 
 package com.netease.arctic.optimizer.operator;
 
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
 import com.netease.arctic.ams.api.OptimizeManager;
+import com.netease.arctic.ams.api.OptimizeTask;
 import com.netease.arctic.ams.api.OptimizerStateReport;
 import com.netease.arctic.ams.api.client.OptimizeManagerClientPools;
+import com.netease.arctic.ams.api.properties.OptimizerProperties;
 import com.netease.arctic.optimizer.OptimizerConfig;
+import com.netease.arctic.optimizer.TaskWrapper;
 import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -72,4 +78,40 @@ public class BaseToucher implements Serializable {
       return false;
     }
   }
+
+  /**
+   * Report state, with optimizerId and tasks leased by the consumer, leases are renewed if success.
+   * @param state -
+   * @param consumer - consumer holding leased tasks
+   * @return true if success
+   */
+  public boolean touch(Map<String, String> state, PrefetchTaskConsumer consumer) {
+    long renewTime = System.currentTimeMillis();
+    List<TaskWrapper> leasedTasks = consumer.leasedTasks();
+    Map<String, String> stateWithLeases = state == null ? Maps.newHashMap() : Maps.newHashMap(state);
+    if (!leasedTasks.isEmpty()) {
+      stateWithLeases.put(OptimizerProperties.OPTIMIZER_LEASED_TASKS, leasedTasksToJson(leasedTasks));
+    }
+    boolean success = touch(stateWithLeases);
+    if (success) {
+      consumer.renewLeases(leasedTasks, renewTime);
+    }
+    return success;
+  }
+
+  private static String leasedTasksToJson(List<TaskWrapper> leasedTasks) {
+    JSONArray tasks = new JSONArray();
+    for (TaskWrapper leasedTask : leasedTasks) {
+      OptimizeTask task = leasedTask.getTask();
+      JSONObject json = new JSONObject();
+      json.put(OptimizerProperties.LEASED_TASK_CATALOG, task.getTableIdentifier().getCatalog());
+      json.put(OptimizerProperties.LEASED_TASK_DATABASE, task.getTableIdentifier().getDatabase());
+      json.put(OptimizerProperties.LEASED_TASK_TABLE, task.getTableIdentifier().getTableName());
+      json.put(OptimizerProperties.LEASED_TASK_TYPE, task.getTaskId().getType().name());
+      json.put(OptimizerProperties.LEASED_TASK_TRACE_ID, task.getTaskId().getTraceId());
+      json.put(OptimizerProperties.LEASED_TASK_ATTEMPT_ID, leasedTask.getAttemptId() + "");
+      tasks.add(json);
+    }
+    return tasks.toJSONString();
+  }
 }
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.optimizer.operator;
+
+import com.netease.arctic.ams.api.JobId;
+import com.netease.arctic.ams.api.JobType;
+import com.netease.arctic.ams.api.OptimizeStatus;
+import com.netease.arctic.ams.api.OptimizeTaskStat;
+import com.netease.arctic.optimizer.OptimizerConfig;
+import com.netease.arctic.optimizer.TaskWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prefetch tasks from Ams into a bounded buffer, so executors take their next task without waiting for Ams.
+ * <p>
+ * Tasks in the buffer are leased to the optimizer until they are taken, leases are renewed by heartbeats of
+ * {@link BaseToucher#touch(Map, PrefetchTaskConsumer)}. A task whose lease expires in the buffer is returned to Ams
+ * instead of being executed, and tasks left in the buffer are returned to Ams on close. Ams is reported when a task is
+ * taken, since Ams accounts leased tasks as executing only after they are taken.
+ */
+public class PrefetchTaskConsumer implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(PrefetchTaskConsumer.class);
+
+  // shorter than the execute timeout of Ams, so a task is never executed after Ams gives it up
+  private static final long LEASE_TIMEOUT = 3600_000; // 1 hour
+  private static final long CLOSE_WAIT_TIMEOUT = 15000; // 15s, longer than a poll of BaseTaskConsumer
+
+  private final OptimizerConfig config;
+  private final BaseTaskConsumer consumer;
+  private final BaseTaskReporter reporter;
+  private final BlockingQueue<TaskWrapper> buffer = new LinkedBlockingQueue<>();
+  // task -> lease expire time, tasks are compared by identity
+  private final Map<TaskWrapper, Long> leases = new ConcurrentHashMap<>();
+  private final Semaphore slots;
+  private final long leaseTimeout;
+  private final Thread prefetcher;
+  private volatile boolean stopped = false;
+
+  public PrefetchTaskConsumer(OptimizerConfig config, int capacity) {
+    this(config, new BaseTaskConsumer(config), new BaseTaskReporter(config), capacity);
+  }
+
+  public PrefetchTaskConsumer(OptimizerConfig config, BaseTaskConsumer consumer, BaseTaskReporter reporter,
+                              int capacity) {
+    this(config, consumer, reporter, capacity, LEASE_TIMEOUT);
+  }
+
+  PrefetchTaskConsumer(OptimizerConfig config, BaseTaskConsumer consumer, BaseTaskReporter reporter,
+                       int capacity, long leaseTimeout) {
+    this.config = config;
+    this.consumer = consumer;
+    this.reporter = reporter;
+    this.slots = new Semaphore(Math.max(1, capacity));
+    this.leaseTimeout = leaseTimeout;
+    this.prefetcher = new Thread(this::prefetch, "Prefetcher");
+    this.prefetcher.setDaemon(true);
+  }
+
+  public void start() {
+    prefetcher.start();
+  }
+
+  /**
+   * Take a prefetched task, and report Ams the task is started.
+   *
+   * @return - return null if got no task before timeout
+   */
+  public TaskWrapper take(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+    while (!stopped) {
+      TaskWrapper task = buffer.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+      if (task == null) {
+        return null;
+      }
+      slots.release();
+      Long leaseExpireTime = leases.remove(task);
+      if (leaseExpireTime != null && leaseExpireTime < System.currentTimeMillis()) {
+        LOG.warn("lease of prefetched task {} expired, return it", task.getTask().getTaskId());
+        returnTask(task);
+        continue;
+      }
+      if (!report(task, OptimizeStatus.Executing)) {
+        LOG.warn("failed to report start of task {}", task.getTask().getTaskId());
+      }
+      return task;
+    }
+    return null;
+  }
+
+  /**
+   * Tasks prefetched and not taken yet.
+   */
+  public List<TaskWrapper> leasedTasks() {
+    return new ArrayList<>(buffer);
+  }
+
+  /**
+   * Renew leases of tasks, after they are reported to Ams.
+   *
+   * @param tasks - tasks reported
+   * @param renewTime - time before the report
+   */
+  public void renewLeases(Collection<TaskWrapper> tasks, long renewTime) {
+    for (TaskWrapper task : tasks) {
+      leases.computeIfPresent(task, (t, expireTime) -> Math.max(expireTime, renewTime + leaseTimeout));
+    }
+  }
+
+  /**
+   * Stop prefetching and return tasks not taken to Ams.
+   */
+  @Override
+  public void close() {
+    stopped = true;
+    prefetcher.interrupt();
+    try {
+      prefetcher.join(CLOSE_WAIT_TIMEOUT);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    List<TaskWrapper> tasks = new ArrayList<>();
+    buffer.drainTo(tasks);
+    tasks.forEach(this::returnTask);
+    leases.clear();
+    LOG.info("prefetcher closed, return {} tasks", tasks.size());
+  }
+
+  private void prefetch() {
+    int retry = 0;
+    while (!stopped) {
+      try {
+        slots.acquire();
+      } catch (InterruptedException e) {
+        break;
+      }
+      TaskWrapper task = null;
+      try {
+        long pollTime = System.currentTimeMillis();
+        task = consumer.pollTask();
+        if (task != null) {
+          LOG.info("prefetch task {}", task);
+          leases.put(task, pollTime + leaseTimeout);
+          buffer.add(task);
+        } else {
+          LOG.info("poll no task");
+        }
+      } catch (Throwable t) {
+        if (stopped) {
+          break;
+        }
+        LOG.error("failed to poll task, retry {}", retry, t);
+        retry++;
+      } finally {
+        if (task == null) {
+          slots.release();
+        }
+      }
+      if (retry >= 3) {
+        retry = 0;
+        LOG.error("prefetcher has tried too many times, and the subscription message is suspended." +
+            " Please check for errors");
+        try {
+          Thread.sleep(10000);
+        } catch (InterruptedException e) {
+          break;
+        }
+      }
+    }
+    LOG.info("prefetch thread exit");
+  }
+
+  private void returnTask(TaskWrapper task) {
+    // Ams takes a task reported as Init back into its queue, without counting a retry
+    if (!report(task, OptimizeStatus.Init)) {
+      LOG.warn("failed to return task {}, it will be given up by Ams after timeout", task.getTask().getTaskId());
+    }
+  }
+
+  private boolean report(TaskWrapper task, OptimizeStatus status) {
+    OptimizeTaskStat optimizeTaskStat = new OptimizeTaskStat();
+    JobId jobId = new JobId();
+    jobId.setId(config.getOptimizerId());
+    jobId.setType(JobType.Optimize);
+    optimizeTaskStat.setJobId(jobId);
+    optimizeTaskStat.setStatus(status);
+    optimizeTaskStat.setTableIdentifier(task.getTask().getTableIdentifier());
+    optimizeTaskStat.setAttemptId(task.getAttemptId() + "");
+    optimizeTaskStat.setTaskId(task.getTask().getTaskId());
+    optimizeTaskStat.setReportTime(System.currentTimeMillis());
+    try {
+      return reporter.report(optimizeTaskStat, 3, 1000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
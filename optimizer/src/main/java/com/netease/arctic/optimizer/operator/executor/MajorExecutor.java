@@ -28,6 +28,7 @@ import com.netease.arctic.data.DataTreeNode;
 import com.netease.arctic.data.DefaultKeyedFile;
 import com.netease.arctic.hive.io.reader.AdaptHiveGenericArcticDataReader;
 import com.netease.arctic.hive.io.writer.AdaptHiveGenericTaskWriterBuilder;
+import com.netease.arctic.hive.utils.HiveTableUtil;
 import com.netease.arctic.optimizer.OptimizerConfig;
 import com.netease.arctic.scan.ArcticFileScanTask;
 import com.netease.arctic.scan.BaseArcticFileScanTask;
@@ -36,6 +37,7 @@ import com.netease.arctic.scan.NodeFileScanTask;
 import com.netease.arctic.table.ArcticTable;
 import com.netease.arctic.table.KeyedTable;
 import com.netease.arctic.table.PrimaryKeySpec;
+import com.netease.arctic.table.TableProperties;
 import com.netease.arctic.table.WriteOperationKind;
 import com.netease.arctic.utils.SerializationUtil;
 import org.apache.commons.beanutils.BeanUtils;
@@ -47,15 +49,24 @@ import org.apache.iceberg.data.IdentityPartitionConverters;
 import org.apache.iceberg.data.Record;
 import org.apache.iceberg.io.CloseableIterator;
 import org.apache.iceberg.io.TaskWriter;
+import org.apache.iceberg.relocated.com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.iceberg.util.PropertyUtil;
+import org.apache.iceberg.util.Tasks;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 public class MajorExecutor extends BaseExecutor<DataFile> {
@@ -79,17 +90,20 @@ public class MajorExecutor extends BaseExecutor<DataFile> {
     LOG.info("start process major optimize task: {}", task);
 
     Map<DataTreeNode, List<DeleteFile>> deleteFileMap = groupDeleteFilesByNode(task.posDeleteFiles());
-    List<DataFile> dataFiles = task.dataFiles();
-    dataFiles.addAll(task.deleteFiles());
-    CloseableIterator<Record> recordIterator =
-        openTask(dataFiles, deleteFileMap, table.schema(), task.getSourceNodes());
-    targetFiles = optimizeTable(recordIterator);
+    List<List<DataFile>> subTasks = splitTask(task.dataFiles(), task.deleteFiles());
+    // files of a partition written into hive location by all sub tasks must be in the same directory
+    String hiveSubdirectory = HiveTableUtil.getRandomSubDir();
+    if (subTasks.size() > 1) {
+      targetFiles = optimizeInParallel(subTasks, deleteFileMap, hiveSubdirectory);
+    } else {
+      targetFiles = optimizeTable(subTasks.get(0), deleteFileMap, 0, hiveSubdirectory);
+    }
 
     long totalFileSize = 0;
     List<ByteBuffer> baseFileBytesList = new ArrayList<>();
     for (DataFile baseFile : targetFiles) {
       totalFileSize += baseFile.fileSizeInBytes();
-      baseFileBytesList.add(SerializationUtil.toByteBuffer(baseFile));
+      baseFileBytesList.add(SerializationUtil.toByteBuffer(baseFile, task.isCompactFiles()));
     }
 
     OptimizeTaskStat optimizeTaskStat = new OptimizeTaskStat();
@@ -118,28 +132,132 @@ public class MajorExecutor extends BaseExecutor<DataFile> {
   public void close() {
   }
 
-  private Iterable<DataFile> optimizeTable(CloseableIterator<Record> recordIterator) throws Exception {
+  /**
+   * Split data files of the task into sub tasks, which are optimized in parallel and write their own files.
+   * There is at most one sub task for each target file size of data files, so sub tasks don't write many small
+   * files. Files of a node are kept in one sub task if there are enough nodes, and each sub task reads
+   * the eq-delete files of nodes related to its data files, as a record is only deleted by records of a related node.
+   * <p>
+   * If there are fewer nodes than sub tasks, files of a node are spread over sub tasks, and each of them indexes all
+   * eq-delete files of the node on its own, so memory of eq-delete indexes grows with the number of sub tasks.
+   *
+   * @return sub tasks, one if the task is not split
+   */
+  private List<List<DataFile>> splitTask(List<DataFile> dataFiles, List<DataFile> eqDeleteFiles) {
+    long totalSize = dataFiles.stream().mapToLong(DataFile::fileSizeInBytes).sum();
+    long targetSize = PropertyUtil.propertyAsLong(table.properties(), TableProperties.WRITE_TARGET_FILE_SIZE_BYTES,
+        TableProperties.WRITE_TARGET_FILE_SIZE_BYTES_DEFAULT);
+    int parallelism = (int) Math.min(config.getTaskParallel(), totalSize / Math.max(1, targetSize));
+    if (parallelism <= 1) {
+      List<DataFile> files = new ArrayList<>(dataFiles);
+      files.addAll(eqDeleteFiles);
+      return Collections.singletonList(files);
+    }
+
+    Map<DataTreeNode, List<DataFile>> filesByNode = dataFiles.stream()
+        .collect(Collectors.groupingBy(file -> new DefaultKeyedFile(file).node()));
+    List<List<DataFile>> units = new ArrayList<>();
+    if (filesByNode.size() >= parallelism) {
+      units.addAll(filesByNode.values());
+    } else {
+      dataFiles.forEach(file -> units.add(Collections.singletonList(file)));
+    }
+    Map<List<DataFile>, Long> unitSizes = new IdentityHashMap<>();
+    units.forEach(unit -> unitSizes.put(unit, sizeOf(unit)));
+    units.sort(Comparator.comparingLong((List<DataFile> unit) -> unitSizes.get(unit)).reversed());
+
+    // assign the largest unit to the least loaded sub task
+    List<List<DataFile>> subTasks = new ArrayList<>();
+    long[] loads = new long[parallelism];
+    PriorityQueue<Integer> leastLoaded = new PriorityQueue<>(Comparator.comparingLong(i -> loads[i]));
+    for (int i = 0; i < parallelism; i++) {
+      subTasks.add(new ArrayList<>());
+      leastLoaded.add(i);
+    }
+    for (List<DataFile> unit : units) {
+      int subTask = leastLoaded.poll();
+      subTasks.get(subTask).addAll(unit);
+      loads[subTask] += unitSizes.get(unit);
+      leastLoaded.add(subTask);
+    }
+    subTasks.removeIf(List::isEmpty);
+
+    for (List<DataFile> subTask : subTasks) {
+      Set<DataTreeNode> nodes = subTask.stream().map(file -> new DefaultKeyedFile(file).node())
+          .collect(Collectors.toSet());
+      eqDeleteFiles.stream()
+          .filter(deleteFile -> {
+            DataTreeNode deleteNode = new DefaultKeyedFile(deleteFile).node();
+            return nodes.stream().anyMatch(node -> node.isSonOf(deleteNode) || deleteNode.isSonOf(node));
+          })
+          .forEach(subTask::add);
+    }
+    LOG.info("task {} split into {} sub tasks, total data file size {}", task.getTaskId(), subTasks.size(),
+        totalSize);
+    return subTasks;
+  }
+
+  private Iterable<DataFile> optimizeInParallel(List<List<DataFile>> subTasks,
+                                                Map<DataTreeNode, List<DeleteFile>> deleteFileMap,
+                                                String hiveSubdirectory) throws Exception {
+    List<List<DataFile>> targetFiles = new ArrayList<>(Collections.nCopies(subTasks.size(), null));
+    ExecutorService executor = Executors.newFixedThreadPool(subTasks.size(),
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("major-optimize-" + task.getTaskId().getTraceId() +
+            "-%d").build());
+    try {
+      Tasks.range(subTasks.size())
+          .executeWith(executor)
+          .stopOnFailure()
+          .throwFailureWhenFinished()
+          .revertWith(i -> targetFiles.get(i).forEach(file -> table.io().deleteFile(file.path().toString())))
+          .run(i -> targetFiles.set(i, optimizeTable(subTasks.get(i), deleteFileMap, i, hiveSubdirectory)),
+              Exception.class);
+    } finally {
+      executor.shutdownNow();
+    }
+    return targetFiles.stream().flatMap(List::stream).collect(Collectors.toList());
+  }
+
+  private List<DataFile> optimizeTable(List<DataFile> dataFiles, Map<DataTreeNode, List<DeleteFile>> deleteFileMap,
+                                       int subTask, String hiveSubdirectory) throws Exception {
+    // sub tasks write files with their own partition id, so their file names never conflict
     TaskWriter<Record> writer = AdaptHiveGenericTaskWriterBuilder.builderFor(table)
         .withTransactionId(getMaxTransactionId(task.dataFiles()))
+        .withPartitionId(subTask)
         .withTaskId(task.getAttemptId())
+        .withHiveSubdirectory(hiveSubdirectory)
         .buildWriter(task.getOptimizeType() == OptimizeType.Major ?
             WriteOperationKind.MAJOR_OPTIMIZE : WriteOperationKind.FULL_OPTIMIZE);
     long insertCount = 0;
-    while (recordIterator.hasNext()) {
-      Record baseRecord = recordIterator.next();
-      writer.write(baseRecord);
-      insertCount++;
-      if (insertCount == 1 || insertCount == 100000) {
-        LOG.info("task {} insert records number {} and data sampling {}",
-            task.getTaskId(), insertCount, baseRecord);
+    try (CloseableIterator<Record> recordIterator =
+             openTask(dataFiles, deleteFileMap, table.schema(), task.getSourceNodes())) {
+      while (recordIterator.hasNext()) {
+        Record baseRecord = recordIterator.next();
+        writer.write(baseRecord);
+        insertCount++;
+        if (insertCount == 1 || insertCount == 100000) {
+          LOG.info("task {} sub task {} insert records number {} and data sampling {}",
+              task.getTaskId(), subTask, insertCount, baseRecord);
+        }
+      }
+    } catch (Exception e) {
+      try {
+        writer.abort();
+      } catch (Exception abortException) {
+        e.addSuppressed(abortException);
       }
+      throw e;
     }
 
-    LOG.info("task {} insert records number {}", task.getTaskId(), insertCount);
+    LOG.info("task {} sub task {} insert records number {}", task.getTaskId(), subTask, insertCount);
 
     return Arrays.asList(writer.complete().dataFiles());
   }
 
+  private static long sizeOf(List<DataFile> files) {
+    return files.stream().mapToLong(DataFile::fileSizeInBytes).sum();
+  }
+
   private CloseableIterator<Record> openTask(List<DataFile> dataFiles,
                                              Map<DataTreeNode, List<DeleteFile>> deleteFileMap,
                                              Schema requiredSchema, Set<DataTreeNode> sourceNodes) {
@@ -156,6 +274,7 @@ public class MajorExecutor extends BaseExecutor<DataFile> {
     AdaptHiveGenericArcticDataReader arcticDataReader =
         new AdaptHiveGenericArcticDataReader(table.io(), table.schema(), requiredSchema, primaryKeySpec,
             null, false, IdentityPartitionConverters::convertConstant, sourceNodes, false);
+    arcticDataReader.setTableProperties(table.properties());
 
     List<ArcticFileScanTask> fileScanTasks = dataFiles.stream()
         .map(file -> {
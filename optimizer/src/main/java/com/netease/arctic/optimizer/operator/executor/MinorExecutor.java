@@ -26,12 +26,12 @@ import com.netease.arctic.data.DataTreeNode;
 import com.netease.arctic.data.DefaultKeyedFile;
 import com.netease.arctic.hive.io.reader.AdaptHiveGenericArcticDataReader;
 import com.netease.arctic.hive.io.writer.AdaptHiveGenericTaskWriterBuilder;
+import com.netease.arctic.io.reader.ArcticDeleteFilter;
 import com.netease.arctic.io.reader.BaseIcebergPosDeleteReader;
 import com.netease.arctic.io.writer.SortedPosDeleteWriter;
 import com.netease.arctic.optimizer.OptimizerConfig;
 import com.netease.arctic.scan.ArcticFileScanTask;
 import com.netease.arctic.scan.BaseArcticFileScanTask;
-import com.netease.arctic.scan.KeyedTableScanTask;
 import com.netease.arctic.scan.NodeFileScanTask;
 import com.netease.arctic.table.ArcticTable;
 import com.netease.arctic.table.KeyedTable;
@@ -53,6 +53,8 @@ import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -85,46 +87,73 @@ public class MinorExecutor extends BaseExecutor<DeleteFile> {
     long insertCount = 0;
     Schema requiredSchema = new Schema(MetadataColumns.FILE_PATH, MetadataColumns.ROW_POSITION);
     Types.StructType recordStruct = requiredSchema.asStruct();
+    Map<DataTreeNode, List<ArcticFileScanTask>> nodeDataTasks = new HashMap<>();
+    List<ArcticFileScanTask> allTasks = new ArrayList<>();
     for (Map.Entry<DataTreeNode, List<DataFile>> nodeFileEntry : dataFileMap.entrySet()) {
-      DataTreeNode treeNode = nodeFileEntry.getKey();
-      List<DataFile> dataFiles = nodeFileEntry.getValue();
-      dataFiles.addAll(task.deleteFiles());
-      List<DeleteFile> posDeleteList = deleteFileMap.get(treeNode);
-      CloseableIterator<Record> iterator =
-          openTask(dataFiles, posDeleteList, requiredSchema, task.getSourceNodes());
-
-      SortedPosDeleteWriter<Record> posDeleteWriter = AdaptHiveGenericTaskWriterBuilder.builderFor(keyedTable)
-          .withTransactionId(getMaxTransactionId(dataFiles))
-          .withTaskId(task.getAttemptId())
-          .buildBasePosDeleteWriter(treeNode.mask(), treeNode.index(), task.getPartition());
-      while (iterator.hasNext()) {
-        Record record = iterator.next();
-        String filePath = (String) record.get(recordStruct.fields()
-            .indexOf(recordStruct.field(MetadataColumns.FILE_PATH.name())));
-        Long rowPosition = (Long) record.get(recordStruct.fields()
-            .indexOf(recordStruct.field(MetadataColumns.ROW_POSITION.name())));
-        posDeleteWriter.delete(filePath, rowPosition);
-        insertCount++;
-        if (insertCount == 1 || insertCount == 100000) {
-          LOG.info("task {} insert records number {} and data sampling path:{}, pos:{}",
-              task.getTaskId(), insertCount, "", 0);
-        }
-      }
+      List<DeleteFile> posDeleteList = deleteFileMap.get(nodeFileEntry.getKey());
+      List<ArcticFileScanTask> dataTasks = nodeFileEntry.getValue().stream()
+          .map(file -> new BaseArcticFileScanTask(new DefaultKeyedFile(file), posDeleteList, table.spec()))
+          .collect(Collectors.toList());
+      nodeDataTasks.put(nodeFileEntry.getKey(), dataTasks);
+      allTasks.addAll(dataTasks);
+    }
+    task.deleteFiles().forEach(file ->
+        allTasks.add(new BaseArcticFileScanTask(new DefaultKeyedFile(file), null, table.spec())));
 
-      // rewrite pos-delete content
-      if (CollectionUtils.isNotEmpty(posDeleteList)) {
-        BaseIcebergPosDeleteReader posDeleteReader = new BaseIcebergPosDeleteReader(table.io(), posDeleteList);
-        CloseableIterable<Record> posDeleteIterable = posDeleteReader.readDeletes();
-        CloseableIterator<Record> posDeleteIterator = table.io().doAs(posDeleteIterable::iterator);
-        while (posDeleteIterator.hasNext()) {
-          Record record = posDeleteIterator.next();
-          String filePath = posDeleteReader.readPath(record);
-          Long rowPosition = posDeleteReader.readPos(record);
+    // equality deletes of the task are read and indexed once, keeping only deletes of nodes with data files,
+    // and probed by data files of all nodes
+    AdaptHiveGenericArcticDataReader arcticDataReader =
+        newDataReader(requiredSchema, new HashSet<>(dataFileMap.keySet()));
+    NodeFileScanTask taskWithAllNodes = new NodeFileScanTask(allTasks);
+    ArcticDeleteFilter<Record> deleteFilter = taskWithAllNodes.arcticEquityDeletes().isEmpty() ? null :
+        arcticDataReader.createDeleteFilter(taskWithAllNodes);
+    try {
+      for (Map.Entry<DataTreeNode, List<DataFile>> nodeFileEntry : dataFileMap.entrySet()) {
+        DataTreeNode treeNode = nodeFileEntry.getKey();
+        List<DataFile> dataFiles = nodeFileEntry.getValue();
+        dataFiles.addAll(task.deleteFiles());
+        List<DeleteFile> posDeleteList = deleteFileMap.get(treeNode);
+        CloseableIterator<Record> iterator = deleteFilter == null ? CloseableIterator.empty() :
+            arcticDataReader.readDeletedData(nodeDataTasks.get(treeNode), deleteFilter);
+
+        SortedPosDeleteWriter<Record> posDeleteWriter = AdaptHiveGenericTaskWriterBuilder.builderFor(keyedTable)
+            .withTransactionId(getMaxTransactionId(dataFiles))
+            .withTaskId(task.getAttemptId())
+            .buildBasePosDeleteWriter(treeNode.mask(), treeNode.index(), task.getPartition());
+        while (iterator.hasNext()) {
+          Record record = iterator.next();
+          String filePath = (String) record.get(recordStruct.fields()
+              .indexOf(recordStruct.field(MetadataColumns.FILE_PATH.name())));
+          Long rowPosition = (Long) record.get(recordStruct.fields()
+              .indexOf(recordStruct.field(MetadataColumns.ROW_POSITION.name())));
           posDeleteWriter.delete(filePath, rowPosition);
+          insertCount++;
+          if (insertCount == 1 || insertCount == 100000) {
+            LOG.info("task {} insert records number {} and data sampling path:{}, pos:{}",
+                task.getTaskId(), insertCount, "", 0);
+          }
+        }
+        iterator.close();
+
+        // rewrite pos-delete content
+        if (CollectionUtils.isNotEmpty(posDeleteList)) {
+          BaseIcebergPosDeleteReader posDeleteReader = new BaseIcebergPosDeleteReader(table.io(), posDeleteList);
+          CloseableIterable<Record> posDeleteIterable = posDeleteReader.readDeletes();
+          CloseableIterator<Record> posDeleteIterator = table.io().doAs(posDeleteIterable::iterator);
+          while (posDeleteIterator.hasNext()) {
+            Record record = posDeleteIterator.next();
+            String filePath = posDeleteReader.readPath(record);
+            Long rowPosition = posDeleteReader.readPos(record);
+            posDeleteWriter.delete(filePath, rowPosition);
+          }
         }
-      }
 
-      targetFiles.addAll(posDeleteWriter.complete());
+        targetFiles.addAll(posDeleteWriter.complete());
+      }
+    } finally {
+      if (deleteFilter != null) {
+        deleteFilter.close();
+      }
     }
     LOG.info("task {} insert records number {}", task.getTaskId(), insertCount);
 
@@ -132,7 +161,7 @@ public class MinorExecutor extends BaseExecutor<DeleteFile> {
     List<ByteBuffer> deleteFileBytesList = new ArrayList<>();
     for (DeleteFile deleteFile : targetFiles) {
       totalFileSize += deleteFile.fileSizeInBytes();
-      deleteFileBytesList.add(SerializationUtil.toByteBuffer(deleteFile));
+      deleteFileBytesList.add(SerializationUtil.toByteBuffer(deleteFile, task.isCompactFiles()));
     }
 
     OptimizeTaskStat optimizeTaskStat = new OptimizeTaskStat();
@@ -164,16 +193,7 @@ public class MinorExecutor extends BaseExecutor<DeleteFile> {
 
   }
 
-  private CloseableIterator<Record> openTask(List<DataFile> dataFiles, List<DeleteFile> posDeleteList,
-                                             Schema requiredSchema, Set<DataTreeNode> sourceNodes) {
-    if (CollectionUtils.isEmpty(dataFiles)) {
-      return CloseableIterator.empty();
-    }
-
-    List<ArcticFileScanTask> fileScanTasks = dataFiles.stream()
-        .map(file -> new BaseArcticFileScanTask(new DefaultKeyedFile(file), posDeleteList, table.spec()))
-        .collect(Collectors.toList());
-
+  private AdaptHiveGenericArcticDataReader newDataReader(Schema requiredSchema, Set<DataTreeNode> sourceNodes) {
     PrimaryKeySpec primaryKeySpec = PrimaryKeySpec.noPrimaryKey();
     if (table.isKeyedTable()) {
       KeyedTable keyedTable = table.asKeyedTable();
@@ -182,8 +202,7 @@ public class MinorExecutor extends BaseExecutor<DeleteFile> {
     AdaptHiveGenericArcticDataReader arcticDataReader =
         new AdaptHiveGenericArcticDataReader(table.io(), table.schema(), requiredSchema,
             primaryKeySpec, null, false, IdentityPartitionConverters::convertConstant, sourceNodes, false);
-
-    KeyedTableScanTask keyedTableScanTask = new NodeFileScanTask(fileScanTasks);
-    return arcticDataReader.readDeletedData(keyedTableScanTask);
+    arcticDataReader.setTableProperties(table.properties());
+    return arcticDataReader;
   }
 }
\ No newline at end of file
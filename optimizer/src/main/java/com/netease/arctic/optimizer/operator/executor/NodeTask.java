@@ -49,6 +49,8 @@ public class NodeTask {
   private OptimizeTaskId taskId;
   private TableIdentifier tableIdentifier;
   private int attemptId;
+  // files of the task are encoded by the compact codec, so ams reads result files encoded compact
+  private boolean compactFiles;
 
   public NodeTask() {
   }
@@ -150,6 +152,14 @@ public class NodeTask {
     this.attemptId = attemptId;
   }
 
+  public boolean isCompactFiles() {
+    return compactFiles;
+  }
+
+  public void setCompactFiles(boolean compactFiles) {
+    this.compactFiles = compactFiles;
+  }
+
   public OptimizeType getOptimizeType() {
     return taskId.getType();
   }
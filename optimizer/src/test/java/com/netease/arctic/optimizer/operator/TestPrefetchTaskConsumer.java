@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.optimizer.operator;
+
+import com.netease.arctic.ams.api.OptimizeStatus;
+import com.netease.arctic.ams.api.OptimizeTask;
+import com.netease.arctic.ams.api.OptimizeTaskId;
+import com.netease.arctic.ams.api.OptimizeTaskStat;
+import com.netease.arctic.ams.api.OptimizeType;
+import com.netease.arctic.optimizer.OptimizerConfig;
+import com.netease.arctic.optimizer.TaskWrapper;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+public class TestPrefetchTaskConsumer {
+  private OptimizerConfig config;
+  private QueuedConsumer consumer;
+  private RecordingReporter reporter;
+
+  @Before
+  public void setUp() {
+    config = new OptimizerConfig();
+    config.setOptimizerId("UnitTest");
+    consumer = new QueuedConsumer(config);
+    reporter = new RecordingReporter(config);
+  }
+
+  @Test
+  public void testPrefetchUpToCapacity() throws Exception {
+    TaskWrapper task1 = consumer.add();
+    TaskWrapper task2 = consumer.add();
+    TaskWrapper task3 = consumer.add();
+    try (PrefetchTaskConsumer prefetcher = new PrefetchTaskConsumer(config, consumer, reporter, 2)) {
+      prefetcher.start();
+      waitUntil(() -> prefetcher.leasedTasks().size() == 2);
+      Thread.sleep(300);
+      Assert.assertEquals(2, prefetcher.leasedTasks().size());
+      Assert.assertEquals(Collections.singletonList(task3), new ArrayList<>(consumer.tasks));
+
+      Assert.assertSame(task1, prefetcher.take(1, TimeUnit.SECONDS));
+      assertReported(task1, OptimizeStatus.Executing);
+      waitUntil(() -> consumer.tasks.isEmpty());
+      waitUntil(() -> prefetcher.leasedTasks().size() == 2);
+
+      Assert.assertSame(task2, prefetcher.take(1, TimeUnit.SECONDS));
+      Assert.assertSame(task3, prefetcher.take(1, TimeUnit.SECONDS));
+      Assert.assertNull(prefetcher.take(300, TimeUnit.MILLISECONDS));
+    }
+  }
+
+  @Test
+  public void testReturnExpiredTask() throws Exception {
+    TaskWrapper task = consumer.add();
+    try (PrefetchTaskConsumer prefetcher = new PrefetchTaskConsumer(config, consumer, reporter, 1, 100)) {
+      prefetcher.start();
+      waitUntil(() -> prefetcher.leasedTasks().size() == 1);
+      Thread.sleep(200);
+
+      Assert.assertNull(prefetcher.take(300, TimeUnit.MILLISECONDS));
+      Assert.assertEquals(1, reporter.stats.size());
+      assertReported(task, OptimizeStatus.Init);
+    }
+  }
+
+  @Test
+  public void testRenewLease() throws Exception {
+    TaskWrapper task = consumer.add();
+    try (PrefetchTaskConsumer prefetcher = new PrefetchTaskConsumer(config, consumer, reporter, 1, 200)) {
+      prefetcher.start();
+      waitUntil(() -> prefetcher.leasedTasks().size() == 1);
+      for (int i = 0; i < 8; i++) {
+        prefetcher.renewLeases(prefetcher.leasedTasks(), System.currentTimeMillis());
+        Thread.sleep(50);
+      }
+
+      Assert.assertSame(task, prefetcher.take(1, TimeUnit.SECONDS));
+      Assert.assertEquals(1, reporter.stats.size());
+      assertReported(task, OptimizeStatus.Executing);
+    }
+  }
+
+  @Test
+  public void testReturnTasksOnClose() throws Exception {
+    TaskWrapper task1 = consumer.add();
+    TaskWrapper task2 = consumer.add();
+    PrefetchTaskConsumer prefetcher = new PrefetchTaskConsumer(config, consumer, reporter, 2);
+    prefetcher.start();
+    waitUntil(() -> prefetcher.leasedTasks().size() == 2);
+
+    prefetcher.close();
+    Assert.assertTrue(prefetcher.leasedTasks().isEmpty());
+    Assert.assertEquals(2, reporter.stats.size());
+    assertReported(task1, OptimizeStatus.Init);
+    assertReported(task2, OptimizeStatus.Init);
+    Assert.assertNull(prefetcher.take(100, TimeUnit.MILLISECONDS));
+  }
+
+  private void assertReported(TaskWrapper task, OptimizeStatus status) {
+    Assert.assertTrue("task " + task.getTask().getTaskId() + " is not reported " + status,
+        reporter.stats.stream().anyMatch(stat -> stat.getTaskId().equals(task.getTask().getTaskId()) &&
+            stat.getStatus() == status && stat.getAttemptId().equals(task.getAttemptId() + "")));
+  }
+
+  private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!condition.getAsBoolean()) {
+      Assert.assertTrue("condition is not satisfied in 5s", System.currentTimeMillis() < deadline);
+      Thread.sleep(10);
+    }
+  }
+
+  private static class QueuedConsumer extends BaseTaskConsumer {
+    private final BlockingQueue<TaskWrapper> tasks = new LinkedBlockingQueue<>();
+    private int attemptId = 0;
+
+    QueuedConsumer(OptimizerConfig config) {
+      super(config);
+    }
+
+    TaskWrapper add() {
+      OptimizeTask task = new OptimizeTask();
+      task.setTaskId(new OptimizeTaskId(OptimizeType.Major, UUID.randomUUID().toString()));
+      TaskWrapper taskWrapper = new TaskWrapper(task, attemptId++);
+      tasks.add(taskWrapper);
+      return taskWrapper;
+    }
+
+    @Override
+    public TaskWrapper pollTask(long timeout) {
+      try {
+        return tasks.poll(100, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      }
+    }
+  }
+
+  private static class RecordingReporter extends BaseTaskReporter {
+    private final List<OptimizeTaskStat> stats = Collections.synchronizedList(new ArrayList<>());
+
+    RecordingReporter(OptimizerConfig config) {
+      super(config);
+    }
+
+    @Override
+    public boolean report(OptimizeTaskStat optimizeTaskStat, int maxRetry, long retryInterval) {
+      stats.add(optimizeTaskStat);
+      return true;
+    }
+  }
+}
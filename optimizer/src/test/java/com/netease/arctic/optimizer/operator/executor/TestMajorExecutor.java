@@ -19,22 +19,43 @@
 package com.netease.arctic.optimizer.operator.executor;
 
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.netease.arctic.ams.api.DataFileInfo;
 import com.netease.arctic.ams.api.OptimizeTaskId;
 import com.netease.arctic.ams.api.OptimizeType;
+import com.netease.arctic.data.ChangeAction;
 import com.netease.arctic.data.DataFileType;
 import com.netease.arctic.data.DataTreeNode;
+import com.netease.arctic.io.writer.GenericChangeTaskWriter;
+import com.netease.arctic.io.writer.GenericTaskWriters;
 import com.netease.arctic.optimizer.OptimizerConfig;
 import com.netease.arctic.optimizer.util.ContentFileUtil;
 import com.netease.arctic.table.ArcticTable;
+import com.netease.arctic.table.TableProperties;
 import com.netease.arctic.table.UnkeyedTable;
+import org.apache.iceberg.AppendFiles;
 import org.apache.iceberg.DataFile;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.data.parquet.AdaptHiveGenericParquetReaders;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.parquet.AdaptHiveParquet;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class TestMajorExecutor extends TestBaseOptimizeBase {
   @Test
@@ -133,6 +154,131 @@ public class TestMajorExecutor extends TestBaseOptimizeBase {
     });
   }
 
+  @Test
+  public void testSplitTaskReadsSameRows() throws Exception {
+    insertTableBaseDataFiles(testKeyedTable, 1, baseDataFilesInfo);
+    NodeTask nodeTask = constructNodeTask(testKeyedTable, OptimizeType.Major);
+    // eq-delete files of parent nodes and child nodes of the base files
+    insertChangeDeleteFiles(2, 2, 1, 100).forEach(file -> nodeTask.addFile(file, DataFileType.EQ_DELETE_FILE));
+    insertChangeDeleteFiles(8, 3, 501, 100).forEach(file -> nodeTask.addFile(file, DataFileType.EQ_DELETE_FILE));
+    setTargetFileSize(totalSizeOf(nodeTask) / 4);
+
+    List<Integer> expectedIds = readIds(executeMajor(nodeTask, 1));
+    Assert.assertEquals(800, expectedIds.size());
+    Assert.assertFalse(expectedIds.contains(1));
+    Assert.assertFalse(expectedIds.contains(501));
+
+    nodeTask.setAttemptId(nodeTask.getAttemptId() + 1);
+    List<DataFile> targetFiles = executeMajor(nodeTask, 4);
+    Assert.assertEquals(4, targetFiles.stream().map(TestMajorExecutor::subTaskOf).distinct().count());
+    Assert.assertEquals(expectedIds, readIds(targetFiles));
+  }
+
+  @Test
+  public void testNotSplitBelowTargetSize() throws Exception {
+    insertTableBaseDataFiles(testKeyedTable, 1, baseDataFilesInfo);
+    NodeTask nodeTask = constructNodeTask(testKeyedTable, OptimizeType.Major);
+    long totalSize = totalSizeOf(nodeTask);
+
+    setTargetFileSize(totalSize + 1);
+    List<DataFile> targetFiles = executeMajor(nodeTask, 4);
+    Assert.assertEquals(Collections.singleton(0), targetFiles.stream().map(TestMajorExecutor::subTaskOf)
+        .collect(Collectors.toSet()));
+    Assert.assertEquals(1000, readIds(targetFiles).size());
+
+    // at most one sub task for each target file size of data files
+    setTargetFileSize(totalSize / 2);
+    nodeTask.setAttemptId(nodeTask.getAttemptId() + 1);
+    targetFiles = executeMajor(nodeTask, 4);
+    Assert.assertEquals(2, targetFiles.stream().map(TestMajorExecutor::subTaskOf).distinct().count());
+    Assert.assertEquals(1000, readIds(targetFiles).size());
+  }
+
+  @Test
+  public void testFailedSubTaskDeletesFinishedFiles() throws Exception {
+    insertTableBaseDataFiles(testKeyedTable, 1, baseDataFilesInfo);
+    NodeTask nodeTask = constructNodeTask(testKeyedTable, OptimizeType.Major);
+    setTargetFileSize(totalSizeOf(nodeTask) / 4);
+    // the sub task reading the lost file fails, while the other sub tasks finish
+    testKeyedTable.io().deleteFile(nodeTask.dataFiles().get(0).path().toString());
+    Set<String> filesBeforeExecute = listBaseFiles();
+
+    try {
+      executeMajor(nodeTask, 4);
+      Assert.fail("major optimize reading a lost file should fail");
+    } catch (Exception e) {
+      // expected
+    }
+    Assert.assertEquals(filesBeforeExecute, listBaseFiles());
+  }
+
+  private List<DataFile> insertChangeDeleteFiles(int changeBucket, long transactionId, int start, int length)
+      throws IOException {
+    testKeyedTable.updateProperties()
+        .set(TableProperties.CHANGE_FILE_INDEX_HASH_BUCKET, String.valueOf(changeBucket))
+        .commit();
+    GenericChangeTaskWriter writer = GenericTaskWriters.builderFor(testKeyedTable)
+        .withChangeAction(ChangeAction.DELETE)
+        .withTransactionId(transactionId).buildChangeWriter();
+    for (Record record : baseRecords(start, length, testKeyedTable.changeTable().schema())) {
+      writer.write(record);
+    }
+    List<DataFile> deleteFiles = Arrays.asList(writer.complete().dataFiles());
+    AppendFiles changeAppend = testKeyedTable.changeTable().newAppend();
+    deleteFiles.forEach(changeAppend::appendFile);
+    changeAppend.commit();
+    return deleteFiles;
+  }
+
+  private void setTargetFileSize(long targetFileSize) {
+    testKeyedTable.updateProperties()
+        .set(TableProperties.WRITE_TARGET_FILE_SIZE_BYTES, String.valueOf(targetFileSize))
+        .commit();
+  }
+
+  private List<DataFile> executeMajor(NodeTask nodeTask, int taskParallel) throws Exception {
+    OptimizerConfig optimizerConfig = new OptimizerConfig(new String[0]);
+    optimizerConfig.setOptimizerId("UnitTest");
+    optimizerConfig.setTaskParallel(taskParallel);
+    MajorExecutor majorExecutor =
+        new MajorExecutor(nodeTask, testKeyedTable, System.currentTimeMillis(), optimizerConfig);
+    return Lists.newArrayList(majorExecutor.execute().getTargetFiles());
+  }
+
+  private List<Integer> readIds(List<DataFile> dataFiles) throws IOException {
+    List<Integer> ids = new ArrayList<>();
+    for (DataFile dataFile : dataFiles) {
+      try (CloseableIterable<Record> records = AdaptHiveParquet.read(
+          testKeyedTable.io().newInputFile(dataFile.path().toString()))
+          .project(testKeyedTable.schema())
+          .createReaderFunc(fileSchema ->
+              AdaptHiveGenericParquetReaders.buildReader(testKeyedTable.schema(), fileSchema, new HashMap<>()))
+          .build()) {
+        records.forEach(record -> ids.add((Integer) record.getField("id")));
+      }
+    }
+    Collections.sort(ids);
+    return ids;
+  }
+
+  private Set<String> listBaseFiles() throws IOException {
+    try (Stream<Path> files = Files.walk(Paths.get(testKeyedTable.baseLocation()))) {
+      return files.map(Path::toString)
+          .filter(path -> path.endsWith(".parquet"))
+          .collect(Collectors.toSet());
+    }
+  }
+
+  private static long totalSizeOf(NodeTask nodeTask) {
+    return nodeTask.dataFiles().stream().mapToLong(DataFile::fileSizeInBytes).sum();
+  }
+
+  private static int subTaskOf(DataFile dataFile) {
+    // sub tasks write files with their index as the partition id in file names
+    String path = dataFile.path().toString();
+    return Integer.parseInt(path.substring(path.lastIndexOf('/') + 1).split("-")[3]);
+  }
+
   private NodeTask constructNodeTask(ArcticTable arcticTable, OptimizeType optimizeType) {
     NodeTask nodeTask = new NodeTask();
     nodeTask.setSourceNodes(baseDataFilesInfo.stream()
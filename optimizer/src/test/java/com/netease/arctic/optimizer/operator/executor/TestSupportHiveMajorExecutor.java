@@ -19,6 +19,7 @@
 package com.netease.arctic.optimizer.operator.executor;
 
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.netease.arctic.ams.api.DataFileInfo;
 import com.netease.arctic.ams.api.OptimizeTaskId;
 import com.netease.arctic.ams.api.OptimizeType;
@@ -27,11 +28,16 @@ import com.netease.arctic.data.DataTreeNode;
 import com.netease.arctic.optimizer.OptimizerConfig;
 import com.netease.arctic.optimizer.util.ContentFileUtil;
 import com.netease.arctic.table.ArcticTable;
+import com.netease.arctic.table.TableProperties;
 import com.netease.arctic.table.UnkeyedTable;
 import org.apache.iceberg.DataFile;
+import org.apache.iceberg.StructLike;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
@@ -117,6 +123,35 @@ public class TestSupportHiveMajorExecutor extends TestSupportHiveMajorOptimizeBa
     });
   }
 
+  @Test
+  public void testUnKeyedTableFullMajorExecutorInParallel() throws Exception {
+    insertTableBaseDataFiles(testHiveTable, 1, baseDataFilesInfo);
+    insertTableBaseDataFiles(testHiveTable, 2, baseDataFilesInfo);
+    NodeTask nodeTask = constructNodeTask(testHiveTable, OptimizeType.FullMajor);
+    long totalSize = nodeTask.dataFiles().stream().mapToLong(DataFile::fileSizeInBytes).sum();
+    testHiveTable.updateProperties()
+        .set(TableProperties.WRITE_TARGET_FILE_SIZE_BYTES, String.valueOf(totalSize / 2))
+        .commit();
+    OptimizerConfig optimizerConfig = new OptimizerConfig(new String[0]);
+    optimizerConfig.setOptimizerId("UnitTest");
+    optimizerConfig.setTaskParallel(2);
+    MajorExecutor majorExecutor = new MajorExecutor(nodeTask, testHiveTable, System.currentTimeMillis(), optimizerConfig);
+    List<DataFile> targetFiles = Lists.newArrayList(majorExecutor.execute().getTargetFiles());
+
+    Assert.assertTrue(targetFiles.size() >= 2);
+    Assert.assertEquals(2000, targetFiles.stream().mapToLong(DataFile::recordCount).sum());
+    // sub tasks write files of a partition into the same hive directory, as hive commit requires
+    Map<StructLike, Set<String>> partitionDirs = targetFiles.stream()
+        .collect(Collectors.groupingBy(DataFile::partition, Collectors.mapping(dataFile -> {
+          String path = dataFile.path().toString();
+          return path.substring(0, path.lastIndexOf('/'));
+        }, Collectors.toSet())));
+    partitionDirs.values().forEach(dirs -> {
+      Assert.assertEquals(1, dirs.size());
+      Assert.assertTrue(dirs.iterator().next().contains(testHiveTable.hiveLocation()));
+    });
+  }
+
   @Test
   public void testNoPartitionTableMajorExecutor() throws Exception {
     insertBasePosDeleteFiles(testUnPartitionKeyedHiveTable, 2, baseDataFilesInfo, posDeleteFilesInfo);
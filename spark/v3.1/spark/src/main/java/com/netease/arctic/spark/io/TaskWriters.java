@@ -131,9 +131,11 @@ public class TaskWriters {
           encryptionManager, partitionId, taskId, transactionId);
     }
 
-    return new ArcticSparkBaseTaskWriter(fileFormat, appenderFactory,
+    ArcticSparkBaseTaskWriter writer = new ArcticSparkBaseTaskWriter(fileFormat, appenderFactory,
         outputFileFactory,
         table.io(), fileSize, mask, schema, table.spec(), primaryKeySpec);
+    writer.setTableProperties(table.properties());
+    return writer;
   }
 
   public ChangeTaskWriter<InternalRow> newChangeWriter() {
@@ -19,32 +19,49 @@
 package com.netease.arctic.spark.reader;
 
 import com.netease.arctic.io.ArcticFileIO;
+import com.netease.arctic.io.reader.ArcticDeleteFilter;
 import com.netease.arctic.io.reader.BaseArcticDataReader;
+import com.netease.arctic.io.reader.PositionBitmap;
+import com.netease.arctic.scan.ArcticFileScanTask;
+import com.netease.arctic.scan.KeyedTableScanTask;
 import com.netease.arctic.spark.SparkInternalRowWrapper;
 import com.netease.arctic.spark.util.ArcticSparkUtils;
 import com.netease.arctic.table.PrimaryKeySpec;
-import org.apache.avro.generic.GenericData;
-import org.apache.avro.util.Utf8;
+import org.apache.arrow.vector.NullCheckingForGet;
+import org.apache.iceberg.MetadataColumns;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.StructLike;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.CloseableIterator;
+import org.apache.iceberg.mapping.NameMappingParser;
+import org.apache.iceberg.parquet.Parquet;
 import org.apache.iceberg.parquet.ParquetValueReader;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
 import org.apache.iceberg.spark.SparkSchemaUtil;
 import org.apache.iceberg.spark.data.SparkParquetReaders;
-import org.apache.iceberg.types.Type;
-import org.apache.iceberg.util.ByteBuffers;
+import org.apache.iceberg.spark.data.vectorized.VectorizedSparkParquetReaders;
+import org.apache.iceberg.types.TypeUtil;
+import org.apache.iceberg.types.Types;
 import org.apache.parquet.schema.MessageType;
 import org.apache.spark.sql.catalyst.InternalRow;
-import org.apache.spark.sql.types.Decimal;
 import org.apache.spark.sql.types.StructType;
-import org.apache.spark.unsafe.types.UTF8String;
+import org.apache.spark.sql.vectorized.ColumnVector;
+import org.apache.spark.sql.vectorized.ColumnarBatch;
 
-import java.math.BigDecimal;
-import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 public class ArcticSparkKeyedDataReader extends BaseArcticDataReader<InternalRow> {
 
+  // positions are counted by the batch reader instead of being read as columns, so they can not be projected
+  static final Set<Integer> POSITION_COLUMN_IDS = Sets.newHashSet(
+      MetadataColumns.FILE_PATH.fieldId(), MetadataColumns.ROW_POSITION.fieldId());
+
   public ArcticSparkKeyedDataReader(
       ArcticFileIO fileIO,
       Schema tableSchema,
@@ -70,4 +87,141 @@ public class ArcticSparkKeyedDataReader extends BaseArcticDataReader<InternalRow
       return row -> new SparkInternalRowWrapper(structType).wrap(row);
     };
   }
+
+  /**
+   * Read the task as columnar batches. Data files are read by the vectorized parquet reader, and deletes are applied
+   * to a whole batch by selecting the remaining rows of it instead of filtering row by row.
+   * <p>
+   * Data files of the task must be parquet files, and data files with position deletes must not be split, as row
+   * positions are counted by the reader.
+   */
+  public CloseableIterator<ColumnarBatch> readBatches(KeyedTableScanTask keyedTableScanTask, int batchSize) {
+    ArcticDeleteFilter<InternalRow> deleteFilter = newDeleteFilter(keyedTableScanTask);
+    Schema batchSchema = TypeUtil.selectNot(deleteFilter.requiredSchema(), POSITION_COLUMN_IDS);
+    StructType batchType = SparkSchemaUtil.convert(batchSchema);
+    int[] outputOrdinals = outputOrdinals(batchSchema);
+
+    CloseableIterable<ColumnarBatch> batches = CloseableIterable.concat(CloseableIterable.transform(
+        CloseableIterable.withNoopClose(keyedTableScanTask.dataTasks()),
+        fileScanTask -> {
+          PositionBitmap[] deletedPositions = deleteFilter.deletedPositions(fileScanTask.file().path().toString());
+          BatchDeleteFilter filter = new BatchDeleteFilter(
+              deletedPositions, deleteFilter.eqDeletes(batchSchema), batchType, outputOrdinals);
+          CloseableIterable<ColumnarBatch> fileBatches = newBatchIterable(
+              fileScanTask, batchSchema, batchSize, deletedPositions == null);
+          return CloseableIterable.filter(CloseableIterable.transform(fileBatches, filter::filter),
+              batch -> batch.numRows() > 0);
+        }));
+    return closeWith(fileIO.doAs(batches::iterator), deleteFilter);
+  }
+
+  /**
+   * @return ordinals of projected columns in batches, which also contain the columns only required to apply deletes
+   */
+  private int[] outputOrdinals(Schema batchSchema) {
+    List<Types.NestedField> batchColumns = batchSchema.columns();
+    List<Types.NestedField> projectedColumns = projectedSchema.columns();
+    int[] ordinals = new int[projectedColumns.size()];
+    for (int i = 0; i < ordinals.length; i++) {
+      int fieldId = projectedColumns.get(i).fieldId();
+      ordinals[i] = IntStream.range(0, batchColumns.size())
+          .filter(ordinal -> batchColumns.get(ordinal).fieldId() == fieldId)
+          .findFirst()
+          .orElseThrow(() -> new UnsupportedOperationException(
+              "Cannot read column " + projectedSchema.findColumnName(fieldId) + " in batches"));
+    }
+    return ordinals;
+  }
+
+  private CloseableIterable<ColumnarBatch> newBatchIterable(
+      ArcticFileScanTask task, Schema schema, int batchSize, boolean filterRowGroups) {
+    Map<Integer, ?> idToConstant = idToConstant(task, schema);
+    Parquet.ReadBuilder builder = Parquet.read(fileIO.newInputFile(task.file().path().toString()))
+        .split(task.start(), task.length())
+        .project(schema)
+        .createBatchedReaderFunc(fileSchema -> VectorizedSparkParquetReaders.buildReader(
+            schema, fileSchema, NullCheckingForGet.NULL_CHECKING_ENABLED, idToConstant))
+        .recordsPerBatch(batchSize)
+        .caseSensitive(caseSensitive)
+        .reuseContainers();
+
+    // skipped row groups would shift the counted row positions
+    if (filterRowGroups) {
+      builder.filter(task.residual());
+    }
+    if (nameMapping != null) {
+      builder.withNameMapping(NameMappingParser.fromJson(nameMapping));
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * Apply deletes to batches of one data file, the batches must be passed in file order.
+   */
+  private static class BatchDeleteFilter {
+
+    private final PositionBitmap[] deletedPositions;
+    private final Predicate<StructLike> eqDeleted;
+    private final SparkInternalRowWrapper rowWrapper;
+    private final int[] outputOrdinals;
+    private long position = 0;
+    private boolean[] deleted = new boolean[0];
+    private int[] rowIdMapping = new int[0];
+
+    BatchDeleteFilter(
+        PositionBitmap[] deletedPositions, Predicate<StructLike> eqDeleted, StructType batchType,
+        int[] outputOrdinals) {
+      this.deletedPositions = deletedPositions;
+      this.eqDeleted = eqDeleted;
+      this.rowWrapper = new SparkInternalRowWrapper(batchType);
+      this.outputOrdinals = outputOrdinals;
+    }
+
+    ColumnarBatch filter(ColumnarBatch batch) {
+      int numRows = batch.numRows();
+      long start = position;
+      position += numRows;
+      if (deleted.length < numRows) {
+        deleted = new boolean[numRows];
+        rowIdMapping = new int[numRows];
+      }
+
+      boolean anyDeleted = markPositionDeletes(start, numRows);
+      int remaining = 0;
+      for (int i = 0; i < numRows; i++) {
+        if (deleted[i] || (eqDeleted != null && eqDeleted.test(rowWrapper.wrap(batch.getRow(i))))) {
+          anyDeleted = true;
+        } else {
+          rowIdMapping[remaining++] = i;
+        }
+      }
+
+      // drop the columns only required to apply deletes
+      ColumnVector[] columns = new ColumnVector[outputOrdinals.length];
+      for (int i = 0; i < outputOrdinals.length; i++) {
+        ColumnVector column = batch.column(outputOrdinals[i]);
+        columns[i] = anyDeleted ? new ColumnVectorWithFilter(column, rowIdMapping, remaining) : column;
+      }
+      return new ColumnarBatch(columns, remaining);
+    }
+
+    private boolean markPositionDeletes(long start, int numRows) {
+      Arrays.fill(deleted, 0, numRows, false);
+      if (deletedPositions == null) {
+        return false;
+      }
+      boolean marked = false;
+      long end = start + numRows;
+      for (PositionBitmap bitmap : deletedPositions) {
+        long pos = bitmap.nextPosition(start);
+        while (pos >= 0 && pos < end) {
+          deleted[(int) (pos - start)] = true;
+          marked = true;
+          pos = bitmap.nextPosition(pos + 1);
+        }
+      }
+      return marked;
+    }
+  }
 }
@@ -25,6 +25,8 @@ import com.netease.arctic.scan.KeyedTableScanTask;
 import com.netease.arctic.spark.util.Stats;
 import com.netease.arctic.table.KeyedTable;
 import com.netease.arctic.table.PrimaryKeySpec;
+import com.netease.arctic.table.TableProperties;
+import org.apache.iceberg.FileFormat;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.expressions.Expression;
 import org.apache.iceberg.io.CloseableIterable;
@@ -32,6 +34,8 @@ import org.apache.iceberg.io.CloseableIterator;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.spark.Spark3Util;
 import org.apache.iceberg.spark.SparkSchemaUtil;
+import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.PropertyUtil;
 import org.apache.spark.sql.catalyst.InternalRow;
 import org.apache.spark.sql.connector.read.Batch;
 import org.apache.spark.sql.connector.read.InputPartition;
@@ -42,14 +46,17 @@ import org.apache.spark.sql.connector.read.Statistics;
 import org.apache.spark.sql.connector.read.SupportsReportStatistics;
 import org.apache.spark.sql.types.StructType;
 import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.apache.spark.sql.vectorized.ColumnarBatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.Serializable;
 import java.io.UncheckedIOException;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -64,6 +71,8 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
   private final Long startSnapshotId;
   private final Long endSnapshotId;
   private final Long asOfTimestamp;
+  private final boolean vectorizationEnabled;
+  private final int batchSize;
   private StructType readSchema = null;
   private List<CombinedScanTask> tasks = null;
 
@@ -93,6 +102,13 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
     } else if (startSnapshotId == null && endSnapshotId != null) {
       throw new IllegalArgumentException("Cannot only specify option end-snapshot-id to do incremental scan");
     }
+
+    this.vectorizationEnabled = options.getBoolean("vectorization-enabled", PropertyUtil.propertyAsBoolean(
+        table.properties(), TableProperties.READ_VECTORIZATION_ENABLED,
+        TableProperties.READ_VECTORIZATION_ENABLED_DEFAULT));
+    this.batchSize = options.getInt("batch-size", PropertyUtil.propertyAsInt(
+        table.properties(), TableProperties.READ_VECTORIZATION_BATCH_SIZE,
+        TableProperties.READ_VECTORIZATION_BATCH_SIZE_DEFAULT));
   }
 
   @Override
@@ -121,7 +137,28 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
 
   @Override
   public PartitionReaderFactory createReaderFactory() {
-    return new ReaderFactory();
+    return new ReaderFactory(readUsingBatch(), batchSize);
+  }
+
+  /**
+   * Spark requires all partitions of a scan to be read in the same way, so batch reads are only used if every
+   * task can be read by the vectorized parquet reader.
+   */
+  private boolean readUsingBatch() {
+    if (!vectorizationEnabled) {
+      return false;
+    }
+    // the vectorized parquet reader of iceberg does not support nested types, time and uuid yet
+    boolean allSupported = expectedSchema.columns().stream().allMatch(c -> c.type().isPrimitiveType() &&
+        !(c.type() instanceof Types.TimeType) && !(c.type() instanceof Types.UUIDType) &&
+        !ArcticSparkKeyedDataReader.POSITION_COLUMN_IDS.contains(c.fieldId()));
+    // row positions are counted by the reader, so files with position deletes must be read from the beginning
+    boolean allFilesSupported = tasks().stream()
+        .flatMap(combinedScanTask -> combinedScanTask.tasks().stream())
+        .flatMap(keyedTableScanTask -> keyedTableScanTask.dataTasks().stream())
+        .allMatch(task -> task.file().format() == FileFormat.PARQUET &&
+            (task.deletes().isEmpty() || task.start() == 0));
+    return allSupported && allFilesSupported;
   }
 
   @Override
@@ -204,6 +241,14 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
   }
 
   private static class ReaderFactory implements PartitionReaderFactory {
+    private final boolean readUsingBatch;
+    private final int batchSize;
+
+    ReaderFactory(boolean readUsingBatch, int batchSize) {
+      this.readUsingBatch = readUsingBatch;
+      this.batchSize = batchSize;
+    }
+
     @Override
     public PartitionReader<InternalRow> createReader(InputPartition partition) {
       if (partition instanceof ArcticInputPartition) {
@@ -212,6 +257,65 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
         throw new UnsupportedOperationException("Incorrect input partition type: " + partition);
       }
     }
+
+    @Override
+    public PartitionReader<ColumnarBatch> createColumnarReader(InputPartition partition) {
+      if (partition instanceof ArcticInputPartition) {
+        return new BatchReader((ArcticInputPartition) partition, batchSize);
+      } else {
+        throw new UnsupportedOperationException("Incorrect input partition type: " + partition);
+      }
+    }
+
+    @Override
+    public boolean supportColumnarReads(InputPartition partition) {
+      return readUsingBatch;
+    }
+  }
+
+  private static class BatchReader implements PartitionReader<ColumnarBatch> {
+
+    ArcticSparkKeyedDataReader reader;
+    Iterator<KeyedTableScanTask> scanTasks;
+    int batchSize;
+    CloseableIterator<ColumnarBatch> currentIterator = CloseableIterator.empty();
+    ColumnarBatch current;
+
+    BatchReader(ArcticInputPartition task, int batchSize) {
+      reader = new ArcticSparkKeyedDataReader(
+          task.io, task.tableSchema, task.expectedSchema, task.keySpec,
+          null, task.caseSensitive
+      );
+      reader.setTableProperties(task.tableProperties);
+      scanTasks = task.combinedScanTask.tasks().iterator();
+      this.batchSize = batchSize;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+      while (true) {
+        if (currentIterator.hasNext()) {
+          this.current = currentIterator.next();
+          return true;
+        } else if (scanTasks.hasNext()) {
+          this.currentIterator.close();
+          this.currentIterator = reader.readBatches(scanTasks.next(), batchSize);
+        } else {
+          this.currentIterator.close();
+          return false;
+        }
+      }
+    }
+
+    @Override
+    public ColumnarBatch get() {
+      return this.current;
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.currentIterator.close();
+    }
   }
 
   private static class RowReader implements PartitionReader<InternalRow> {
@@ -227,6 +331,7 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
           task.io, task.tableSchema, task.expectedSchema, task.keySpec,
           null, task.caseSensitive
       );
+      reader.setTableProperties(task.tableProperties);
       scanTasks = task.combinedScanTask.tasks().iterator();
     }
 
@@ -268,6 +373,7 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
     final Schema expectedSchema;
     final Schema tableSchema;
     final PrimaryKeySpec keySpec;
+    final Map<String, String> tableProperties;
 
     ArcticInputPartition(
         CombinedScanTask combinedScanTask,
@@ -280,6 +386,7 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
       this.caseSensitive = caseSensitive;
       this.io = table.io();
       this.keySpec = table.primaryKeySpec();
+      this.tableProperties = new HashMap<>(table.properties());
     }
   }
 }
@@ -26,6 +26,7 @@ import com.netease.arctic.io.writer.GenericTaskWriters;
 import com.netease.arctic.io.writer.SortedPosDeleteWriter;
 import com.netease.arctic.table.KeyedTable;
 import com.netease.arctic.table.TableIdentifier;
+import com.netease.arctic.table.TableProperties;
 import org.apache.iceberg.ContentFile;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.DeleteFile;
@@ -131,6 +132,37 @@ public class TestKeyedTableDML extends SparkTestBase {
     assertContainIdSet(rows, 0, 2, 3);
   }
 
+  @Test
+  public void testVectorizedMergeOnRead() throws IOException {
+    TableIdentifier identifier = TableIdentifier.of(catalogNameArctic, database, table);
+    List<DataFile> dataFiles = writeBase(identifier, baseFiles);
+    writeChange(identifier, ChangeAction.INSERT, Lists.newArrayList(
+        newRecord(keyedTable, 4, "ddd", quickDateWithZone(4)),
+        newRecord(keyedTable, 5, "eee", quickDateWithZone(4))
+    ));
+    writeChange(identifier, ChangeAction.DELETE, Lists.newArrayList(
+        newRecord(keyedTable, 1, "aaa", quickDateWithZone(1)),
+        newRecord(keyedTable, 5, "eee", quickDateWithZone(4))
+    ));
+    // deletes the first row of the file holding id 2 and 3
+    List<DataFile> deleteFiles = dataFiles.stream().filter(dataFile -> Objects.equals(18994,
+        dataFile.partition().get(0, Object.class))).collect(Collectors.toList());
+    insertBasePosDeleteFiles(keyedTable.beginTransaction(""), deleteFiles);
+
+    // columns are projected in another order than the table, and primary keys are only read to apply deletes
+    String query = "select name, ts from {0}.{1} order by name";
+    List<Object[]> expected = sql(query, database, table);
+    Assert.assertEquals(2, expected.size());
+
+    keyedTable.updateProperties().set(TableProperties.READ_VECTORIZATION_ENABLED, "true").commit();
+    String plan = spark.sql(String.format("select name, ts from %s.%s", database, table))
+        .queryExecution().executedPlan().toString();
+    Assert.assertTrue("merge on read should be vectorized: " + plan, plan.contains("ColumnarToRow"));
+    assertEquals("vectorized merge on read", expected, sql(query, database, table));
+    assertEquals("vectorized merge on read", expected,
+        sql("select name, ts from {0}.{1} where id > 1 order by name", database, table));
+  }
+
   protected void insertBasePosDeleteFiles(long transactionId, List<DataFile> dataFiles) throws IOException {
     Map<StructLike, List<DataFile>> dataFilesPartitionMap =
         new HashMap<>(dataFiles.stream().collect(Collectors.groupingBy(ContentFile::partition)));
@@ -20,6 +20,7 @@
 package com.netease.arctic.trino;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -27,6 +28,8 @@ import org.apache.commons.lang3.StringUtils;
  */
 public class ArcticConfig {
   private String catalogUrl;
+  private long posDeleteCacheMaxBytes;
+  private String eqDeleteSpillDirectory;
 
   public String getCatalogUrl() {
     return catalogUrl;
@@ -36,4 +39,24 @@ public class ArcticConfig {
   public void setCatalogUrl(String catalogUrl) {
     this.catalogUrl = catalogUrl;
   }
+
+  public long getPosDeleteCacheMaxBytes() {
+    return posDeleteCacheMaxBytes;
+  }
+
+  @Config("arctic.pos-delete-cache.max-bytes")
+  @ConfigDescription("Max bytes of position deletes cached in a worker, 0 to disable the cache")
+  public void setPosDeleteCacheMaxBytes(long posDeleteCacheMaxBytes) {
+    this.posDeleteCacheMaxBytes = posDeleteCacheMaxBytes;
+  }
+
+  public String getEqDeleteSpillDirectory() {
+    return eqDeleteSpillDirectory;
+  }
+
+  @Config("arctic.eq-delete.spill-dir")
+  @ConfigDescription("Local directory equality delete indexes spill to, java.io.tmpdir by default")
+  public void setEqDeleteSpillDirectory(String eqDeleteSpillDirectory) {
+    this.eqDeleteSpillDirectory = eqDeleteSpillDirectory;
+  }
 }
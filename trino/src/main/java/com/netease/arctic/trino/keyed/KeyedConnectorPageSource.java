@@ -21,7 +21,6 @@ package com.netease.arctic.trino.keyed;
 import com.google.common.collect.ImmutableList;
 import com.netease.arctic.data.DataFileType;
 import com.netease.arctic.data.PrimaryKeyedFile;
-import com.netease.arctic.io.reader.ArcticDeleteFilter;
 import com.netease.arctic.scan.ArcticFileScanTask;
 import com.netease.arctic.table.MetadataColumns;
 import com.netease.arctic.trino.unkeyed.IcebergPageSourceProvider;
@@ -75,7 +74,9 @@ public class KeyedConnectorPageSource implements ConnectorPageSource {
   private DynamicFilter dynamicFilter;
   private TypeManager typeManager;
   private FileIoProvider fileIoProvider;
-  private ArcticDeleteFilter<TrinoRow> arcticDeleteFilter;
+  private KeyedDeleteFilter arcticDeleteFilter;
+  private KeyedPageDeleteFilter pageDeleteFilter;
+  private String currentDataPath;
 
   private List<ColumnHandle> requireColumnsDummy;
   private Type[] requireColumnTypes;
@@ -98,7 +99,7 @@ public class KeyedConnectorPageSource implements ConnectorPageSource {
       DynamicFilter dynamicFilter,
       TypeManager typeManager,
       FileIoProvider fileIoProvider,
-      ArcticDeleteFilter<TrinoRow> arcticDeleteFilter) {
+      KeyedDeleteFilter arcticDeleteFilter) {
     this.expectedColumns = expectedColumns;
     this.icebergPageSourceProvider = icebergPageSourceProvider;
     this.transaction = transaction;
@@ -125,6 +126,9 @@ public class KeyedConnectorPageSource implements ConnectorPageSource {
         .toArray(Type[]::new);
 
     this.dataTasksIt = split.getKeyedTableScanTask().dataTasks().iterator();
+    if (arcticDeleteFilter != null) {
+      this.pageDeleteFilter = KeyedPageDeleteFilter.create(arcticDeleteFilter, requiredColumns).orElse(null);
+    }
   }
 
   @Override
@@ -171,7 +175,10 @@ public class KeyedConnectorPageSource implements ConnectorPageSource {
         return null;
       }
 
-      if (arcticDeleteFilter != null) {
+      if (pageDeleteFilter != null) {
+        page = pageDeleteFilter.filter(page, currentDataPath).getColumns(expectedColumnIndexes);
+      } else if (arcticDeleteFilter != null) {
+        // primary keys of types not encoded from pages, or probing a heap index, are filtered row by row
         int positionCount = page.getPositionCount();
         int[] positionsToKeep = new int[positionCount];
         try (CloseableIterable<TrinoRow> filteredRows =
@@ -200,12 +207,17 @@ public class KeyedConnectorPageSource implements ConnectorPageSource {
 
   @Override
   public long getMemoryUsage() {
-    return current == null ? 0 : current.getMemoryUsage();
+    long deleteFilterMemory = arcticDeleteFilter == null ? 0 : arcticDeleteFilter.memoryUsage();
+    return deleteFilterMemory + (current == null ? 0 : current.getMemoryUsage());
   }
 
   @Override
   public void close() throws IOException {
     close = true;
+    if (arcticDeleteFilter != null) {
+      // release the equality delete index
+      arcticDeleteFilter.close();
+    }
   }
 
   protected void closeWithSuppression(Throwable throwable) {
@@ -260,7 +272,8 @@ public class KeyedConnectorPageSource implements ConnectorPageSource {
       idToConstant.put(MetadataColumns.FILE_OFFSET_FILED_ID, Optional.of(Long.MAX_VALUE + ""));
     }
 
-    arcticDeleteFilter.setCurrentDataPath(arcticFileScanTask.file().path().toString());
+    currentDataPath = arcticFileScanTask.file().path().toString();
+    arcticDeleteFilter.setCurrentDataPath(currentDataPath);
 
     return icebergPageSourceProvider.createPageSource(
         transaction,
@@ -19,8 +19,11 @@
 package com.netease.arctic.trino.keyed;
 
 import com.netease.arctic.io.reader.ArcticDeleteFilter;
+import com.netease.arctic.io.reader.EqDeleteIndex;
+import com.netease.arctic.io.reader.SpillableEqDeleteIndex;
 import com.netease.arctic.scan.KeyedTableScanTask;
 import com.netease.arctic.table.PrimaryKeySpec;
+import com.netease.arctic.table.TableProperties;
 import io.trino.plugin.iceberg.IcebergColumnHandle;
 import io.trino.plugin.iceberg.TypeConverter;
 import io.trino.plugin.iceberg.delete.TrinoRow;
@@ -30,8 +33,11 @@ import org.apache.iceberg.io.FileIO;
 import org.apache.iceberg.io.InputFile;
 import org.apache.iceberg.types.Type;
 import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.PropertyUtil;
 
+import java.io.File;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -44,15 +50,69 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 public class KeyedDeleteFilter extends ArcticDeleteFilter<TrinoRow> {
 
   private FileIO fileIO;
+  private final PrimaryKeySpec primaryKeySpec;
+  private final boolean hasEqDeletes;
+  private final Map<String, String> tableProperties;
+  private final File spillDirectory;
+  private EqDeleteIndex index;
 
   protected KeyedDeleteFilter(
       KeyedTableScanTask keyedTableScanTask,
       Schema tableSchema,
       List<IcebergColumnHandle> requestedSchema,
       PrimaryKeySpec primaryKeySpec,
-      FileIO fileIO) {
+      FileIO fileIO,
+      Map<String, String> tableProperties,
+      File spillDirectory) {
     super(keyedTableScanTask, tableSchema, getSchemas(requestedSchema), primaryKeySpec);
     this.fileIO = fileIO;
+    this.primaryKeySpec = primaryKeySpec;
+    this.hasEqDeletes = !keyedTableScanTask.arcticEquityDeletes().isEmpty();
+    this.tableProperties = tableProperties;
+    this.spillDirectory = spillDirectory;
+  }
+
+  public PrimaryKeySpec primaryKeySpec() {
+    return primaryKeySpec;
+  }
+
+  /**
+   * @return true if the equality delete index configured for the table is probed with keys encoded from pages
+   */
+  public boolean encodedKeys() {
+    return TableProperties.READ_EQ_DELETE_INDEX_TYPE_SPILLABLE.equalsIgnoreCase(PropertyUtil.propertyAsString(
+        tableProperties, TableProperties.READ_EQ_DELETE_INDEX_TYPE, TableProperties.READ_EQ_DELETE_INDEX_TYPE_DEFAULT));
+  }
+
+  /**
+   * @return the index of equality deletes probed with keys encoded from pages, or null if there is no equality delete.
+   *     Only valid if {@link #encodedKeys()}
+   */
+  public SpillableEqDeleteIndex encodedEqDeleteIndex() {
+    return hasEqDeletes ? (SpillableEqDeleteIndex) eqDeleteIndex() : null;
+  }
+
+  /**
+   * @return estimated bytes of memory retained by the loaded equality delete index
+   */
+  public long memoryUsage() {
+    return index instanceof SpillableEqDeleteIndex ? ((SpillableEqDeleteIndex) index).estimatedBytes() : 0;
+  }
+
+  @Override
+  protected Map<String, String> tableProperties() {
+    return tableProperties;
+  }
+
+  @Override
+  protected File spillDirectory() {
+    return spillDirectory;
+  }
+
+  @Override
+  protected EqDeleteIndex newEqDeleteIndex(Types.StructType primaryKeyType) {
+    this.index = EqDeleteIndex.create(primaryKeyType, tableProperties, spillDirectory);
+    return index;
   }
 
   private static Schema getSchemas(List<IcebergColumnHandle> requestedColumns) {
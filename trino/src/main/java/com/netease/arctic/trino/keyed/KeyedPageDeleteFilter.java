@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.trino.keyed;
+
+import com.netease.arctic.data.ChangedLsn;
+import com.netease.arctic.io.reader.PositionBitmap;
+import com.netease.arctic.io.reader.PrimaryKeyEncoder;
+import com.netease.arctic.io.reader.SpillableEqDeleteIndex;
+import com.netease.arctic.table.MetadataColumns;
+import io.trino.plugin.iceberg.IcebergColumnHandle;
+import io.trino.spi.Page;
+import io.trino.spi.block.Block;
+import io.trino.spi.type.Type;
+import org.apache.iceberg.types.Types;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static io.trino.spi.type.BigintType.BIGINT;
+
+/**
+ * Apply deletes of a {@link KeyedDeleteFilter} to whole pages.
+ * <p>
+ * Instead of building a row object per position, primary keys of a page are encoded column by column into one
+ * buffer in the format of {@link PrimaryKeyEncoder}, hashed in one pass and probed against the binary equality
+ * delete index, and position deletes are checked against the bitmaps of the data file.
+ */
+class KeyedPageDeleteFilter {
+
+  private final KeyedDeleteFilter deleteFilter;
+  private final PageKeyEncoder keyEncoder;
+  private final int transactionIdChannel;
+  private final int fileOffsetChannel;
+  private final int positionChannel;
+
+  private long[] keyHashes = new long[0];
+  private int[] positionsToKeep = new int[0];
+
+  private KeyedPageDeleteFilter(
+      KeyedDeleteFilter deleteFilter, PageKeyEncoder keyEncoder,
+      int transactionIdChannel, int fileOffsetChannel, int positionChannel) {
+    this.deleteFilter = deleteFilter;
+    this.keyEncoder = keyEncoder;
+    this.transactionIdChannel = transactionIdChannel;
+    this.fileOffsetChannel = fileOffsetChannel;
+    this.positionChannel = positionChannel;
+  }
+
+  /**
+   * @param requiredColumns columns of pages, must be the requested columns of the delete filter
+   * @return the page filter, or empty if a primary key type can not be encoded from pages or the equality delete
+   *     index of the table is not probed with encoded keys
+   */
+  static Optional<KeyedPageDeleteFilter> create(
+      KeyedDeleteFilter deleteFilter, List<IcebergColumnHandle> requiredColumns) {
+    if (!deleteFilter.encodedKeys()) {
+      return Optional.empty();
+    }
+    Set<Integer> primaryKeyIds = deleteFilter.primaryKeySpec().primaryKeyStruct().fields().stream()
+        .map(Types.NestedField::fieldId)
+        .collect(Collectors.toSet());
+
+    // keys of the index are ordered as fields of the required schema, which are the page channels
+    int[] keyChannels = new int[primaryKeyIds.size()];
+    Type[] keyTypes = new Type[primaryKeyIds.size()];
+    org.apache.iceberg.types.Type.TypeID[] keyTypeIds = new org.apache.iceberg.types.Type.TypeID[primaryKeyIds.size()];
+    int transactionIdChannel = -1;
+    int fileOffsetChannel = -1;
+    int positionChannel = -1;
+    int keyCount = 0;
+    List<Types.NestedField> fields = deleteFilter.requiredSchema().columns();
+    for (int channel = 0; channel < fields.size(); channel++) {
+      Types.NestedField field = fields.get(channel);
+      if (primaryKeyIds.contains(field.fieldId())) {
+        Type type = requiredColumns.get(channel).getType();
+        if (!PageKeyEncoder.supported(field.type(), type)) {
+          return Optional.empty();
+        }
+        keyChannels[keyCount] = channel;
+        keyTypes[keyCount] = type;
+        keyTypeIds[keyCount] = field.type().typeId();
+        keyCount++;
+      } else if (field.fieldId() == MetadataColumns.TRANSACTION_ID_FILED_ID) {
+        transactionIdChannel = channel;
+      } else if (field.fieldId() == MetadataColumns.FILE_OFFSET_FILED_ID) {
+        fileOffsetChannel = channel;
+      } else if (field.fieldId() == org.apache.iceberg.MetadataColumns.ROW_POSITION.fieldId()) {
+        positionChannel = channel;
+      }
+    }
+    return Optional.of(new KeyedPageDeleteFilter(deleteFilter, new PageKeyEncoder(keyChannels, keyTypes, keyTypeIds),
+        transactionIdChannel, fileOffsetChannel, positionChannel));
+  }
+
+  /**
+   * @param page     page of the required columns
+   * @param dataPath path of the data file the page is read from
+   * @return the page with positions not deleted
+   */
+  Page filter(Page page, String dataPath) {
+    int positionCount = page.getPositionCount();
+    if (positionsToKeep.length < positionCount) {
+      positionsToKeep = new int[positionCount];
+    }
+    int keep = 0;
+    for (int i = 0; i < positionCount; i++) {
+      positionsToKeep[keep++] = i;
+    }
+
+    PositionBitmap[] deletedPositions = positionChannel < 0 ? null : deleteFilter.deletedPositions(dataPath);
+    if (deletedPositions != null) {
+      keep = applyPosDeletes(page.getBlock(positionChannel), deletedPositions, keep);
+    }
+
+    SpillableEqDeleteIndex index = deleteFilter.encodedEqDeleteIndex();
+    if (index != null && keep > 0) {
+      keep = applyEqDeletes(page, index, keep);
+    }
+    return keep == positionCount ? page : page.getPositions(positionsToKeep, 0, keep);
+  }
+
+  private int applyPosDeletes(Block positions, PositionBitmap[] deletedPositions, int count) {
+    int keep = 0;
+    long last = Long.MAX_VALUE;
+    long nextDeleted = -1;
+    for (int i = 0; i < count; i++) {
+      int position = positionsToKeep[i];
+      long pos = BIGINT.getLong(positions, position);
+      // positions of a page are increasing, so the bitmaps are only searched once per deleted position
+      if (pos < last || nextDeleted < pos) {
+        nextDeleted = nextDeleted(deletedPositions, pos);
+      }
+      last = pos;
+      if (pos != nextDeleted) {
+        positionsToKeep[keep++] = position;
+      }
+    }
+    return keep;
+  }
+
+  private static long nextDeleted(PositionBitmap[] bitmaps, long from) {
+    long next = Long.MAX_VALUE;
+    for (PositionBitmap bitmap : bitmaps) {
+      long position = bitmap.nextPosition(from);
+      if (position >= 0 && position < next) {
+        next = position;
+      }
+    }
+    return next;
+  }
+
+  private int applyEqDeletes(Page page, SpillableEqDeleteIndex index, int count) {
+    keyEncoder.encode(page, positionsToKeep, count);
+    if (keyHashes.length < count) {
+      keyHashes = new long[count];
+    }
+    for (int i = 0; i < count; i++) {
+      keyHashes[i] = keyEncoder.hash(i);
+    }
+
+    Block transactionIds = page.getBlock(transactionIdChannel);
+    Block fileOffsets = page.getBlock(fileOffsetChannel);
+    int keep = 0;
+    for (int i = 0; i < count; i++) {
+      int position = positionsToKeep[i];
+      ChangedLsn deleteLsn = index.get(keyEncoder.keys(), keyEncoder.offset(i), keyEncoder.length(i), keyHashes[i]);
+      if (deleteLsn == null || !deletes(deleteLsn,
+          BIGINT.getLong(transactionIds, position), BIGINT.getLong(fileOffsets, position))) {
+        positionsToKeep[keep++] = position;
+      }
+    }
+    return keep;
+  }
+
+  private static boolean deletes(ChangedLsn deleteLsn, long transactionId, long fileOffset) {
+    if (deleteLsn.transactionId() != transactionId) {
+      return deleteLsn.transactionId() > transactionId;
+    }
+    return deleteLsn.fileOffset() > fileOffset;
+  }
+}
@@ -21,15 +21,16 @@ package com.netease.arctic.trino.keyed;
 import com.google.common.collect.ImmutableList;
 import com.google.inject.Inject;
 import com.netease.arctic.data.PrimaryKeyedFile;
-import com.netease.arctic.io.reader.ArcticDeleteFilter;
+import com.netease.arctic.io.reader.EqDeleteIndex;
+import com.netease.arctic.io.reader.PosDeleteIndexCache;
 import com.netease.arctic.scan.ArcticFileScanTask;
 import com.netease.arctic.scan.KeyedTableScanTask;
+import com.netease.arctic.trino.ArcticConfig;
 import com.netease.arctic.trino.unkeyed.IcebergPageSourceProvider;
 import io.trino.plugin.hive.HdfsEnvironment;
 import io.trino.plugin.iceberg.FileIoProvider;
 import io.trino.plugin.iceberg.IcebergColumnHandle;
 import io.trino.plugin.iceberg.IcebergUtil;
-import io.trino.plugin.iceberg.delete.TrinoRow;
 import io.trino.spi.connector.ColumnHandle;
 import io.trino.spi.connector.ConnectorPageSource;
 import io.trino.spi.connector.ConnectorPageSourceProvider;
@@ -42,7 +43,9 @@ import io.trino.spi.type.TypeManager;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.SchemaParser;
 
+import java.io.File;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -53,15 +56,20 @@ public class KeyedPageSourceProvider implements ConnectorPageSourceProvider {
   private final IcebergPageSourceProvider icebergPageSourceProvider;
   private final TypeManager typeManager;
   private final FileIoProvider fileIoProvider;
+  private final File spillDirectory;
 
   @Inject
   public KeyedPageSourceProvider(
       IcebergPageSourceProvider icebergPageSourceProvider,
       TypeManager typeManager,
-      FileIoProvider fileIoProvider) {
+      FileIoProvider fileIoProvider,
+      ArcticConfig arcticConfig) {
     this.icebergPageSourceProvider = icebergPageSourceProvider;
     this.typeManager = typeManager;
     this.fileIoProvider = fileIoProvider;
+    this.spillDirectory = arcticConfig.getEqDeleteSpillDirectory() == null ?
+        EqDeleteIndex.defaultSpillDirectory() : new File(arcticConfig.getEqDeleteSpillDirectory());
+    PosDeleteIndexCache.setMaxBytes(arcticConfig.getPosDeleteCacheMaxBytes());
   }
 
   @Override
@@ -80,12 +88,15 @@ public class KeyedPageSourceProvider implements ConnectorPageSourceProvider {
     List<PrimaryKeyedFile> equDeleteFiles = keyedTableScanTask.arcticEquityDeletes().stream()
         .map(ArcticFileScanTask::file).collect(Collectors.toList());
     Schema tableSchema = SchemaParser.fromJson(keyedTableHandle.getIcebergTableHandle().getTableSchemaJson());
+    Map<String, String> tableProperties = keyedTableHandle.getIcebergTableHandle().getStorageProperties();
     List<IcebergColumnHandle> deleteFilterRequiredSchema = IcebergUtil.getColumns(new KeyedDeleteFilter(
         keyedTableScanTask,
         tableSchema,
         ImmutableList.of(),
         keyedTableHandle.getPrimaryKeySpec(),
-        fileIoProvider.createFileIo(new HdfsEnvironment.HdfsContext(session), null)
+        fileIoProvider.createFileIo(new HdfsEnvironment.HdfsContext(session), null),
+        tableProperties,
+        spillDirectory
     ).requiredSchema(), typeManager);
     ImmutableList.Builder<IcebergColumnHandle> requiredColumnsBuilder = ImmutableList.builder();
     requiredColumnsBuilder.addAll(icebergColumnHandles);
@@ -93,12 +104,14 @@ public class KeyedPageSourceProvider implements ConnectorPageSourceProvider {
         .filter(column -> !columns.contains(column))
         .forEach(requiredColumnsBuilder::add);
     List<IcebergColumnHandle> requiredColumns = requiredColumnsBuilder.build();
-    ArcticDeleteFilter<TrinoRow> arcticDeleteFilter = new KeyedDeleteFilter(
+    KeyedDeleteFilter arcticDeleteFilter = new KeyedDeleteFilter(
         keyedTableScanTask,
         tableSchema,
         requiredColumns,
         keyedTableHandle.getPrimaryKeySpec(),
-        fileIoProvider.createFileIo(new HdfsEnvironment.HdfsContext(session), session.getQueryId())
+        fileIoProvider.createFileIo(new HdfsEnvironment.HdfsContext(session), session.getQueryId()),
+        tableProperties,
+        spillDirectory
     );
 
     return new KeyedConnectorPageSource(
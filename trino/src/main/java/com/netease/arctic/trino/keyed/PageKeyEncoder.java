@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.trino.keyed;
+
+import com.netease.arctic.io.reader.PrimaryKeyEncoder;
+import io.airlift.slice.Slice;
+import io.trino.spi.Page;
+import io.trino.spi.block.Block;
+import io.trino.spi.type.DecimalType;
+import io.trino.spi.type.Type;
+
+import java.util.Arrays;
+
+/**
+ * Encode primary keys of pages column by column into one buffer, in the same format as {@link PrimaryKeyEncoder}
+ * encodes iceberg values, so they can be probed against the binary equality delete index.
+ */
+class PageKeyEncoder {
+
+  private static final byte NULL = 0;
+  private static final byte NOT_NULL = 1;
+
+  private final int[] keyChannels;
+  private final Type[] keyTypes;
+  private final org.apache.iceberg.types.Type.TypeID[] keyTypeIds;
+
+  private byte[] keys = new byte[4096];
+  private int[] keyOffsets = new int[0];
+  private int[] keyLengths = new int[0];
+
+  /**
+   * @param keyChannels channels of primary key fields in pages, in the order of the primary key struct
+   * @param keyTypes    trino types of the channels
+   * @param keyTypeIds  iceberg types of the primary key fields, must be {@link #supported}
+   */
+  PageKeyEncoder(int[] keyChannels, Type[] keyTypes, org.apache.iceberg.types.Type.TypeID[] keyTypeIds) {
+    this.keyChannels = keyChannels;
+    this.keyTypes = keyTypes;
+    this.keyTypeIds = keyTypeIds;
+  }
+
+  static boolean supported(org.apache.iceberg.types.Type icebergType, Type type) {
+    switch (icebergType.typeId()) {
+      case BOOLEAN:
+      case INTEGER:
+      case LONG:
+      case DATE:
+      case FLOAT:
+      case DOUBLE:
+      case STRING:
+      case BINARY:
+        return true;
+      case DECIMAL:
+        return type instanceof DecimalType && ((DecimalType) type).isShort();
+      default:
+        return false;
+    }
+  }
+
+  byte[] keys() {
+    return keys;
+  }
+
+  int offset(int i) {
+    return keyOffsets[i];
+  }
+
+  int length(int i) {
+    return keyLengths[i];
+  }
+
+  long hash(int i) {
+    return PrimaryKeyEncoder.hash(keys, keyOffsets[i], keyLengths[i]);
+  }
+
+  /**
+   * Encode keys of the given positions of the page, key i is at {@code keys()[offset(i), offset(i) + length(i))}.
+   */
+  void encode(Page page, int[] positions, int count) {
+    if (keyOffsets.length < count) {
+      keyOffsets = new int[count];
+      keyLengths = new int[count];
+    }
+
+    // the first pass over columns sizes every key, so the keys can then be written column by column
+    Arrays.fill(keyLengths, 0, count, 0);
+    for (int c = 0; c < keyChannels.length; c++) {
+      Block block = page.getBlock(keyChannels[c]);
+      for (int i = 0; i < count; i++) {
+        keyLengths[i] += encodedLength(c, block, positions[i]);
+      }
+    }
+    int total = 0;
+    for (int i = 0; i < count; i++) {
+      keyOffsets[i] = total;
+      total += keyLengths[i];
+    }
+    if (keys.length < total) {
+      keys = new byte[Math.max(total, keys.length * 2)];
+    }
+
+    // keyLengths is reused as the write cursor of every key, and ends up at the key lengths again
+    Arrays.fill(keyLengths, 0, count, 0);
+    for (int c = 0; c < keyChannels.length; c++) {
+      Block block = page.getBlock(keyChannels[c]);
+      Type type = keyTypes[c];
+      for (int i = 0; i < count; i++) {
+        int position = positions[i];
+        int offset = keyOffsets[i] + keyLengths[i];
+        if (block.isNull(position)) {
+          keys[offset] = NULL;
+          keyLengths[i] += 1;
+          continue;
+        }
+        keys[offset++] = NOT_NULL;
+        keyLengths[i] += 1 + writeValue(c, type, block, position, offset);
+      }
+    }
+  }
+
+  private int encodedLength(int column, Block block, int position) {
+    if (block.isNull(position)) {
+      return 1;
+    }
+    switch (keyTypeIds[column]) {
+      case BOOLEAN:
+        return 2;
+      case INTEGER:
+      case DATE:
+      case FLOAT:
+        return 5;
+      case LONG:
+      case DOUBLE:
+        return 9;
+      case STRING:
+      case BINARY:
+        return 5 + block.getSliceLength(position);
+      case DECIMAL:
+        return 9 + unscaledLength(keyTypes[column].getLong(block, position));
+      default:
+        throw new IllegalStateException("Unsupported primary key type: " + keyTypeIds[column]);
+    }
+  }
+
+  private int writeValue(int column, Type type, Block block, int position, int offset) {
+    switch (keyTypeIds[column]) {
+      case BOOLEAN:
+        keys[offset] = type.getBoolean(block, position) ? (byte) 1 : (byte) 0;
+        return 1;
+      case INTEGER:
+      case DATE:
+        writeInt(offset, (int) type.getLong(block, position));
+        return 4;
+      case FLOAT:
+        // canonicalize NaN as the encoder of iceberg values does
+        writeInt(offset, Float.floatToIntBits(Float.intBitsToFloat((int) type.getLong(block, position))));
+        return 4;
+      case LONG:
+        writeLong(offset, type.getLong(block, position));
+        return 8;
+      case DOUBLE:
+        writeLong(offset, Double.doubleToLongBits(type.getDouble(block, position)));
+        return 8;
+      case STRING:
+      case BINARY:
+        Slice slice = type.getSlice(block, position);
+        writeInt(offset, slice.length());
+        slice.getBytes(0, keys, offset + 4, slice.length());
+        return 4 + slice.length();
+      case DECIMAL:
+        long unscaled = type.getLong(block, position);
+        int length = unscaledLength(unscaled);
+        writeInt(offset, ((DecimalType) type).getScale());
+        writeInt(offset + 4, length);
+        // the minimal two's complement bytes, the same as BigInteger#toByteArray
+        for (int i = 0; i < length; i++) {
+          keys[offset + 8 + i] = (byte) (unscaled >>> (8 * (length - 1 - i)));
+        }
+        return 8 + length;
+      default:
+        throw new IllegalStateException("Unsupported primary key type: " + keyTypeIds[column]);
+    }
+  }
+
+  private static int unscaledLength(long unscaled) {
+    return (64 - Long.numberOfLeadingZeros(unscaled < 0 ? ~unscaled : unscaled)) / 8 + 1;
+  }
+
+  private void writeInt(int offset, int v) {
+    keys[offset] = (byte) (v >>> 24);
+    keys[offset + 1] = (byte) (v >>> 16);
+    keys[offset + 2] = (byte) (v >>> 8);
+    keys[offset + 3] = (byte) v;
+  }
+
+  private void writeLong(int offset, long v) {
+    writeInt(offset, (int) (v >>> 32));
+    writeInt(offset + 4, (int) v);
+  }
+}
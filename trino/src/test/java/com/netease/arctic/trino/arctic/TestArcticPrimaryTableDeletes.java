@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.trino.arctic;
+
+import com.google.common.collect.ImmutableMap;
+import com.netease.arctic.data.ChangeAction;
+import com.netease.arctic.table.TableProperties;
+import io.trino.testing.QueryRunner;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.netease.arctic.ams.api.MockArcticMetastoreServer.TEST_CATALOG_NAME;
+
+/**
+ * Merge on read of a keyed table with enough equality deletes to spill the delete index of a small budget.
+ */
+public class TestArcticPrimaryTableDeletes extends TableTestBaseWithInitDataForTrino {
+
+  public static final String PK_TABLE_FULL_NAME = "arctic.test_db.test_pk_table";
+
+  @Override
+  protected QueryRunner createQueryRunner() throws Exception {
+    tmp.create();
+    setupTables();
+    initData();
+    testKeyedTable.updateProperties()
+        .set(TableProperties.READ_EQ_DELETE_INDEX_MEMORY_BYTES, "4096")
+        .commit();
+
+    // insert 100 until 3099, then delete the even ones
+    GenericRecord record = GenericRecord.create(TABLE_SCHEMA);
+    List<Record> inserts = new ArrayList<>();
+    List<Record> deletes = new ArrayList<>();
+    for (int id = 100; id < 3100; id++) {
+      Record insert = record.copy(ImmutableMap.of("id", id, "name", "name-" + id, "op_time",
+          LocalDateTime.of(2022, 1, 1 + id % 3, 12, 0, 0)));
+      inserts.add(insert);
+      if (id % 2 == 0) {
+        deletes.add(insert);
+      }
+    }
+    writeChange(PK_TABLE_ID, ChangeAction.INSERT, inserts);
+    writeChange(PK_TABLE_ID, ChangeAction.DELETE, deletes);
+
+    return ArcticQueryRunner.builder()
+        .setIcebergProperties(ImmutableMap.of("arctic.url",
+            String.format("thrift://localhost:%s/%s", AMS.port(), TEST_CATALOG_NAME)))
+        .build();
+  }
+
+  @Test
+  public void testCount() {
+    assertQuery("select count(*) from " + PK_TABLE_FULL_NAME, "VALUES 1504");
+    assertQuery("select sum(id) from " + PK_TABLE_FULL_NAME, "VALUES 2400012");
+  }
+
+  @Test
+  public void testFilter() {
+    assertQuery("select id from " + PK_TABLE_FULL_NAME + " where id < 110",
+        "VALUES 1, 2, 3, 6, 101, 103, 105, 107, 109");
+  }
+
+  @Test
+  public void testProjectWithoutPrimaryKey() {
+    assertQuery("select name from " + PK_TABLE_FULL_NAME + " where id in (4, 5, 3000, 3001)",
+        "VALUES 'name-3001'");
+  }
+
+  @AfterClass
+  public void clear() {
+    clearTable();
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.trino.keyed;
+
+import com.netease.arctic.io.reader.PrimaryKeyEncoder;
+import io.airlift.slice.Slices;
+import io.trino.spi.Page;
+import io.trino.spi.block.BlockBuilder;
+import io.trino.spi.type.DecimalType;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.BooleanType.BOOLEAN;
+import static io.trino.spi.type.DateType.DATE;
+import static io.trino.spi.type.DecimalType.createDecimalType;
+import static io.trino.spi.type.DoubleType.DOUBLE;
+import static io.trino.spi.type.IntegerType.INTEGER;
+import static io.trino.spi.type.RealType.REAL;
+import static io.trino.spi.type.TimestampType.TIMESTAMP_MICROS;
+import static io.trino.spi.type.VarbinaryType.VARBINARY;
+import static io.trino.spi.type.VarcharType.VARCHAR;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestPageKeyEncoder {
+
+  @Test
+  public void testSameAsPrimaryKeyEncoder() {
+    assertEncoding(Types.BooleanType.get(), BOOLEAN, true, false, null);
+    assertEncoding(Types.IntegerType.get(), INTEGER, 0, 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, null);
+    assertEncoding(Types.LongType.get(), BIGINT, 0L, -1L, Long.MAX_VALUE, Long.MIN_VALUE, null);
+    assertEncoding(Types.DateType.get(), DATE, 0, -1, (int) LocalDate.of(2022, 1, 1).toEpochDay(), null);
+    assertEncoding(Types.FloatType.get(), REAL,
+        0f, -0f, 1.5f, Float.MIN_VALUE, Float.NaN, Float.NEGATIVE_INFINITY, null);
+    assertEncoding(Types.DoubleType.get(), DOUBLE,
+        0d, -0d, 1.5d, Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY, null);
+    assertEncoding(Types.StringType.get(), VARCHAR, "", "a", "arctic", "\u4E2D\u6587", "\uD83D\uDE00", null);
+    assertEncoding(Types.BinaryType.get(), VARBINARY,
+        ByteBuffer.wrap(new byte[0]), ByteBuffer.wrap(new byte[] {1, -1, 0}), null);
+    // unscaled values around the boundaries of their minimal two's complement length
+    assertEncoding(Types.DecimalType.of(18, 2), createDecimalType(18, 2),
+        new BigDecimal("0.00"), new BigDecimal("1.27"), new BigDecimal("1.28"), new BigDecimal("-1.28"),
+        new BigDecimal("-1.29"), new BigDecimal("327.67"), new BigDecimal("-327.68"),
+        new BigDecimal("9999999999999999.99"), new BigDecimal("-9999999999999999.99"), null);
+  }
+
+  @Test
+  public void testCompositeKey() {
+    Types.StructType keyType = Types.StructType.of(
+        Types.NestedField.optional(1, "id", Types.IntegerType.get()),
+        Types.NestedField.optional(2, "name", Types.StringType.get()),
+        Types.NestedField.optional(3, "amount", Types.DecimalType.of(10, 2)));
+    DecimalType decimalType = createDecimalType(10, 2);
+    Object[][] rows = {
+        {1, "a", new BigDecimal("1.00")},
+        {2, null, new BigDecimal("-2.50")},
+        {null, "c", null},
+        {4, "\u4E2D", new BigDecimal("99999999.99")}};
+
+    // the key columns are not the first channels of the page
+    BlockBuilder other = BIGINT.createBlockBuilder(null, rows.length);
+    BlockBuilder ids = INTEGER.createBlockBuilder(null, rows.length);
+    BlockBuilder names = VARCHAR.createBlockBuilder(null, rows.length);
+    BlockBuilder amounts = decimalType.createBlockBuilder(null, rows.length);
+    for (Object[] row : rows) {
+      BIGINT.writeLong(other, 0);
+      writeValue(ids, INTEGER, row[0]);
+      writeValue(names, VARCHAR, row[1]);
+      writeValue(amounts, decimalType, row[2]);
+    }
+    Page page = new Page(other.build(), amounts.build(), ids.build(), names.build());
+
+    PageKeyEncoder encoder = new PageKeyEncoder(
+        new int[] {2, 3, 1},
+        new io.trino.spi.type.Type[] {INTEGER, VARCHAR, decimalType},
+        new Type.TypeID[] {Type.TypeID.INTEGER, Type.TypeID.STRING, Type.TypeID.DECIMAL});
+    // only some positions are encoded, as after applying position deletes
+    int[] positions = {1, 2, 3};
+    encoder.encode(page, positions, positions.length);
+
+    PrimaryKeyEncoder expectedEncoder = new PrimaryKeyEncoder(keyType);
+    GenericRecord key = GenericRecord.create(keyType);
+    for (int i = 0; i < positions.length; i++) {
+      Object[] row = rows[positions[i]];
+      for (int field = 0; field < row.length; field++) {
+        key.set(field, row[field]);
+      }
+      assertKey(encoder, i, expectedEncoder, key);
+    }
+  }
+
+  @Test
+  public void testSupportedTypes() {
+    assertTrue(PageKeyEncoder.supported(Types.DecimalType.of(18, 2), createDecimalType(18, 2)));
+    // long decimals are not read as longs from blocks
+    assertFalse(PageKeyEncoder.supported(Types.DecimalType.of(20, 2), createDecimalType(20, 2)));
+    assertFalse(PageKeyEncoder.supported(Types.TimestampType.withoutZone(), TIMESTAMP_MICROS));
+  }
+
+  private static void assertEncoding(Type icebergType, io.trino.spi.type.Type type, Object... values) {
+    assertTrue(PageKeyEncoder.supported(icebergType, type));
+    BlockBuilder builder = type.createBlockBuilder(null, values.length);
+    for (Object value : values) {
+      writeValue(builder, type, value);
+    }
+    PageKeyEncoder encoder = new PageKeyEncoder(
+        new int[] {0}, new io.trino.spi.type.Type[] {type}, new Type.TypeID[] {icebergType.typeId()});
+    int[] positions = new int[values.length];
+    Arrays.setAll(positions, i -> i);
+    encoder.encode(new Page(builder.build()), positions, values.length);
+
+    Types.StructType keyType = Types.StructType.of(Types.NestedField.optional(1, "key", icebergType));
+    PrimaryKeyEncoder expectedEncoder = new PrimaryKeyEncoder(keyType);
+    GenericRecord key = GenericRecord.create(keyType);
+    for (int i = 0; i < values.length; i++) {
+      key.set(0, values[i]);
+      assertKey(encoder, i, expectedEncoder, key);
+    }
+  }
+
+  private static void assertKey(PageKeyEncoder encoder, int i, PrimaryKeyEncoder expectedEncoder, GenericRecord key) {
+    int length = expectedEncoder.encode(key);
+    byte[] expected = Arrays.copyOf(expectedEncoder.buffer(), length);
+    byte[] actual = Arrays.copyOfRange(encoder.keys(), encoder.offset(i), encoder.offset(i) + encoder.length(i));
+    assertEquals(actual, expected, "Encoded key of " + key);
+    assertEquals(encoder.hash(i), PrimaryKeyEncoder.hash(expected, 0, length), "Hash of " + key);
+  }
+
+  private static void writeValue(BlockBuilder builder, io.trino.spi.type.Type type, Object value) {
+    if (value == null) {
+      builder.appendNull();
+    } else if (value instanceof Boolean) {
+      type.writeBoolean(builder, (Boolean) value);
+    } else if (value instanceof Integer || value instanceof Long) {
+      type.writeLong(builder, ((Number) value).longValue());
+    } else if (value instanceof Float) {
+      type.writeLong(builder, Float.floatToRawIntBits((Float) value));
+    } else if (value instanceof Double) {
+      type.writeDouble(builder, (Double) value);
+    } else if (value instanceof String) {
+      type.writeSlice(builder, Slices.utf8Slice((String) value));
+    } else if (value instanceof ByteBuffer) {
+      ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+      byte[] bytes = new byte[buffer.remaining()];
+      buffer.get(bytes);
+      type.writeSlice(builder, Slices.wrappedBuffer(bytes));
+    } else if (value instanceof BigDecimal) {
+      type.writeLong(builder, ((BigDecimal) value).unscaledValue().longValueExact());
+    } else {
+      throw new IllegalArgumentException("Unsupported value: " + value);
+    }
+  }
+}